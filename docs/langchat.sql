@@ -12,6 +12,7 @@ CREATE TABLE `aigc_app` (
                             `id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '主键',
                             `model_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '关联模型',
                             `knowledge_ids` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '关联知识库',
+                            `rerank` tinyint(1) DEFAULT 0 COMMENT '是否启用检索结果重排序',
                             `cover` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '封面',
                             `name` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '名称',
                             `prompt` text CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci COMMENT '提示词',
@@ -50,8 +51,14 @@ CREATE TABLE `aigc_conversation` (
                                      `user_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '用户ID',
                                      `prompt_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '提示词ID',
                                      `title` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '标题',
+                                     `message_count` int NOT NULL DEFAULT 0 COMMENT '消息数量',
+                                     `token_sum` bigint NOT NULL DEFAULT 0 COMMENT 'Token消耗量',
+                                     `last_message_time` datetime DEFAULT NULL COMMENT '最后一次对话时间',
+                                     `stats_backfilled` tinyint(1) NOT NULL DEFAULT 0 COMMENT '消息统计是否已从消息表回填',
                                      `create_time` datetime DEFAULT NULL COMMENT '创建时间',
-                                     PRIMARY KEY (`id`) USING BTREE
+                                     PRIMARY KEY (`id`) USING BTREE,
+                                     KEY `idx_create_time` (`create_time`) USING BTREE,
+                                     KEY `idx_user_id` (`user_id`, `create_time`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='对话窗口表';
 
 
@@ -70,8 +77,10 @@ CREATE TABLE `aigc_docs` (
                              `size` int DEFAULT NULL COMMENT '文件大小',
                              `slice_num` int DEFAULT NULL COMMENT '切片数量',
                              `slice_status` tinyint(1) DEFAULT NULL COMMENT '切片状态',
+                             `slice_error` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '向量化失败原因',
                              `create_time` datetime DEFAULT NULL COMMENT '创建时间',
-                             PRIMARY KEY (`id`) USING BTREE
+                             PRIMARY KEY (`id`) USING BTREE,
+                             KEY `idx_knowledge_id` (`knowledge_id`, `create_time`, `id`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='文档表';
 
 -- ----------------------------
@@ -95,10 +104,15 @@ CREATE TABLE `aigc_docs_slice` (
                                    `knowledge_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '知识库ID',
                                    `name` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '文档名称',
                                    `content` text CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci COMMENT '切片内容',
+                                   `content_hash` char(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '切片内容SHA-256',
+                                   `embed_model_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '向量模型ID',
+                                   `slice_index` int DEFAULT NULL COMMENT '切片在文档中的序号',
                                    `word_num` int DEFAULT NULL COMMENT '字符数',
                                    `status` tinyint(1) DEFAULT NULL COMMENT '状态',
                                    `create_time` datetime DEFAULT NULL COMMENT '创建时间',
-                                   PRIMARY KEY (`id`) USING BTREE
+                                   PRIMARY KEY (`id`) USING BTREE,
+                                   KEY `idx_docs_id` (`docs_id`, `create_time`, `id`) USING BTREE,
+                                   KEY `idx_knowledge_id` (`knowledge_id`, `create_time`, `id`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='文档切片表';
 
 -- ----------------------------
@@ -113,6 +127,10 @@ CREATE TABLE `aigc_knowledge` (
                                   `name` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '知识库名称',
                                   `des` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '描述',
                                   `cover` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '封面',
+                                  `priority` int DEFAULT 0 COMMENT '文档向量化任务优先级',
+                                  `splitter` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '文档切分策略',
+                                  `chunk_size` int DEFAULT NULL COMMENT '切片大小',
+                                  `chunk_overlap` int DEFAULT NULL COMMENT '切片重叠大小',
                                   `create_time` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '创建时间',
                                   PRIMARY KEY (`id`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='知识库表';
@@ -124,6 +142,20 @@ BEGIN;
 INSERT INTO `aigc_knowledge` (`id`, `user_id`, `embed_store_id`, `embed_model_id`, `name`, `des`, `cover`, `create_time`) VALUES ('393704ac13f67fde5da674ddd0742b03', NULL, '5d57795705faccdf0ea7095a63c5e463', '1f0525bcf8721689f6a81851e5a0068b', 'LangChat文档', 'LangChat官方文档', NULL, '1722766331165');
 COMMIT;
 
+-- ----------------------------
+-- Table structure for aigc_knowledge_stats
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_knowledge_stats`;
+CREATE TABLE `aigc_knowledge_stats` (
+                                  `knowledge_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '知识库ID',
+                                  `docs_num` int NOT NULL DEFAULT 0 COMMENT '文档数量',
+                                  `slice_num` int NOT NULL DEFAULT 0 COMMENT '切片数量',
+                                  `total_size` bigint NOT NULL DEFAULT 0 COMMENT '文档总大小',
+                                  `last_ingested_at` datetime DEFAULT NULL COMMENT '最后一次向量化时间',
+                                  `stats_backfilled` tinyint(1) NOT NULL DEFAULT 0 COMMENT '是否已从文档表回填',
+                                  PRIMARY KEY (`knowledge_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='知识库统计表';
+
 -- ----------------------------
 -- Table structure for aigc_message
 -- ----------------------------
@@ -132,6 +164,7 @@ CREATE TABLE `aigc_message` (
                                 `id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '主键',
                                 `user_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '用户ID',
                                 `conversation_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '会话ID',
+                                `app_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '应用ID',
                                 `chat_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '消息的ID',
                                 `username` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '用户名',
                                 `ip` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT 'IP地址',
@@ -140,11 +173,55 @@ CREATE TABLE `aigc_message` (
                                 `message` text CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci COMMENT '消息内容',
                                 `tokens` int DEFAULT NULL,
                                 `prompt_tokens` int DEFAULT NULL,
-                                `create_time` datetime DEFAULT NULL COMMENT '创建时间',
-                                PRIMARY KEY (`id`) USING BTREE,
-                                KEY `conversation_id` (`conversation_id`) USING BTREE,
+                                `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+                                PRIMARY KEY (`id`, `create_time`) USING BTREE,
+                                KEY `conversation_id` (`conversation_id`, `create_time`, `id`) USING BTREE,
+                                KEY `idx_create_time` (`create_time`) USING BTREE,
                                 KEY `role` (`role`) USING BTREE
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='对话消息表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='对话消息表'
+-- 按月分区，由服务启动后自动从 pmax 拆分出当月及后续月份的分区，过期月份归档到对象存储后删除分区
+PARTITION BY RANGE COLUMNS(`create_time`) (
+    PARTITION `pmax` VALUES LESS THAN (MAXVALUE)
+);
+
+-- ----------------------------
+-- Table structure for aigc_message_archive
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_message_archive`;
+CREATE TABLE `aigc_message_archive` (
+                                `id` varchar(50) NOT NULL COMMENT '主键',
+                                `month` varchar(7) NOT NULL COMMENT '归档月份，yyyy-MM',
+                                `platform` varchar(100) DEFAULT NULL COMMENT '存储平台',
+                                `base_path` varchar(255) DEFAULT NULL COMMENT '基础存储路径',
+                                `path` varchar(255) DEFAULT NULL COMMENT '存储路径',
+                                `filename` varchar(255) DEFAULT NULL COMMENT '文件名称',
+                                `url` varchar(500) DEFAULT NULL COMMENT '文件访问地址',
+                                `size` bigint DEFAULT NULL COMMENT '文件大小，单位字节',
+                                `message_count` int NOT NULL DEFAULT '0' COMMENT '归档消息数',
+                                `conversation_count` int NOT NULL DEFAULT '0' COMMENT '归档会话数',
+                                `compact_pending` tinyint(1) NOT NULL DEFAULT '0' COMMENT '有会话被删除，等待重写归档文件',
+                                `create_time` datetime DEFAULT NULL COMMENT '归档时间',
+                                PRIMARY KEY (`id`) USING BTREE,
+                                UNIQUE KEY `uk_month` (`month`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='对话消息归档表';
+
+-- ----------------------------
+-- Table structure for aigc_message_archive_segment
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_message_archive_segment`;
+CREATE TABLE `aigc_message_archive_segment` (
+                                `id` varchar(50) NOT NULL COMMENT '主键',
+                                `archive_id` varchar(50) NOT NULL COMMENT '归档ID',
+                                `conversation_id` varchar(50) NOT NULL COMMENT '会话ID',
+                                `byte_offset` bigint NOT NULL COMMENT '分段在归档文件中的起始位置',
+                                `byte_length` int NOT NULL COMMENT '分段压缩后的长度',
+                                `message_count` int NOT NULL DEFAULT '0' COMMENT '分段消息数',
+                                `min_time` datetime DEFAULT NULL COMMENT '最早消息时间',
+                                `max_time` datetime DEFAULT NULL COMMENT '最晚消息时间',
+                                PRIMARY KEY (`id`) USING BTREE,
+                                KEY `idx_conversation_id` (`conversation_id`, `min_time`) USING BTREE,
+                                KEY `idx_archive_id` (`archive_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='对话消息归档分段表，每个会话在每个归档文件中占一个独立的 gzip 分段';
 
 
 -- ----------------------------
@@ -198,7 +275,8 @@ CREATE TABLE `aigc_oss` (
                             `content_type` varchar(100) DEFAULT NULL COMMENT '文件头',
                             `platform` varchar(50) DEFAULT NULL COMMENT '平台',
                             `create_time` datetime DEFAULT NULL COMMENT '创建时间',
-                            PRIMARY KEY (`id`) USING BTREE
+                            PRIMARY KEY (`id`) USING BTREE,
+                            KEY `idx_url` (`url`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='资源文件表';
 
 -- ----------------------------
@@ -252,11 +330,12 @@ CREATE TABLE `sys_log` (
                            `url` varchar(255) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci DEFAULT NULL COMMENT '请求URL',
                            `time` bigint DEFAULT NULL COMMENT '耗时(毫秒)',
                            `method` varchar(100) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci DEFAULT NULL COMMENT '操作方法',
-                           `params` varchar(255) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci DEFAULT NULL COMMENT '操作参数',
+                           `params` text CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci COMMENT '操作参数',
                            `ip` varchar(20) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci DEFAULT NULL COMMENT 'IP地址',
                            `user_agent` varchar(255) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci DEFAULT NULL COMMENT '用户代理',
                            `create_time` datetime DEFAULT NULL COMMENT '操作时间',
-                           PRIMARY KEY (`id`) USING BTREE
+                           PRIMARY KEY (`id`) USING BTREE,
+                           KEY `idx_create_time` (`create_time`, `id`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb3 COMMENT='日志表';
 
 
@@ -294,6 +373,9 @@ INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `ord
 INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('35dcd70c8a4008b554b71bf02ab07b61', '删除聊天记录', 'bdd70f2c1ee068c13bd3288eff07c8e2', NULL, 'chat:messages:clean', 'button', 3, NULL, NULL, 0, 0, 0, NULL);
 INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('374409ab56141b311ccb0f1847dd724a', 'AIGC平台', '0', 'aigc', 'aigc', 'menu', 2, 'CubeOutline', 'Layout', 0, 0, 1, 1);
 INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('3d1700109ece0187ba5e76217cd71995', '删除对话数据', 'f1ad3c056ac91fa5292a99f223155afc', NULL, 'aigc:message:delete', 'button', 2, NULL, NULL, 0, 0, 0, NULL);
+INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('a92b0bf649b94555912c9c178535f2b7', '导出对话数据', 'f1ad3c056ac91fa5292a99f223155afc', NULL, 'aigc:message:export', 'button', 3, NULL, NULL, 0, 0, 0, NULL);
+INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('37f15c99ebea4e5dbcc6d7c6a02bfbfe', '导出会话数据', 'f1ad3c056ac91fa5292a99f223155afc', NULL, 'aigc:conversation:export', 'button', 4, NULL, NULL, 0, 0, 0, NULL);
+INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('341fe0ac6c594842836b762cdc5593aa', '导出切片数据', '97a5eac3bfeeabe4013d828b919786f7', NULL, 'aigc:docs:slice:export', 'button', 13, NULL, NULL, 0, 0, 0, NULL);
 INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('43563b039d30b990f87af37783115ff4', 'AI应用管理', 'a2ccfe694cd91cf159ad35626e4ea202', 'list', 'aigc:app', 'menu', 2, '', '/app/index', 0, 0, 1, 1);
 INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('4488cb5271b1220647d4a83cfbcb7b15', '文档向量化', '43563b039d30b990f87af37783115ff4', NULL, 'aigc:embedding:docs', 'button', 5, NULL, NULL, 0, 0, 0, NULL);
 INSERT INTO `sys_menu` (`id`, `name`, `parent_id`, `path`, `perms`, `type`, `order_no`, `icon`, `component`, `is_disabled`, `is_ext`, `is_keepalive`, `is_show`) VALUES ('510a89f01571d7eaa3b1393c8534ab6f', '删除应用', '43563b039d30b990f87af37783115ff4', NULL, 'aigc:app:delete', 'button', 3, NULL, NULL, 0, 0, 0, NULL);
@@ -457,7 +539,88 @@ CREATE TABLE `aigc_embed_store` (
                                     `database_name` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '数据库名称',
                                     `table_name` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '表名称',
                                     `dimension` int DEFAULT NULL COMMENT '向量维数',
+                                    `partitioned` tinyint(1) DEFAULT 0 COMMENT '是否按知识库分区存储',
+                                    `partition_migrating` tinyint(1) DEFAULT 0 COMMENT '是否正在进行分区迁移',
+                                    `index_type` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT 'HNSW' COMMENT 'PgVector向量索引类型',
                                     PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='Embedding向量数据库配置表';
 
+-- ----------------------------
+-- Table structure for aigc_embedding_cache
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_embedding_cache`;
+CREATE TABLE `aigc_embedding_cache` (
+                                        `id` char(64) NOT NULL COMMENT '主键，SHA-256(向量模型ID:供应商:模型:BaseUrl:维数:文本摘要)',
+                                        `embed_model_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '向量模型ID',
+                                        `dimension` int NOT NULL DEFAULT 0 COMMENT '向量维数',
+                                        `text_hash` char(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '文本SHA-256',
+                                        `vector` blob NOT NULL COMMENT '向量（float32 小端序）',
+                                        `create_time` datetime DEFAULT NULL COMMENT '创建时间',
+                                        PRIMARY KEY (`id`),
+                                        KEY `idx_embed_model_id` (`embed_model_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='Embedding向量缓存表';
+
+-- ----------------------------
+-- Table structure for aigc_ingest_job
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_ingest_job`;
+CREATE TABLE `aigc_ingest_job` (
+                                   `id` varchar(50) NOT NULL COMMENT '主键',
+                                   `knowledge_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '知识库ID',
+                                   `docs_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '文档ID',
+                                   `docs_name` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '文档名称',
+                                   `status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '状态',
+                                   `priority` int NOT NULL DEFAULT 0 COMMENT '优先级',
+                                   `attempts` int NOT NULL DEFAULT 0 COMMENT '已执行次数',
+                                   `max_attempts` int NOT NULL DEFAULT 3 COMMENT '最大执行次数',
+                                   `next_run_time` datetime DEFAULT NULL COMMENT '下次可执行时间',
+                                   `lease_owner` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '持有任务的实例',
+                                   `lease_expire_time` datetime DEFAULT NULL COMMENT '租约到期时间',
+                                   `parsed_pages` int DEFAULT 0 COMMENT '已解析页数',
+                                   `embedded_slices` int DEFAULT 0 COMMENT '已向量化切片数',
+                                   `cache_hits` int DEFAULT 0 COMMENT 'Embedding缓存命中切片数',
+                                   `cache_misses` int DEFAULT 0 COMMENT 'Embedding缓存未命中切片数',
+                                   `error_msg` varchar(1000) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci DEFAULT NULL COMMENT '失败原因',
+                                   `create_time` datetime DEFAULT NULL COMMENT '创建时间',
+                                   `start_time` datetime DEFAULT NULL COMMENT '开始执行时间',
+                                   `finish_time` datetime DEFAULT NULL COMMENT '结束时间',
+                                   `update_time` datetime DEFAULT NULL COMMENT '更新时间',
+                                   PRIMARY KEY (`id`),
+                                   KEY `idx_status_priority` (`status`, `priority`, `create_time`) USING BTREE,
+                                   KEY `idx_docs_id` (`docs_id`) USING BTREE,
+                                   KEY `idx_knowledge_id` (`knowledge_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='文档向量化任务表';
+
+-- ----------------------------
+-- Table structure for aigc_usage_daily
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_usage_daily`;
+CREATE TABLE `aigc_usage_daily` (
+                                    `stat_date` date NOT NULL COMMENT '统计日期',
+                                    `app_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '应用ID',
+                                    `model` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '模型名称',
+                                    `user_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '用户ID',
+                                    `req_count` bigint NOT NULL DEFAULT 0 COMMENT '请求次数',
+                                    `tokens` bigint NOT NULL DEFAULT 0 COMMENT 'Token数',
+                                    `prompt_tokens` bigint NOT NULL DEFAULT 0 COMMENT '输入Token数',
+                                    `update_time` datetime DEFAULT NULL COMMENT '更新时间',
+                                    PRIMARY KEY (`stat_date`, `app_id`, `model`, `user_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='每日用量汇总表';
+
+-- ----------------------------
+-- Table structure for aigc_usage_monthly
+-- ----------------------------
+DROP TABLE IF EXISTS `aigc_usage_monthly`;
+CREATE TABLE `aigc_usage_monthly` (
+                                      `stat_month` char(7) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '统计月份，yyyy-MM',
+                                      `app_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '应用ID',
+                                      `model` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '模型名称',
+                                      `user_id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '用户ID',
+                                      `req_count` bigint NOT NULL DEFAULT 0 COMMENT '请求次数',
+                                      `tokens` bigint NOT NULL DEFAULT 0 COMMENT 'Token数',
+                                      `prompt_tokens` bigint NOT NULL DEFAULT 0 COMMENT '输入Token数',
+                                      `update_time` datetime DEFAULT NULL COMMENT '更新时间',
+                                      PRIMARY KEY (`stat_month`, `app_id`, `model`, `user_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='每月用量汇总表';
+
 SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.component;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.tycoding.langchat.ai.biz.entity.*;
+import cn.tycoding.langchat.ai.biz.mapper.*;
+import cn.tycoding.langchat.common.core.cache.NearCache;
+import cn.tycoding.langchat.common.core.cache.NearCacheManager;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 应用、API 渠道、模型、知识库、向量库配置的本地缓存，数据表写入后各实例的缓存自动失效
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Component
+public class AigcCache {
+
+    public static final String APP = "aigc_app";
+    public static final String APP_API = "aigc_app_api";
+    public static final String MODEL = "aigc_model";
+    public static final String KNOWLEDGE = "aigc_knowledge";
+    public static final String EMBED_STORE = "aigc_embed_store";
+
+    private final NearCache<AigcApp> apps;
+    private final NearCache<AigcAppApi> appApis;
+    private final NearCache<AigcModel> models;
+    private final NearCache<AigcKnowledge> knowledges;
+    private final NearCache<AigcEmbedStore> embedStores;
+
+    public AigcCache(NearCacheManager manager,
+                     AigcAppMapper aigcAppMapper,
+                     AigcAppApiMapper aigcAppApiMapper,
+                     AigcModelMapper aigcModelMapper,
+                     AigcKnowledgeMapper aigcKnowledgeMapper,
+                     AigcEmbedStoreMapper aigcEmbedStoreMapper) {
+        apps = manager.create(APP, AigcAppMapper.class,
+                () -> aigcAppMapper.selectList(Wrappers.query()),
+                AigcApp::getId, i -> BeanUtil.copyProperties(i, AigcApp.class));
+        appApis = manager.create(APP_API, AigcAppApiMapper.class,
+                () -> aigcAppApiMapper.selectList(Wrappers.query()),
+                AigcAppApi::getApiKey, i -> BeanUtil.copyProperties(i, AigcAppApi.class));
+        models = manager.create(MODEL, AigcModelMapper.class,
+                () -> aigcModelMapper.selectList(Wrappers.query()),
+                AigcModel::getId, i -> BeanUtil.copyProperties(i, AigcModel.class));
+        knowledges = manager.create(KNOWLEDGE, AigcKnowledgeMapper.class,
+                () -> aigcKnowledgeMapper.selectList(Wrappers.<AigcKnowledge>lambdaQuery()
+                        .orderByDesc(AigcKnowledge::getCreateTime)),
+                AigcKnowledge::getId, i -> BeanUtil.copyProperties(i, AigcKnowledge.class));
+        embedStores = manager.create(EMBED_STORE, AigcEmbedStoreMapper.class,
+                () -> aigcEmbedStoreMapper.selectList(Wrappers.query()),
+                AigcEmbedStore::getId, i -> BeanUtil.copyProperties(i, AigcEmbedStore.class));
+    }
+
+    public AigcApp getApp(String id) {
+        return apps.get(id);
+    }
+
+    /**
+     * 按 API Key 查询渠道
+     */
+    public AigcAppApi getAppApi(String apiKey) {
+        return appApis.get(apiKey);
+    }
+
+    /**
+     * 注意：返回的模型包含完整的 API Key，返回给前端前需要脱敏
+     */
+    public AigcModel getModel(String id) {
+        return models.get(id);
+    }
+
+    public List<AigcModel> listModels() {
+        return models.list();
+    }
+
+    public AigcKnowledge getKnowledge(String id) {
+        return knowledges.get(id);
+    }
+
+    public boolean containsKnowledge(String id) {
+        return knowledges.contains(id);
+    }
+
+    /**
+     * 按创建时间倒序
+     */
+    public List<AigcKnowledge> listKnowledge() {
+        return knowledges.list();
+    }
+
+    public AigcEmbedStore getEmbedStore(String id) {
+        return embedStores.get(id);
+    }
+
+    public List<AigcEmbedStore> listEmbedStores() {
+        return embedStores.list();
+    }
+}
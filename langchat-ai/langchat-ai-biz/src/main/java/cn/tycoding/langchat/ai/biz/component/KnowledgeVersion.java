@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.component;
+
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 知识库版本号，知识库切片发生变更时自增，检索缓存以此判断缓存是否失效
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Component
+@RequiredArgsConstructor
+public class KnowledgeVersion {
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 获取知识库当前版本号，顺序与 knowledgeIds 一致
+     */
+    public List<String> get(Collection<String> knowledgeIds) {
+        List<String> keys = knowledgeIds.stream().map(id -> CacheConst.KNOWLEDGE_VERSION_PREFIX + id).toList();
+        List<String> versions = redisTemplate.opsForValue().multiGet(keys);
+        if (versions == null) {
+            return keys.stream().map(k -> "0").toList();
+        }
+        return versions.stream().map(v -> v == null ? "0" : v).toList();
+    }
+
+    /**
+     * 知识库版本号自增，存在事务时在事务提交后执行，避免提交前读取到旧数据的请求写入新版本的缓存
+     */
+    public void bump(String knowledgeId) {
+        if (knowledgeId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incr(knowledgeId);
+                }
+            });
+        } else {
+            incr(knowledgeId);
+        }
+    }
+
+    private void incr(String knowledgeId) {
+        redisTemplate.opsForValue().increment(CacheConst.KNOWLEDGE_VERSION_PREFIX + knowledgeId);
+    }
+}
@@ -51,6 +51,11 @@ public class AigcApp implements Serializable {
     @TableField(typeHandler = FastjsonTypeHandler.class, jdbcType = JdbcType.VARCHAR)
     private List<String> knowledgeIds;
 
+    /**
+     * 是否启用知识库检索结果重排序
+     */
+    private Boolean rerank;
+
     /**
      * 名称
      */
@@ -68,19 +68,24 @@ public class AigcConversation implements Serializable {
     private String username;
 
     /**
-     * 对话次数
+     * 消息数量，写入消息时累加
      */
-    @TableField(exist = false)
+    @TableField("message_count")
     private Integer chatTotal;
     /**
-     * Token消耗量
+     * Token消耗量，写入消息时累加
      */
-    @TableField(exist = false)
-    private Integer tokenUsed;
+    @TableField("token_sum")
+    private Long tokenUsed;
     /**
      * 最后一次对话时间
      */
-    @TableField(exist = false)
+    @TableField("last_message_time")
     private Date endTime;
+
+    /**
+     * 消息统计是否已从消息表回填，新建的会话从写入第一条消息起累加，无需回填
+     */
+    private Boolean statsBackfilled;
 }
 
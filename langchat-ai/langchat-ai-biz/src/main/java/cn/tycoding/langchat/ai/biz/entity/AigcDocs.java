@@ -75,6 +75,11 @@ public class AigcDocs implements Serializable {
      */
     private Boolean sliceStatus;
 
+    /**
+     * 最近一次向量化失败的原因，向量化成功后清空
+     */
+    private String sliceError;
+
     /**
      * 文档内容
      */
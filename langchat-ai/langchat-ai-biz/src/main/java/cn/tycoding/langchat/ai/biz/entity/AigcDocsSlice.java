@@ -64,6 +64,21 @@ public class AigcDocsSlice implements Serializable {
      */
     private String content;
 
+    /**
+     * 切片内容的 SHA-256，重新向量化时用于识别未变化的切片
+     */
+    private String contentHash;
+
+    /**
+     * 生成向量时使用的 Embedding 模型ID
+     */
+    private String embedModelId;
+
+    /**
+     * 切片在文档中的序号，与向量元数据中的 index 一致
+     */
+    private Integer sliceIndex;
+
     /**
      * 字符数量
      */
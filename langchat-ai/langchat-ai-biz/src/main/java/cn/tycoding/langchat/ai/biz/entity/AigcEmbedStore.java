@@ -47,4 +47,20 @@ public class AigcEmbedStore implements Serializable {
     private String databaseName;
     private String tableName;
     private Integer dimension;
+
+    /**
+     * 是否按知识库分区存储：Milvus 每个知识库使用独立的 Collection，PgVector 每个知识库使用独立的部分索引。
+     * 由分区迁移任务在存量数据迁移完成后开启
+     */
+    private Boolean partitioned;
+
+    /**
+     * 分区迁移是否正在进行，迁移期间写入和删除同时作用于共享存储和知识库分区，检索仍使用共享存储
+     */
+    private Boolean partitionMigrating;
+
+    /**
+     * PgVector 向量索引类型：HNSW、IVFFLAT，默认 HNSW
+     */
+    private String indexType;
 }
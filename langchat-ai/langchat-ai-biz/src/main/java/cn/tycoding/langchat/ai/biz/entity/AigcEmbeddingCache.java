@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Embedding 向量缓存，按（向量模型、维数、文本摘要）全局共享
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+public class AigcEmbeddingCache implements Serializable {
+    private static final long serialVersionUID = -4518236032557417196L;
+
+    /**
+     * 主键，由向量模型ID、维数和文本摘要计算得到
+     */
+    @TableId(type = IdType.INPUT)
+    private String id;
+
+    /**
+     * 向量模型ID
+     */
+    private String embedModelId;
+
+    /**
+     * 向量维数，模型未配置维数时为 0
+     */
+    private Integer dimension;
+
+    /**
+     * 文本的 SHA-256
+     */
+    private String textHash;
+
+    /**
+     * 向量，float32 小端序
+     */
+    private byte[] vector;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 文档向量化任务
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+public class AigcIngestJob implements Serializable {
+    private static final long serialVersionUID = 2716489531279034687L;
+
+    /**
+     * 主键
+     */
+    @TableId(type = IdType.ASSIGN_UUID)
+    private String id;
+
+    /**
+     * 知识库ID
+     */
+    private String knowledgeId;
+
+    /**
+     * 文档ID
+     */
+    private String docsId;
+
+    /**
+     * 文档名称
+     */
+    private String docsName;
+
+    /**
+     * 任务状态，见 IngestJobStatusEnum
+     */
+    private String status;
+
+    /**
+     * 优先级，取自知识库配置，值越大越先执行
+     */
+    private Integer priority;
+
+    /**
+     * 已执行次数
+     */
+    private Integer attempts;
+
+    /**
+     * 最大执行次数
+     */
+    private Integer maxAttempts;
+
+    /**
+     * 下次可执行时间，失败重试时按退避时间推迟
+     */
+    private Date nextRunTime;
+
+    /**
+     * 持有任务的实例
+     */
+    private String leaseOwner;
+
+    /**
+     * 租约到期时间，执行中的实例定期续约，实例宕机后租约过期，任务由其他实例接管
+     */
+    private Date leaseExpireTime;
+
+    /**
+     * 已解析的页数（PDF、PPT 等分页文档）
+     */
+    private Integer parsedPages;
+
+    /**
+     * 已向量化的切片数量
+     */
+    private Integer embeddedSlices;
+
+    /**
+     * Embedding 缓存命中的切片数量
+     */
+    private Integer cacheHits;
+
+    /**
+     * Embedding 缓存未命中、请求模型的切片数量
+     */
+    private Integer cacheMisses;
+
+    /**
+     * 最近一次失败原因
+     */
+    private String errorMsg;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 开始执行时间
+     */
+    private Date startTime;
+
+    /**
+     * 结束时间
+     */
+    private Date finishTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+}
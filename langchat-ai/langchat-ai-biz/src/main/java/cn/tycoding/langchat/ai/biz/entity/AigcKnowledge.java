@@ -24,6 +24,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -59,15 +60,43 @@ public class AigcKnowledge implements Serializable {
      */
     private String des;
 
+    /**
+     * 文档向量化任务的优先级，值越大越先执行
+     */
+    private Integer priority;
+
+    /**
+     * 文档切分策略（RECURSIVE、TOKEN、SENTENCE、MARKDOWN、FIXED），为空时使用 RECURSIVE
+     */
+    private String splitter;
+
+    /**
+     * 切片大小（TOKEN 策略为 Token 数，其他策略为字符数），为空时使用策略的默认值
+     */
+    private Integer chunkSize;
+
+    /**
+     * 相邻切片的重叠大小，为空时使用策略的默认值
+     */
+    private Integer chunkOverlap;
+
     /**
      * 创建时间
      */
     private String createTime;
 
+    /**
+     * 文档数量、切片数量、文档总大小和最后一次向量化时间，保存在 aigc_knowledge_stats 中，查询时填充
+     */
+    @TableField(exist = false)
+    private Integer docsNum;
     @TableField(exist = false)
-    private Integer docsNum = 0;
+    private Integer sliceNum;
     @TableField(exist = false)
-    private Long totalSize = 0L;
+    private Long totalSize;
+    @TableField(exist = false)
+    private Date lastIngestedAt;
+
     @TableField(exist = false)
     private List<AigcDocs> docs = new ArrayList<>();
 
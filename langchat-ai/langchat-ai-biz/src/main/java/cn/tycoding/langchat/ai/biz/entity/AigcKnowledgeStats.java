@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 知识库统计
+ * <p>
+ * 文档和切片的每次写入都会累加统计数据，单独建表避免频繁写入使知识库的本地缓存失效
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+public class AigcKnowledgeStats implements Serializable {
+    private static final long serialVersionUID = 3318497245113262734L;
+
+    /**
+     * 知识库ID
+     */
+    @TableId(type = IdType.INPUT)
+    private String knowledgeId;
+
+    /**
+     * 文档数量
+     */
+    private Integer docsNum;
+
+    /**
+     * 切片数量
+     */
+    private Integer sliceNum;
+
+    /**
+     * 文档总大小
+     */
+    private Long totalSize;
+
+    /**
+     * 最后一次向量化时间
+     */
+    private Date lastIngestedAt;
+
+    /**
+     * 是否已从文档表回填
+     */
+    private Boolean statsBackfilled;
+}
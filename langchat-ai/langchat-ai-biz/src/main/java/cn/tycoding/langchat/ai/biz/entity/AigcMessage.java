@@ -52,6 +52,11 @@ public class AigcMessage implements Serializable {
      */
     private String conversationId;
 
+    /**
+     * 应用ID
+     */
+    private String appId;
+
     /**
      * 用户ID
      */
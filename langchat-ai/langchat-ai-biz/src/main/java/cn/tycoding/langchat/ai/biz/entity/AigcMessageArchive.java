@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 对话消息月度归档，一个月份对应对象存储上的一个 JSONL（gzip）文件
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+public class AigcMessageArchive implements Serializable {
+    private static final long serialVersionUID = 4127764370861582913L;
+
+    /**
+     * 主键
+     */
+    @TableId(type = IdType.ASSIGN_UUID)
+    private String id;
+
+    /**
+     * 归档月份，yyyy-MM
+     */
+    private String month;
+
+    /**
+     * 存储平台，该月没有消息时为空
+     */
+    private String platform;
+
+    /**
+     * 基础存储路径
+     */
+    private String basePath;
+
+    /**
+     * 存储路径
+     */
+    private String path;
+
+    /**
+     * 文件名称
+     */
+    private String filename;
+
+    /**
+     * 文件访问地址
+     */
+    private String url;
+
+    /**
+     * 文件大小，单位字节
+     */
+    private Long size;
+
+    /**
+     * 归档消息数
+     */
+    private Integer messageCount;
+
+    /**
+     * 归档会话数
+     */
+    private Integer conversationCount;
+
+    /**
+     * 有会话被删除，等待重写归档文件移除这些会话的分段
+     */
+    private Boolean compactPending;
+
+    /**
+     * 归档时间
+     */
+    private Date createTime;
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 对话消息归档分段
+ * <p>
+ * 归档文件由多个独立的 gzip 分段拼接而成，每个会话在每个月份中占一个分段，
+ * 读取会话历史时只需按偏移量读取并解压对应分段
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+public class AigcMessageArchiveSegment implements Serializable {
+    private static final long serialVersionUID = -6029342846612703519L;
+
+    /**
+     * 主键
+     */
+    @TableId(type = IdType.ASSIGN_UUID)
+    private String id;
+
+    /**
+     * 归档ID
+     */
+    private String archiveId;
+
+    /**
+     * 会话ID
+     */
+    private String conversationId;
+
+    /**
+     * 分段在归档文件中的起始位置
+     */
+    private Long byteOffset;
+
+    /**
+     * 分段压缩后的长度
+     */
+    private Integer byteLength;
+
+    /**
+     * 分段消息数
+     */
+    private Integer messageCount;
+
+    /**
+     * 最早消息时间
+     */
+    private Date minTime;
+
+    /**
+     * 最晚消息时间
+     */
+    private Date maxTime;
+}
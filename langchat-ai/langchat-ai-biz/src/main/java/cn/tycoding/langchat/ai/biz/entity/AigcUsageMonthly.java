@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 每月用量汇总，按（月份、应用、模型、用户）累计，消息写入时增量更新
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+@TableName("aigc_usage_monthly")
+public class AigcUsageMonthly implements Serializable {
+    private static final long serialVersionUID = -3321718476529130578L;
+
+    /**
+     * 统计月份，yyyy-MM
+     */
+    private String statMonth;
+
+    /**
+     * 应用ID，未关联应用时为空字符串
+     */
+    private String appId;
+
+    /**
+     * 模型名称
+     */
+    private String model;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 请求次数（assistant 消息数）
+     */
+    private Long reqCount;
+
+    /**
+     * 消耗的 Token 数
+     */
+    private Long tokens;
+
+    /**
+     * 输入的 Token 数
+     */
+    private Long promptTokens;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+}
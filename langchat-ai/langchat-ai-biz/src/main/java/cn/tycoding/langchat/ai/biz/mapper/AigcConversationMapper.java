@@ -17,8 +17,15 @@
 package cn.tycoding.langchat.ai.biz.mapper;
 
 import cn.tycoding.langchat.ai.biz.entity.AigcConversation;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import org.apache.ibatis.annotations.Mapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Date;
+import java.util.List;
 
 /**
  * @author tycoding
@@ -27,5 +34,64 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface AigcConversationMapper extends BaseMapper<AigcConversation> {
 
-}
+    /**
+     * 写入消息后累加会话的消息数和 Token 数
+     */
+    @Update("""
+        UPDATE aigc_conversation
+        SET message_count = message_count + 1,
+            token_sum = token_sum + #{tokens},
+            last_message_time = GREATEST(COALESCE(last_message_time, #{time}), #{time})
+        WHERE id = #{id}
+    """)
+    int incrementMessage(@Param("id") String id, @Param("tokens") long tokens, @Param("time") Date time);
+
+    @Update("UPDATE aigc_conversation SET message_count = 0, token_sum = 0, last_message_time = NULL, stats_backfilled = 1 WHERE id = #{id}")
+    int resetMessage(@Param("id") String id);
+
+    /**
+     * 尚未从消息表回填统计的会话（升级前创建的会话，以及上次启动后新建的会话）
+     */
+    @Select("SELECT id FROM aigc_conversation WHERE stats_backfilled = 0 LIMIT #{limit}")
+    List<String> listUnfilled(@Param("limit") int limit);
 
+    /**
+     * 锁定尚未回填的会话。写入消息时 incrementMessage 也会锁定该行，锁定后读取的消息统计包含所有已提交的消息，
+     * 之后提交的消息由 incrementMessage 在回填结果上累加，两者不会重复或遗漏
+     */
+    @Select("SELECT id FROM aigc_conversation WHERE id = #{id} AND stats_backfilled = 0 FOR UPDATE")
+    String lockUnfilled(@Param("id") String id);
+
+    /**
+     * 从消息表统计会话的消息数、Token 数和最后一次对话时间，只按 conversation_id 索引查询
+     */
+    @Select("""
+        SELECT COUNT(*) AS chat_total, COALESCE(SUM(tokens), 0) AS token_used, MAX(create_time) AS end_time
+        FROM aigc_message
+        WHERE conversation_id = #{id}
+    """)
+    AigcConversation countMessage(@Param("id") String id);
+
+    @Update("""
+        UPDATE aigc_conversation
+        SET message_count = #{data.chatTotal}, token_sum = #{data.tokenUsed}, last_message_time = #{data.endTime},
+            stats_backfilled = 1
+        WHERE id = #{id}
+    """)
+    int backfill(@Param("id") String id, @Param("data") AigcConversation data);
+
+    /**
+     * 按条件流式读取会话，用于数据导出
+     */
+    @Select("""
+        SELECT
+            id, user_id, prompt_id, title, create_time,
+            message_count AS chat_total, token_sum AS token_used, last_message_time AS end_time
+        FROM
+            aigc_conversation
+        ${ew.customSqlSegment}
+    """)
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(AigcConversation.class)
+    void stream(@Param(Constants.WRAPPER) Wrapper<AigcConversation> wrapper, ResultHandler<AigcConversation> handler);
+}
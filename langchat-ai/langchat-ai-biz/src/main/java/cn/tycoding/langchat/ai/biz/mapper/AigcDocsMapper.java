@@ -18,7 +18,13 @@ package cn.tycoding.langchat.ai.biz.mapper;
 
 import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * @author tycoding
@@ -27,5 +33,27 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface AigcDocsMapper extends BaseMapper<AigcDocs> {
 
+    /**
+     * 多行 INSERT 批量写入，主键需提前生成
+     */
+    @Insert("""
+        <script>
+        INSERT INTO aigc_docs (id, knowledge_id, name, type, url, origin, content, size, slice_num, slice_status, create_time)
+        VALUES
+        <foreach collection="list" item="i" separator=",">
+            (#{i.id}, #{i.knowledgeId}, #{i.name}, #{i.type}, #{i.url}, #{i.origin}, #{i.content}, #{i.size}, #{i.sliceNum}, #{i.sliceStatus}, #{i.createTime})
+        </foreach>
+        </script>
+    """)
+    int insertBatch(@Param("list") List<AigcDocs> list);
+
+    /**
+     * 读取文档并加行锁，按新旧值的差值更新知识库统计时使用，避免并发更新读到相同的旧值重复累加
+     */
+    @Select("SELECT * FROM aigc_docs WHERE id = #{id} FOR UPDATE")
+    AigcDocs lockById(@Param("id") String id);
+
+    @Update("UPDATE aigc_docs SET slice_num = GREATEST(COALESCE(slice_num, 0) + #{slices}, 0) WHERE id = #{id}")
+    int incrementSlices(@Param("id") String id, @Param("slices") int slices);
 }
 
@@ -17,8 +17,14 @@
 package cn.tycoding.langchat.ai.biz.mapper;
 
 import cn.tycoding.langchat.ai.biz.entity.AigcDocsSlice;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import org.apache.ibatis.annotations.Mapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 /**
  * @author tycoding
@@ -27,5 +33,31 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface AigcDocsSliceMapper extends BaseMapper<AigcDocsSlice> {
 
-}
+    /**
+     * 多行 INSERT 批量写入，主键需提前生成
+     */
+    @Insert("""
+        <script>
+        INSERT INTO aigc_docs_slice (id, vector_id, docs_id, knowledge_id, name, content, content_hash, embed_model_id, slice_index, word_num, status, create_time)
+        VALUES
+        <foreach collection="list" item="i" separator=",">
+            (#{i.id}, #{i.vectorId}, #{i.docsId}, #{i.knowledgeId}, #{i.name}, #{i.content}, #{i.contentHash}, #{i.embedModelId}, #{i.sliceIndex}, #{i.wordNum}, #{i.status}, #{i.createTime})
+        </foreach>
+        </script>
+    """)
+    int insertBatch(@Param("list") List<AigcDocsSlice> list);
 
+    /**
+     * 分批删除知识库的切片，每次删除一批后提交，避免大知识库在一个事务中删除全部切片
+     */
+    @Delete("DELETE FROM aigc_docs_slice WHERE knowledge_id = #{knowledgeId} LIMIT #{limit}")
+    int deleteOfKnowledge(@Param("knowledgeId") String knowledgeId, @Param("limit") int limit);
+
+    /**
+     * 按条件流式读取切片，用于数据导出
+     */
+    @Select("SELECT * FROM aigc_docs_slice ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(AigcDocsSlice.class)
+    void stream(@Param(Constants.WRAPPER) Wrapper<AigcDocsSlice> wrapper, ResultHandler<AigcDocsSlice> handler);
+}
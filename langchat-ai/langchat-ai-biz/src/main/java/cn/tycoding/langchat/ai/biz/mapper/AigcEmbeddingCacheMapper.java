@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.mapper;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcEmbeddingCache;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Mapper
+public interface AigcEmbeddingCacheMapper extends BaseMapper<AigcEmbeddingCache> {
+
+    /**
+     * 批量写入，已存在的缓存忽略
+     */
+    @Insert("""
+        <script>
+        INSERT IGNORE INTO aigc_embedding_cache (id, embed_model_id, dimension, text_hash, vector, create_time)
+        VALUES
+        <foreach collection="list" item="i" separator=",">
+            (#{i.id}, #{i.embedModelId}, #{i.dimension}, #{i.textHash}, #{i.vector}, #{i.createTime})
+        </foreach>
+        </script>
+    """)
+    int insertIgnoreBatch(@Param("list") List<AigcEmbeddingCache> list);
+}
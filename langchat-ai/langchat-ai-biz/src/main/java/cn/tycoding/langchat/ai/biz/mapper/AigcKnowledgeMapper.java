@@ -28,4 +28,3 @@ import org.apache.ibatis.annotations.Mapper;
 public interface AigcKnowledgeMapper extends BaseMapper<AigcKnowledge> {
 
 }
-
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.mapper;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcKnowledgeStats;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Mapper
+public interface AigcKnowledgeStatsMapper extends BaseMapper<AigcKnowledgeStats> {
+
+    /**
+     * 按增量累加知识库的统计数据，time 不为空时同时更新最后一次向量化时间；
+     * 统计行不存在时（升级前创建的知识库）按增量创建，由启动回填改为从文档表统计的结果
+     */
+    @Insert("""
+        <script>
+        INSERT INTO aigc_knowledge_stats (knowledge_id, docs_num, total_size, slice_num, last_ingested_at)
+        VALUES (#{id}, GREATEST(#{docs}, 0), GREATEST(#{size}, 0), GREATEST(#{slices}, 0), #{time})
+        ON DUPLICATE KEY UPDATE
+            docs_num = GREATEST(docs_num + #{docs}, 0),
+            total_size = GREATEST(total_size + #{size}, 0),
+            slice_num = GREATEST(slice_num + #{slices}, 0)
+            <if test="time != null">
+            , last_ingested_at = GREATEST(COALESCE(last_ingested_at, #{time}), #{time})
+            </if>
+        </script>
+    """)
+    int incrementStats(@Param("id") String id, @Param("docs") int docs, @Param("size") long size,
+                       @Param("slices") int slices, @Param("time") Date time);
+
+    /**
+     * 尚未从文档表回填统计的知识库（升级前创建的知识库）
+     */
+    @Select("""
+        SELECT k.id FROM aigc_knowledge k
+        LEFT JOIN aigc_knowledge_stats s ON s.knowledge_id = k.id
+        WHERE s.knowledge_id IS NULL OR s.stats_backfilled = 0
+        LIMIT #{limit}
+    """)
+    List<String> listUnfilled(@Param("limit") int limit);
+
+    /**
+     * 为知识库创建统计行，已存在或知识库已删除时跳过
+     */
+    @Insert("INSERT IGNORE INTO aigc_knowledge_stats (knowledge_id) SELECT id FROM aigc_knowledge WHERE id = #{id}")
+    int ensure(@Param("id") String id);
+
+    /**
+     * 锁定尚未回填的统计行。写入文档或切片时 incrementStats 也会锁定该行，锁定后读取的文档统计包含所有已提交的写入，
+     * 之后提交的写入由 incrementStats 在回填结果上累加，两者不会重复或遗漏
+     */
+    @Select("SELECT knowledge_id FROM aigc_knowledge_stats WHERE knowledge_id = #{id} AND stats_backfilled = 0 FOR UPDATE")
+    String lockUnfilled(@Param("id") String id);
+
+    /**
+     * 从文档表统计知识库的文档数、文档总大小、切片数和最后一次向量化时间，只按 knowledge_id 索引查询
+     */
+    @Select("""
+        SELECT COUNT(*) AS docs_num, COALESCE(SUM(size), 0) AS total_size, COALESCE(SUM(slice_num), 0) AS slice_num,
+            MAX(CASE WHEN slice_status = 1 THEN create_time END) AS last_ingested_at
+        FROM aigc_docs
+        WHERE knowledge_id = #{id}
+    """)
+    AigcKnowledgeStats countDocs(@Param("id") String id);
+
+    @Update("""
+        UPDATE aigc_knowledge_stats
+        SET docs_num = #{data.docsNum}, total_size = #{data.totalSize}, slice_num = #{data.sliceNum},
+            last_ingested_at = #{data.lastIngestedAt}, stats_backfilled = 1
+        WHERE knowledge_id = #{id}
+    """)
+    int backfill(@Param("id") String id, @Param("data") AigcKnowledgeStats data);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.mapper;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcMessageArchiveSegment;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Mapper
+public interface AigcMessageArchiveSegmentMapper extends BaseMapper<AigcMessageArchiveSegment> {
+
+    /**
+     * 多行 INSERT 批量写入，主键需提前生成
+     */
+    @Insert("""
+        <script>
+        INSERT INTO aigc_message_archive_segment (id, archive_id, conversation_id, byte_offset, byte_length, message_count, min_time, max_time)
+        VALUES
+        <foreach collection="list" item="i" separator=",">
+            (#{i.id}, #{i.archiveId}, #{i.conversationId}, #{i.byteOffset}, #{i.byteLength}, #{i.messageCount}, #{i.minTime}, #{i.maxTime})
+        </foreach>
+        </script>
+    """)
+    int insertBatch(@Param("list") List<AigcMessageArchiveSegment> list);
+}
@@ -16,12 +16,15 @@
 
 package cn.tycoding.langchat.ai.biz.mapper;
 
-import cn.hutool.core.lang.Dict;
 import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import org.apache.ibatis.annotations.Mapper;
-import org.apache.ibatis.annotations.Select;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -31,106 +34,66 @@ import java.util.List;
 @Mapper
 public interface AigcMessageMapper extends BaseMapper<AigcMessage> {
 
-    @Select("""
-        WITH RECURSIVE DateRange AS (
-            SELECT CURDATE() AS date
-            UNION ALL
-            SELECT date - INTERVAL 1 DAY
-            FROM DateRange
-            WHERE date > DATE_SUB(CURDATE(), INTERVAL 31 DAY)
-        )
-        SELECT
-            d.date,
-            COALESCE(COUNT(*), 0) AS tokens
-        FROM
-            DateRange d
-        LEFT JOIN
-            aigc_message m
-        ON
-            DATE(m.create_time) = d.date
-            AND m.role = 'assistant'
-        GROUP BY
-            d.date
-        ORDER BY
-            d.date DESC;
-    """)
-    List<Dict> getReqChartBy30();
-
+    /**
+     * 当前表的分区名称，未分区时返回空集合
+     */
     @Select("""
         SELECT
-            COALESCE(DATE_FORMAT(create_time, '%Y-%m'), 0) as month,
-            COALESCE(COUNT(*), 0) as count
+            PARTITION_NAME
         FROM
-            aigc_message
+            information_schema.PARTITIONS
         WHERE
-            create_time >= DATE_SUB(CURDATE(), INTERVAL 1 YEAR)
-            AND role = 'assistant'
-        GROUP BY
-            month
+            TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'aigc_message' AND PARTITION_NAME IS NOT NULL
         ORDER BY
-            month ASC;
+            PARTITION_ORDINAL_POSITION
     """)
-    List<Dict> getReqChart();
+    List<String> partitions();
 
-    @Select("""
-        WITH RECURSIVE DateRange AS (
-            SELECT CURDATE() AS date
-            UNION ALL
-            SELECT date - INTERVAL 1 DAY
-            FROM DateRange
-            WHERE date > DATE_SUB(CURDATE(), INTERVAL 31 DAY)
+    /**
+     * 从 pmax 分区中拆分出一个新的月份分区，分区名和边界由程序生成
+     */
+    @Update("""
+        ALTER TABLE aigc_message REORGANIZE PARTITION pmax INTO (
+            PARTITION ${name} VALUES LESS THAN ('${end}'),
+            PARTITION pmax VALUES LESS THAN (MAXVALUE)
         )
-        SELECT
-            d.date,
-            COALESCE(SUM(m.tokens), 0) AS tokens
-        FROM
-            DateRange d
-        LEFT JOIN
-            aigc_message m
-        ON
-            DATE(m.create_time) = d.date
-            AND m.role = 'assistant'
-        GROUP BY
-            d.date
-        ORDER BY
-            d.date DESC;
     """)
-    List<Dict> getTokenChartBy30();
+    void addPartition(@Param("name") String name, @Param("end") String end);
+
+    @Update("ALTER TABLE aigc_message DROP PARTITION ${name}")
+    void dropPartition(@Param("name") String name);
 
+    @Select("SELECT MIN(create_time) FROM aigc_message")
+    Date getMinTime();
+
+    /**
+     * 流式读取时间范围内的消息，按会话分组顺序返回，用于归档
+     */
     @Select("""
         SELECT
-            COALESCE(DATE_FORMAT(create_time, '%Y-%m'), 0) as month,
-            COALESCE(SUM(tokens), 0) as count
+            *
         FROM
             aigc_message
         WHERE
-            create_time >= DATE_SUB(CURDATE(), INTERVAL 1 YEAR)
-            AND role = 'assistant'
-        GROUP BY
-            month
+            create_time >= #{start} AND create_time < #{end}
         ORDER BY
-            month ASC;
+            conversation_id, create_time, id
     """)
-    List<Dict> getTokenChart();
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(AigcMessage.class)
+    void export(@Param("start") Date start, @Param("end") Date end, ResultHandler<AigcMessage> handler);
 
-    @Select("""
-        SELECT
-            COALESCE(COUNT(*), 0) AS totalReq,
-            COALESCE(SUM( CASE WHEN DATE ( create_time ) = CURDATE() THEN 1 ELSE 0 END ), 0) AS curReq
-        FROM
-            aigc_message
-        WHERE
-            role = 'assistant'
-    """)
-    Dict getCount();
+    /**
+     * 分批删除时间范围内的消息，未分区的表归档后使用
+     */
+    @Delete("DELETE FROM aigc_message WHERE create_time >= #{start} AND create_time < #{end} LIMIT #{limit}")
+    int deleteRange(@Param("start") Date start, @Param("end") Date end, @Param("limit") int limit);
 
-    @Select("""
-        SELECT
-            COALESCE(SUM(tokens), 0) AS totalToken,
-            COALESCE(SUM(CASE WHEN DATE(create_time) = CURDATE() THEN tokens ELSE 0 END), 0) AS curToken
-        FROM
-            aigc_message;
-    """)
-    Dict getTotalSum();
+    /**
+     * 按条件流式读取消息，用于数据导出
+     */
+    @Select("SELECT * FROM aigc_message ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(AigcMessage.class)
+    void stream(@Param(Constants.WRAPPER) Wrapper<AigcMessage> wrapper, ResultHandler<AigcMessage> handler);
 }
-
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.mapper;
+
+import cn.hutool.core.lang.Dict;
+import cn.tycoding.langchat.ai.biz.entity.AigcUsageDaily;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Mapper
+public interface AigcUsageDailyMapper extends BaseMapper<AigcUsageDaily> {
+
+    @Insert("""
+        INSERT INTO aigc_usage_daily (stat_date, app_id, model, user_id, req_count, tokens, prompt_tokens, update_time)
+        VALUES (#{statDate}, #{appId}, #{model}, #{userId}, #{reqCount}, #{tokens}, #{promptTokens}, #{updateTime})
+        ON DUPLICATE KEY UPDATE
+            req_count = req_count + #{reqCount},
+            tokens = tokens + #{tokens},
+            prompt_tokens = prompt_tokens + #{promptTokens},
+            update_time = #{updateTime}
+    """)
+    int increment(AigcUsageDaily data);
+
+    /**
+     * 删除汇总数据，since 不为空时只删除该日期及之后的数据
+     */
+    @Delete("""
+        <script>
+        DELETE FROM aigc_usage_daily
+        <if test="since != null">WHERE stat_date &gt;= #{since}</if>
+        </script>
+    """)
+    int clear(@Param("since") Date since);
+
+    /**
+     * 从消息表重新汇总，since 不为空时只汇总该时间及之后的消息（之前的消息已归档，保留原有汇总）
+     */
+    @Insert("""
+        <script>
+        INSERT INTO aigc_usage_daily (stat_date, app_id, model, user_id, req_count, tokens, prompt_tokens, update_time)
+        SELECT
+            DATE(create_time),
+            COALESCE(app_id, ''),
+            COALESCE(model, ''),
+            COALESCE(user_id, ''),
+            SUM(CASE WHEN role = 'assistant' THEN 1 ELSE 0 END),
+            COALESCE(SUM(tokens), 0),
+            COALESCE(SUM(prompt_tokens), 0),
+            NOW()
+        FROM
+            aigc_message
+        WHERE
+            create_time IS NOT NULL
+            <if test="since != null">AND create_time &gt;= #{since}</if>
+        GROUP BY
+            DATE(create_time), COALESCE(app_id, ''), COALESCE(model, ''), COALESCE(user_id, '')
+        </script>
+    """)
+    int rebuild(@Param("since") Date since);
+
+    @Select("""
+        WITH RECURSIVE DateRange AS (
+            SELECT CURDATE() AS date
+            UNION ALL
+            SELECT date - INTERVAL 1 DAY
+            FROM DateRange
+            WHERE date > DATE_SUB(CURDATE(), INTERVAL 31 DAY)
+        )
+        SELECT
+            d.date,
+            COALESCE(SUM(u.req_count), 0) AS tokens
+        FROM
+            DateRange d
+        LEFT JOIN
+            aigc_usage_daily u
+        ON
+            u.stat_date = d.date
+        GROUP BY
+            d.date
+        ORDER BY
+            d.date DESC;
+    """)
+    List<Dict> getReqChartBy30();
+
+    @Select("""
+        WITH RECURSIVE DateRange AS (
+            SELECT CURDATE() AS date
+            UNION ALL
+            SELECT date - INTERVAL 1 DAY
+            FROM DateRange
+            WHERE date > DATE_SUB(CURDATE(), INTERVAL 31 DAY)
+        )
+        SELECT
+            d.date,
+            COALESCE(SUM(u.tokens), 0) AS tokens
+        FROM
+            DateRange d
+        LEFT JOIN
+            aigc_usage_daily u
+        ON
+            u.stat_date = d.date
+        GROUP BY
+            d.date
+        ORDER BY
+            d.date DESC;
+    """)
+    List<Dict> getTokenChartBy30();
+
+    @Select("""
+        SELECT
+            COALESCE(SUM(req_count), 0) AS curReq,
+            COALESCE(SUM(tokens), 0) AS curToken
+        FROM
+            aigc_usage_daily
+        WHERE
+            stat_date = CURDATE()
+    """)
+    Dict getToday();
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.mapper;
+
+import cn.hutool.core.lang.Dict;
+import cn.tycoding.langchat.ai.biz.entity.AigcUsageMonthly;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Mapper
+public interface AigcUsageMonthlyMapper extends BaseMapper<AigcUsageMonthly> {
+
+    @Insert("""
+        INSERT INTO aigc_usage_monthly (stat_month, app_id, model, user_id, req_count, tokens, prompt_tokens, update_time)
+        VALUES (#{statMonth}, #{appId}, #{model}, #{userId}, #{reqCount}, #{tokens}, #{promptTokens}, #{updateTime})
+        ON DUPLICATE KEY UPDATE
+            req_count = req_count + #{reqCount},
+            tokens = tokens + #{tokens},
+            prompt_tokens = prompt_tokens + #{promptTokens},
+            update_time = #{updateTime}
+    """)
+    int increment(AigcUsageMonthly data);
+
+    @Delete("DELETE FROM aigc_usage_monthly")
+    int clear();
+
+    /**
+     * 从每日汇总表重新汇总全部数据
+     */
+    @Insert("""
+        INSERT INTO aigc_usage_monthly (stat_month, app_id, model, user_id, req_count, tokens, prompt_tokens, update_time)
+        SELECT
+            DATE_FORMAT(stat_date, '%Y-%m'),
+            app_id,
+            model,
+            user_id,
+            SUM(req_count),
+            SUM(tokens),
+            SUM(prompt_tokens),
+            NOW()
+        FROM
+            aigc_usage_daily
+        GROUP BY
+            DATE_FORMAT(stat_date, '%Y-%m'), app_id, model, user_id
+    """)
+    int rebuild();
+
+    @Select("""
+        SELECT
+            stat_month AS month,
+            COALESCE(SUM(req_count), 0) AS count
+        FROM
+            aigc_usage_monthly
+        WHERE
+            stat_month >= DATE_FORMAT(DATE_SUB(CURDATE(), INTERVAL 1 YEAR), '%Y-%m')
+        GROUP BY
+            stat_month
+        ORDER BY
+            stat_month ASC;
+    """)
+    List<Dict> getReqChart();
+
+    @Select("""
+        SELECT
+            stat_month AS month,
+            COALESCE(SUM(tokens), 0) AS count
+        FROM
+            aigc_usage_monthly
+        WHERE
+            stat_month >= DATE_FORMAT(DATE_SUB(CURDATE(), INTERVAL 1 YEAR), '%Y-%m')
+        GROUP BY
+            stat_month
+        ORDER BY
+            stat_month ASC;
+    """)
+    List<Dict> getTokenChart();
+
+    @Select("""
+        SELECT
+            COALESCE(SUM(req_count), 0) AS totalReq,
+            COALESCE(SUM(tokens), 0) AS totalToken
+        FROM
+            aigc_usage_monthly
+    """)
+    Dict getTotal();
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.service;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
+import cn.tycoding.langchat.ai.biz.entity.AigcIngestJob;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 文档向量化任务队列
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public interface AigcIngestJobService extends IService<AigcIngestJob> {
+
+    /**
+     * 提交文档向量化任务，文档已有待执行或执行中的任务时直接返回该任务
+     */
+    AigcIngestJob submit(AigcDocs docs, int maxAttempts);
+
+    /**
+     * 批量提交新建文档的向量化任务，不检查已有任务
+     */
+    List<AigcIngestJob> submitBatch(List<AigcDocs> docs, int maxAttempts);
+
+    /**
+     * 领取可执行的任务（待执行且到达执行时间，或执行中但租约已过期且未达到最大执行次数），按优先级和创建时间排序
+     */
+    List<AigcIngestJob> claim(String owner, Duration lease, int limit);
+
+    /**
+     * 续约并更新进度和 Embedding 缓存命中数
+     *
+     * @return 租约已丢失或任务已取消时返回 false
+     */
+    boolean renew(String id, String owner, Duration lease, int parsedPages, int embeddedSlices, int cacheHits, int cacheMisses);
+
+    void succeed(String id, String owner, int parsedPages, int embeddedSlices, int cacheHits, int cacheMisses);
+
+    /**
+     * 任务失败，未超过最大执行次数时按指数退避重新排队
+     *
+     * @return 是否重新排队
+     */
+    boolean fail(AigcIngestJob job, String owner, String errorMsg, Duration backoff);
+
+    /**
+     * 实例停止时释放任务，任务立即回到待执行状态且不计入执行次数
+     */
+    void release(String id, String owner);
+
+    void retry(String id);
+
+    /**
+     * 取消文档待执行或执行中的任务
+     *
+     * @return 被取消的任务
+     */
+    List<AigcIngestJob> cancelOfDocs(String docsId);
+
+    void cancel(String id);
+}
@@ -29,16 +29,50 @@ import java.util.List;
  */
 public interface AigcKnowledgeService extends IService<AigcKnowledge> {
 
+    /**
+     * 填充知识库的文档数量、切片数量等统计数据
+     */
+    void fillStats(List<AigcKnowledge> list);
+
     void addDocs(AigcDocs data);
 
+    /**
+     * 批量写入文档，用于压缩包和目录导入
+     */
+    void addDocsBatch(List<AigcDocs> list);
+
     void updateDocs(AigcDocs data);
 
+    /**
+     * 记录文档向量化失败，文档保持未训练状态
+     */
+    void failDocs(String id, String message);
+
+    /**
+     * 删除文档并扣减知识库的统计数据，切片需先通过 removeSlicesOfDoc 删除
+     */
+    void removeDocs(String id);
+
     void addDocsSlice(AigcDocsSlice data);
 
+    /**
+     * 批量写入切片，每批使用一个事务和多行 INSERT
+     */
+    void addDocsSlices(List<AigcDocsSlice> list);
+
     void updateDocsSlice(AigcDocsSlice data);
 
+    void removeDocsSlice(String id);
+
     List<String> listSliceVectorIdsOfDoc(String docsId);
 
+    /**
+     * 查询文档的切片，不包含切片内容
+     */
+    List<AigcDocsSlice> listSlicesOfDoc(String docsId);
+
+    void removeDocsSlices(String knowledgeId, List<String> ids);
+
     List<AigcDocs> getDocsByKb(String knowledgeId);
 
     void removeKnowledge(String knowledgeId);
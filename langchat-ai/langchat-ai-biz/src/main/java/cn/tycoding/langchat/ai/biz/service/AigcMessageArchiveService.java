@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.service;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.ai.biz.entity.AigcMessageArchiveSegment;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 对话消息按月分区与冷数据归档
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public interface AigcMessageArchiveService {
+
+    /**
+     * 创建当月及之后若干个月的分区，消息表未分区时跳过
+     *
+     * @param aheadMonths 提前创建的月份数
+     */
+    void createPartitions(int aheadMonths);
+
+    /**
+     * 消息表中超过保留期、需要归档的月份（yyyy-MM），按时间升序
+     *
+     * @param retainMonths 在线保留的月份数，包含当月
+     */
+    List<String> getExpiredMonths(int retainMonths);
+
+    /**
+     * 归档指定月份：导出为 JSONL（gzip）上传到对象存储，写入分段索引后删除该月份的分区或数据；
+     * 已归档但未删除完成的月份只重新执行删除
+     *
+     * @param month 月份，yyyy-MM
+     * @param path  对象存储路径
+     */
+    void archive(String month, String path);
+
+    /**
+     * 会话的归档分段索引，只查询索引不读取归档文件
+     */
+    List<AigcMessageArchiveSegment> getSegments(String conversationId);
+
+    /**
+     * 从最新的分段开始按字节范围读取会话已归档的消息，满足条件的消息达到 limit 条后不再读取更早的分段
+     *
+     * @param segments getSegments 返回的分段
+     * @param until    只需要该时间及之前的消息，最早消息晚于该时间的分段不读取，可为空
+     * @param filter   消息过滤条件
+     * @return 满足条件的最新 limit 条消息，按时间升序
+     */
+    List<AigcMessage> getMessages(List<AigcMessageArchiveSegment> segments, Date until, Predicate<AigcMessage> filter, int limit);
+
+    /**
+     * 删除会话的归档分段索引，并标记所在的归档文件等待重写，由 compact 从文件中移除该会话的内容
+     */
+    void delete(String conversationId);
+
+    /**
+     * 重写有会话被删除的归档文件，只保留仍存在的分段，上传新文件后删除旧文件
+     */
+    void compact();
+
+    /**
+     * 已归档数据的截止时间，该时间之前的消息不再保存在消息表中；没有归档时返回 null
+     */
+    Date getArchivedBefore();
+}
@@ -18,6 +18,8 @@ package cn.tycoding.langchat.ai.biz.service;
 
 import cn.tycoding.langchat.ai.biz.entity.AigcConversation;
 import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.common.core.utils.CursorPage;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -62,5 +64,12 @@ public interface AigcMessageService extends IService<AigcMessage> {
     List<AigcMessage> getMessages(String conversationId);
 
     List<AigcMessage> getMessages(String conversationId, String userId);
+
+    /**
+     * 从最新的消息开始向前翻页，每页的消息按时间正序返回，游标指向更早的消息
+     *
+     * @param userId 为空时不限制用户
+     */
+    CursorPage<AigcMessage> getMessages(String conversationId, String userId, CursorQuery query);
 }
 
@@ -20,6 +20,8 @@ import cn.tycoding.langchat.ai.biz.entity.AigcOss;
 import com.baomidou.mybatisplus.extension.service.IService;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 /**
  * @author tycoding
  * @since 2024/1/4
@@ -27,5 +29,18 @@ import org.springframework.web.multipart.MultipartFile;
 public interface AigcOssService extends IService<AigcOss> {
 
     AigcOss upload(MultipartFile file, String userId);
+
+    /**
+     * 上传文件到存储平台但不保存 OSS 记录，用于批量导入时统一批量保存
+     *
+     * @param source   文件内容，支持 byte[]、File、InputStream 等
+     * @param filename 原始文件名
+     */
+    AigcOss store(Object source, String filename, String userId);
+
+    /**
+     * 删除已上传到存储平台的文件及其 OSS 记录（如果已保存），用于批量导入失败时清理，删除失败只记录日志
+     */
+    void discard(List<AigcOss> list);
 }
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.service;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+
+/**
+ * 用量汇总（aigc_usage_daily、aigc_usage_monthly）的维护
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public interface AigcUsageService {
+
+    /**
+     * 累加一条消息的用量，需要与消息写入在同一个事务中调用
+     */
+    void record(AigcMessage message);
+
+    /**
+     * 从消息表重新汇总全部用量。汇总期间扫描的消息会被加锁，新消息的写入会等待汇总完成
+     */
+    void rebuild();
+}
@@ -17,22 +17,18 @@
 package cn.tycoding.langchat.ai.biz.service.impl;
 
 import cn.hutool.core.util.StrUtil;
-import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
-import cn.tycoding.langchat.ai.biz.entity.AigcModel;
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.service.AigcAppService;
 import cn.tycoding.langchat.ai.biz.service.AigcModelService;
 import cn.tycoding.langchat.ai.biz.entity.AigcApp;
 import cn.tycoding.langchat.ai.biz.mapper.AigcAppMapper;
-import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * @author tycoding
@@ -43,47 +39,35 @@ import java.util.stream.Collectors;
 public class AigcAppServiceImpl extends ServiceImpl<AigcAppMapper, AigcApp> implements AigcAppService {
 
     private final AigcModelService aigcModelService;
-    private final AigcKnowledgeService aigcKnowledgeService;
+    private final AigcCache aigcCache;
 
     @Override
     public List<AigcApp> list(AigcApp data) {
         List<AigcApp> list = baseMapper.selectList(Wrappers.<AigcApp>lambdaQuery()
                 .like(StrUtil.isNotBlank(data.getName()), AigcApp::getName, data.getName()));
-
-        Map<String, List<AigcModel>> modelMap = aigcModelService.list(new AigcModel()).stream().collect(Collectors.groupingBy(AigcModel::getId));
-        Map<String, List<AigcKnowledge>> knowledgeMap = aigcKnowledgeService.list().stream().collect(Collectors.groupingBy(AigcKnowledge::getId));
-        list.forEach(i -> {
-            List<AigcModel> models = modelMap.get(i.getModelId());
-            if (models != null) {
-                i.setModel(models.get(0));
-            }
-            if (i.getKnowledgeIds() != null) {
-                List<AigcKnowledge> knowledges = new ArrayList<>();
-                i.getKnowledgeIds().forEach(k -> {
-                    List<AigcKnowledge> items = knowledgeMap.get(k);
-                    if (items != null) {
-                        knowledges.add(items.get(0));
-                    }
-                });
-                i.setKnowledges(knowledges);
-            }
-        });
+        list.forEach(this::build);
         return list;
     }
 
     @Override
     public AigcApp getById(String id) {
-        AigcApp app = baseMapper.selectById(id);
+        AigcApp app = aigcCache.getApp(id);
         if (app != null) {
-            String modelId = app.getModelId();
-            if (modelId != null) {
-                app.setModel(aigcModelService.selectById(modelId));
-            }
-            List<String> knowledgeIds = app.getKnowledgeIds();
-            if (knowledgeIds != null && !knowledgeIds.isEmpty()) {
-                app.setKnowledges(aigcKnowledgeService.list(Wrappers.<AigcKnowledge>lambdaQuery().in(AigcKnowledge::getId, knowledgeIds)));
-            }
+            build(app);
         }
         return app;
     }
+
+    /**
+     * 关联的模型和知识库从本地缓存中读取
+     */
+    private void build(AigcApp app) {
+        if (app.getModelId() != null) {
+            app.setModel(aigcModelService.selectById(app.getModelId()));
+        }
+        List<String> knowledgeIds = app.getKnowledgeIds();
+        if (knowledgeIds != null && !knowledgeIds.isEmpty()) {
+            app.setKnowledges(knowledgeIds.stream().map(aigcCache::getKnowledge).filter(Objects::nonNull).toList());
+        }
+    }
 }
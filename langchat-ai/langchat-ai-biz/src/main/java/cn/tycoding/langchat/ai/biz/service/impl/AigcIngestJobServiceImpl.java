@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
+import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
+import cn.tycoding.langchat.ai.biz.entity.AigcIngestJob;
+import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
+import cn.tycoding.langchat.ai.biz.mapper.AigcIngestJobMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcIngestJobService;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+import static cn.tycoding.langchat.ai.biz.component.IngestJobStatusEnum.*;
+
+/**
+ * 任务状态的每次变更都带上当前状态（和租约持有者）作为条件，多个实例并发领取同一任务时只有一个会成功
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AigcIngestJobServiceImpl extends ServiceImpl<AigcIngestJobMapper, AigcIngestJob> implements AigcIngestJobService {
+
+    private static final int ERROR_MSG_LENGTH = 1000;
+
+    private final AigcCache aigcCache;
+
+    @Override
+    public AigcIngestJob submit(AigcDocs docs, int maxAttempts) {
+        AigcIngestJob active = getOne(Wrappers.<AigcIngestJob>lambdaQuery()
+                .eq(AigcIngestJob::getDocsId, docs.getId())
+                .in(AigcIngestJob::getStatus, PENDING.name(), RUNNING.name())
+                .last("limit 1"));
+        if (active != null) {
+            return active;
+        }
+
+        AigcIngestJob job = newJob(docs, priorityOf(docs.getKnowledgeId()), maxAttempts, new Date());
+        save(job);
+        return job;
+    }
+
+    @Override
+    public List<AigcIngestJob> submitBatch(List<AigcDocs> docs, int maxAttempts) {
+        if (docs.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> priorities = new HashMap<>();
+        Date now = new Date();
+        List<AigcIngestJob> jobs = docs.stream()
+                .map(i -> newJob(i, priorities.computeIfAbsent(i.getKnowledgeId(), this::priorityOf), maxAttempts, now))
+                .toList();
+        saveBatch(jobs);
+        return jobs;
+    }
+
+    private int priorityOf(String knowledgeId) {
+        AigcKnowledge knowledge = aigcCache.getKnowledge(knowledgeId);
+        return knowledge == null || knowledge.getPriority() == null ? 0 : knowledge.getPriority();
+    }
+
+    private AigcIngestJob newJob(AigcDocs docs, int priority, int maxAttempts, Date now) {
+        return new AigcIngestJob()
+                .setKnowledgeId(docs.getKnowledgeId())
+                .setDocsId(docs.getId())
+                .setDocsName(docs.getName())
+                .setStatus(PENDING.name())
+                .setPriority(priority)
+                .setAttempts(0)
+                .setMaxAttempts(maxAttempts)
+                .setNextRunTime(now)
+                .setParsedPages(0)
+                .setEmbeddedSlices(0)
+                .setCacheHits(0)
+                .setCacheMisses(0)
+                .setCreateTime(now)
+                .setUpdateTime(now);
+    }
+
+    @Override
+    public List<AigcIngestJob> claim(String owner, Duration lease, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Date now = new Date();
+        failExhausted(now);
+        List<AigcIngestJob> candidates = list(Wrappers.<AigcIngestJob>lambdaQuery()
+                .and(w -> w.nested(i -> i.eq(AigcIngestJob::getStatus, PENDING.name()).le(AigcIngestJob::getNextRunTime, now))
+                        .or(i -> i.eq(AigcIngestJob::getStatus, RUNNING.name()).lt(AigcIngestJob::getLeaseExpireTime, now)
+                                .apply("attempts < max_attempts")))
+                .orderByDesc(AigcIngestJob::getPriority)
+                .orderByAsc(AigcIngestJob::getCreateTime)
+                .last("limit " + limit * 2));
+
+        List<AigcIngestJob> claimed = new ArrayList<>();
+        Date expire = new Date(now.getTime() + lease.toMillis());
+        for (AigcIngestJob job : candidates) {
+            if (claimed.size() >= limit) {
+                break;
+            }
+            boolean ok = update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                    .set(AigcIngestJob::getStatus, RUNNING.name())
+                    .set(AigcIngestJob::getLeaseOwner, owner)
+                    .set(AigcIngestJob::getLeaseExpireTime, expire)
+                    .set(AigcIngestJob::getStartTime, now)
+                    .set(AigcIngestJob::getUpdateTime, now)
+                    .setSql("attempts = attempts + 1")
+                    .eq(AigcIngestJob::getId, job.getId())
+                    .eq(AigcIngestJob::getStatus, job.getStatus())
+                    .eq(RUNNING.name().equals(job.getStatus()), AigcIngestJob::getLeaseExpireTime, job.getLeaseExpireTime()));
+            if (ok) {
+                if (RUNNING.name().equals(job.getStatus())) {
+                    log.warn("接管租约过期的向量化任务：{}，原持有者：{}", job.getId(), job.getLeaseOwner());
+                }
+                claimed.add(job.setStatus(RUNNING.name()).setLeaseOwner(owner).setLeaseExpireTime(expire)
+                        .setAttempts(job.getAttempts() + 1));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 租约过期且已达到最大执行次数的任务不再接管，直接标记为失败，避免反复导致实例崩溃的任务无限重试
+     */
+    private void failExhausted(Date now) {
+        boolean failed = update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, FAILED.name())
+                .set(AigcIngestJob::getLeaseOwner, null)
+                .set(AigcIngestJob::getLeaseExpireTime, null)
+                .set(AigcIngestJob::getErrorMsg, "租约过期且已达到最大执行次数")
+                .set(AigcIngestJob::getFinishTime, now)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getStatus, RUNNING.name())
+                .lt(AigcIngestJob::getLeaseExpireTime, now)
+                .apply("attempts >= max_attempts"));
+        if (failed) {
+            log.error("租约过期的向量化任务已达到最大执行次数，标记为失败");
+        }
+    }
+
+    @Override
+    public boolean renew(String id, String owner, Duration lease, int parsedPages, int embeddedSlices, int cacheHits, int cacheMisses) {
+        Date now = new Date();
+        return update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getLeaseExpireTime, new Date(now.getTime() + lease.toMillis()))
+                .set(AigcIngestJob::getParsedPages, parsedPages)
+                .set(AigcIngestJob::getEmbeddedSlices, embeddedSlices)
+                .set(AigcIngestJob::getCacheHits, cacheHits)
+                .set(AigcIngestJob::getCacheMisses, cacheMisses)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getId, id)
+                .eq(AigcIngestJob::getLeaseOwner, owner)
+                .eq(AigcIngestJob::getStatus, RUNNING.name()));
+    }
+
+    @Override
+    public void succeed(String id, String owner, int parsedPages, int embeddedSlices, int cacheHits, int cacheMisses) {
+        Date now = new Date();
+        update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, SUCCESS.name())
+                .set(AigcIngestJob::getParsedPages, parsedPages)
+                .set(AigcIngestJob::getEmbeddedSlices, embeddedSlices)
+                .set(AigcIngestJob::getCacheHits, cacheHits)
+                .set(AigcIngestJob::getCacheMisses, cacheMisses)
+                .set(AigcIngestJob::getLeaseOwner, null)
+                .set(AigcIngestJob::getLeaseExpireTime, null)
+                .set(AigcIngestJob::getErrorMsg, null)
+                .set(AigcIngestJob::getFinishTime, now)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getId, id)
+                .eq(AigcIngestJob::getLeaseOwner, owner)
+                .eq(AigcIngestJob::getStatus, RUNNING.name()));
+    }
+
+    @Override
+    public boolean fail(AigcIngestJob job, String owner, String errorMsg, Duration backoff) {
+        Date now = new Date();
+        boolean retry = job.getAttempts() < job.getMaxAttempts();
+        long delay = backoff.toMillis() << Math.min(Math.max(job.getAttempts() - 1, 0), 16);
+        update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, retry ? PENDING.name() : FAILED.name())
+                .set(AigcIngestJob::getNextRunTime, retry ? new Date(now.getTime() + delay) : job.getNextRunTime())
+                .set(AigcIngestJob::getLeaseOwner, null)
+                .set(AigcIngestJob::getLeaseExpireTime, null)
+                .set(AigcIngestJob::getErrorMsg, StrUtil.maxLength(errorMsg, ERROR_MSG_LENGTH))
+                .set(!retry, AigcIngestJob::getFinishTime, now)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getId, job.getId())
+                .eq(AigcIngestJob::getLeaseOwner, owner)
+                .eq(AigcIngestJob::getStatus, RUNNING.name()));
+        if (retry) {
+            log.warn("向量化任务 {} 第 {} 次执行失败，{}ms 后重试：{}", job.getId(), job.getAttempts(), delay, errorMsg);
+        } else {
+            log.error("向量化任务 {} 执行失败，已达到最大执行次数：{}", job.getId(), errorMsg);
+        }
+        return retry;
+    }
+
+    @Override
+    public void release(String id, String owner) {
+        Date now = new Date();
+        update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, PENDING.name())
+                .set(AigcIngestJob::getNextRunTime, now)
+                .set(AigcIngestJob::getLeaseOwner, null)
+                .set(AigcIngestJob::getLeaseExpireTime, null)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .setSql("attempts = attempts - 1")
+                .eq(AigcIngestJob::getId, id)
+                .eq(AigcIngestJob::getLeaseOwner, owner)
+                .eq(AigcIngestJob::getStatus, RUNNING.name()));
+    }
+
+    @Override
+    public void retry(String id) {
+        Date now = new Date();
+        boolean ok = update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, PENDING.name())
+                .set(AigcIngestJob::getAttempts, 0)
+                .set(AigcIngestJob::getNextRunTime, now)
+                .set(AigcIngestJob::getFinishTime, null)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getId, id)
+                .in(AigcIngestJob::getStatus, FAILED.name(), CANCELED.name()));
+        if (!ok) {
+            throw new ServiceException("只能重试失败或已取消的任务");
+        }
+    }
+
+    @Override
+    public List<AigcIngestJob> cancelOfDocs(String docsId) {
+        List<AigcIngestJob> active = list(Wrappers.<AigcIngestJob>lambdaQuery()
+                .eq(AigcIngestJob::getDocsId, docsId)
+                .in(AigcIngestJob::getStatus, PENDING.name(), RUNNING.name()));
+        Date now = new Date();
+        return active.stream().filter(job -> update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, CANCELED.name())
+                .set(AigcIngestJob::getLeaseOwner, null)
+                .set(AigcIngestJob::getLeaseExpireTime, null)
+                .set(AigcIngestJob::getFinishTime, now)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getId, job.getId())
+                .eq(AigcIngestJob::getStatus, job.getStatus()))).toList();
+    }
+
+    @Override
+    public void cancel(String id) {
+        Date now = new Date();
+        boolean ok = update(Wrappers.<AigcIngestJob>lambdaUpdate()
+                .set(AigcIngestJob::getStatus, CANCELED.name())
+                .set(AigcIngestJob::getLeaseOwner, null)
+                .set(AigcIngestJob::getLeaseExpireTime, null)
+                .set(AigcIngestJob::getFinishTime, now)
+                .set(AigcIngestJob::getUpdateTime, now)
+                .eq(AigcIngestJob::getId, id)
+                .in(AigcIngestJob::getStatus, PENDING.name(), RUNNING.name()));
+        if (!ok) {
+            throw new ServiceException("只能取消待执行或执行中的任务");
+        }
+    }
+}
@@ -16,23 +16,37 @@
 
 package cn.tycoding.langchat.ai.biz.service.impl;
 
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.tycoding.langchat.ai.biz.component.KnowledgeVersion;
 import cn.tycoding.langchat.ai.biz.mapper.AigcDocsMapper;
 import cn.tycoding.langchat.ai.biz.mapper.AigcDocsSliceMapper;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocsSlice;
 import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
+import cn.tycoding.langchat.ai.biz.entity.AigcKnowledgeStats;
 import cn.tycoding.langchat.ai.biz.mapper.AigcKnowledgeMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcKnowledgeStatsMapper;
 import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * @author tycoding
@@ -43,20 +57,154 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AigcKnowledgeServiceImpl extends ServiceImpl<AigcKnowledgeMapper, AigcKnowledge> implements AigcKnowledgeService {
 
+    /**
+     * 单条多行 INSERT 的最大行数
+     */
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    /**
+     * 每次查询待回填知识库的数量
+     */
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    /**
+     * 删除知识库时每批删除的切片数量
+     */
+    private static final int DELETE_BATCH_SIZE = 5000;
+
     private final AigcDocsMapper aigcDocsMapper;
     private final AigcDocsSliceMapper aigcDocsSliceMapper;
+    private final AigcKnowledgeStatsMapper aigcKnowledgeStatsMapper;
+    private final KnowledgeVersion knowledgeVersion;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 升级前创建的知识库没有统计数据，启动时从文档表回填。逐个知识库在事务中锁定统计行后统计文档表，
+     * 与写入文档时的 incrementStats 互斥，回填期间新增的文档不会被覆盖
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        CompletableFuture.runAsync(() -> {
+            int rows = 0;
+            try {
+                List<String> ids;
+                while (!(ids = aigcKnowledgeStatsMapper.listUnfilled(BACKFILL_BATCH_SIZE)).isEmpty()) {
+                    for (String id : ids) {
+                        Boolean filled = transactionTemplate.execute(status -> {
+                            aigcKnowledgeStatsMapper.ensure(id);
+                            if (aigcKnowledgeStatsMapper.lockUnfilled(id) == null) {
+                                return false;
+                            }
+                            aigcKnowledgeStatsMapper.backfill(id, aigcKnowledgeStatsMapper.countDocs(id));
+                            return true;
+                        });
+                        rows += Boolean.TRUE.equals(filled) ? 1 : 0;
+                    }
+                }
+                if (rows > 0) {
+                    log.info("已回填 {} 个知识库的文档统计", rows);
+                }
+            } catch (Exception e) {
+                log.error("回填知识库文档统计失败，已回填 {} 个知识库", rows, e);
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public boolean save(AigcKnowledge entity) {
+        boolean saved = super.save(entity);
+        // 新建的知识库没有文档，无需回填
+        aigcKnowledgeStatsMapper.insert(new AigcKnowledgeStats().setKnowledgeId(entity.getId()).setStatsBackfilled(true));
+        return saved;
+    }
+
+    @Override
+    public void fillStats(List<AigcKnowledge> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        Map<String, AigcKnowledgeStats> map = aigcKnowledgeStatsMapper.selectBatchIds(
+                        list.stream().map(AigcKnowledge::getId).toList())
+                .stream().collect(Collectors.toMap(AigcKnowledgeStats::getKnowledgeId, i -> i));
+        list.forEach(item -> {
+            AigcKnowledgeStats stats = map.getOrDefault(item.getId(), new AigcKnowledgeStats()
+                    .setDocsNum(0).setSliceNum(0).setTotalSize(0L));
+            item.setDocsNum(stats.getDocsNum());
+            item.setSliceNum(stats.getSliceNum());
+            item.setTotalSize(stats.getTotalSize());
+            item.setLastIngestedAt(stats.getLastIngestedAt());
+        });
+    }
+
+    @Override
+    @Transactional
+    public boolean updateById(AigcKnowledge entity) {
+        // 知识库可能更换了向量模型或向量数据库
+        knowledgeVersion.bump(entity.getId());
+        return super.updateById(entity);
+    }
 
     @Override
     @Transactional
     public void addDocs(AigcDocs data) {
         data.setCreateTime(new Date());
         aigcDocsMapper.insert(data);
+        incrementStats(data.getKnowledgeId(), 1, ObjectUtil.defaultIfNull(data.getSize(), 0L),
+                ObjectUtil.defaultIfNull(data.getSliceNum(), 0), null);
+    }
+
+    @Override
+    @Transactional
+    public void addDocsBatch(List<AigcDocs> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        list.forEach(data -> data.setId(IdWorker.get32UUID()).setCreateTime(now));
+        ListUtil.partition(list, INSERT_BATCH_SIZE).forEach(aigcDocsMapper::insertBatch);
+        Map<String, List<AigcDocs>> group = list.stream().collect(Collectors.groupingBy(AigcDocs::getKnowledgeId));
+        group.forEach((knowledgeId, docs) -> incrementStats(knowledgeId, docs.size(),
+                docs.stream().mapToLong(i -> ObjectUtil.defaultIfNull(i.getSize(), 0L)).sum(),
+                docs.stream().mapToInt(i -> ObjectUtil.defaultIfNull(i.getSliceNum(), 0)).sum(), null));
     }
 
     @Override
     @Transactional
     public void updateDocs(AigcDocs data) {
-        aigcDocsMapper.updateById(data);
+        AigcDocs old = aigcDocsMapper.lockById(data.getId());
+        // 向量化成功后清除上次失败的原因
+        aigcDocsMapper.update(data, Wrappers.<AigcDocs>lambdaUpdate()
+                .set(Boolean.TRUE.equals(data.getSliceStatus()), AigcDocs::getSliceError, null)
+                .eq(AigcDocs::getId, data.getId()));
+        if (old == null) {
+            return;
+        }
+        // 向量化完成时写入的是文档的切片总数，按与原值的差值累加到知识库
+        long size = data.getSize() == null ? 0 : data.getSize() - ObjectUtil.defaultIfNull(old.getSize(), 0L);
+        int slices = data.getSliceNum() == null ? 0 : data.getSliceNum() - ObjectUtil.defaultIfNull(old.getSliceNum(), 0);
+        Date time = Boolean.TRUE.equals(data.getSliceStatus()) ? new Date() : null;
+        incrementStats(old.getKnowledgeId(), 0, size, slices, time);
+    }
+
+    @Override
+    public void failDocs(String id, String message) {
+        aigcDocsMapper.update(null, Wrappers.<AigcDocs>lambdaUpdate()
+                .set(AigcDocs::getSliceStatus, false)
+                .set(AigcDocs::getSliceError, StrUtil.maxLength(String.valueOf(message), 480))
+                .eq(AigcDocs::getId, id));
+    }
+
+    @Override
+    @Transactional
+    public void removeDocs(String id) {
+        AigcDocs docs = aigcDocsMapper.lockById(id);
+        if (docs == null) {
+            return;
+        }
+        aigcDocsMapper.deleteById(id);
+        incrementStats(docs.getKnowledgeId(), -1, -ObjectUtil.defaultIfNull(docs.getSize(), 0L),
+                -ObjectUtil.defaultIfNull(docs.getSliceNum(), 0), null);
     }
 
     @Override
@@ -64,15 +212,66 @@ public class AigcKnowledgeServiceImpl extends ServiceImpl<AigcKnowledgeMapper, A
     public void addDocsSlice(AigcDocsSlice data) {
         data.setCreateTime(new Date())
                 .setWordNum(data.getContent().length())
+                .setContentHash(SecureUtil.sha256(data.getContent()))
                 .setStatus(true)
         ;
         aigcDocsSliceMapper.insert(data);
+        if (data.getDocsId() != null) {
+            aigcDocsMapper.incrementSlices(data.getDocsId(), 1);
+        }
+        incrementStats(data.getKnowledgeId(), 0, 0, 1, data.getCreateTime());
+        knowledgeVersion.bump(data.getKnowledgeId());
+    }
+
+    /**
+     * 批量写入属于一次向量化过程，不逐条累加统计，切片数量由向量化完成后的 updateDocs 统一写入
+     */
+    @Override
+    @Transactional
+    public void addDocsSlices(List<AigcDocsSlice> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        list.forEach(data -> data.setId(IdWorker.get32UUID())
+                .setCreateTime(now)
+                .setWordNum(data.getContent().length())
+                .setContentHash(SecureUtil.sha256(data.getContent()))
+                .setStatus(true));
+        ListUtil.partition(list, INSERT_BATCH_SIZE).forEach(aigcDocsSliceMapper::insertBatch);
+        list.stream().map(AigcDocsSlice::getKnowledgeId).distinct().forEach(knowledgeVersion::bump);
     }
 
     @Override
     @Transactional
     public void updateDocsSlice(AigcDocsSlice data) {
-        aigcDocsSliceMapper.updateById(data);
+        // 内容摘要和向量模型只由向量化过程写入，updateById 会忽略这两个空字段
+        data.setContentHash(null).setEmbedModelId(null);
+        if (data.getContent() == null) {
+            aigcDocsSliceMapper.updateById(data);
+        } else {
+            // 手动修改的内容与向量不一致，显式清空内容摘要和向量模型，下次重新向量化时该切片会被替换
+            aigcDocsSliceMapper.update(data.setWordNum(data.getContent().length()), Wrappers.<AigcDocsSlice>lambdaUpdate()
+                    .set(AigcDocsSlice::getContentHash, null)
+                    .set(AigcDocsSlice::getEmbedModelId, null)
+                    .eq(AigcDocsSlice::getId, data.getId()));
+        }
+        bumpOfSlice(data.getId());
+    }
+
+    @Override
+    @Transactional
+    public void removeDocsSlice(String id) {
+        AigcDocsSlice slice = aigcDocsSliceMapper.selectById(id);
+        if (slice == null) {
+            return;
+        }
+        aigcDocsSliceMapper.deleteById(id);
+        if (slice.getDocsId() != null) {
+            aigcDocsMapper.incrementSlices(slice.getDocsId(), -1);
+        }
+        incrementStats(slice.getKnowledgeId(), 0, 0, -1, null);
+        knowledgeVersion.bump(slice.getKnowledgeId());
     }
 
     @Override
@@ -88,6 +287,25 @@ public class AigcKnowledgeServiceImpl extends ServiceImpl<AigcKnowledgeMapper, A
         return vectorIds;
     }
 
+    @Override
+    public List<AigcDocsSlice> listSlicesOfDoc(String docsId) {
+        return aigcDocsSliceMapper.selectList(Wrappers.<AigcDocsSlice>lambdaQuery()
+                .select(AigcDocsSlice::getId, AigcDocsSlice::getVectorId, AigcDocsSlice::getDocsId,
+                        AigcDocsSlice::getKnowledgeId, AigcDocsSlice::getContentHash, AigcDocsSlice::getEmbedModelId,
+                        AigcDocsSlice::getSliceIndex)
+                .eq(AigcDocsSlice::getDocsId, docsId));
+    }
+
+    @Override
+    @Transactional
+    public void removeDocsSlices(String knowledgeId, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        aigcDocsSliceMapper.deleteBatchIds(ids);
+        knowledgeVersion.bump(knowledgeId);
+    }
+
     @Override
     public List<AigcDocs> getDocsByKb(String knowledgeId) {
         return aigcDocsMapper.selectList(Wrappers.<AigcDocs>lambdaQuery()
@@ -95,12 +313,19 @@ public class AigcKnowledgeServiceImpl extends ServiceImpl<AigcKnowledgeMapper, A
     }
 
     @Override
-    @Transactional
     public void removeKnowledge(String knowledgeId) {
-        baseMapper.deleteById(knowledgeId);
-        // del docs & docsSlice
-        List<String> docsIds = getDocsByKb(knowledgeId).stream().map(AigcDocs::getId).toList();
-        docsIds.forEach(this::removeSlicesOfDoc);
+        transactionTemplate.executeWithoutResult(status -> {
+            baseMapper.deleteById(knowledgeId);
+            aigcKnowledgeStatsMapper.deleteById(knowledgeId);
+        });
+        knowledgeVersion.bump(knowledgeId);
+        // del docsSlice，知识库删除后分批删除切片，每批单独提交，不在一个大事务中长时间持有锁
+        int count = 0, rows;
+        do {
+            rows = aigcDocsSliceMapper.deleteOfKnowledge(knowledgeId, DELETE_BATCH_SIZE);
+            count += rows;
+        } while (rows > 0);
+        log.debug("remove all slices of knowledge: [{}], count: [{}]", knowledgeId, count);
     }
 
     @Override
@@ -110,6 +335,34 @@ public class AigcKnowledgeServiceImpl extends ServiceImpl<AigcKnowledgeMapper, A
                 .eq(AigcDocsSlice::getDocsId, docsId);
         int count = aigcDocsSliceMapper.delete(deleteWrapper);
         log.debug("remove all slices of doc: [{}], count: [{}]", docsId, count);
+        AigcDocs docs = aigcDocsMapper.selectById(docsId);
+        if (docs == null) {
+            return;
+        }
+        if (count > 0) {
+            knowledgeVersion.bump(docs.getKnowledgeId());
+        }
+        int sliceNum = ObjectUtil.defaultIfNull(docs.getSliceNum(), 0);
+        if (sliceNum > 0) {
+            aigcDocsMapper.update(null, Wrappers.<AigcDocs>lambdaUpdate()
+                    .set(AigcDocs::getSliceNum, 0)
+                    .eq(AigcDocs::getId, docsId));
+            incrementStats(docs.getKnowledgeId(), 0, 0, -sliceNum, null);
+        }
+    }
+
+    private void incrementStats(String knowledgeId, int docs, long size, int slices, Date time) {
+        if (knowledgeId == null || (docs == 0 && size == 0 && slices == 0 && time == null)) {
+            return;
+        }
+        aigcKnowledgeStatsMapper.incrementStats(knowledgeId, docs, size, slices, time);
+    }
+
+    private void bumpOfSlice(String sliceId) {
+        AigcDocsSlice slice = aigcDocsSliceMapper.selectById(sliceId);
+        if (slice != null) {
+            knowledgeVersion.bump(slice.getKnowledgeId());
+        }
     }
 }
 
@@ -0,0 +1,570 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.biz.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.ai.biz.entity.AigcMessageArchive;
+import cn.tycoding.langchat.ai.biz.entity.AigcMessageArchiveSegment;
+import cn.tycoding.langchat.ai.biz.mapper.AigcMessageArchiveMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcMessageArchiveSegmentMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcMessageMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcMessageArchiveService;
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.LocalPlusFileStorage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AigcMessageArchiveServiceImpl implements AigcMessageArchiveService {
+
+    private static final String MAX_PARTITION = "pmax";
+    private static final int DELETE_BATCH = 5000;
+    private static final int INSERT_BATCH = 500;
+    private static final int PRESIGNED_MINUTES = 10;
+    private static final Duration HTTP_TIMEOUT = Duration.ofSeconds(30);
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final AigcMessageMapper aigcMessageMapper;
+    private final AigcMessageArchiveMapper aigcMessageArchiveMapper;
+    private final AigcMessageArchiveSegmentMapper aigcMessageArchiveSegmentMapper;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void createPartitions(int aheadMonths) {
+        List<String> partitions = aigcMessageMapper.partitions();
+        if (partitions.isEmpty()) {
+            log.debug("aigc_message 未分区，跳过分区维护");
+            return;
+        }
+        if (!partitions.contains(MAX_PARTITION)) {
+            log.warn("aigc_message 缺少 {} 分区，无法自动创建月份分区", MAX_PARTITION);
+            return;
+        }
+        // 分区名按月份递增，只能在最后一个月份分区之后拆分
+        String last = partitions.stream().filter(i -> !MAX_PARTITION.equals(i)).max(String::compareTo).orElse("");
+        Date month = DateUtil.beginOfMonth(new Date());
+        for (int i = 0; i <= aheadMonths; i++) {
+            Date end = DateUtil.offsetMonth(month, 1);
+            String name = partitionName(month);
+            if (name.compareTo(last) > 0) {
+                aigcMessageMapper.addPartition(name, DateUtil.formatDate(end));
+                log.info("已创建 aigc_message 分区：{}", name);
+                last = name;
+            }
+            month = end;
+        }
+    }
+
+    @Override
+    public List<String> getExpiredMonths(int retainMonths) {
+        Date min = aigcMessageMapper.getMinTime();
+        if (min == null) {
+            return List.of();
+        }
+        Date cutoff = DateUtil.offsetMonth(DateUtil.beginOfMonth(new Date()), -Math.max(retainMonths - 1, 0));
+        List<String> months = new ArrayList<>();
+        for (Date month = DateUtil.beginOfMonth(min); month.before(cutoff); month = DateUtil.offsetMonth(month, 1)) {
+            months.add(DateUtil.format(month, "yyyy-MM"));
+        }
+        return months;
+    }
+
+    @Override
+    public void archive(String month, String path) {
+        Date start = DateUtil.parse(month, "yyyy-MM");
+        Date end = DateUtil.offsetMonth(start, 1);
+        AigcMessageArchive archive = aigcMessageArchiveMapper.selectOne(Wrappers.<AigcMessageArchive>lambdaQuery()
+                .eq(AigcMessageArchive::getMonth, month));
+        if (archive == null) {
+            archive = export(month, start, end, path);
+            log.info("对话消息归档完成，月份：{}，消息数：{}，会话数：{}，文件：{}",
+                    month, archive.getMessageCount(), archive.getConversationCount(), archive.getUrl());
+        }
+        remove(start, end);
+    }
+
+    private AigcMessageArchive export(String month, Date start, Date end, String path) {
+        String name = fileName(month);
+        File file = null;
+        try {
+            file = Files.createTempFile(name, ".jsonl.gz").toFile();
+            ArchiveWriter writer = new ArchiveWriter(file);
+            try (writer) {
+                aigcMessageMapper.export(start, end, context -> writer.write(context.getResultObject()));
+            }
+
+            AigcMessageArchive archive = new AigcMessageArchive()
+                    .setId(IdUtil.simpleUUID())
+                    .setMonth(month)
+                    .setMessageCount(writer.messages)
+                    .setConversationCount(writer.segments.size())
+                    .setCreateTime(new Date());
+            if (writer.messages > 0) {
+                FileInfo info = fileStorageService.of(file)
+                        .setPath(path)
+                        .setSaveFilename(name + ".jsonl.gz")
+                        .setContentType("application/gzip")
+                        .upload();
+                archive.setPlatform(info.getPlatform())
+                        .setBasePath(info.getBasePath())
+                        .setPath(info.getPath())
+                        .setFilename(info.getFilename())
+                        .setUrl(info.getUrl())
+                        .setSize(info.getSize());
+            }
+            writer.segments.forEach(i -> i.setId(IdUtil.simpleUUID()).setArchiveId(archive.getId()));
+            transactionTemplate.executeWithoutResult(status -> {
+                aigcMessageArchiveMapper.insert(archive);
+                ListUtil.partition(writer.segments, INSERT_BATCH).forEach(aigcMessageArchiveSegmentMapper::insertBatch);
+            });
+            return archive;
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * 归档后删除消息：该月份有独立分区且更早的数据都已删除时直接删除分区，否则分批删除
+     */
+    private void remove(Date start, Date end) {
+        String name = partitionName(start);
+        if (aigcMessageMapper.partitions().contains(name)
+                && !aigcMessageMapper.exists(Wrappers.<AigcMessage>lambdaQuery().lt(AigcMessage::getCreateTime, start))) {
+            aigcMessageMapper.dropPartition(name);
+            log.info("已删除 aigc_message 分区：{}", name);
+            return;
+        }
+        int rows;
+        do {
+            rows = aigcMessageMapper.deleteRange(start, end, DELETE_BATCH);
+        } while (rows > 0);
+    }
+
+    @Override
+    public List<AigcMessageArchiveSegment> getSegments(String conversationId) {
+        return aigcMessageArchiveSegmentMapper.selectList(Wrappers.<AigcMessageArchiveSegment>lambdaQuery()
+                .eq(AigcMessageArchiveSegment::getConversationId, conversationId)
+                .orderByAsc(AigcMessageArchiveSegment::getMinTime));
+    }
+
+    @Override
+    public List<AigcMessage> getMessages(List<AigcMessageArchiveSegment> segments, Date until,
+                                         Predicate<AigcMessage> filter, int limit) {
+        if (segments.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<String, AigcMessageArchive> archives = aigcMessageArchiveMapper.selectBatchIds(
+                        segments.stream().map(AigcMessageArchiveSegment::getArchiveId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(AigcMessageArchive::getId, Function.identity()));
+
+        // 每个月份一个分段，时间范围互不重叠：从最新的分段开始读取，已满足 limit 时更早的分段不会再有需要的消息
+        List<AigcMessageArchiveSegment> sorted = segments.stream()
+                .sorted(Comparator.comparing(AigcMessageArchiveSegment::getMaxTime).reversed())
+                .toList();
+        List<AigcMessage> list = new ArrayList<>();
+        for (AigcMessageArchiveSegment segment : sorted) {
+            if (list.size() >= limit) {
+                break;
+            }
+            if (until != null && segment.getMinTime() != null && segment.getMinTime().after(until)) {
+                continue;
+            }
+            load(archives.get(segment.getArchiveId()), segment).stream().filter(filter).forEach(list::add);
+        }
+        list.sort(Comparator.comparing(AigcMessage::getCreateTime).thenComparing(AigcMessage::getId));
+        return list.size() > limit ? new ArrayList<>(list.subList(list.size() - limit, list.size())) : list;
+    }
+
+    /**
+     * 读取并解析分段；归档文件被重写后分段的偏移量和文件都会变化，读取失败时重新查询索引再读取一次
+     */
+    private List<AigcMessage> load(AigcMessageArchive archive, AigcMessageArchiveSegment segment) {
+        try {
+            return archive == null || StrUtil.isBlank(archive.getPlatform()) ? List.of() : parse(read(archive, segment));
+        } catch (RuntimeException e) {
+            AigcMessageArchiveSegment latest = aigcMessageArchiveSegmentMapper.selectById(segment.getId());
+            AigcMessageArchive current = latest == null ? null : aigcMessageArchiveMapper.selectById(latest.getArchiveId());
+            if (current == null || StrUtil.isBlank(current.getPlatform())) {
+                return List.of();
+            }
+            if (archive != null && Objects.equals(current.getFilename(), archive.getFilename())
+                    && Objects.equals(latest.getByteOffset(), segment.getByteOffset())) {
+                throw e;
+            }
+            return parse(read(current, latest));
+        }
+    }
+
+    @Override
+    public void delete(String conversationId) {
+        Set<String> archiveIds = getSegments(conversationId).stream()
+                .map(AigcMessageArchiveSegment::getArchiveId)
+                .collect(Collectors.toSet());
+        if (archiveIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            aigcMessageArchiveSegmentMapper.delete(Wrappers.<AigcMessageArchiveSegment>lambdaQuery()
+                    .eq(AigcMessageArchiveSegment::getConversationId, conversationId));
+            aigcMessageArchiveMapper.update(null, Wrappers.<AigcMessageArchive>lambdaUpdate()
+                    .set(AigcMessageArchive::getCompactPending, true)
+                    .in(AigcMessageArchive::getId, archiveIds));
+        });
+    }
+
+    @Override
+    public void compact() {
+        List<AigcMessageArchive> archives = aigcMessageArchiveMapper.selectList(Wrappers.<AigcMessageArchive>lambdaQuery()
+                .eq(AigcMessageArchive::getCompactPending, true));
+        for (AigcMessageArchive archive : archives) {
+            try {
+                compact(archive);
+            } catch (Exception e) {
+                log.error("重写对话消息归档文件失败，月份：{}", archive.getMonth(), e);
+                aigcMessageArchiveMapper.update(null, Wrappers.<AigcMessageArchive>lambdaUpdate()
+                        .set(AigcMessageArchive::getCompactPending, true)
+                        .eq(AigcMessageArchive::getId, archive.getId()));
+            }
+        }
+    }
+
+    /**
+     * 复制仍存在的分段生成新文件：分段本身是完整的 gzip 流，按字节拷贝即可，无需解压；
+     * 先清除标记，重写期间再有会话被删除时会重新标记，下次再处理
+     */
+    private void compact(AigcMessageArchive archive) throws IOException {
+        aigcMessageArchiveMapper.update(null, Wrappers.<AigcMessageArchive>lambdaUpdate()
+                .set(AigcMessageArchive::getCompactPending, false)
+                .eq(AigcMessageArchive::getId, archive.getId()));
+        if (StrUtil.isBlank(archive.getPlatform())) {
+            return;
+        }
+        List<AigcMessageArchiveSegment> segments = aigcMessageArchiveSegmentMapper.selectList(
+                Wrappers.<AigcMessageArchiveSegment>lambdaQuery()
+                        .eq(AigcMessageArchiveSegment::getArchiveId, archive.getId())
+                        .orderByAsc(AigcMessageArchiveSegment::getByteOffset));
+        if (segments.isEmpty()) {
+            aigcMessageArchiveMapper.update(null, Wrappers.<AigcMessageArchive>lambdaUpdate()
+                    .set(AigcMessageArchive::getPlatform, null)
+                    .set(AigcMessageArchive::getBasePath, null)
+                    .set(AigcMessageArchive::getPath, null)
+                    .set(AigcMessageArchive::getFilename, null)
+                    .set(AigcMessageArchive::getUrl, null)
+                    .set(AigcMessageArchive::getSize, 0L)
+                    .set(AigcMessageArchive::getMessageCount, 0)
+                    .set(AigcMessageArchive::getConversationCount, 0)
+                    .eq(AigcMessageArchive::getId, archive.getId()));
+            fileStorageService.delete(fileInfo(archive));
+            log.info("对话消息归档文件已删除，月份：{}", archive.getMonth());
+            return;
+        }
+
+        String name = fileName(archive.getMonth()) + "_" + System.currentTimeMillis();
+        File source = Files.createTempFile(name, ".src.gz").toFile();
+        File target = Files.createTempFile(name, ".jsonl.gz").toFile();
+        try {
+            fileStorageService.download(fileInfo(archive)).file(source);
+            List<AigcMessageArchiveSegment> moved = new ArrayList<>();
+            try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+                for (AigcMessageArchiveSegment segment : segments) {
+                    long position = out.position();
+                    long copied = 0;
+                    while (copied < segment.getByteLength()) {
+                        long n = in.transferTo(segment.getByteOffset() + copied, segment.getByteLength() - copied, out);
+                        if (n <= 0) {
+                            throw new EOFException("归档文件不完整：" + archive.getFilename());
+                        }
+                        copied += n;
+                    }
+                    moved.add(new AigcMessageArchiveSegment().setId(segment.getId()).setByteOffset(position));
+                }
+            }
+
+            FileInfo info = fileStorageService.of(target)
+                    .setPlatform(archive.getPlatform())
+                    .setPath(archive.getPath())
+                    .setSaveFilename(name + ".jsonl.gz")
+                    .setContentType("application/gzip")
+                    .upload();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    moved.forEach(aigcMessageArchiveSegmentMapper::updateById);
+                    aigcMessageArchiveMapper.updateById(new AigcMessageArchive()
+                            .setId(archive.getId())
+                            .setBasePath(info.getBasePath())
+                            .setPath(info.getPath())
+                            .setFilename(info.getFilename())
+                            .setUrl(info.getUrl())
+                            .setSize(info.getSize())
+                            .setMessageCount(segments.stream().mapToInt(AigcMessageArchiveSegment::getMessageCount).sum())
+                            .setConversationCount(segments.size()));
+                });
+            } catch (RuntimeException e) {
+                fileStorageService.delete(info);
+                throw e;
+            }
+            fileStorageService.delete(fileInfo(archive));
+            log.info("对话消息归档文件已重写，月份：{}，剩余会话数：{}，文件：{}", archive.getMonth(), segments.size(), info.getUrl());
+        } finally {
+            for (File file : List.of(source, target)) {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Date getArchivedBefore() {
+        AigcMessageArchive last = aigcMessageArchiveMapper.selectOne(Wrappers.<AigcMessageArchive>lambdaQuery()
+                .orderByDesc(AigcMessageArchive::getMonth)
+                .last("limit 1"));
+        return last == null ? null : DateUtil.offsetMonth(DateUtil.parse(last.getMonth(), "yyyy-MM"), 1);
+    }
+
+    /**
+     * 读取分段的压缩数据：本地存储直接按偏移量读取磁盘文件；其他平台通过预签名地址或文件地址发起 Range 请求，
+     * 只传输该分段的字节，平台不支持时才流式下载并跳过前面的分段
+     */
+    private byte[] read(AigcMessageArchive archive, AigcMessageArchiveSegment segment) {
+        long offset = segment.getByteOffset();
+        int length = segment.getByteLength();
+        FileStorage storage = fileStorageService.getFileStorage(archive.getPlatform());
+        if (storage instanceof LocalPlusFileStorage local) {
+            Path path = Path.of(local.getAbsolutePath(StrUtil.nullToEmpty(archive.getBasePath())
+                    + StrUtil.nullToEmpty(archive.getPath()) + archive.getFilename()));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new EOFException("归档文件不完整：" + path);
+                    }
+                }
+                return buffer.array();
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+
+        FileInfo info = fileInfo(archive);
+        String url = fileStorageService.isSupportPresignedUrl(storage)
+                ? fileStorageService.generatePresignedUrl(info, DateUtil.offsetMinute(new Date(), PRESIGNED_MINUTES))
+                : archive.getUrl();
+        if (StrUtil.startWithAny(url, "http://", "https://")) {
+            byte[] bytes = readRange(url, offset, length);
+            if (bytes != null) {
+                return bytes;
+            }
+        }
+
+        byte[][] result = new byte[1][];
+        fileStorageService.download(info).inputStream(in -> {
+            try {
+                in.skipNBytes(offset);
+                result[0] = in.readNBytes(length);
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        });
+        return result[0];
+    }
+
+    /**
+     * 按字节范围读取，服务端忽略 Range 返回完整文件时跳过前面的字节；请求被拒绝时返回 null
+     */
+    private static byte[] readRange(String url, long offset, int length) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(HTTP_TIMEOUT)
+                .header("Range", "bytes=" + offset + "-" + (offset + length - 1))
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = response.body()) {
+                int code = response.statusCode();
+                if (code != 200 && code != 206) {
+                    log.debug("归档文件 Range 请求失败，HTTP {}，改为下载读取", code);
+                    return null;
+                }
+                if (code == 200) {
+                    in.skipNBytes(offset);
+                }
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length) {
+                    throw new EOFException("归档文件不完整：" + url);
+                }
+                return bytes;
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private static FileInfo fileInfo(AigcMessageArchive archive) {
+        return new FileInfo()
+                .setUrl(archive.getUrl())
+                .setSize(archive.getSize())
+                .setFilename(archive.getFilename())
+                .setBasePath(archive.getBasePath())
+                .setPath(archive.getPath())
+                .setPlatform(archive.getPlatform());
+    }
+
+    private static String fileName(String month) {
+        return "aigc_message_" + month.replace("-", "");
+    }
+
+    private static List<AigcMessage> parse(byte[] bytes) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .filter(StrUtil::isNotBlank)
+                    .map(line -> JSON.parseObject(line, AigcMessage.class))
+                    .toList();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private static String partitionName(Date month) {
+        return "p" + DateUtil.format(month, "yyyyMM");
+    }
+
+    /**
+     * 按会话分段写入归档文件，每个分段是一个完整的 gzip 流，多个分段直接拼接后仍是合法的 gzip 文件
+     */
+    private static class ArchiveWriter implements Closeable {
+
+        private final FileOutputStream out;
+        private final List<AigcMessageArchiveSegment> segments = new ArrayList<>();
+        private AigcMessageArchiveSegment segment;
+        private Writer writer;
+        private int messages;
+
+        ArchiveWriter(File file) throws IOException {
+            this.out = new FileOutputStream(file);
+        }
+
+        void write(AigcMessage message) {
+            try {
+                String conversationId = StrUtil.nullToEmpty(message.getConversationId());
+                if (segment == null || !segment.getConversationId().equals(conversationId)) {
+                    finish();
+                    begin(conversationId);
+                }
+                writer.write(JSON.toJSONString(message));
+                writer.write('\n');
+                if (segment.getMinTime() == null) {
+                    segment.setMinTime(message.getCreateTime());
+                }
+                segment.setMaxTime(message.getCreateTime())
+                        .setMessageCount(segment.getMessageCount() + 1);
+                messages++;
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+
+        private void begin(String conversationId) throws IOException {
+            segment = new AigcMessageArchiveSegment()
+                    .setConversationId(conversationId)
+                    .setByteOffset(out.getChannel().position())
+                    .setMessageCount(0);
+            // 关闭 gzip 流时只结束当前分段，不关闭底层文件
+            OutputStream shield = new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(shield, 8192), StandardCharsets.UTF_8));
+        }
+
+        private void finish() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            writer.close();
+            writer = null;
+            segment.setByteLength((int) (out.getChannel().position() - segment.getByteOffset()));
+            segments.add(segment);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
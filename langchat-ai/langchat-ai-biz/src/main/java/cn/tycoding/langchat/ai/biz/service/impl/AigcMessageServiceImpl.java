@@ -19,9 +19,16 @@ package cn.tycoding.langchat.ai.biz.service.impl;
 import cn.hutool.core.util.StrUtil;
 import cn.tycoding.langchat.ai.biz.entity.AigcConversation;
 import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.ai.biz.entity.AigcMessageArchiveSegment;
 import cn.tycoding.langchat.ai.biz.mapper.AigcConversationMapper;
 import cn.tycoding.langchat.ai.biz.mapper.AigcMessageMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcMessageArchiveService;
 import cn.tycoding.langchat.ai.biz.service.AigcMessageService;
+import cn.tycoding.langchat.ai.biz.service.AigcUsageService;
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
+import cn.tycoding.langchat.common.core.utils.CursorPage;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
+import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.upms.entity.SysUser;
 import cn.tycoding.langchat.upms.mapper.SysUserMapper;
@@ -30,25 +37,42 @@ import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * @author tycoding
  * @since 2024/1/4
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AigcMessageServiceImpl extends ServiceImpl<AigcMessageMapper, AigcMessage> implements
         AigcMessageService {
+
+    /**
+     * 每次查询待回填会话的数量
+     */
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
     private final AigcConversationMapper aigcConversationMapper;
     private final SysUserMapper userMapper;
+    private final AigcUsageService aigcUsageService;
+    private final AigcMessageArchiveService aigcMessageArchiveService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public List<AigcConversation> conversations(String userId) {
@@ -59,32 +83,22 @@ public class AigcMessageServiceImpl extends ServiceImpl<AigcMessageMapper, AigcM
     }
 
     @Override
+    @ReadOnly
     public IPage<AigcConversation> conversationPages(AigcConversation data, QueryPage queryPage) {
         Page<AigcConversation> page = new Page<>(queryPage.getPage(), queryPage.getLimit());
         Page<AigcConversation> iPage = aigcConversationMapper.selectPage(page, Wrappers.<AigcConversation>lambdaQuery()
                 .like(!StrUtil.isBlank(data.getTitle()), AigcConversation::getTitle, data.getTitle())
                 .orderByDesc(AigcConversation::getCreateTime));
 
-        if (!iPage.getRecords().isEmpty()) {
-            Map<String, List<SysUser>> map = userMapper.selectList(Wrappers.lambdaQuery()).stream().collect(Collectors.groupingBy(SysUser::getId));
-            Set<String> ids = iPage.getRecords().stream().map(AigcConversation::getId).collect(Collectors.toSet());
-            List<AigcMessage> messages = baseMapper.selectList(Wrappers.<AigcMessage>lambdaQuery()
-                    .in(AigcMessage::getConversationId, ids)
-                    .orderByDesc(AigcMessage::getCreateTime));
-
-            iPage.getRecords().forEach(i -> {
-                List<SysUser> list = map.get(i.getUserId());
-                if (list != null && !list.isEmpty()) {
-                    i.setUsername(list.get(0).getUsername());
-                }
-
-                List<AigcMessage> messageList = messages.stream().filter(m -> m.getConversationId() != null && m.getConversationId().equals(i.getId())).toList();
-                if (!messageList.isEmpty()) {
-                    i.setChatTotal(messageList.size());
-                    i.setEndTime(messageList.get(0).getCreateTime());
-                    i.setTokenUsed(messageList.stream().filter(m -> m.getTokens() != null).mapToInt(AigcMessage::getTokens).sum());
-                }
-            });
+        // 消息数、Token 数和最后对话时间由写入消息时维护在会话表中，这里只需批量查询用户名
+        Set<String> userIds = iPage.getRecords().stream().map(AigcConversation::getUserId)
+                .filter(StrUtil::isNotBlank).collect(Collectors.toSet());
+        if (!userIds.isEmpty()) {
+            Map<String, String> map = userMapper.selectList(Wrappers.<SysUser>lambdaQuery()
+                            .select(SysUser::getId, SysUser::getUsername)
+                            .in(SysUser::getId, userIds))
+                    .stream().collect(Collectors.toMap(SysUser::getId, SysUser::getUsername, (a, b) -> a));
+            iPage.getRecords().forEach(i -> i.setUsername(map.get(i.getUserId())));
         }
         return iPage;
     }
@@ -92,7 +106,11 @@ public class AigcMessageServiceImpl extends ServiceImpl<AigcMessageMapper, AigcM
     @Override
     @Transactional
     public AigcConversation addConversation(AigcConversation conversation) {
-        conversation.setCreateTime(new Date());
+        conversation.setCreateTime(new Date())
+                .setChatTotal(0)
+                .setTokenUsed(0L)
+                .setEndTime(null)
+                .setStatsBackfilled(true);
         aigcConversationMapper.insert(conversation);
         return conversation;
     }
@@ -112,6 +130,7 @@ public class AigcMessageServiceImpl extends ServiceImpl<AigcMessageMapper, AigcM
         baseMapper.delete(
                 Wrappers.<AigcMessage>lambdaQuery()
                         .eq(AigcMessage::getConversationId, conversationId));
+        aigcMessageArchiveService.delete(conversationId);
     }
 
     @Override
@@ -119,6 +138,11 @@ public class AigcMessageServiceImpl extends ServiceImpl<AigcMessageMapper, AigcM
     public AigcMessage addMessage(AigcMessage message) {
         message.setCreateTime(new Date());
         baseMapper.insert(message);
+        if (StrUtil.isNotBlank(message.getConversationId())) {
+            aigcConversationMapper.incrementMessage(message.getConversationId(),
+                    message.getTokens() == null ? 0 : message.getTokens(), message.getCreateTime());
+        }
+        aigcUsageService.record(message);
         return message;
     }
 
@@ -128,25 +152,110 @@ public class AigcMessageServiceImpl extends ServiceImpl<AigcMessageMapper, AigcM
         baseMapper.delete(
                 Wrappers.<AigcMessage>lambdaQuery()
                         .eq(AigcMessage::getConversationId, conversationId));
+        aigcMessageArchiveService.delete(conversationId);
+        aigcConversationMapper.resetMessage(conversationId);
+    }
+
+    /**
+     * 升级前创建的会话没有统计数据，启动时从消息表回填。每个会话在事务中先锁定会话行再统计消息，
+     * 与写入消息时的累加串行执行，回填期间写入的消息不会丢失也不会重复计数
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        CompletableFuture.runAsync(() -> {
+            int rows = 0;
+            try {
+                List<String> ids;
+                while (!(ids = aigcConversationMapper.listUnfilled(BACKFILL_BATCH_SIZE)).isEmpty()) {
+                    for (String id : ids) {
+                        Boolean filled = transactionTemplate.execute(status -> {
+                            if (aigcConversationMapper.lockUnfilled(id) == null) {
+                                return false;
+                            }
+                            aigcConversationMapper.backfill(id, aigcConversationMapper.countMessage(id));
+                            return true;
+                        });
+                        rows += Boolean.TRUE.equals(filled) ? 1 : 0;
+                    }
+                }
+                if (rows > 0) {
+                    log.info("已回填 {} 个会话的消息统计", rows);
+                }
+            } catch (Exception e) {
+                log.error("回填会话消息统计失败，已回填 {} 个会话", rows, e);
+            }
+        });
     }
 
     @Override
     public List<AigcMessage> getMessages(String conversationId) {
         // 避免页面渲染压力大，只截取最新的20条数据
-        return baseMapper.selectPage(new Page<>(0, 20), Wrappers.<AigcMessage>lambdaQuery()
-                .eq(AigcMessage::getConversationId, conversationId)
-                .orderByAsc(AigcMessage::getCreateTime)
-        ).getRecords();
+        CursorQuery query = new CursorQuery();
+        query.setLimit(20);
+        return getMessages(conversationId, null, query).getRows();
     }
 
     @Override
     public List<AigcMessage> getMessages(String conversationId, String userId) {
         // 避免页面渲染压力大，只截取最新的100条数据
-        return baseMapper.selectPage(new Page<>(0, 100), Wrappers.<AigcMessage>lambdaQuery()
-                .eq(AigcMessage::getConversationId, conversationId)
-                .eq(AigcMessage::getUserId, userId)
-                .orderByAsc(AigcMessage::getCreateTime)
-        ).getRecords();
+        CursorQuery query = new CursorQuery();
+        query.setLimit(100);
+        return getMessages(conversationId, userId, query).getRows();
+    }
+
+    @Override
+    public CursorPage<AigcMessage> getMessages(String conversationId, String userId, CursorQuery query) {
+        CursorPage<AigcMessage> page = MybatisUtil.cursor(baseMapper, Wrappers.<AigcMessage>lambdaQuery()
+                        .eq(AigcMessage::getConversationId, conversationId)
+                        .eq(StrUtil.isNotBlank(userId), AigcMessage::getUserId, userId),
+                AigcMessage::getCreateTime, AigcMessage::getId, query);
+        List<AigcMessage> rows = new ArrayList<>(page.getRows());
+        int remaining = MybatisUtil.cursorLimit(query) - rows.size();
+        if (!page.isHasMore() && remaining > 0) {
+            // 消息表中已无更早的消息，继续从归档中读取
+            List<AigcMessageArchiveSegment> segments = aigcMessageArchiveService.getSegments(conversationId);
+            if (!segments.isEmpty()) {
+                // 起始位置：本页最早的一条消息，本页为空时为请求的游标
+                String[] position;
+                if (!rows.isEmpty()) {
+                    AigcMessage last = rows.get(rows.size() - 1);
+                    position = new String[]{String.valueOf(last.getCreateTime().getTime()), last.getId()};
+                } else if (StrUtil.isNotBlank(query.getCursor())) {
+                    position = MybatisUtil.decodeCursor(query.getCursor());
+                } else {
+                    position = null;
+                }
+
+                if (page.getTotal() != null) {
+                    page.setTotal(page.getTotal() + segments.stream().mapToLong(AigcMessageArchiveSegment::getMessageCount).sum());
+                }
+                // 多读取一条用于判断是否还有更早的消息，只读取需要的分段
+                Date until = position == null ? null : new Date(Long.parseLong(position[0]));
+                List<AigcMessage> older = aigcMessageArchiveService.getMessages(segments, until,
+                        message -> (StrUtil.isBlank(userId) || userId.equals(message.getUserId())) && before(message, position),
+                        remaining + 1);
+                int from = Math.max(0, older.size() - remaining);
+                for (int i = older.size() - 1; i >= from; i--) {
+                    rows.add(older.get(i));
+                }
+                AigcMessage oldest = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+                page.setHasMore(from > 0)
+                        .setCursor(from > 0 ? MybatisUtil.encodeCursor(oldest.getCreateTime(), oldest.getId()) : null);
+            }
+        }
+        Collections.reverse(rows);
+        return page.setRows(rows);
+    }
+
+    /**
+     * 消息是否排在游标位置（时间, 主键）之前，与游标分页的排序规则一致
+     */
+    private static boolean before(AigcMessage message, String[] position) {
+        if (position == null) {
+            return true;
+        }
+        int compare = Long.compare(message.getCreateTime().getTime(), Long.parseLong(position[0]));
+        return compare < 0 || (compare == 0 && message.getId().compareTo(position[1]) < 0);
     }
 }
 
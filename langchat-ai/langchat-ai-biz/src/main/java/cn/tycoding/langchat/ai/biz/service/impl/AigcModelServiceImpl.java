@@ -17,6 +17,7 @@
 package cn.tycoding.langchat.ai.biz.service.impl;
 
 import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.component.ModelTypeEnum;
 import cn.tycoding.langchat.ai.biz.entity.AigcModel;
 import cn.tycoding.langchat.ai.biz.mapper.AigcModelMapper;
@@ -38,6 +39,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AigcModelServiceImpl extends ServiceImpl<AigcModelMapper, AigcModel> implements AigcModelService {
 
+    private final AigcCache aigcCache;
+
     @Override
     public List<AigcModel> getChatModels() {
         List<AigcModel> list = baseMapper.selectList(Wrappers.<AigcModel>lambdaQuery()
@@ -81,7 +84,7 @@ public class AigcModelServiceImpl extends ServiceImpl<AigcModelMapper, AigcModel
 
     @Override
     public AigcModel selectById(String id) {
-        AigcModel model = this.getById(id);
+        AigcModel model = aigcCache.getModel(id);
         hide(model);
         return model;
     }
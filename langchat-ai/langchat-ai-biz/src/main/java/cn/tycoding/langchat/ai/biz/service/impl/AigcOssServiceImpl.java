@@ -31,6 +31,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * @author tycoding
@@ -50,10 +52,50 @@ public class AigcOssServiceImpl extends ServiceImpl<AigcOssMapper, AigcOss> impl
                 .setPath(DateUtil.format(new Date(), DatePattern.PURE_DATE_PATTERN))
                 .upload();
         log.info(">>>>>>>>>>>>>> OSS文件上传结束： {} - {}", info.getFilename(), info.getUrl());
+        AigcOss oss = toOss(info, userId);
+        this.save(oss);
+        return oss;
+    }
+
+    @Override
+    public AigcOss store(Object source, String filename, String userId) {
+        FileInfo info = fileStorageService.of(source, filename)
+                .setPath(DateUtil.format(new Date(), DatePattern.PURE_DATE_PATTERN))
+                .upload();
+        return toOss(info, userId);
+    }
+
+    @Override
+    public void discard(List<AigcOss> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        for (AigcOss oss : list) {
+            try {
+                fileStorageService.delete(new FileInfo()
+                        .setUrl(oss.getUrl())
+                        .setFilename(oss.getFilename())
+                        .setBasePath(oss.getBasePath())
+                        .setPath(oss.getPath())
+                        .setPlatform(oss.getPlatform()));
+            } catch (Exception e) {
+                log.warn("删除文件失败：{}，{}", oss.getUrl(), e.getMessage());
+            }
+        }
+        List<String> ids = list.stream().map(AigcOss::getId).filter(Objects::nonNull).toList();
+        if (!ids.isEmpty()) {
+            try {
+                this.removeByIds(ids);
+            } catch (Exception e) {
+                log.warn("删除 OSS 记录失败：{}", e.getMessage());
+            }
+        }
+    }
+
+    private AigcOss toOss(FileInfo info, String userId) {
         AigcOss oss = BeanUtil.copyProperties(info, AigcOss.class);
         oss.setOssId(info.getId());
         oss.setUserId(userId);
-        this.save(oss);
         return oss;
     }
 }
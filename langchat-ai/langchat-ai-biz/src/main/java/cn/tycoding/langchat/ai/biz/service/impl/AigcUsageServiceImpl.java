@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.biz.service.impl;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.ai.biz.entity.AigcUsageDaily;
+import cn.tycoding.langchat.ai.biz.entity.AigcUsageMonthly;
+import cn.tycoding.langchat.ai.biz.mapper.AigcMessageMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcUsageDailyMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcUsageMonthlyMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcMessageArchiveService;
+import cn.tycoding.langchat.ai.biz.service.AigcUsageService;
+import cn.tycoding.langchat.common.core.constant.RoleEnum;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AigcUsageServiceImpl implements AigcUsageService {
+
+    private final AigcUsageDailyMapper aigcUsageDailyMapper;
+    private final AigcUsageMonthlyMapper aigcUsageMonthlyMapper;
+    private final AigcMessageMapper aigcMessageMapper;
+    private final AigcMessageArchiveService aigcMessageArchiveService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void record(AigcMessage message) {
+        Date time = message.getCreateTime() == null ? new Date() : message.getCreateTime();
+        long req = RoleEnum.ASSISTANT.getName().equals(message.getRole()) ? 1 : 0;
+        long tokens = message.getTokens() == null ? 0 : message.getTokens();
+        long promptTokens = message.getPromptTokens() == null ? 0 : message.getPromptTokens();
+        String appId = StrUtil.nullToEmpty(message.getAppId());
+        String model = StrUtil.nullToEmpty(message.getModel());
+        String userId = StrUtil.nullToEmpty(message.getUserId());
+        Date now = new Date();
+
+        aigcUsageDailyMapper.increment(new AigcUsageDaily()
+                .setStatDate(DateUtil.beginOfDay(time))
+                .setAppId(appId).setModel(model).setUserId(userId)
+                .setReqCount(req).setTokens(tokens).setPromptTokens(promptTokens)
+                .setUpdateTime(now));
+        aigcUsageMonthlyMapper.increment(new AigcUsageMonthly()
+                .setStatMonth(DateUtil.format(time, "yyyy-MM"))
+                .setAppId(appId).setModel(model).setUserId(userId)
+                .setReqCount(req).setTokens(tokens).setPromptTokens(promptTokens)
+                .setUpdateTime(now));
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        // 已归档的消息不在消息表中，保留这部分日期的每日汇总，月度汇总仍从每日汇总完整重建
+        Date since = aigcMessageArchiveService.getArchivedBefore();
+        Integer days = transactionTemplate.execute(status -> {
+            aigcUsageDailyMapper.clear(since);
+            aigcUsageMonthlyMapper.clear();
+            int rows = aigcUsageDailyMapper.rebuild(since);
+            aigcUsageMonthlyMapper.rebuild();
+            return rows;
+        });
+        log.info("用量汇总重建完成，汇总行数：{}，耗时：{}ms", days, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 升级后首次启动时汇总表为空，从历史消息重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                if (aigcUsageDailyMapper.selectCount(Wrappers.query()) == 0
+                        && aigcMessageMapper.exists(Wrappers.query())) {
+                    rebuild();
+                }
+            } catch (Exception e) {
+                log.error("用量汇总重建失败", e);
+            }
+        });
+    }
+}
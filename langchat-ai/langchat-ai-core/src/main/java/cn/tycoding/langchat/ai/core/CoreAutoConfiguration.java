@@ -17,6 +17,8 @@
 package cn.tycoding.langchat.ai.core;
 
 import cn.tycoding.langchat.ai.core.properties.LangChatProps;
+import cn.tycoding.langchat.ai.core.properties.MessageProps;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -30,6 +32,8 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @EnableConfigurationProperties({
         LangChatProps.class,
+        RagProps.class,
+        MessageProps.class,
 })
 @AllArgsConstructor
 public class CoreAutoConfiguration {
@@ -27,6 +27,7 @@ public interface EmbedConst {
 
     String KNOWLEDGE = "knowledgeId";
     String FILENAME = "docsName";
+    String DOCS_ID = "docsId";
 
     String CLAZZ_NAME_OPENAI = "OpenAiEmbeddingModel";
     String CLAZZ_NAME_QIANFAN = "QianfanEmbeddingModel";
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest;
+
+import cn.hutool.core.util.URLUtil;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToIntFunction;
+
+/**
+ * 待向量化文档的来源
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public interface DocumentSource {
+
+    /**
+     * 打开文档输入流交给 reader 读取，读取结束后关闭
+     */
+    int read(ToIntFunction<InputStream> reader);
+
+    /**
+     * 本地存储的文件，直接通过 FileChannel 读取
+     */
+    static DocumentSource file(Path path) {
+        return reader -> {
+            try (InputStream in = Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ))) {
+                return reader.applyAsInt(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * 对象存储中的文件，通过存储平台客户端流式读取
+     */
+    static DocumentSource storage(FileStorageService fileStorageService, FileInfo fileInfo) {
+        return reader -> {
+            int[] result = new int[1];
+            fileStorageService.download(fileInfo).inputStream(in -> result[0] = reader.applyAsInt(in));
+            return result[0];
+        };
+    }
+
+    /**
+     * 无法识别存储平台的文件，通过 URL 读取
+     */
+    static DocumentSource url(String url) {
+        return reader -> {
+            try (InputStream in = URLUtil.getStream(URLUtil.url(url))) {
+                return reader.applyAsInt(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest;
+
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcOss;
+import cn.tycoding.langchat.ai.biz.service.AigcOssService;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.LocalPlusFileStorage;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 根据文档地址找到上传时的 OSS 记录和存储平台：本地存储直接读取磁盘文件，其他平台通过平台客户端流式下载，
+ * 不再经过本服务的 HTTP 静态资源访问自己的文件
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentSourceResolver {
+
+    private final AigcOssService aigcOssService;
+    private final FileStorageService fileStorageService;
+
+    public DocumentSource resolve(String url) {
+        AigcOss oss = StrUtil.isBlank(url) ? null : aigcOssService.getOne(Wrappers.<AigcOss>lambdaQuery()
+                .eq(AigcOss::getUrl, url)
+                .last("limit 1"));
+        if (oss == null || StrUtil.isBlank(oss.getPlatform())) {
+            return DocumentSource.url(url);
+        }
+
+        FileStorage storage = fileStorageService.getFileStorage(oss.getPlatform());
+        if (storage instanceof LocalPlusFileStorage local) {
+            Path path = Path.of(local.getAbsolutePath(StrUtil.nullToEmpty(oss.getBasePath())
+                    + StrUtil.nullToEmpty(oss.getPath()) + oss.getFilename()));
+            if (Files.isReadable(path)) {
+                return DocumentSource.file(path);
+            }
+            log.warn("本地存储文件不存在：{}，改为通过 URL 读取", path);
+            return DocumentSource.url(url);
+        }
+        if (storage != null) {
+            return DocumentSource.storage(fileStorageService, new FileInfo()
+                    .setId(oss.getOssId())
+                    .setUrl(oss.getUrl())
+                    .setSize(oss.getSize())
+                    .setFilename(oss.getFilename())
+                    .setOriginalFilename(oss.getOriginalFilename())
+                    .setBasePath(oss.getBasePath())
+                    .setPath(oss.getPath())
+                    .setExt(oss.getExt())
+                    .setContentType(oss.getContentType())
+                    .setPlatform(oss.getPlatform()));
+        }
+        return DocumentSource.url(url);
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest;
+
+import cn.hutool.crypto.SecureUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcModel;
+import cn.tycoding.langchat.ai.core.consts.ProviderEnum;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.ai.core.provider.EmbeddingCacheProvider;
+import cn.tycoding.langchat.ai.core.provider.ModelStoreFactory;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Embedding 请求执行器
+ * <p>
+ * 按模型供应商的单次请求条数和 Token 上限拆分批次并发请求，每个 Embedding 模型使用独立的 AIMD 并发控制：
+ * 请求成功时并发数缓慢增加，被限流时并发数减半并暂停一段时间；单批失败只重试该批：超时、5xx 等临时错误退避后重试，
+ * 批次超限或文本异常（400/413/422）拆半后分别请求，鉴权失败等其他 4xx 错误直接失败。
+ * 请求前先查询 Embedding 缓存，只有未命中且去重后的文本才会请求模型
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingExecutor {
+
+    public static final String METRIC_REQUEST = "langchat.rag.embed.request";
+
+    /**
+     * 各供应商单次请求的条数和 Token 上限，Token 数按字符数保守估算
+     */
+    private static final Limit DEFAULT_LIMIT = new Limit(16, 16 * 8192);
+    private static final Map<ProviderEnum, Limit> LIMITS = Map.of(
+            ProviderEnum.OPENAI, new Limit(256, 300_000),
+            ProviderEnum.AZURE_OPENAI, new Limit(16, 16 * 8191),
+            ProviderEnum.Q_WEN, new Limit(10, 10 * 8192),
+            ProviderEnum.Q_FAN, new Limit(16, 16 * 384),
+            ProviderEnum.ZHIPU, new Limit(64, 64 * 3072),
+            ProviderEnum.OLLAMA, new Limit(32, 32 * 8192)
+    );
+
+    private static final Pattern THROTTLE = Pattern.compile(
+            "429|too many requests|rate.?limit|throttl|qps|rpm|tpm|限流|频率|请求过多", Pattern.CASE_INSENSITIVE);
+    private static final Pattern OVERSIZE = Pattern.compile(
+            "too (large|long|many)|maximum|exceed|context length|batch size|超出|超过|过长|过大", Pattern.CASE_INSENSITIVE);
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "langchat-embed-" + THREAD_INDEX.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final RagProps ragProps;
+    private final ModelStoreFactory modelStoreFactory;
+    private final EmbeddingCacheProvider embeddingCacheProvider;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AimdLimiter> limiters = new ConcurrentHashMap<>();
+
+    public Embedding embed(String modelId, TextSegment segment) {
+        return embedAll(modelId, List.of(segment), null).get(0);
+    }
+
+    /**
+     * 批量向量化，返回结果与入参顺序一致
+     *
+     * @param stats 缓存命中统计，可为空
+     */
+    public List<Embedding> embedAll(String modelId, List<TextSegment> segments, EmbeddingStats stats) {
+        EmbeddingModel model = modelStoreFactory.getEmbeddingModel(modelId);
+        if (model == null) {
+            throw new ServiceException("没有找到匹配的Embedding模型");
+        }
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        AigcModel config = modelStoreFactory.getEmbeddingModelConfig(modelId);
+
+        List<String> hashes = segments.stream().map(i -> SecureUtil.sha256(i.text())).toList();
+        Map<String, Embedding> cached = embeddingCacheProvider.get(modelId, config, new HashSet<>(hashes));
+        // 未命中的文本去重后请求模型
+        Map<String, TextSegment> misses = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            if (!cached.containsKey(hashes.get(i))) {
+                misses.putIfAbsent(hashes.get(i), segments.get(i));
+            }
+        }
+        if (stats != null) {
+            stats.record(segments.size() - misses.size(), misses.size());
+        }
+
+        Map<String, Embedding> embedded = new HashMap<>(cached);
+        if (!misses.isEmpty()) {
+            List<Embedding> embeddings = request(modelId, model, config, new ArrayList<>(misses.values()));
+            Map<String, Embedding> fresh = new HashMap<>();
+            int i = 0;
+            for (String hash : misses.keySet()) {
+                fresh.put(hash, embeddings.get(i++));
+            }
+            embeddingCacheProvider.put(modelId, config, fresh);
+            embedded.putAll(fresh);
+        }
+        return hashes.stream().map(embedded::get).toList();
+    }
+
+    private List<Embedding> request(String modelId, EmbeddingModel model, AigcModel config, List<TextSegment> segments) {
+        RagProps.Embed props = ragProps.getEmbed();
+        AimdLimiter limiter = limiters.computeIfAbsent(modelId,
+                k -> new AimdLimiter(props.getInitialConcurrency(), props.getMaxConcurrency()));
+        Call call = new Call(modelId, model, limiter, new Embedding[segments.size()], new AtomicReference<>());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        int from = 0;
+        for (int to : partition(segments, limitOf(config))) {
+            List<TextSegment> batch = segments.subList(from, to);
+            int offset = from;
+            futures.add(CompletableFuture.runAsync(() -> run(call, batch, offset), EXECUTOR));
+            from = to;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = call.failure().get() != null ? call.failure().get() : e.getCause();
+            throw new ServiceException("Embedding 请求失败：" + cause.getMessage());
+        }
+        return Arrays.asList(call.result());
+    }
+
+    private void run(Call call, List<TextSegment> batch, int offset) {
+        try {
+            embedBatch(call, batch, offset);
+        } catch (Throwable e) {
+            call.failure().compareAndSet(null, e);
+            throw new CompletionException(e);
+        }
+    }
+
+    private void embedBatch(Call call, List<TextSegment> batch, int offset) throws Exception {
+        RagProps.Embed props = ragProps.getEmbed();
+        int attempt = 0;
+        while (true) {
+            if (call.failure().get() != null) {
+                throw new CancellationException("同批次其他请求已失败");
+            }
+            call.limiter().acquire();
+            try {
+                List<Embedding> embeddings = call.model().embedAll(batch).content();
+                if (embeddings.size() != batch.size()) {
+                    throw new IllegalStateException("Embedding 返回数量与请求数量不一致");
+                }
+                call.limiter().onSuccess();
+                count(call.modelId(), "success");
+                for (int i = 0; i < embeddings.size(); i++) {
+                    call.result()[offset + i] = embeddings.get(i);
+                }
+                return;
+            } catch (Exception e) {
+                long backoff = backoff(props, attempt);
+                boolean throttled = isThrottled(e);
+                if (throttled) {
+                    call.limiter().onThrottled(backoff);
+                    count(call.modelId(), "throttled");
+                } else {
+                    call.limiter().onError();
+                    count(call.modelId(), "error");
+                }
+
+                if (!throttled && isSplittable(e)) {
+                    if (batch.size() == 1) {
+                        // 单条文本超限或内容异常，重试也不会成功
+                        throw e;
+                    }
+                    // 批次超限或个别文本异常，拆半后分别请求，避免整批失败
+                    int mid = batch.size() / 2;
+                    embedBatch(call, batch.subList(0, mid), offset);
+                    embedBatch(call, batch.subList(mid, batch.size()), offset + mid);
+                    return;
+                }
+                if (!isRetryable(e) || ++attempt > props.getMaxRetries()) {
+                    throw e;
+                }
+                log.warn("Embedding 请求失败，{}ms 后第 {} 次重试，modelId={}，切片数量：{}，原因：{}",
+                        backoff, attempt, call.modelId(), batch.size(), e.getMessage());
+                if (!throttled) {
+                    // 限流时由 limiter 统一暂停该模型的所有请求
+                    Thread.sleep(backoff);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按供应商上限切分批次，返回每批的结束下标
+     */
+    private static List<Integer> partition(List<TextSegment> segments, Limit limit) {
+        List<Integer> ends = new ArrayList<>();
+        int size = 0;
+        int tokens = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            int estimate = segments.get(i).text().length();
+            if (size > 0 && (size >= limit.batchSize() || tokens + estimate > limit.batchTokens())) {
+                ends.add(i);
+                size = 0;
+                tokens = 0;
+            }
+            size++;
+            tokens += estimate;
+        }
+        ends.add(segments.size());
+        return ends;
+    }
+
+    private static Limit limitOf(AigcModel config) {
+        if (config == null || config.getProvider() == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            return LIMITS.getOrDefault(ProviderEnum.valueOf(config.getProvider()), DEFAULT_LIMIT);
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_LIMIT;
+        }
+    }
+
+    private static long backoff(RagProps.Embed props, int attempt) {
+        long base = props.getBackoff().toMillis() << Math.min(attempt, 16);
+        long delay = Math.min(base, props.getMaxBackoff().toMillis());
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private static boolean isThrottled(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpException http && http.statusCode() == 429) {
+                return true;
+            }
+            if (t.getMessage() != null && THROTTLE.matcher(t.getMessage()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 请求体超限或输入异常，拆分批次后可能成功
+     */
+    private static boolean isSplittable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpException http) {
+                int code = http.statusCode();
+                if (code == 400 || code == 413 || code == 422) {
+                    return true;
+                }
+                if (code < 500) {
+                    // 鉴权、权限、限流等错误与批次大小无关
+                    return false;
+                }
+            }
+            if (t.getMessage() != null && OVERSIZE.matcher(t.getMessage()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpException http) {
+                int code = http.statusCode();
+                return code == 408 || code == 429 || code >= 500;
+            }
+        }
+        return true;
+    }
+
+    private void count(String modelId, String result) {
+        meterRegistry.counter(METRIC_REQUEST, "model", modelId, "result", result).increment();
+    }
+
+    private record Limit(int batchSize, int batchTokens) {
+    }
+
+    private record Call(String modelId, EmbeddingModel model, AimdLimiter limiter,
+                        Embedding[] result, AtomicReference<Throwable> failure) {
+    }
+
+    /**
+     * 加性增、乘性减（AIMD）的并发控制
+     */
+    private static final class AimdLimiter {
+
+        private final int max;
+        private double limit;
+        private int inFlight;
+        private long pausedUntil;
+
+        AimdLimiter(int initial, int max) {
+            this.max = Math.max(1, max);
+            this.limit = Math.max(1, Math.min(initial, this.max));
+        }
+
+        synchronized void acquire() throws InterruptedException {
+            while (true) {
+                long wait = pausedUntil - System.currentTimeMillis();
+                if (wait > 0) {
+                    wait(wait);
+                } else if (inFlight < (int) limit) {
+                    inFlight++;
+                    return;
+                } else {
+                    wait();
+                }
+            }
+        }
+
+        synchronized void onSuccess() {
+            inFlight--;
+            // 每完成约 limit 个请求并发数加一
+            limit = Math.min(max, limit + 1.0 / limit);
+            notifyAll();
+        }
+
+        synchronized void onThrottled(long pause) {
+            inFlight--;
+            long now = System.currentTimeMillis();
+            // 同一暂停窗口内的多次限流只减半一次
+            if (now >= pausedUntil) {
+                limit = Math.max(1, limit / 2);
+                log.warn("Embedding 请求被限流，并发数调整为 {}，暂停 {}ms", (int) limit, pause);
+            }
+            pausedUntil = Math.max(pausedUntil, now + pause);
+            notifyAll();
+        }
+
+        synchronized void onError() {
+            inFlight--;
+            notifyAll();
+        }
+    }
+}
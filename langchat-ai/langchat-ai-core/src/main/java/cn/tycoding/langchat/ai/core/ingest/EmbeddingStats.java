@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedding 缓存命中统计，用于单次向量化任务和各模型的累计命中率
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class EmbeddingStats {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public void record(int hit, int miss) {
+        hits.addAndGet(hit);
+        misses.addAndGet(miss);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public double hitRate() {
+        long total = hits() + misses();
+        return total == 0 ? 0 : (double) hits() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("命中 %d，未命中 %d，命中率 %.1f%%", hits(), misses(), hitRate() * 100);
+    }
+}
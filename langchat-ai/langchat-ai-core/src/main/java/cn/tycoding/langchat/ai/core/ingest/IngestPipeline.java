@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.ingest;
+
+import cn.tycoding.langchat.ai.core.ingest.splitter.MarkdownSplitter;
+import cn.tycoding.langchat.common.ai.dto.EmbeddingR;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 文档向量化流水线：解析 → 切分 → Embedding → 写入向量库
+ * <p>
+ * 各阶段通过有界队列连接并发执行，下游处理不过来时上游阻塞等待（背压），
+ * 内存占用只与队列容量相关，与文档大小无关；每批数据写入向量库后立即回调，调用方可以同步写入切片数据
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+public class IngestPipeline {
+
+    private static final String END_TEXT = new String();
+    private static final List<TextSegment> END_SEGMENTS = new ArrayList<>(0);
+    private static final Batch END_BATCH = new Batch(List.of(), List.of());
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "langchat-ingest-" + THREAD_INDEX.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DocumentSplitter splitter;
+    private final Function<List<TextSegment>, List<Embedding>> embedder;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final int windowSize;
+    private final int batchSize;
+    private Predicate<TextSegment> skip = segment -> false;
+    private IngestProgress progress = new IngestProgress();
+
+    private final BlockingQueue<String> texts;
+    private final BlockingQueue<List<TextSegment>> segments;
+    private final BlockingQueue<Batch> batches;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * @param embedder   批量向量化，返回结果与入参顺序一致
+     * @param windowSize 每次交给切分器的文本长度（字符）
+     * @param batchSize  每批 Embedding 的切片数量
+     * @param queueSize  各阶段之间的队列容量
+     */
+    public IngestPipeline(DocumentSplitter splitter, Function<List<TextSegment>, List<Embedding>> embedder, EmbeddingStore<TextSegment> embeddingStore,
+                          int windowSize, int batchSize, int queueSize) {
+        this.splitter = splitter;
+        this.embedder = embedder;
+        this.embeddingStore = embeddingStore;
+        this.windowSize = windowSize;
+        this.batchSize = batchSize;
+        this.texts = new ArrayBlockingQueue<>(queueSize);
+        this.segments = new ArrayBlockingQueue<>(queueSize);
+        this.batches = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * 跳过无需向量化的切片（如内容未变化的切片），被跳过的切片仍占用序号
+     */
+    public IngestPipeline skip(Predicate<TextSegment> skip) {
+        this.skip = skip;
+        return this;
+    }
+
+    public IngestPipeline progress(IngestProgress progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    /**
+     * 执行流水线，写入阶段在当前线程执行
+     *
+     * @param input    文档输入流，执行结束后关闭
+     * @param metadata 写入每个切片的元数据
+     * @param consumer 每批切片写入向量库后的回调
+     * @return 写入的切片数量
+     */
+    public int run(InputStream input, Metadata metadata, Consumer<List<EmbeddingR>> consumer) {
+        long start = System.currentTimeMillis();
+        List<Future<?>> stages = List.of(
+                EXECUTOR.submit(() -> stage(() -> parse(input))),
+                EXECUTOR.submit(() -> stage(() -> split(metadata))),
+                EXECUTOR.submit(() -> stage(this::embed))
+        );
+
+        int count = 0;
+        try {
+            Batch batch;
+            while ((batch = take(batches)) != END_BATCH) {
+                List<String> ids = embeddingStore.addAll(batch.embeddings(), batch.segments());
+                List<EmbeddingR> list = new ArrayList<>(ids.size());
+                for (int i = 0; i < ids.size(); i++) {
+                    TextSegment segment = batch.segments().get(i);
+                    list.add(new EmbeddingR().setVectorId(ids.get(i)).setText(segment.text())
+                            .setIndex(Integer.valueOf(segment.metadata().getString("index"))));
+                }
+                try {
+                    consumer.accept(list);
+                } catch (RuntimeException e) {
+                    // 回调失败时这批向量没有对应的切片记录，从向量库移除，避免留下孤立向量
+                    removeQuietly(ids);
+                    throw e;
+                }
+                count += ids.size();
+                progress.addSlices(ids.size());
+            }
+        } catch (Throwable e) {
+            if (failure.compareAndSet(null, e)) {
+                log.error("文档向量化写入失败", e);
+            }
+        } finally {
+            stages.forEach(f -> f.cancel(true));
+        }
+
+        Throwable e = failure.get();
+        if (e != null) {
+            throw new IllegalStateException("文档向量化失败，已写入 " + count + " 个切片：" + e.getMessage(), e);
+        }
+        log.info("文档向量化完成，切片数量：{}，耗时：{}ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private void removeQuietly(List<String> ids) {
+        try {
+            embeddingStore.removeAll(ids);
+        } catch (Exception e) {
+            log.error("移除写入失败的向量失败，向量ID：{}", ids, e);
+        }
+    }
+
+    private void parse(InputStream input) throws Exception {
+        try (InputStream in = input; WindowWriter writer = new WindowWriter()) {
+            new AutoDetectParser().parse(in, new PageCountingHandler(writer), new org.apache.tika.metadata.Metadata(), new ParseContext());
+        }
+        put(texts, END_TEXT);
+    }
+
+    /**
+     * 每个窗口的最后一个切片可能在窗口边界被截断，且下一个窗口的第一个切片需要与它重叠，
+     * 因此最后一个切片暂不输出，其内容拼接到下一个窗口开头重新切分
+     */
+    private void split(Metadata metadata) throws InterruptedException {
+        Counter index = new Counter();
+        List<TextSegment> batch = new ArrayList<>(batchSize);
+        String carry = "";
+        String text;
+        while ((text = take(texts)) != END_TEXT) {
+            String window = carry + text;
+            if (window.isBlank()) {
+                carry = "";
+                continue;
+            }
+            List<TextSegment> list = splitter.split(Document.from(window, metadata.copy()));
+            if (list.isEmpty()) {
+                carry = "";
+                continue;
+            }
+            carry = carry(list.get(list.size() - 1));
+            batch = emit(list.subList(0, list.size() - 1), index, batch);
+        }
+        if (!carry.isBlank()) {
+            batch = emit(splitter.split(Document.from(carry, metadata.copy())), index, batch);
+        }
+        if (!batch.isEmpty()) {
+            put(segments, batch);
+        }
+        put(segments, END_SEGMENTS);
+    }
+
+    private List<TextSegment> emit(List<TextSegment> list, Counter index, List<TextSegment> batch) throws InterruptedException {
+        for (TextSegment segment : list) {
+            // 按窗口切分后重新编号，保证整篇文档的切片序号连续
+            segment.metadata().put("index", String.valueOf(index.value++));
+            boolean skipped = skip.test(segment);
+            progress.addSegment(skipped);
+            if (skipped) {
+                continue;
+            }
+            batch.add(segment);
+            if (batch.size() >= batchSize) {
+                put(segments, batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 暂存切片的原文，Markdown 切片前附加的标题路径还原为标题行，使下一个窗口的切片仍归属同一标题
+     */
+    private static String carry(TextSegment segment) {
+        String text = segment.text();
+        String heading = segment.metadata().getString(MarkdownSplitter.HEADING);
+        // 标题路径过长时切片前只附加了末尾部分
+        int line = text.indexOf('\n');
+        if (heading == null || line <= 0 || !heading.endsWith(text.substring(0, line))) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder();
+        String[] parts = heading.split(" > ");
+        for (int i = 0; i < parts.length; i++) {
+            sb.append("#".repeat(Math.min(i + 1, 6))).append(' ').append(parts[i]).append('\n');
+        }
+        return sb.append(text, line + 1, text.length()).toString();
+    }
+
+    private void embed() throws InterruptedException {
+        List<TextSegment> batch;
+        while ((batch = take(segments)) != END_SEGMENTS) {
+            List<Embedding> embeddings = embedder.apply(batch);
+            put(batches, new Batch(batch, embeddings));
+        }
+        put(batches, END_BATCH);
+    }
+
+    private void stage(Task task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            if (failure.compareAndSet(null, e)) {
+                log.error("文档向量化流水线执行失败", e);
+            }
+        }
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        T item;
+        while ((item = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+            checkFailure();
+        }
+        return item;
+    }
+
+    private void checkFailure() {
+        if (failure.get() != null) {
+            throw new CancellationException("流水线其他阶段执行失败");
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private record Batch(List<TextSegment> segments, List<Embedding> embeddings) {
+    }
+
+    private static class Counter {
+        int value;
+    }
+
+    /**
+     * Tika 将分页文档的每一页输出为 &lt;div class="page"&gt;，据此统计解析进度
+     */
+    private class PageCountingHandler extends BodyContentHandler {
+
+        PageCountingHandler(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String name, Attributes atts) throws SAXException {
+            if ("div".equals(localName) && "page".equals(atts.getValue("class"))) {
+                progress.addPage();
+            }
+            super.startElement(uri, localName, name, atts);
+        }
+    }
+
+    /**
+     * 接收 Tika 解析出的文本，累积到 windowSize 后在换行处截断并交给切分阶段
+     */
+    private class WindowWriter extends Writer {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            buffer.append(cbuf, off, len);
+            while (buffer.length() >= windowSize) {
+                int cut = buffer.lastIndexOf("\n", windowSize);
+                if (cut < windowSize / 2) {
+                    cut = windowSize;
+                }
+                emit(buffer.substring(0, cut));
+                buffer.delete(0, cut);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            if (!buffer.isEmpty()) {
+                emit(buffer.toString());
+                buffer.setLength(0);
+            }
+        }
+
+        private void emit(String text) {
+            try {
+                put(texts, text);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("文档解析被中断");
+            }
+        }
+    }
+}
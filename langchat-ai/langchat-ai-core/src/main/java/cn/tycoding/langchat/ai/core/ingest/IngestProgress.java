@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文档向量化进度
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class IngestProgress {
+
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicInteger segments = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger slices = new AtomicInteger();
+    private final EmbeddingStats cache = new EmbeddingStats();
+    private volatile Runnable listener = () -> {
+    };
+
+    /**
+     * 进度变化时回调，在流水线线程中执行，不应阻塞
+     */
+    public IngestProgress onChange(Runnable listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    void addPage() {
+        pages.incrementAndGet();
+        listener.run();
+    }
+
+    void addSegment(boolean skip) {
+        (skip ? skipped : segments).incrementAndGet();
+    }
+
+    void addSlices(int count) {
+        slices.addAndGet(count);
+        listener.run();
+    }
+
+    /**
+     * 已解析的页数，只有 PDF、PPT 等分页文档才有
+     */
+    public int pages() {
+        return pages.get();
+    }
+
+    /**
+     * 切分出的需要向量化的切片数量，文档解析完成前会持续增加
+     */
+    public int segments() {
+        return segments.get();
+    }
+
+    /**
+     * 内容未变化而直接复用的切片数量
+     */
+    public int skipped() {
+        return skipped.get();
+    }
+
+    /**
+     * 已向量化并写入向量库的切片数量
+     */
+    public int slices() {
+        return slices.get();
+    }
+
+    /**
+     * 本次执行的 Embedding 缓存命中统计
+     */
+    public EmbeddingStats cache() {
+        return cache;
+    }
+
+    public int cacheHits() {
+        return (int) cache.hits();
+    }
+
+    public int cacheMisses() {
+        return (int) cache.misses();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 固定长度切分，相邻切片重叠 overlap 个字符，不会切开代理对字符
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class FixedSizeSplitter implements DocumentSplitter {
+
+    private final int size;
+    private final int overlap;
+
+    public FixedSizeSplitter(int size, int overlap) {
+        this.size = size;
+        this.overlap = Math.min(overlap, size - 1);
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        String text = document.text();
+        int length = text.length();
+        int step = size - overlap;
+        List<TextSegment> segments = new ArrayList<>(length / step + 1);
+        int start = 0;
+        while (start < length) {
+            int end = Math.min(length, start + size);
+            if (end < length && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--;
+            }
+            SentenceSplitter.emit(text, start, end, "", document.metadata(), segments);
+            if (end >= length) {
+                break;
+            }
+            start = Math.max(start + 1, end - overlap);
+            if (Character.isLowSurrogate(text.charAt(start))) {
+                start++;
+            }
+        }
+        return segments;
+    }
+}
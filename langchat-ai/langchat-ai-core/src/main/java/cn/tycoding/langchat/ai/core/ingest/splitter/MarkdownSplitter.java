@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Markdown 按标题分节，节内交给 SentenceSplitter 切分，每个切片前附加所属的标题路径（如 "安装 > Docker 部署"），
+ * 并写入 heading 元数据。标题路径计入切片大小，超过切片大小一半时只保留末尾部分。代码块中以 # 开头的行不作为标题
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class MarkdownSplitter implements DocumentSplitter {
+
+    public static final String HEADING = "heading";
+
+    private final SentenceSplitter sentenceSplitter;
+    private final int maxPrefix;
+
+    public MarkdownSplitter(int maxSize, int overlap) {
+        this.sentenceSplitter = new SentenceSplitter(maxSize, overlap, null);
+        this.maxPrefix = Math.max(0, maxSize / 2 - 1);
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        String text = document.text();
+        int length = text.length();
+        List<TextSegment> segments = new ArrayList<>();
+        String[] headings = new String[6];
+        boolean fence = false;
+        int section = 0;
+        int line = 0;
+        while (line < length) {
+            int next = text.indexOf('\n', line);
+            next = next < 0 ? length : next + 1;
+
+            int s = line;
+            while (s < next && s - line < 3 && text.charAt(s) == ' ') {
+                s++;
+            }
+            if (text.startsWith("```", s) || text.startsWith("~~~", s)) {
+                fence = !fence;
+            } else if (!fence) {
+                int level = 0;
+                while (s + level < next && level < 7 && text.charAt(s + level) == '#') {
+                    level++;
+                }
+                if (level >= 1 && level <= 6 && s + level < next && Character.isWhitespace(text.charAt(s + level))) {
+                    flush(text, section, line, headings, document.metadata(), segments);
+                    headings[level - 1] = text.substring(s + level, next).strip();
+                    for (int i = level; i < headings.length; i++) {
+                        headings[i] = null;
+                    }
+                    section = next;
+                }
+            }
+            line = next;
+        }
+        flush(text, section, length, headings, document.metadata(), segments);
+        return segments;
+    }
+
+    private void flush(String text, int from, int to, String[] headings, Metadata metadata, List<TextSegment> segments) {
+        if (from >= to) {
+            return;
+        }
+        StringBuilder path = new StringBuilder();
+        for (String heading : headings) {
+            if (heading != null && !heading.isEmpty()) {
+                if (!path.isEmpty()) {
+                    path.append(" > ");
+                }
+                path.append(heading);
+            }
+        }
+        if (path.isEmpty()) {
+            sentenceSplitter.split(text, from, to, "", metadata, segments);
+            return;
+        }
+        String heading = path.toString();
+        // 保留最深的几级标题，与切片内容关系最近
+        String prefix = heading.length() <= maxPrefix ? heading : heading.substring(heading.length() - maxPrefix);
+        if (!prefix.isEmpty() && Character.isLowSurrogate(prefix.charAt(0))) {
+            prefix = prefix.substring(1);
+        }
+        sentenceSplitter.split(text, from, to, prefix.isEmpty() ? "" : prefix + "\n",
+                metadata.copy().put(HEADING, heading), segments);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按句子边界组合切片：先扫描出句子（以句末标点或换行结尾）的结束位置，再把相邻句子组合到不超过切片大小，
+ * 相邻切片重叠末尾的若干句子。超过切片大小的单个句子按长度强制切开。
+ * <p>
+ * 扫描过程只记录句子边界的下标和大小，不为每个句子创建字符串（按 Token 计算时除外），只在输出切片时截取一次
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class SentenceSplitter implements DocumentSplitter {
+
+    private static final String SENTENCE_END = "。！？；…!?;";
+    private static final String CLOSING = "”’」』）】》)]\"'";
+
+    private final int maxSize;
+    private final int overlap;
+    private final Tokenizer tokenizer;
+
+    /**
+     * @param tokenizer 为空时切片大小按字符数计算，否则按 Token 数计算
+     */
+    public SentenceSplitter(int maxSize, int overlap, Tokenizer tokenizer) {
+        this.maxSize = maxSize;
+        this.overlap = overlap;
+        this.tokenizer = tokenizer;
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        String text = document.text();
+        List<TextSegment> segments = new ArrayList<>(Math.max(1, text.length() / Math.max(1, maxSize)));
+        split(text, 0, text.length(), "", document.metadata(), segments);
+        return segments;
+    }
+
+    /**
+     * 切分 text 的 [from, to) 区间，切片内容前附加 prefix，prefix 计入切片大小
+     */
+    void split(String text, int from, int to, String prefix, Metadata metadata, List<TextSegment> segments) {
+        int limit = prefix.isEmpty() ? maxSize : Math.max(1, maxSize - measure(prefix, 0, prefix.length()));
+        Units units = new Units();
+        int start = from;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            boolean end = c == '\n' || SENTENCE_END.indexOf(c) >= 0
+                    || (c == '.' && (i + 1 == to || Character.isWhitespace(text.charAt(i + 1))));
+            if (!end) {
+                continue;
+            }
+            int stop = i + 1;
+            while (stop < to && CLOSING.indexOf(text.charAt(stop)) >= 0) {
+                stop++;
+            }
+            addUnit(units, text, start, stop, limit);
+            start = stop;
+            i = stop - 1;
+        }
+        if (start < to) {
+            addUnit(units, text, start, to, limit);
+        }
+
+        int i = 0;
+        while (i < units.count) {
+            int j = i;
+            int total = 0;
+            while (j < units.count && (j == i || total + units.sizes[j] <= limit)) {
+                total += units.sizes[j++];
+            }
+            emit(text, i == 0 ? from : units.ends[i - 1], units.ends[j - 1], prefix, metadata, segments);
+            if (j >= units.count) {
+                break;
+            }
+            // 下一个切片从末尾若干句子开始，重叠部分不超过 overlap，且要给下一个句子留出空间，避免切片只有重叠内容
+            int back = j;
+            int shared = 0;
+            int room = Math.min(overlap, limit - units.sizes[j]);
+            while (back - 1 > i && shared + units.sizes[back - 1] <= room) {
+                shared += units.sizes[--back];
+            }
+            i = back;
+        }
+    }
+
+    private void addUnit(Units units, String text, int start, int end, int limit) {
+        int size = measure(text, start, end);
+        if (size <= limit) {
+            units.add(end, size);
+            return;
+        }
+        // 超长句子按比例切成不超过切片大小的若干段
+        int step = Math.max(1, (int) ((long) (end - start) * limit / size));
+        for (int s = start; s < end; ) {
+            int e = Math.min(end, s + step);
+            if (e < end && Character.isHighSurrogate(text.charAt(e - 1))) {
+                e--;
+            }
+            if (e <= s) {
+                e = Math.min(end, s + 2);
+            }
+            units.add(e, measure(text, s, e));
+            s = e;
+        }
+    }
+
+    private int measure(String text, int start, int end) {
+        return tokenizer == null ? end - start : tokenizer.estimateTokenCountInText(text.substring(start, end));
+    }
+
+    static void emit(String text, int start, int end, String prefix, Metadata metadata, List<TextSegment> segments) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        Metadata copy = metadata.copy().put("index", String.valueOf(segments.size()));
+        segments.add(TextSegment.from(prefix.isEmpty() ? text.substring(start, end) : prefix + text.substring(start, end), copy));
+    }
+
+    /**
+     * 句子的结束下标和大小
+     */
+    private static class Units {
+        int[] ends = new int[64];
+        int[] sizes = new int[64];
+        int count;
+
+        void add(int end, int size) {
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            ends[count] = end;
+            sizes[count++] = size;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest.splitter;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
+import cn.tycoding.langchat.ai.core.provider.PackingProvider;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按知识库配置的切分策略、切片大小和重叠创建 DocumentSplitter。切分器都是无状态的，相同配置共用一个实例；
+ * Token 切分与 PackingProvider 共用默认的 tiktoken 分词器
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Component
+public class SplitterRegistry {
+
+    private final Map<String, DocumentSplitter> splitters = new ConcurrentHashMap<>();
+
+    public DocumentSplitter getSplitter(AigcKnowledge knowledge) {
+        return getSplitter(knowledge.getSplitter(), knowledge.getChunkSize(), knowledge.getChunkOverlap());
+    }
+
+    public DocumentSplitter getSplitter(String splitter, Integer chunkSize, Integer chunkOverlap) {
+        SplitterTypeEnum type = check(splitter, chunkSize, chunkOverlap);
+        int size = chunkSize == null ? type.getDefaultSize() : chunkSize;
+        int overlap = chunkOverlap == null ? Math.min(type.getDefaultOverlap(), size / 2) : chunkOverlap;
+        return splitters.computeIfAbsent(type + ":" + size + ":" + overlap, k -> create(type, size, overlap));
+    }
+
+    /**
+     * 校验知识库的切分配置
+     */
+    public SplitterTypeEnum check(String splitter, Integer chunkSize, Integer chunkOverlap) {
+        SplitterTypeEnum type = SplitterTypeEnum.of(splitter);
+        if (type == null) {
+            throw new ServiceException("不支持的文档切分策略：" + splitter);
+        }
+        if (chunkSize != null && chunkSize <= 0) {
+            throw new ServiceException("切片大小必须大于 0");
+        }
+        if (chunkSize != null && chunkSize > type.getMaxSize()) {
+            throw new ServiceException("切片大小不能超过 " + type.getMaxSize());
+        }
+        if (chunkOverlap != null && (chunkOverlap < 0 || chunkOverlap >= (chunkSize == null ? type.getDefaultSize() : chunkSize))) {
+            throw new ServiceException("切片重叠必须大于等于 0 且小于切片大小");
+        }
+        return type;
+    }
+
+    private DocumentSplitter create(SplitterTypeEnum type, int size, int overlap) {
+        return switch (type) {
+            case RECURSIVE -> DocumentSplitters.recursive(size, overlap);
+            case TOKEN -> new SentenceSplitter(size, overlap, PackingProvider.DEFAULT_OPENAI_TOKENIZER);
+            case SENTENCE -> new SentenceSplitter(size, overlap, null);
+            case MARKDOWN -> new MarkdownSplitter(size, overlap);
+            case FIXED -> new FixedSizeSplitter(size, overlap);
+        };
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.ingest.splitter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 文档切分策略，知识库未配置切片大小和重叠时使用各策略的默认值；切片大小上限按常见 Embedding 模型单条输入 8192 Token 设置
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Getter
+@AllArgsConstructor
+public enum SplitterTypeEnum {
+
+    /**
+     * 按段落、换行、句子、单词递归切分（字符数），未配置切分策略的知识库使用该策略
+     */
+    RECURSIVE(300, 20, 8000),
+
+    /**
+     * 按句子边界组合切片，切片大小按 Token 数计算
+     */
+    TOKEN(512, 64, 8192),
+
+    /**
+     * 按句子边界组合切片，切片大小按字符数计算
+     */
+    SENTENCE(800, 100, 8000),
+
+    /**
+     * 按 Markdown 标题分节，节内按句子切分，切片前附加所属的标题路径
+     */
+    MARKDOWN(1000, 100, 8000),
+
+    /**
+     * 固定长度切分，相邻切片按配置的字符数重叠
+     */
+    FIXED(800, 100, 8000),
+    ;
+
+    private final int defaultSize;
+    private final int defaultOverlap;
+    private final int maxSize;
+
+    public static SplitterTypeEnum of(String name) {
+        if (name == null || name.isBlank()) {
+            return RECURSIVE;
+        }
+        for (SplitterTypeEnum type : values()) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 对话消息存储相关配置
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@ConfigurationProperties(prefix = "langchat.message")
+public class MessageProps {
+
+    /**
+     * 消息表按月分区与冷数据归档
+     */
+    private Archive archive = new Archive();
+
+    @Data
+    public static class Archive {
+
+        /**
+         * 是否自动维护分区并归档过期月份，默认关闭。
+         * 开启后超过保留期的消息会从消息表中删除，只保留在归档文件中，属于不可逆的数据迁移，
+         * 开启前需先按 docs/langchat.sql 将 aigc_message 改为按月分区并备份数据
+         */
+        private boolean enabled = false;
+
+        /**
+         * 消息表中保留的月份数（包含当月），更早的月份归档到对象存储
+         */
+        private Integer retainMonths = 6;
+
+        /**
+         * 提前创建的月份分区数
+         */
+        private Integer aheadMonths = 3;
+
+        /**
+         * 检查间隔
+         */
+        private Duration interval = Duration.ofHours(6);
+
+        /**
+         * 归档文件在对象存储中的路径
+         */
+        private String path = "archive/message/";
+    }
+}
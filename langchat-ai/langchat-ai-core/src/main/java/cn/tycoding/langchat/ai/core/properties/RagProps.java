@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * RAG 检索增强相关配置
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@ConfigurationProperties(prefix = "langchat.rag")
+public class RagProps {
+
+    /**
+     * 知识库检索结果重排序（Cross-Encoder）
+     */
+    private Rerank rerank = new Rerank();
+
+    /**
+     * 检索片段注入 Prompt 前的合并、去重与 Token 预算控制
+     */
+    private Packing packing = new Packing();
+
+    /**
+     * 知识库检索结果缓存
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * PgVector 向量索引自动管理
+     */
+    private PgVector pgvector = new PgVector();
+
+    /**
+     * 文档向量化流水线
+     */
+    private Ingest ingest = new Ingest();
+
+    /**
+     * Embedding 请求的分批、并发与限流
+     */
+    private Embed embed = new Embed();
+
+    @Data
+    public static class Rerank {
+
+        /**
+         * 是否启用重排序模型，关闭时即使应用开启了重排序也不会生效
+         */
+        private boolean enabled = false;
+
+        /**
+         * Cross-Encoder ONNX 模型文件路径，例如：/data/models/bge-reranker-base/model.onnx
+         */
+        private String modelPath;
+
+        /**
+         * tokenizer.json 文件路径
+         */
+        private String tokenizerPath;
+
+        /**
+         * 从向量库召回的候选数量，重排序后只保留 maxResults 条注入 Prompt
+         */
+        private Integer candidates = 30;
+
+        /**
+         * 重排序后保留的结果数量
+         */
+        private Integer maxResults = 5;
+
+        /**
+         * 重排序得分阈值（0~1），低于该值的片段将被丢弃
+         */
+        private Double minScore;
+
+        /**
+         * 单次推理的批大小
+         */
+        private Integer batchSize = 16;
+
+        /**
+         * 单个 query + 片段 的最大 token 长度
+         */
+        private Integer maxLength = 512;
+
+        /**
+         * 推理线程数，默认为 CPU 核数
+         */
+        private Integer threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class Packing {
+
+        /**
+         * 是否启用片段合并与 Token 预算控制，开启后注入 Prompt 的片段数量与内容会发生变化，默认关闭
+         */
+        private boolean enabled = false;
+
+        /**
+         * 未开启重排序时从向量库召回的候选数量，最终注入数量由 maxTokens 决定
+         */
+        private Integer candidates = 10;
+
+        /**
+         * 注入 Prompt 的知识库片段 Token 上限
+         */
+        private Integer maxTokens = 2048;
+
+        /**
+         * 片段相似度阈值（Jaccard，0~1），达到该值的低分片段视为重复并丢弃
+         */
+        private Double similarity = 0.8;
+
+        /**
+         * 计算相似度时的字符 shingle 长度
+         */
+        private Integer shingleSize = 5;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否启用检索结果缓存，命中时跳过 Embedding 与向量检索
+         */
+        private boolean enabled = true;
+
+        /**
+         * 缓存有效期，知识库切片变更后缓存会立即失效，该值仅用于清理过期数据
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class PgVector {
+
+        /**
+         * 是否定时检查并自动重建向量索引
+         */
+        private boolean autoIndex = true;
+
+        /**
+         * 检查间隔（ISO-8601 格式，例如 PT10M），仅在启动时读取
+         */
+        private String checkInterval = "PT10M";
+
+        /**
+         * IVFFlat 推荐 lists 达到当前索引 lists 的倍数时重建索引
+         */
+        private Double growthFactor = 2.0;
+
+        /**
+         * HNSW 每个节点的最大连接数
+         */
+        private Integer hnswM = 16;
+
+        /**
+         * HNSW 构建索引时的候选列表大小
+         */
+        private Integer hnswEfConstruction = 64;
+    }
+
+    @Data
+    public static class Ingest {
+
+        /**
+         * 每次交给切分器的文本长度（字符），解析出的文本按该长度分段切分
+         */
+        private Integer windowSize = 8192;
+
+        /**
+         * 每批 Embedding 与写入向量库的切片数量，Embedding 时会再按模型供应商的批量上限拆分并发请求
+         */
+        private Integer batchSize = 64;
+
+        /**
+         * 流水线各阶段之间的队列容量
+         */
+        private Integer queueSize = 4;
+
+        /**
+         * 每个实例同时执行的向量化任务数量，默认为 CPU 核数
+         */
+        private Integer workers = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 向量化任务的最大执行次数
+         */
+        private Integer maxAttempts = 3;
+
+        /**
+         * 任务失败后首次重试的等待时间，之后每次翻倍
+         */
+        private Duration retryBackoff = Duration.ofSeconds(30);
+
+        /**
+         * 任务租约时长，实例宕机后租约过期，任务由其他实例（或重启后的实例）接管
+         */
+        private Duration leaseTime = Duration.ofMinutes(2);
+
+        /**
+         * 拉取任务和续约的间隔
+         */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        /**
+         * 允许按服务器目录批量导入文档的根目录，未配置时不允许目录导入
+         */
+        private String importRoot;
+
+        /**
+         * 批量导入时并发上传文件的线程数
+         */
+        private Integer importConcurrency = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 批量导入时单个文件的大小上限，超过的文件跳过
+         */
+        private DataSize maxEntrySize = DataSize.ofMegabytes(100);
+
+        /**
+         * 所有导入任务已暂存到临时文件、等待上传的文件总大小上限，达到上限时暂停读取压缩包
+         */
+        private DataSize importBuffer = DataSize.ofMegabytes(512);
+    }
+
+    @Data
+    public static class Embed {
+
+        /**
+         * 是否启用 Embedding 向量缓存，相同文本在所有文档和知识库之间共享向量
+         */
+        private boolean cache = true;
+
+        /**
+         * 单个 Embedding 模型初始的并发请求数
+         */
+        private Integer initialConcurrency = 2;
+
+        /**
+         * 单个 Embedding 模型最大的并发请求数，请求成功时逐步增加，被限流时减半
+         */
+        private Integer maxConcurrency = 8;
+
+        /**
+         * 单批请求失败后的最大重试次数
+         */
+        private Integer maxRetries = 5;
+
+        /**
+         * 首次重试的等待时间，之后每次翻倍
+         */
+        private Duration backoff = Duration.ofSeconds(1);
+
+        /**
+         * 重试等待时间上限
+         */
+        private Duration maxBackoff = Duration.ofSeconds(30);
+    }
+}
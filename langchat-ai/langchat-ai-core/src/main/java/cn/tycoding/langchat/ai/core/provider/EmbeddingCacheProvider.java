@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.provider;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcModel;
+import cn.tycoding.langchat.ai.biz.entity.AigcEmbeddingCache;
+import cn.tycoding.langchat.ai.biz.mapper.AigcEmbeddingCacheMapper;
+import cn.tycoding.langchat.ai.core.ingest.EmbeddingStats;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import dev.langchain4j.data.embedding.Embedding;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedding 向量缓存
+ * <p>
+ * 相同的文本（页眉页脚、声明、FAQ 等）在不同文档和知识库中只向量化一次。缓存 Key 为（向量模型ID、供应商、模型名称、
+ * 接口地址、维数、文本摘要），同一条模型配置改用其他模型后旧缓存自然失效；向量以 float32 小端序二进制存储；
+ * 缓存读写失败只记录日志，不影响向量化。各模型的累计命中率通过 {@value #METRIC_HIT_RATE} 指标暴露
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingCacheProvider {
+
+    public static final String METRIC_CACHE = "langchat.rag.embed.cache";
+    public static final String METRIC_HIT_RATE = "langchat.rag.embed.cache.hit.rate";
+
+    private final RagProps ragProps;
+    private final AigcEmbeddingCacheMapper embeddingCacheMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, EmbeddingStats> modelStats = new ConcurrentHashMap<>();
+
+    public boolean enabled() {
+        return ragProps.getEmbed().isCache();
+    }
+
+    /**
+     * 批量读取缓存
+     *
+     * @param textHashes 文本的 SHA-256
+     * @return 文本摘要 → 向量，未命中的不包含在结果中
+     */
+    public Map<String, Embedding> get(String modelId, AigcModel config, Collection<String> textHashes) {
+        if (!enabled() || textHashes.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> ids = new HashMap<>();
+        textHashes.forEach(hash -> ids.put(key(modelId, config, hash), hash));
+
+        Map<String, Embedding> result = new HashMap<>();
+        try {
+            embeddingCacheMapper.selectBatchIds(ids.keySet()).forEach(i -> result.put(i.getTextHash(), decode(i.getVector())));
+        } catch (Exception e) {
+            log.warn("读取 Embedding 缓存失败：{}", e.getMessage());
+        }
+        meterRegistry.counter(METRIC_CACHE, "model", modelId, "result", "hit").increment(result.size());
+        meterRegistry.counter(METRIC_CACHE, "model", modelId, "result", "miss").increment(textHashes.size() - result.size());
+        statsOf(modelId).record(result.size(), textHashes.size() - result.size());
+        return result;
+    }
+
+    /**
+     * 批量写入缓存
+     *
+     * @param embeddings 文本摘要 → 向量
+     */
+    public void put(String modelId, AigcModel config, Map<String, Embedding> embeddings) {
+        if (!enabled() || embeddings.isEmpty()) {
+            return;
+        }
+        int dimension = dimension(config);
+        Date now = new Date();
+        List<AigcEmbeddingCache> list = new ArrayList<>(embeddings.size());
+        embeddings.forEach((hash, embedding) -> list.add(new AigcEmbeddingCache()
+                .setId(key(modelId, config, hash))
+                .setEmbedModelId(modelId)
+                .setDimension(dimension)
+                .setTextHash(hash)
+                .setVector(encode(embedding))
+                .setCreateTime(now)));
+        try {
+            embeddingCacheMapper.insertIgnoreBatch(list);
+        } catch (Exception e) {
+            log.warn("写入 Embedding 缓存失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 每个模型注册一个命中率 Gauge，Gauge 只持有弱引用，统计对象由 modelStats 持有
+     */
+    private EmbeddingStats statsOf(String modelId) {
+        return modelStats.computeIfAbsent(modelId, id -> {
+            EmbeddingStats stats = new EmbeddingStats();
+            Gauge.builder(METRIC_HIT_RATE, stats, EmbeddingStats::hitRate)
+                    .tag("model", id)
+                    .register(meterRegistry);
+            return stats;
+        });
+    }
+
+    private static String key(String modelId, AigcModel config, String textHash) {
+        String model = config == null ? "" : config.getProvider() + ":" + config.getModel() + ":" + StrUtil.nullToEmpty(config.getBaseUrl());
+        return SecureUtil.sha256(modelId + ":" + model + ":" + dimension(config) + ":" + textHash);
+    }
+
+    private static int dimension(AigcModel config) {
+        return config == null || config.getDimension() == null ? 0 : config.getDimension();
+    }
+
+    private static byte[] encode(Embedding embedding) {
+        float[] vector = embedding.vector();
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static Embedding decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return Embedding.from(vector);
+    }
+}
@@ -17,9 +17,10 @@
 package cn.tycoding.langchat.ai.core.provider;
 
 import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
+import cn.tycoding.langchat.ai.core.ingest.splitter.SplitterRegistry;
+import cn.tycoding.langchat.ai.core.store.PartitionedEmbeddingStore;
 import cn.tycoding.langchat.common.core.exception.ServiceException;
 import dev.langchain4j.data.document.DocumentSplitter;
-import dev.langchain4j.data.document.splitter.DocumentSplitters;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
@@ -43,9 +44,16 @@ public class EmbeddingProvider {
     private final EmbeddingStoreFactory embeddingStoreFactory;
     private final KnowledgeStoreFactory knowledgeStoreFactory;
     private final ModelStoreFactory modelStoreFactory;
+    private final SplitterRegistry splitterRegistry;
 
-    public static DocumentSplitter splitter() {
-        return DocumentSplitters.recursive(300, 20);
+    /**
+     * 知识库配置的文档切分器，未配置时按 RECURSIVE 策略切分
+     */
+    public DocumentSplitter getSplitter(String knowledgeId) {
+        if (knowledgeStoreFactory.containsKnowledge(knowledgeId)) {
+            return splitterRegistry.getSplitter(knowledgeStoreFactory.getKnowledge(knowledgeId));
+        }
+        return splitterRegistry.getSplitter(null, null, null);
     }
 
     public EmbeddingModel getEmbeddingModel(List<String> knowledgeIds) {
@@ -71,10 +79,14 @@ public class EmbeddingProvider {
     }
 
     public EmbeddingModel getEmbeddingModel(String knowledgeId) {
+        return modelStoreFactory.getEmbeddingModel(getEmbeddingModelId(knowledgeId));
+    }
+
+    public String getEmbeddingModelId(String knowledgeId) {
         if (knowledgeStoreFactory.containsKnowledge(knowledgeId)) {
             AigcKnowledge data = knowledgeStoreFactory.getKnowledge(knowledgeId);
             if (modelStoreFactory.containsEmbeddingModel(data.getEmbedModelId())) {
-                return modelStoreFactory.getEmbeddingModel(data.getEmbedModelId());
+                return data.getEmbedModelId();
             }
         }
         throw new ServiceException("没有找到匹配的Embedding向量数据库");
@@ -84,7 +96,9 @@ public class EmbeddingProvider {
         if (knowledgeStoreFactory.containsKnowledge(knowledgeId)) {
             AigcKnowledge data = knowledgeStoreFactory.getKnowledge(knowledgeId);
             if (embeddingStoreFactory.containsEmbeddingStore(data.getEmbedStoreId())) {
-                return embeddingStoreFactory.getEmbeddingStore(data.getEmbedStoreId());
+                EmbeddingStore<TextSegment> store = embeddingStoreFactory.getEmbeddingStore(data.getEmbedStoreId());
+                // 按知识库分区时只访问该知识库的分区
+                return store instanceof PartitionedEmbeddingStore partitioned ? partitioned.forKnowledge(knowledgeId) : store;
             }
         }
         throw new ServiceException("没有找到匹配的Embedding向量数据库");
@@ -17,14 +17,23 @@
 package cn.tycoding.langchat.ai.core.provider;
 
 import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
 import cn.tycoding.langchat.ai.biz.service.AigcEmbedStoreService;
 import cn.tycoding.langchat.ai.core.consts.EmbedStoreEnum;
+import cn.tycoding.langchat.ai.core.store.EmbedStoreStateRegistry;
+import cn.tycoding.langchat.ai.core.store.PartitionedEmbeddingStore;
+import cn.tycoding.langchat.ai.core.store.PgVectorIndexManager;
 import dev.langchain4j.community.store.embedding.redis.RedisEmbeddingStore;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.milvus.MilvusEmbeddingStore;
 import dev.langchain4j.store.embedding.pgvector.PgVectorEmbeddingStore;
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.grpc.ShowCollectionsResponse;
+import io.milvus.param.ConnectParam;
+import io.milvus.param.R;
+import io.milvus.param.collection.ShowCollectionsParam;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,7 +43,9 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * @author tycoding
@@ -46,14 +57,26 @@ public class EmbeddingStoreFactory {
 
     @Autowired
     private AigcEmbedStoreService aigcEmbedStoreService;
+    @Autowired
+    private PgVectorIndexManager pgVectorIndexManager;
+    @Autowired
+    private EmbedStoreStateRegistry embedStoreStateRegistry;
+    @Autowired
+    private AigcCache aigcCache;
 
     private final List<AigcEmbedStore> modelStore = new ArrayList<>();
     private final Map<String, EmbeddingStore<TextSegment>> embedStoreMap = new ConcurrentHashMap<>();
+    private final Map<String, MilvusServiceClient> milvusClientMap = new ConcurrentHashMap<>();
+    private final Map<String, EmbeddingStore<TextSegment>> partitionStoreMap = new ConcurrentHashMap<>();
 
     @Async
     @PostConstruct
     public void init() {
         modelStore.clear();
+        partitionStoreMap.clear();
+        milvusClientMap.values().forEach(MilvusServiceClient::close);
+        milvusClientMap.clear();
+        pgVectorIndexManager.clear();
         List<AigcEmbedStore> list = aigcEmbedStoreService.list();
         list.forEach(embed -> {
             try {
@@ -78,26 +101,48 @@ public class EmbeddingStoreFactory {
                             .user(embed.getUsername())
                             .password(embed.getPassword())
                             .table(embed.getTableName())
-                            .indexListSize(1)
-                            .useIndex(true)
+                            .useIndex(false)
                             .createTable(true)
                             .dropTableFirst(false)
                             .build();
+                    // 向量索引由 PgVectorIndexManager 根据数据量创建和重建
+                    pgVectorIndexManager.register(embed);
+                    if (Boolean.TRUE.equals(embed.getPartitioned())) {
+                        // 所有知识库共用一张表（即默认分区），检索时按知识库命中各自的部分索引
+                        EmbeddingStore<TextSegment> table = store;
+                        store = new PartitionedEmbeddingStore(knowledgeId -> {
+                            pgVectorIndexManager.ensurePartitionIndex(embed, knowledgeId);
+                            return table;
+                        }, List::of, () -> table, true);
+                    }
                     embedStoreMap.put(embed.getId(), store);
                 }
                 if (EmbedStoreEnum.MILVUS.name().equalsIgnoreCase(embed.getProvider())) {
-                    EmbeddingStore<TextSegment> store = MilvusEmbeddingStore.builder()
-                            .host(embed.getHost())
-                            .port(embed.getPort())
-                            .databaseName(embed.getDatabaseName())
-                            .dimension(embed.getDimension())
-                            .username(embed.getUsername())
-                            .password(embed.getPassword())
-                            .collectionName(embed.getTableName())
-                            .build();
+                    EmbeddingStore<TextSegment> store;
+                    boolean ready = Boolean.TRUE.equals(embed.getPartitioned());
+                    if (ready || Boolean.TRUE.equals(embed.getPartitionMigrating())) {
+                        // 每个知识库使用独立的 Collection，原共享 Collection 作为默认分区，所有 Collection 共用一个连接
+                        milvusClientMap.put(embed.getId(), milvusClient(embed));
+                        store = new PartitionedEmbeddingStore(
+                                knowledgeId -> milvusCollection(embed, partitionName(embed, knowledgeId)),
+                                () -> milvusPartitions(embed),
+                                () -> milvusCollection(embed, embed.getTableName()),
+                                ready);
+                    } else {
+                        store = MilvusEmbeddingStore.builder()
+                                .host(embed.getHost())
+                                .port(embed.getPort())
+                                .databaseName(embed.getDatabaseName())
+                                .dimension(embed.getDimension())
+                                .username(embed.getUsername())
+                                .password(embed.getPassword())
+                                .collectionName(embed.getTableName())
+                                .build();
+                    }
                     embedStoreMap.put(embed.getId(), store);
                 }
                 modelStore.add(embed);
+                embedStoreStateRegistry.ack(embed);
             } catch (Exception e) {
                 e.printStackTrace();
                 log.error("向量数据库初始化失败：[{}] --- [{}]，数据库配置信息：[{}]", embed.getName(), embed.getProvider(), embed);
@@ -114,4 +159,59 @@ public class EmbeddingStoreFactory {
     public boolean containsEmbeddingStore(String embeddingId) {
         return embedStoreMap.containsKey(embeddingId);
     }
+
+    public AigcEmbedStore getEmbeddingStoreConfig(String embeddingId) {
+        return modelStore.stream().filter(i -> i.getId().equals(embeddingId)).findFirst().orElse(null);
+    }
+
+    /**
+     * 按知识库分区时，知识库对应的 Milvus Collection 名称
+     */
+    public static String partitionName(AigcEmbedStore embed, String knowledgeId) {
+        return embed.getTableName() + "_" + knowledgeId.replace("-", "_");
+    }
+
+    public static MilvusServiceClient milvusClient(AigcEmbedStore embed) {
+        ConnectParam.Builder builder = ConnectParam.newBuilder()
+                .withHost(embed.getHost())
+                .withPort(embed.getPort());
+        if (StrUtil.isNotBlank(embed.getDatabaseName())) {
+            builder.withDatabaseName(embed.getDatabaseName());
+        }
+        if (StrUtil.isNotBlank(embed.getUsername()) && StrUtil.isNotBlank(embed.getPassword())) {
+            builder.withAuthorization(embed.getUsername(), embed.getPassword());
+        }
+        return new MilvusServiceClient(builder.build());
+    }
+
+    /**
+     * 获取 Collection，不存在时会创建
+     */
+    private EmbeddingStore<TextSegment> milvusCollection(AigcEmbedStore embed, String collectionName) {
+        return partitionStoreMap.computeIfAbsent(embed.getId() + ":" + collectionName, k -> MilvusEmbeddingStore.builder()
+                .milvusClient(milvusClientMap.get(embed.getId()))
+                .dimension(embed.getDimension())
+                .collectionName(collectionName)
+                .build());
+    }
+
+    /**
+     * 已存在的知识库分区，只加载已经写入过数据的 Collection，不会为没有数据的知识库创建 Collection
+     */
+    private List<EmbeddingStore<TextSegment>> milvusPartitions(AigcEmbedStore embed) {
+        R<ShowCollectionsResponse> response = milvusClientMap.get(embed.getId())
+                .showCollections(ShowCollectionsParam.newBuilder().build());
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus 查询 Collection 列表失败：" + response.getMessage());
+        }
+        // 只匹配本向量库下知识库的 Collection 名称，不能按前缀匹配，否则可能命中其他向量库的 Collection
+        Set<String> names = aigcCache.listKnowledge().stream()
+                .filter(i -> embed.getId().equals(i.getEmbedStoreId()))
+                .map(i -> partitionName(embed, i.getId()))
+                .collect(Collectors.toSet());
+        return response.getData().getCollectionNamesList().stream()
+                .filter(names::contains)
+                .map(name -> milvusCollection(embed, name))
+                .toList();
+    }
 }
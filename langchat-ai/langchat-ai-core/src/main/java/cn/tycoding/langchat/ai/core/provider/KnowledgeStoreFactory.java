@@ -16,65 +16,33 @@
 
 package cn.tycoding.langchat.ai.core.provider;
 
-import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
-import cn.tycoding.langchat.ai.biz.entity.AigcModel;
-import cn.tycoding.langchat.ai.biz.service.AigcEmbedStoreService;
-import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
-import cn.tycoding.langchat.ai.biz.service.AigcModelService;
-import jakarta.annotation.PostConstruct;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-
 /**
+ * 知识库配置，连同向量模型和向量库配置一起从本地缓存读取，知识库修改后各实例自动刷新
+ *
  * @author tycoding
  * @since 2024/10/29
  */
-@Slf4j
 @Component
+@RequiredArgsConstructor
 public class KnowledgeStoreFactory {
 
-    @Autowired
-    private AigcKnowledgeService knowledgeService;
-    @Autowired
-    private AigcModelService modelService;
-    @Autowired
-    private AigcEmbedStoreService embedStoreService;
-
-    private final Map<String, AigcKnowledge> knowledgeMap = new ConcurrentHashMap<>();
-
-    @Async
-    @PostConstruct
-    public void init() {
-        knowledgeMap.clear();
-        List<AigcKnowledge> list = knowledgeService.list();
-        Map<String, List<AigcModel>> modelMap = modelService.list().stream().collect(Collectors.groupingBy(AigcModel::getId));
-        Map<String, List<AigcEmbedStore>> storeMap = embedStoreService.list().stream().collect(Collectors.groupingBy(AigcEmbedStore::getId));
-        list.forEach(know -> {
-            if (know.getEmbedModelId() != null) {
-                List<AigcModel> models = modelMap.get(know.getEmbedModelId());
-                know.setEmbedModel(models == null ? null : models.get(0));
-            }
-            if (know.getEmbedStoreId() != null) {
-                List<AigcEmbedStore> stores = storeMap.get(know.getEmbedStoreId());
-                know.setEmbedStore(stores == null ? null : stores.get(0));
-            }
-            knowledgeMap.put(know.getId(), know);
-        });
-    }
+    private final AigcCache aigcCache;
 
     public AigcKnowledge getKnowledge(String knowledgeId) {
-        return knowledgeMap.get(knowledgeId);
+        AigcKnowledge knowledge = aigcCache.getKnowledge(knowledgeId);
+        if (knowledge != null) {
+            knowledge.setEmbedModel(aigcCache.getModel(knowledge.getEmbedModelId()));
+            knowledge.setEmbedStore(aigcCache.getEmbedStore(knowledge.getEmbedStoreId()));
+        }
+        return knowledge;
     }
 
     public boolean containsKnowledge(String knowledgeId) {
-        return knowledgeMap.containsKey(knowledgeId);
+        return aigcCache.containsKnowledge(knowledgeId);
     }
 }
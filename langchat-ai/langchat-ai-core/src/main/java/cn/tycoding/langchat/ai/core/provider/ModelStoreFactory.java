@@ -54,7 +54,9 @@ public class ModelStoreFactory {
     private final List<AigcModel> modelStore = new ArrayList<>();
     private final Map<String, StreamingChatLanguageModel> streamingChatMap = new ConcurrentHashMap<>();
     private final Map<String, ChatLanguageModel> chatLanguageMap = new ConcurrentHashMap<>();
+    private final Map<String, AigcModel> chatConfigMap = new ConcurrentHashMap<>();
     private final Map<String, EmbeddingModel> embeddingModelMap = new ConcurrentHashMap<>();
+    private final Map<String, AigcModel> embeddingConfigMap = new ConcurrentHashMap<>();
     private final Map<String, ImageModel> imageModelMap = new ConcurrentHashMap<>();
 
     @Async
@@ -63,7 +65,9 @@ public class ModelStoreFactory {
         modelStore.clear();
         streamingChatMap.clear();
         chatLanguageMap.clear();
+        chatConfigMap.clear();
         embeddingModelMap.clear();
+        embeddingConfigMap.clear();
         imageModelMap.clear();
 
         List<AigcModel> list = aigcModelService.list();
@@ -90,6 +94,7 @@ public class ModelStoreFactory {
                 StreamingChatLanguageModel streamingChatLanguageModel = x.buildStreamingChat(model);
                 if (ObjectUtil.isNotEmpty(streamingChatLanguageModel)) {
                     streamingChatMap.put(model.getId(), streamingChatLanguageModel);
+                    chatConfigMap.put(model.getId(), model);
                     modelStore.add(model);
                 }
 
@@ -113,6 +118,7 @@ public class ModelStoreFactory {
                 EmbeddingModel embeddingModel = x.buildEmbedding(model);
                 if (ObjectUtil.isNotEmpty(embeddingModel)) {
                     embeddingModelMap.put(model.getId(), embeddingModel);
+                    embeddingConfigMap.put(model.getId(), model);
                     modelStore.add(model);
                 }
             });
@@ -148,6 +154,10 @@ public class ModelStoreFactory {
         return streamingChatMap.containsKey(modelId);
     }
 
+    public AigcModel getChatModelConfig(String modelId) {
+        return chatConfigMap.get(modelId);
+    }
+
     public ChatLanguageModel getChatLanguageModel(String modelId) {
         return chatLanguageMap.get(modelId + ModelConst.TEXT_SUFFIX);
     }
@@ -164,6 +174,10 @@ public class ModelStoreFactory {
         return embeddingModelMap.containsKey(modelId);
     }
 
+    public AigcModel getEmbeddingModelConfig(String modelId) {
+        return embeddingConfigMap.get(modelId);
+    }
+
     public ImageModel getImageModel(String modelId) {
         return imageModelMap.get(modelId);
     }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package cn.tycoding.langchat.ai.core.provider;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcModel;
+import cn.tycoding.langchat.ai.core.consts.ProviderEnum;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.ai.core.rag.PackingContentInjector;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.rag.content.injector.ContentInjector;
+import dev.langchain4j.rag.content.injector.DefaultContentInjector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import static dev.langchain4j.model.openai.OpenAiChatModelName.GPT_4_O_MINI;
+
+/**
+ * 知识库片段注入 Prompt 的合并、去重与 Token 预算控制
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PackingProvider {
+
+    /**
+     * 默认的 tiktoken 分词器，Token 切分策略也共用该实例，编码表只加载一次
+     */
+    public static final Tokenizer DEFAULT_OPENAI_TOKENIZER = new OpenAiTokenizer(GPT_4_O_MINI);
+
+    private final RagProps ragProps;
+    private final ModelStoreFactory modelStoreFactory;
+    private final Map<String, Tokenizer> openAiTokenizers = new ConcurrentHashMap<>();
+
+    public boolean enabled() {
+        return ragProps.getPacking().isEnabled();
+    }
+
+    /**
+     * 向量库召回的候选数量
+     */
+    public int candidates() {
+        return ragProps.getPacking().getCandidates();
+    }
+
+    /**
+     * @param modelId 对话模型 ID，用于选择与模型匹配的 Token 估算方式
+     */
+    public ContentInjector injector(String modelId) {
+        RagProps.Packing packing = ragProps.getPacking();
+        return new PackingContentInjector(new DefaultContentInjector(), tokenCounter(modelId),
+                packing.getMaxTokens(), packing.getSimilarity(), packing.getShingleSize());
+    }
+
+    /**
+     * OpenAI 系列模型使用 tiktoken 分词计数，其余供应商没有可在本地使用的分词器，按字符保守估算
+     */
+    private ToIntFunction<String> tokenCounter(String modelId) {
+        AigcModel model = modelStoreFactory.getChatModelConfig(modelId);
+        if (model == null) {
+            return PackingProvider::estimate;
+        }
+        if (ProviderEnum.OPENAI.name().equals(model.getProvider())
+                || ProviderEnum.AZURE_OPENAI.name().equals(model.getProvider())) {
+            Tokenizer openAiTokenizer = openAiTokenizers.computeIfAbsent(String.valueOf(model.getModel()), name -> {
+                try {
+                    // 编码在首次计数时才会加载，未知模型在此处抛出异常
+                    Tokenizer tokenizer = new OpenAiTokenizer(name);
+                    tokenizer.estimateTokenCountInText(name);
+                    return tokenizer;
+                } catch (Exception e) {
+                    log.debug("模型 {} 没有对应的 tiktoken 编码，使用 {} 的编码估算 Token", name, GPT_4_O_MINI);
+                    return DEFAULT_OPENAI_TOKENIZER;
+                }
+            });
+            return openAiTokenizer::estimateTokenCountInText;
+        }
+        return PackingProvider::estimate;
+    }
+
+    /**
+     * 按字符估算 Token 数量：中日韩字符按 1 个 Token 计，其余字符按 3 个字符 1 个 Token 计，
+     * 主流中文模型的实际分词结果均不超过该估算值
+     */
+    static int estimate(String text) {
+        int cjk = 0, other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+            if (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL) {
+                cjk++;
+            } else {
+                other++;
+            }
+            i += Character.charCount(cp);
+        }
+        return cjk + (other + 2) / 3;
+    }
+}
@@ -16,8 +16,10 @@
 
 package cn.tycoding.langchat.ai.core.provider;
 
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.component.EmbeddingRefreshEvent;
 import cn.tycoding.langchat.ai.biz.component.ProviderRefreshEvent;
+import cn.tycoding.langchat.common.core.cache.NearCacheEvictEvent;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -48,4 +50,16 @@ public class ProviderListener {
         embeddingStoreInitialize.init();
         log.info("refresh embedding beans success......");
     }
+
+    /**
+     * 其他实例修改了模型或向量库配置时，同步刷新本实例的模型和向量库
+     */
+    @EventListener
+    public void cacheEvent(NearCacheEvictEvent event) {
+        if (AigcCache.MODEL.equals(event.getName())) {
+            providerEvent(new ProviderRefreshEvent(event.getSource()));
+        } else if (AigcCache.EMBED_STORE.equals(event.getName())) {
+            providerEvent(new EmbeddingRefreshEvent(event.getSource()));
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.provider;
+
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.ai.core.rag.OnnxScoringModel;
+import cn.tycoding.langchat.ai.core.rag.RerankContentAggregator;
+import dev.langchain4j.rag.content.aggregator.ContentAggregator;
+import dev.langchain4j.rag.content.aggregator.ReRankingContentAggregator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识库检索结果重排序
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RerankProvider {
+
+    private final RagProps ragProps;
+    private final MeterRegistry meterRegistry;
+
+    private OnnxScoringModel scoringModel;
+
+    @PostConstruct
+    public void init() {
+        RagProps.Rerank rerank = ragProps.getRerank();
+        if (!rerank.isEnabled()) {
+            return;
+        }
+        if (StrUtil.isBlank(rerank.getModelPath()) || StrUtil.isBlank(rerank.getTokenizerPath())) {
+            log.warn("重排序模型已启用，但没有配置 model-path 或 tokenizer-path，重排序将不会生效");
+            return;
+        }
+        try {
+            scoringModel = new OnnxScoringModel(rerank.getModelPath(), rerank.getTokenizerPath(),
+                    rerank.getMaxLength(), rerank.getBatchSize(), rerank.getThreads());
+            log.info("已成功加载重排序模型：{}", rerank.getModelPath());
+        } catch (Exception e) {
+            log.error("重排序模型初始化失败：{}", rerank.getModelPath(), e);
+        }
+    }
+
+    /**
+     * 重排序模型是否可用
+     */
+    public boolean available() {
+        return scoringModel != null;
+    }
+
+    /**
+     * 向量库召回的候选数量
+     */
+    public int candidates() {
+        return ragProps.getRerank().getCandidates();
+    }
+
+    public ContentAggregator aggregator(String appId) {
+        RagProps.Rerank rerank = ragProps.getRerank();
+        ContentAggregator aggregator = ReRankingContentAggregator.builder()
+                .scoringModel(scoringModel)
+                .maxResults(rerank.getMaxResults())
+                .minScore(rerank.getMinScore())
+                .build();
+        return new RerankContentAggregator(aggregator, meterRegistry, appId);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scoringModel != null) {
+            scoringModel.close();
+        }
+    }
+}
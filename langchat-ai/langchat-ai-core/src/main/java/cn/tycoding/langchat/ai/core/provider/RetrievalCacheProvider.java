@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package cn.tycoding.langchat.ai.core.provider;
+
+import cn.hutool.crypto.SecureUtil;
+import cn.tycoding.langchat.ai.biz.component.KnowledgeVersion;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import com.alibaba.fastjson.JSON;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 知识库检索结果缓存
+ * <p>
+ * 缓存 Key 由排序后的知识库 ID、各知识库当前版本号、召回数量和规范化后的查询文本计算得到，
+ * 知识库切片变更后版本号自增，旧缓存不会再被命中
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetrievalCacheProvider {
+
+    public static final String METRIC_CACHE = "langchat.rag.retrieval.cache";
+
+    private final RagProps ragProps;
+    private final KnowledgeVersion knowledgeVersion;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public boolean enabled() {
+        return ragProps.getCache().isEnabled();
+    }
+
+    /**
+     * 为 ContentRetriever 增加缓存
+     */
+    public ContentRetriever retriever(ContentRetriever delegate, Collection<String> knowledgeIds, int maxResults) {
+        if (!enabled()) {
+            return delegate;
+        }
+        return query -> load(knowledgeIds, query.text(), maxResults,
+                () -> delegate.retrieve(query).stream().map(Slice::of).toList())
+                .stream().map(Slice::toContent).toList();
+    }
+
+    /**
+     * 向量检索，优先从缓存中读取
+     */
+    public List<EmbeddingMatch<TextSegment>> search(Collection<String> knowledgeIds, String text, int maxResults,
+                                                    Supplier<List<EmbeddingMatch<TextSegment>>> loader) {
+        if (!enabled()) {
+            return loader.get();
+        }
+        return load(knowledgeIds, text, maxResults,
+                () -> loader.get().stream().map(Slice::of).toList())
+                .stream().map(Slice::toMatch).toList();
+    }
+
+    private List<Slice> load(Collection<String> knowledgeIds, String text, int maxResults, Supplier<List<Slice>> loader) {
+        String key;
+        try {
+            key = key(knowledgeIds, text, maxResults);
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                meterRegistry.counter(METRIC_CACHE, "result", "hit").increment();
+                return JSON.parseArray(cached, Slice.class);
+            }
+        } catch (Exception e) {
+            // 缓存不可用时直接检索
+            log.warn("读取知识库检索缓存失败：{}", e.getMessage());
+            return loader.get();
+        }
+
+        meterRegistry.counter(METRIC_CACHE, "result", "miss").increment();
+        List<Slice> slices = loader.get();
+        try {
+            redisTemplate.opsForValue().set(key, JSON.toJSONString(slices), ragProps.getCache().getTtl());
+        } catch (Exception e) {
+            log.warn("写入知识库检索缓存失败：{}", e.getMessage());
+        }
+        return slices;
+    }
+
+    private String key(Collection<String> knowledgeIds, String text, int maxResults) {
+        List<String> ids = knowledgeIds.stream().distinct().sorted().toList();
+        List<String> versions = knowledgeVersion.get(ids);
+        String query = text == null ? "" : text.replaceAll("\\s+", " ").trim().toLowerCase();
+        return CacheConst.RETRIEVAL_PREFIX + String.join(",", ids) + ":"
+                + SecureUtil.sha256(String.join(",", versions) + "|" + maxResults + "|" + query);
+    }
+
+    /**
+     * 缓存的检索结果
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class Slice {
+
+        private String embeddingId;
+        private Double score;
+        private String text;
+        private Map<String, Object> metadata;
+
+        static Slice of(Content content) {
+            Object score = content.metadata().get(ContentMetadata.SCORE);
+            Object embeddingId = content.metadata().get(ContentMetadata.EMBEDDING_ID);
+            return new Slice()
+                    .setEmbeddingId(embeddingId == null ? null : embeddingId.toString())
+                    .setScore(score instanceof Number ? ((Number) score).doubleValue() : null)
+                    .setText(content.textSegment().text())
+                    .setMetadata(content.textSegment().metadata().toMap());
+        }
+
+        static Slice of(EmbeddingMatch<TextSegment> match) {
+            return new Slice()
+                    .setEmbeddingId(match.embeddingId())
+                    .setScore(match.score())
+                    .setText(match.embedded().text())
+                    .setMetadata(match.embedded().metadata().toMap());
+        }
+
+        Content toContent() {
+            Map<ContentMetadata, Object> contentMetadata = new HashMap<>();
+            if (score != null) {
+                contentMetadata.put(ContentMetadata.SCORE, score);
+            }
+            if (embeddingId != null) {
+                contentMetadata.put(ContentMetadata.EMBEDDING_ID, embeddingId);
+            }
+            return Content.from(segment(), contentMetadata);
+        }
+
+        EmbeddingMatch<TextSegment> toMatch() {
+            return new EmbeddingMatch<>(score, embeddingId, null, segment());
+        }
+
+        private TextSegment segment() {
+            Map<String, Object> map = new HashMap<>();
+            if (metadata != null) {
+                // JSON 反序列化后的小数为 BigDecimal，Metadata 不支持该类型
+                metadata.forEach((k, v) -> map.put(k, v instanceof BigDecimal ? ((BigDecimal) v).doubleValue() : v));
+            }
+            return TextSegment.from(text, Metadata.from(map));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.rag;
+
+import ai.djl.huggingface.tokenizers.Encoding;
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.djl.util.PairList;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.scoring.ScoringModel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内 ONNX Cross-Encoder 重排序模型，按批次在 CPU 上推理 (query, segment) 的相关性得分
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+public class OnnxScoringModel implements ScoringModel, AutoCloseable {
+
+    private static final String INPUT_IDS = "input_ids";
+    private static final String ATTENTION_MASK = "attention_mask";
+    private static final String TOKEN_TYPE_IDS = "token_type_ids";
+
+    private final OrtEnvironment environment;
+    private final OrtSession session;
+    private final HuggingFaceTokenizer tokenizer;
+    private final boolean withTokenTypes;
+    private final int batchSize;
+
+    public OnnxScoringModel(String modelPath, String tokenizerPath, int maxLength, int batchSize, int threads) {
+        try {
+            this.environment = OrtEnvironment.getEnvironment();
+            OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+            options.setIntraOpNumThreads(threads);
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            this.session = environment.createSession(modelPath, options);
+            this.withTokenTypes = session.getInputNames().contains(TOKEN_TYPE_IDS);
+
+            Map<String, String> tokenizerOptions = new HashMap<>();
+            tokenizerOptions.put("padding", "true");
+            tokenizerOptions.put("truncation", "true");
+            tokenizerOptions.put("maxLength", String.valueOf(maxLength));
+            Path path = Paths.get(tokenizerPath);
+            this.tokenizer = HuggingFaceTokenizer.newInstance(path, tokenizerOptions);
+            this.batchSize = Math.max(1, batchSize);
+        } catch (OrtException | IOException e) {
+            throw new IllegalStateException("重排序模型加载失败：" + modelPath, e);
+        }
+    }
+
+    @Override
+    public Response<List<Double>> scoreAll(List<TextSegment> segments, String query) {
+        List<Double> scores = new ArrayList<>(segments.size());
+        for (int from = 0; from < segments.size(); from += batchSize) {
+            List<TextSegment> batch = segments.subList(from, Math.min(from + batchSize, segments.size()));
+            scores.addAll(scoreBatch(batch, query));
+        }
+        return Response.from(scores);
+    }
+
+    private List<Double> scoreBatch(List<TextSegment> batch, String query) {
+        PairList<String, String> pairs = new PairList<>(batch.size());
+        batch.forEach(segment -> pairs.add(query, segment.text()));
+        Encoding[] encodings = tokenizer.batchEncode(pairs);
+
+        long[][] inputIds = new long[encodings.length][];
+        long[][] attentionMask = new long[encodings.length][];
+        long[][] tokenTypeIds = new long[encodings.length][];
+        for (int i = 0; i < encodings.length; i++) {
+            inputIds[i] = encodings[i].getIds();
+            attentionMask[i] = encodings[i].getAttentionMask();
+            tokenTypeIds[i] = encodings[i].getTypeIds();
+        }
+
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        try {
+            inputs.put(INPUT_IDS, OnnxTensor.createTensor(environment, inputIds));
+            inputs.put(ATTENTION_MASK, OnnxTensor.createTensor(environment, attentionMask));
+            if (withTokenTypes) {
+                inputs.put(TOKEN_TYPE_IDS, OnnxTensor.createTensor(environment, tokenTypeIds));
+            }
+            try (OrtSession.Result result = session.run(inputs)) {
+                float[][] logits = (float[][]) result.get(0).getValue();
+                List<Double> scores = new ArrayList<>(logits.length);
+                for (float[] logit : logits) {
+                    // 单输出模型直接取 logit，二分类模型取正负类 logit 之差（等价于 softmax 正类概率）
+                    scores.add(sigmoid(logit.length > 1 ? logit[1] - logit[0] : logit[0]));
+                }
+                return scores;
+            }
+        } catch (OrtException e) {
+            throw new IllegalStateException("重排序模型推理失败", e);
+        } finally {
+            inputs.values().forEach(OnnxTensor::close);
+        }
+    }
+
+    private static double sigmoid(float x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (OrtException e) {
+            log.warn("重排序模型关闭失败", e);
+        }
+        tokenizer.close();
+    }
+}
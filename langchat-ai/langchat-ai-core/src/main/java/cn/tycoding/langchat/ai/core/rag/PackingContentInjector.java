@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.rag;
+
+import cn.tycoding.langchat.ai.core.consts.EmbedConst;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.injector.ContentInjector;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * 检索片段注入器，在注入 Prompt 前对片段做以下处理：
+ * <p>
+ * 1. 合并同一文档中相邻的切片，并去掉切片之间的重叠部分
+ * 2. 按 shingle Jaccard 相似度去除近似重复的片段（保留得分高者）
+ * 3. 按得分从高到低，将片段装入 Token 预算，合并后的片段同样不超过预算
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+public class PackingContentInjector implements ContentInjector {
+
+    /**
+     * DocumentSplitter 为每个切片写入的序号
+     */
+    private static final String INDEX = "index";
+
+    private final ContentInjector delegate;
+    private final ToIntFunction<String> tokenCounter;
+    private final int maxTokens;
+    private final double similarity;
+    private final int shingleSize;
+
+    public PackingContentInjector(ContentInjector delegate, ToIntFunction<String> tokenCounter, int maxTokens, double similarity, int shingleSize) {
+        this.delegate = delegate;
+        this.tokenCounter = tokenCounter;
+        this.maxTokens = maxTokens;
+        this.similarity = similarity;
+        this.shingleSize = Math.max(1, shingleSize);
+    }
+
+    @Override
+    public UserMessage inject(List<Content> contents, UserMessage userMessage) {
+        if (contents == null || contents.isEmpty()) {
+            return delegate.inject(contents, userMessage);
+        }
+        List<Content> merged = merge(contents);
+        merged.sort(Comparator.comparingDouble(PackingContentInjector::score).reversed());
+        List<Content> distinct = dedup(merged);
+        List<Content> packed = pack(distinct);
+        log.debug("知识库片段注入：召回 {} 条，合并后 {} 条，去重后 {} 条，注入 {} 条",
+                contents.size(), merged.size(), distinct.size(), packed.size());
+        return delegate.inject(packed, userMessage);
+    }
+
+    /**
+     * 合并同一文档中序号连续的切片，得分取最大值；合并后超过 Token 预算时从该切片处另起一段
+     */
+    private List<Content> merge(List<Content> contents) {
+        Map<String, List<Content>> groups = new LinkedHashMap<>();
+        List<Content> result = new ArrayList<>();
+        for (Content content : contents) {
+            String docs = docsKey(content);
+            if (docs == null || index(content) == null) {
+                result.add(content);
+                continue;
+            }
+            groups.computeIfAbsent(docs, k -> new ArrayList<>()).add(content);
+        }
+
+        groups.values().forEach(group -> {
+            group.sort(Comparator.comparing(PackingContentInjector::index));
+            Content current = group.get(0);
+            int last = index(current);
+            for (int i = 1; i < group.size(); i++) {
+                Content next = group.get(i);
+                int idx = index(next);
+                if (idx == last) {
+                    // 多个检索源召回了同一切片
+                    current = score(next) > score(current) ? next : current;
+                } else if (idx == last + 1 && fits(join(current, next))) {
+                    current = join(current, next);
+                } else {
+                    result.add(current);
+                    current = next;
+                }
+                last = idx;
+            }
+            result.add(current);
+        });
+        return result;
+    }
+
+    private boolean fits(Content content) {
+        return tokens(content) <= maxTokens;
+    }
+
+    private Content join(Content a, Content b) {
+        String left = a.textSegment().text();
+        String right = b.textSegment().text();
+        String text = left + right.substring(overlap(left, right));
+
+        Metadata metadata = a.textSegment().metadata().copy();
+        Map<ContentMetadata, Object> contentMetadata = new HashMap<>(a.metadata());
+        (score(b) > score(a) ? b : a).metadata().forEach(contentMetadata::put);
+        return Content.from(TextSegment.from(text, metadata), contentMetadata);
+    }
+
+    /**
+     * 计算 left 的后缀与 right 的前缀的最长重叠长度
+     */
+    private static int overlap(String left, String right) {
+        int max = Math.min(left.length(), right.length()) / 2;
+        for (int len = max; len > 0; len--) {
+            if (left.regionMatches(left.length() - len, right, 0, len)) {
+                return len;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 去除近似重复的片段，contents 需已按得分降序排列
+     */
+    private List<Content> dedup(List<Content> contents) {
+        List<Content> result = new ArrayList<>();
+        List<Set<Integer>> kept = new ArrayList<>();
+        for (Content content : contents) {
+            Set<Integer> shingles = shingles(content.textSegment().text());
+            boolean duplicate = kept.stream().anyMatch(s -> jaccard(s, shingles) >= similarity);
+            if (!duplicate) {
+                result.add(content);
+                kept.add(shingles);
+            }
+        }
+        return result;
+    }
+
+    private Set<Integer> shingles(String text) {
+        String normalized = text.replaceAll("\\s+", " ").trim().toLowerCase();
+        Set<Integer> set = new HashSet<>();
+        if (normalized.length() <= shingleSize) {
+            set.add(normalized.hashCode());
+            return set;
+        }
+        for (int i = 0; i + shingleSize <= normalized.length(); i++) {
+            set.add(normalized.substring(i, i + shingleSize).hashCode());
+        }
+        return set;
+    }
+
+    private static double jaccard(Set<Integer> a, Set<Integer> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1;
+        }
+        Set<Integer> small = a.size() < b.size() ? a : b;
+        Set<Integer> large = small == a ? b : a;
+        long intersection = small.stream().filter(large::contains).count();
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    /**
+     * 按得分顺序装入 Token 预算，放不下的片段跳过；得分最高的片段单独超出预算时截断后保留
+     */
+    private List<Content> pack(List<Content> contents) {
+        List<Content> result = new ArrayList<>();
+        int used = 0;
+        for (Content content : contents) {
+            int tokens = tokens(content);
+            if (used + tokens > maxTokens) {
+                if (!result.isEmpty()) {
+                    continue;
+                }
+                content = truncate(content, maxTokens);
+                if (content == null) {
+                    continue;
+                }
+                tokens = tokens(content);
+            }
+            result.add(content);
+            used += tokens;
+        }
+        return result;
+    }
+
+    /**
+     * 二分查找不超过 budget 的最长前缀
+     */
+    private Content truncate(Content content, int budget) {
+        String text = content.textSegment().text();
+        int low = 0, high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tokenCounter.applyAsInt(text.substring(0, mid)) <= budget) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (low > 0 && Character.isHighSurrogate(text.charAt(low - 1))) {
+            low--;
+        }
+        if (low == 0) {
+            return null;
+        }
+        TextSegment segment = TextSegment.from(text.substring(0, low), content.textSegment().metadata());
+        return Content.from(segment, content.metadata());
+    }
+
+    private int tokens(Content content) {
+        return tokenCounter.applyAsInt(content.textSegment().text());
+    }
+
+    private static String docsKey(Content content) {
+        Metadata metadata = content.textSegment().metadata();
+        String docsId = metadata.getString(EmbedConst.DOCS_ID);
+        if (docsId != null) {
+            return docsId;
+        }
+        // 历史数据没有写入 docsId，使用知识库 + 文档名称区分
+        String docsName = metadata.getString(EmbedConst.FILENAME);
+        return docsName == null ? null : metadata.getString(EmbedConst.KNOWLEDGE) + ":" + docsName;
+    }
+
+    private static Integer index(Content content) {
+        Object index = content.textSegment().metadata().toMap().get(INDEX);
+        if (index == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(String.valueOf(index));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static double score(Content content) {
+        Object score = content.metadata().get(ContentMetadata.RERANKED_SCORE);
+        if (score == null) {
+            score = content.metadata().get(ContentMetadata.SCORE);
+        }
+        return score instanceof Number ? ((Number) score).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.rag;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.aggregator.ContentAggregator;
+import dev.langchain4j.rag.query.Query;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 重排序聚合器，记录每次重排序的耗时与候选数量
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class RerankContentAggregator implements ContentAggregator {
+
+    public static final String METRIC_LATENCY = "langchat.rag.rerank";
+    public static final String METRIC_CANDIDATES = "langchat.rag.rerank.candidates";
+
+    private final ContentAggregator delegate;
+    private final MeterRegistry registry;
+    private final String appId;
+
+    public RerankContentAggregator(ContentAggregator delegate, MeterRegistry registry, String appId) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.appId = appId == null ? "none" : appId;
+    }
+
+    @Override
+    public List<Content> aggregate(Map<Query, Collection<List<Content>>> queryToContents) {
+        int candidates = queryToContents.values().stream()
+                .flatMap(Collection::stream)
+                .mapToInt(List::size)
+                .sum();
+        registry.summary(METRIC_CANDIDATES, "app", appId).record(candidates);
+
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return delegate.aggregate(queryToContents);
+        } finally {
+            sample.stop(registry.timer(METRIC_LATENCY, "app", appId));
+        }
+    }
+}
@@ -16,10 +16,14 @@
 
 package cn.tycoding.langchat.ai.core.service;
 
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
 import cn.tycoding.langchat.common.ai.dto.ChatReq;
 import cn.tycoding.langchat.common.ai.dto.EmbeddingR;
+import dev.langchain4j.data.segment.TextSegment;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * @author tycoding
@@ -29,5 +33,22 @@ public interface LangEmbeddingService {
 
     EmbeddingR embeddingText(ChatReq req);
 
-    List<EmbeddingR> embeddingDocs(ChatReq req);
+    /**
+     * 流式向量化文档，每批切片写入向量库后回调 consumer
+     *
+     * @return 写入的切片数量
+     */
+    int embeddingDocs(ChatReq req, Consumer<List<EmbeddingR>> consumer);
+
+    /**
+     * 增量向量化文档，unchanged 返回 true 的切片不再向量化和写入；切片元数据中已写入序号（index）
+     *
+     * @return 新写入的切片数量
+     */
+    int embeddingDocs(ChatReq req, Predicate<TextSegment> unchanged, Consumer<List<EmbeddingR>> consumer);
+
+    /**
+     * 增量向量化文档，并记录解析页数和已写入的切片数量
+     */
+    int embeddingDocs(ChatReq req, Predicate<TextSegment> unchanged, Consumer<List<EmbeddingR>> consumer, IngestProgress progress);
 }
@@ -20,6 +20,9 @@ import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.tycoding.langchat.ai.core.provider.EmbeddingProvider;
 import cn.tycoding.langchat.ai.core.provider.ModelProvider;
+import cn.tycoding.langchat.ai.core.provider.PackingProvider;
+import cn.tycoding.langchat.ai.core.provider.RerankProvider;
+import cn.tycoding.langchat.ai.core.provider.RetrievalCacheProvider;
 import cn.tycoding.langchat.ai.core.service.Agent;
 import cn.tycoding.langchat.ai.core.service.LangChatService;
 import cn.tycoding.langchat.common.ai.dto.ChatReq;
@@ -58,8 +61,16 @@ import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metad
 @AllArgsConstructor
 public class LangChatServiceImpl implements LangChatService {
 
+    /**
+     * 向量库默认召回数量
+     */
+    private static final int DEFAULT_MAX_RESULTS = 3;
+
     private final ModelProvider provider;
     private final EmbeddingProvider embeddingProvider;
+    private final RerankProvider rerankProvider;
+    private final PackingProvider packingProvider;
+    private final RetrievalCacheProvider retrievalCacheProvider;
     private final ChatProps chatProps;
 
     private AiServices<Agent> build(StreamingChatLanguageModel streamModel, ChatLanguageModel model, ChatReq req) {
@@ -96,15 +107,33 @@ public class LangChatServiceImpl implements LangChatService {
 
         if (req.getKnowledgeIds() != null && !req.getKnowledgeIds().isEmpty()) {
             Function<Query, Filter> filter = (query) -> metadataKey(KNOWLEDGE).isIn(req.getKnowledgeIds());
+            boolean rerank = Boolean.TRUE.equals(req.getRerank()) && rerankProvider.available();
+            int maxResults = DEFAULT_MAX_RESULTS;
+            if (rerank) {
+                // 扩大召回范围，交由重排序模型筛选出最终注入 Prompt 的片段
+                maxResults = rerankProvider.candidates();
+            } else if (packingProvider.enabled()) {
+                // 最终注入的片段数量由 Token 预算决定
+                maxResults = packingProvider.candidates();
+            }
             ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
                     .embeddingStore(embeddingProvider.getEmbeddingStore(req.getKnowledgeIds()))
                     .embeddingModel(embeddingProvider.getEmbeddingModel(req.getKnowledgeIds()))
                     .dynamicFilter(filter)
+                    .maxResults(maxResults)
                     .build();
-            aiServices.retrievalAugmentor(DefaultRetrievalAugmentor
+            contentRetriever = retrievalCacheProvider.retriever(contentRetriever, req.getKnowledgeIds(), maxResults);
+
+            DefaultRetrievalAugmentor.DefaultRetrievalAugmentorBuilder augmentorBuilder = DefaultRetrievalAugmentor
                     .builder()
-                    .contentRetriever(contentRetriever)
-                    .build());
+                    .contentRetriever(contentRetriever);
+            if (rerank) {
+                augmentorBuilder.contentAggregator(rerankProvider.aggregator(req.getAppId()));
+            }
+            if (packingProvider.enabled()) {
+                augmentorBuilder.contentInjector(packingProvider.injector(req.getModelId()));
+            }
+            aiServices.retrievalAugmentor(augmentorBuilder.build());
         }
         Agent agent = aiServices.build();
         return agent.stream(req.getConversationId(), req.getMessage());
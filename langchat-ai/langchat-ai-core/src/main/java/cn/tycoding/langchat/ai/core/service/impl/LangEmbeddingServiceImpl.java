@@ -16,26 +16,29 @@
 
 package cn.tycoding.langchat.ai.core.service.impl;
 
+import cn.hutool.core.util.StrUtil;
 import cn.tycoding.langchat.ai.core.consts.EmbedConst;
+import cn.tycoding.langchat.ai.core.ingest.DocumentSourceResolver;
+import cn.tycoding.langchat.ai.core.ingest.EmbeddingExecutor;
+import cn.tycoding.langchat.ai.core.ingest.EmbeddingStats;
+import cn.tycoding.langchat.ai.core.ingest.IngestPipeline;
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
 import cn.tycoding.langchat.ai.core.provider.EmbeddingProvider;
 import cn.tycoding.langchat.ai.core.service.LangEmbeddingService;
 import cn.tycoding.langchat.common.ai.dto.ChatReq;
 import cn.tycoding.langchat.common.ai.dto.EmbeddingR;
-import dev.langchain4j.data.document.Document;
-import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.Metadata;
-import dev.langchain4j.data.document.loader.UrlDocumentLoader;
-import dev.langchain4j.data.document.parser.apache.tika.ApacheTikaDocumentParser;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * @author tycoding
@@ -47,46 +50,61 @@ import java.util.List;
 public class LangEmbeddingServiceImpl implements LangEmbeddingService {
 
     private final EmbeddingProvider embeddingProvider;
+    private final EmbeddingExecutor embeddingExecutor;
+    private final DocumentSourceResolver documentSourceResolver;
+    private final RagProps ragProps;
 
     @Override
     public EmbeddingR embeddingText(ChatReq req) {
         log.info(">>>>>>>>>>>>>> Text文本向量解析开始，KnowledgeId={}, DocsName={}", req.getKnowledgeId(), req.getDocsName());
-        TextSegment segment = TextSegment.from(req.getMessage(),
-                Metadata.metadata(EmbedConst.KNOWLEDGE, req.getKnowledgeId()).put(EmbedConst.FILENAME, req.getDocsName()));
+        Metadata metadata = Metadata.metadata(EmbedConst.KNOWLEDGE, req.getKnowledgeId()).put(EmbedConst.FILENAME, req.getDocsName());
+        if (StrUtil.isNotBlank(req.getDocsId())) {
+            metadata.put(EmbedConst.DOCS_ID, req.getDocsId());
+        }
+        TextSegment segment = TextSegment.from(req.getMessage(), metadata);
 
-        EmbeddingModel embeddingModel = embeddingProvider.getEmbeddingModel(req.getKnowledgeId());
+        String modelId = embeddingProvider.getEmbeddingModelId(req.getKnowledgeId());
         EmbeddingStore<TextSegment> embeddingStore = embeddingProvider.getEmbeddingStore(req.getKnowledgeId());
-        Embedding embedding = embeddingModel.embed(segment).content();
+        Embedding embedding = embeddingExecutor.embed(modelId, segment);
         String id = embeddingStore.add(embedding, segment);
 
         log.info(">>>>>>>>>>>>>> Text文本向量解析结束，KnowledgeId={}, DocsName={}", req.getKnowledgeId(), req.getDocsName());
-        return new EmbeddingR().setVectorId(id).setText(segment.text());
+        return new EmbeddingR().setVectorId(id).setEmbedModelId(modelId).setText(segment.text());
     }
 
     @Override
-    public List<EmbeddingR> embeddingDocs(ChatReq req) {
-        log.info(">>>>>>>>>>>>>> Docs文档向量解析开始，KnowledgeId={}, DocsName={}", req.getKnowledgeId(), req.getDocsName());
-        Document document = UrlDocumentLoader.load(req.getUrl(), new ApacheTikaDocumentParser());
-        document.metadata().put(EmbedConst.KNOWLEDGE, req.getKnowledgeId()).put(EmbedConst.FILENAME, req.getDocsName());
-
-        List<EmbeddingR> list = new ArrayList<>();
-        try {
-            DocumentSplitter splitter = EmbeddingProvider.splitter();
-            List<TextSegment> segments = splitter.split(document);
+    public int embeddingDocs(ChatReq req, Consumer<List<EmbeddingR>> consumer) {
+        return embeddingDocs(req, segment -> false, consumer);
+    }
 
-            EmbeddingModel embeddingModel = embeddingProvider.getEmbeddingModel(req.getKnowledgeId());
-            EmbeddingStore<TextSegment> embeddingStore = embeddingProvider.getEmbeddingStore(req.getKnowledgeId());
-            List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
-            List<String> ids = embeddingStore.addAll(embeddings, segments);
+    @Override
+    public int embeddingDocs(ChatReq req, Predicate<TextSegment> unchanged, Consumer<List<EmbeddingR>> consumer) {
+        return embeddingDocs(req, unchanged, consumer, new IngestProgress());
+    }
 
-            for (int i = 0; i < ids.size(); i++) {
-                list.add(new EmbeddingR().setVectorId(ids.get(i)).setText(segments.get(i).text()));
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    @Override
+    public int embeddingDocs(ChatReq req, Predicate<TextSegment> unchanged, Consumer<List<EmbeddingR>> consumer, IngestProgress progress) {
+        log.info(">>>>>>>>>>>>>> Docs文档向量解析开始，KnowledgeId={}, DocsName={}", req.getKnowledgeId(), req.getDocsName());
+        Metadata metadata = Metadata.metadata(EmbedConst.KNOWLEDGE, req.getKnowledgeId()).put(EmbedConst.FILENAME, req.getDocsName());
+        if (StrUtil.isNotBlank(req.getDocsId())) {
+            metadata.put(EmbedConst.DOCS_ID, req.getDocsId());
         }
 
-        log.info(">>>>>>>>>>>>>> Docs文档向量解析结束，KnowledgeId={}, DocsName={}", req.getKnowledgeId(), req.getDocsName());
-        return list;
+        String modelId = embeddingProvider.getEmbeddingModelId(req.getKnowledgeId());
+        EmbeddingStats stats = progress.cache();
+        RagProps.Ingest ingest = ragProps.getIngest();
+        IngestPipeline pipeline = new IngestPipeline(embeddingProvider.getSplitter(req.getKnowledgeId()),
+                segments -> embeddingExecutor.embedAll(modelId, segments, stats),
+                embeddingProvider.getEmbeddingStore(req.getKnowledgeId()),
+                ingest.getWindowSize(), ingest.getBatchSize(), ingest.getQueueSize())
+                .skip(unchanged)
+                .progress(progress);
+        int count = documentSourceResolver.resolve(req.getUrl()).read(in -> pipeline.run(in, metadata, list -> {
+            list.forEach(i -> i.setEmbedModelId(modelId));
+            consumer.accept(list);
+        }));
+
+        log.info(">>>>>>>>>>>>>> Docs文档向量解析结束，KnowledgeId={}, DocsName={}, Embedding缓存：{}", req.getKnowledgeId(), req.getDocsName(), stats);
+        return count;
     }
 }
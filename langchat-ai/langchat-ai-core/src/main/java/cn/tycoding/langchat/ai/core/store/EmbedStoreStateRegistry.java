@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.ai.core.store;
+
+import cn.hutool.core.util.IdUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向量库分区状态的实例确认
+ * <p>
+ * 各实例定期写入心跳，并在加载向量库配置后记录已生效的分区状态；分区迁移切换状态后等待所有存活实例确认，
+ * 保证复制或删除共享 Collection 的数据前，不再有实例按旧状态写入
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbedStoreStateRegistry {
+
+    private static final long HEARTBEAT_INTERVAL = 10_000;
+
+    /**
+     * 超过该时间没有心跳的实例视为已下线，不再等待其确认
+     */
+    private static final Duration NODE_TTL = Duration.ofSeconds(30);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String node = IdUtil.fastSimpleUUID();
+
+    @Scheduled(fixedDelay = HEARTBEAT_INTERVAL)
+    public void heartbeat() {
+        try {
+            redisTemplate.opsForZSet().add(CacheConst.NODE_HEARTBEAT, node, System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("写入实例心跳失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录本实例已按该配置加载向量库
+     */
+    public void ack(AigcEmbedStore embed) {
+        heartbeat();
+        try {
+            redisTemplate.opsForHash().put(CacheConst.EMBED_STORE_STATE_PREFIX + embed.getId(), node, state(embed));
+        } catch (Exception e) {
+            log.warn("记录向量库 [{}] 状态确认失败：{}", embed.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 等待所有存活实例确认向量库已切换到指定状态，超时未确认时抛出异常
+     */
+    public void await(AigcEmbedStore embed, Duration timeout) throws InterruptedException {
+        String key = CacheConst.EMBED_STORE_STATE_PREFIX + embed.getId();
+        String expected = state(embed);
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (true) {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(CacheConst.NODE_HEARTBEAT, 0, now - NODE_TTL.toMillis());
+            Set<String> nodes = Optional.ofNullable(redisTemplate.opsForZSet()
+                    .rangeByScore(CacheConst.NODE_HEARTBEAT, now - NODE_TTL.toMillis(), Double.MAX_VALUE)).orElse(Set.of());
+            Map<Object, Object> acks = redisTemplate.opsForHash().entries(key);
+            List<String> pending = nodes.stream().filter(i -> !expected.equals(acks.get(i))).toList();
+            if (pending.isEmpty()) {
+                // 清理已下线实例的确认记录
+                Object[] stale = acks.keySet().stream().filter(i -> !nodes.contains(i)).toArray();
+                if (stale.length > 0) {
+                    redisTemplate.opsForHash().delete(key, stale);
+                }
+                return;
+            }
+            if (now > deadline) {
+                throw new ServiceException("等待实例确认向量库状态超时，未确认的实例：" + pending);
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+    }
+
+    private static String state(AigcEmbedStore embed) {
+        return Boolean.TRUE.equals(embed.getPartitioned()) + ":" + Boolean.TRUE.equals(embed.getPartitionMigrating());
+    }
+}
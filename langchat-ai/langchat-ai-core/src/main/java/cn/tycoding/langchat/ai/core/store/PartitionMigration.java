@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.store;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.lang.Dict;
+import cn.tycoding.langchat.ai.biz.component.EmbeddingRefreshEvent;
+import cn.tycoding.langchat.ai.biz.entity.AigcDocsSlice;
+import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
+import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
+import cn.tycoding.langchat.ai.biz.mapper.AigcDocsSliceMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcEmbedStoreService;
+import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
+import cn.tycoding.langchat.ai.core.consts.EmbedStoreEnum;
+import cn.tycoding.langchat.ai.core.provider.EmbeddingStoreFactory;
+import cn.tycoding.langchat.common.core.component.SpringContextHolder;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import cn.tycoding.langchat.common.core.task.TaskManager;
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.milvus.MilvusEmbeddingStore;
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.grpc.QueryResults;
+import io.milvus.param.R;
+import io.milvus.param.collection.HasCollectionParam;
+import io.milvus.param.dml.QueryParam;
+import io.milvus.response.QueryResultsWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static cn.tycoding.langchat.ai.core.consts.EmbedConst.KNOWLEDGE;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+
+/**
+ * 向量库按知识库分区的数据迁移
+ * <p>
+ * 分区只能通过迁移任务开启，存量数据迁移完成后才切换读取，切换前检索结果不受影响：
+ * <p>
+ * PgVector：为每个知识库创建部分索引后开启分区。
+ * <p>
+ * Milvus：
+ * 1. 标记迁移中，各实例的写入和删除同时作用于共享 Collection 和知识库 Collection，检索仍使用共享 Collection
+ * 2. 按知识库将共享 Collection 中的数据复制到各自的 Collection，已复制的数据会跳过
+ * 3. 开启分区，各实例切换为只读写知识库 Collection
+ * 4. 按切片表再对账复制一次，之后删除共享 Collection 中已迁移的数据
+ * <p>
+ * 每次切换状态后都等待所有存活实例确认（{@link EmbedStoreStateRegistry}）再继续，超时未确认时迁移失败，
+ * 不会删除数据。任务中断后可重新执行
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionMigration {
+
+    private static final int BATCH_SIZE = 200;
+
+    /**
+     * 等待各实例确认向量库状态的最长时间
+     */
+    private static final Duration ACK_TIMEOUT = Duration.ofMinutes(5);
+
+    private final EmbeddingStoreFactory embeddingStoreFactory;
+    private final PgVectorIndexManager pgVectorIndexManager;
+    private final AigcEmbedStoreService aigcEmbedStoreService;
+    private final AigcKnowledgeService aigcKnowledgeService;
+    private final AigcDocsSliceMapper aigcDocsSliceMapper;
+    private final EmbedStoreStateRegistry embedStoreStateRegistry;
+
+    private final Map<String, Status> statusMap = new ConcurrentHashMap<>();
+
+    public void migrate(String embedStoreId) {
+        AigcEmbedStore embed = embeddingStoreFactory.getEmbeddingStoreConfig(embedStoreId);
+        if (embed == null) {
+            throw new ServiceException("向量库不存在或未初始化");
+        }
+        if (EmbedStoreEnum.REDIS.name().equalsIgnoreCase(embed.getProvider())) {
+            throw new ServiceException("Redis 向量库不支持按知识库分区");
+        }
+        if (Boolean.TRUE.equals(embed.getPartitioned())) {
+            throw new ServiceException("该向量库已按知识库分区");
+        }
+        Status status = new Status();
+        Status previous = statusMap.putIfAbsent(embedStoreId, status);
+        if (previous != null) {
+            if ("RUNNING".equals(previous.state)) {
+                throw new ServiceException("该向量库的迁移任务正在执行");
+            }
+            statusMap.put(embedStoreId, status);
+        }
+
+        TaskManager.submitTask(embedStoreId, () -> {
+            try {
+                List<String> knowledgeIds = aigcKnowledgeService.list(Wrappers.<AigcKnowledge>lambdaQuery()
+                                .select(AigcKnowledge::getId)
+                                .eq(AigcKnowledge::getEmbedStoreId, embedStoreId))
+                        .stream().map(AigcKnowledge::getId).toList();
+                status.total = knowledgeIds.size();
+                if (EmbedStoreEnum.PGVECTOR.name().equalsIgnoreCase(embed.getProvider())) {
+                    for (String knowledgeId : knowledgeIds) {
+                        pgVectorIndexManager.createPartitionIndex(embed, knowledgeId);
+                        status.knowledge.incrementAndGet();
+                    }
+                    updateState(embed, true, false);
+                }
+                if (EmbedStoreEnum.MILVUS.name().equalsIgnoreCase(embed.getProvider())) {
+                    migrateMilvus(embed, knowledgeIds, status);
+                }
+                status.state = "SUCCESS";
+                log.info("向量库分区迁移完成：[{}]，{}", embed.getName(), status.toDict());
+            } catch (Exception e) {
+                log.error("向量库分区迁移失败：[{}]", embed.getName(), e);
+                status.message = e.getMessage();
+                status.state = "FAILED";
+            } finally {
+                status.endTime = new Date();
+            }
+            return null;
+        });
+    }
+
+    public Dict status(String embedStoreId) {
+        Status status = statusMap.get(embedStoreId);
+        return status == null ? null : status.toDict();
+    }
+
+    private void migrateMilvus(AigcEmbedStore embed, List<String> knowledgeIds, Status status) throws InterruptedException {
+        MilvusServiceClient client = EmbeddingStoreFactory.milvusClient(embed);
+        try {
+            R<Boolean> exists = client.hasCollection(HasCollectionParam.newBuilder()
+                    .withCollectionName(embed.getTableName()).build());
+            if (!Boolean.TRUE.equals(exists.getData())) {
+                log.info("向量库 [{}] 不存在共享 Collection：{}，直接开启分区", embed.getName(), embed.getTableName());
+                updateState(embed, true, false);
+                return;
+            }
+            EmbeddingStore<TextSegment> source = milvusStore(client, embed, embed.getTableName());
+
+            // 先让所有实例进入双写，再复制存量数据，避免复制期间新增或删除的数据遗漏
+            updateState(embed, false, true);
+            for (String knowledgeId : knowledgeIds) {
+                status.migrated.addAndGet(copyKnowledge(client, embed, knowledgeId));
+                status.knowledge.incrementAndGet();
+            }
+
+            // 切换读取后再清理共享 Collection，保证切换前后都能检索到完整数据
+            updateState(embed, true, false);
+            for (String knowledgeId : knowledgeIds) {
+                // 对账：按切片表补齐确认前仍只写入共享 Collection 的数据，确认后删除不会丢失向量
+                status.migrated.addAndGet(copyKnowledge(client, embed, knowledgeId));
+                source.removeAll(metadataKey(KNOWLEDGE).isEqualTo(knowledgeId));
+            }
+        } finally {
+            client.close(10);
+        }
+    }
+
+    /**
+     * 按切片表复制知识库的数据；复制期间被删除的切片，其向量会在复制后从目标 Collection 中移除
+     */
+    private long copyKnowledge(MilvusServiceClient client, AigcEmbedStore embed, String knowledgeId) {
+        String collection = EmbeddingStoreFactory.partitionName(embed, knowledgeId);
+        EmbeddingStore<TextSegment> target = milvusStore(client, embed, collection);
+        long copied = 0;
+        for (List<String> batch : ListUtil.split(vectorIds(knowledgeId, null), BATCH_SIZE)) {
+            List<String> ids = copyBatch(client, embed.getTableName(), collection, target, batch);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            Set<String> alive = new HashSet<>(vectorIds(knowledgeId, ids));
+            List<String> removed = ids.stream().filter(id -> !alive.contains(id)).toList();
+            if (!removed.isEmpty()) {
+                target.removeAll(removed);
+            }
+            copied += ids.size() - removed.size();
+        }
+        return copied;
+    }
+
+    private List<String> vectorIds(String knowledgeId, Collection<String> in) {
+        return aigcDocsSliceMapper.selectList(Wrappers.<AigcDocsSlice>lambdaQuery()
+                        .select(AigcDocsSlice::getVectorId)
+                        .eq(AigcDocsSlice::getKnowledgeId, knowledgeId)
+                        .in(in != null, AigcDocsSlice::getVectorId, in))
+                .stream().map(AigcDocsSlice::getVectorId).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * 复制一批数据，返回本次复制的向量ID，目标 Collection 中已存在的数据（上次中断前已复制或迁移期间双写）会跳过
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> copyBatch(MilvusServiceClient client, String source, String target,
+                          EmbeddingStore<TextSegment> targetStore, List<String> vectorIds) {
+        Set<String> copied = query(client, target, vectorIds, List.of("id")).stream()
+                .map(row -> String.valueOf(row.get("id")))
+                .collect(Collectors.toSet());
+        List<String> pending = vectorIds.stream().filter(id -> !copied.contains(id)).toList();
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<Embedding> embeddings = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        for (QueryResultsWrapper.RowRecord row : query(client, source, pending, List.of("id", "text", "metadata", "vector"))) {
+            ids.add(String.valueOf(row.get("id")));
+            embeddings.add(Embedding.from((List<Float>) row.get("vector")));
+            segments.add(TextSegment.from(String.valueOf(row.get("text")), metadata(row.get("metadata"))));
+        }
+        if (!ids.isEmpty()) {
+            targetStore.addAll(ids, embeddings, segments);
+        }
+        return ids;
+    }
+
+    private static List<QueryResultsWrapper.RowRecord> query(MilvusServiceClient client, String collection,
+                                                             List<String> vectorIds, List<String> fields) {
+        String expr = vectorIds.stream().map(id -> "\"" + id + "\"").collect(Collectors.joining(",", "id in [", "]"));
+        R<QueryResults> response = client.query(QueryParam.newBuilder()
+                .withCollectionName(collection)
+                .withExpr(expr)
+                .withOutFields(fields)
+                .build());
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus 查询失败：" + response.getMessage());
+        }
+        return new QueryResultsWrapper(response.getData()).getRowRecords();
+    }
+
+    /**
+     * 创建 Collection（不存在时）并加载
+     */
+    private static EmbeddingStore<TextSegment> milvusStore(MilvusServiceClient client, AigcEmbedStore embed, String collection) {
+        return MilvusEmbeddingStore.builder()
+                .milvusClient(client)
+                .collectionName(collection)
+                .dimension(embed.getDimension())
+                .build();
+    }
+
+    /**
+     * 更新分区状态，其他实例通过向量库配置的缓存失效通知刷新，本实例直接刷新；等待所有存活实例确认后返回
+     */
+    private void updateState(AigcEmbedStore embed, boolean partitioned, boolean migrating) throws InterruptedException {
+        AigcEmbedStore data = new AigcEmbedStore();
+        data.setId(embed.getId());
+        data.setName(embed.getName());
+        data.setPartitioned(partitioned);
+        data.setPartitionMigrating(migrating);
+        aigcEmbedStoreService.updateById(data);
+        SpringContextHolder.publishEvent(new EmbeddingRefreshEvent(data));
+        embedStoreStateRegistry.await(data, ACK_TIMEOUT);
+    }
+
+    private static Metadata metadata(Object json) {
+        Map<String, Object> map = new HashMap<>();
+        if (json != null) {
+            JSON.parseObject(String.valueOf(json)).forEach((k, v) ->
+                    map.put(k, v instanceof BigDecimal ? ((BigDecimal) v).doubleValue() : v));
+        }
+        return Metadata.from(map);
+    }
+
+    /**
+     * 迁移进度，由迁移任务线程更新，查询时生成快照
+     */
+    private static class Status {
+        private volatile String state = "RUNNING";
+        private volatile int total;
+        private final AtomicInteger knowledge = new AtomicInteger();
+        private final AtomicLong migrated = new AtomicLong();
+        private final Date startTime = new Date();
+        private volatile Date endTime;
+        private volatile String message;
+
+        Dict toDict() {
+            return Dict.create()
+                    .set("state", state)
+                    .set("total", total)
+                    .set("knowledge", knowledge.get())
+                    .set("migrated", migrated.get())
+                    .set("startTime", startTime)
+                    .set("endTime", endTime)
+                    .set("message", message);
+        }
+    }
+}
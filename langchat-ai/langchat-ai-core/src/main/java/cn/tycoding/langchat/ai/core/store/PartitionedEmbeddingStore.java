@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsIn;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static cn.tycoding.langchat.ai.core.consts.EmbedConst.KNOWLEDGE;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+
+/**
+ * 按知识库分区的向量库
+ * <p>
+ * 写入时根据片段的 knowledgeId 路由到对应分区，没有 knowledgeId 的数据写入默认分区；
+ * 检索时将 knowledgeId 过滤条件拆分为每个知识库单独检索，只访问相关分区，最后按得分合并结果。
+ * <p>
+ * 存量数据迁移期间（ready = false）读取仍使用默认分区，写入和删除同时作用于默认分区和知识库分区，
+ * 迁移完成后切换为只读写知识库分区
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class PartitionedEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private final Function<String, EmbeddingStore<TextSegment>> partition;
+    private final Supplier<Collection<EmbeddingStore<TextSegment>>> partitions;
+    private final Supplier<EmbeddingStore<TextSegment>> defaultPartition;
+    private final boolean ready;
+    /**
+     * 非空时为单个知识库分区的视图
+     */
+    private final String knowledgeId;
+
+    /**
+     * @param partition        根据知识库 ID 获取分区
+     * @param partitions       获取已存在的分区，用于无法确定知识库的删除和检索，不会创建新的分区
+     * @param defaultPartition 默认分区，即分区前的共享存储
+     * @param ready            存量数据是否已迁移完成
+     */
+    public PartitionedEmbeddingStore(Function<String, EmbeddingStore<TextSegment>> partition,
+                                     Supplier<Collection<EmbeddingStore<TextSegment>>> partitions,
+                                     Supplier<EmbeddingStore<TextSegment>> defaultPartition,
+                                     boolean ready) {
+        this(partition, partitions, defaultPartition, ready, null);
+    }
+
+    private PartitionedEmbeddingStore(Function<String, EmbeddingStore<TextSegment>> partition,
+                                      Supplier<Collection<EmbeddingStore<TextSegment>>> partitions,
+                                      Supplier<EmbeddingStore<TextSegment>> defaultPartition,
+                                      boolean ready, String knowledgeId) {
+        this.partition = partition;
+        this.partitions = partitions;
+        this.defaultPartition = defaultPartition;
+        this.ready = ready;
+        this.knowledgeId = knowledgeId;
+    }
+
+    /**
+     * 只访问单个知识库分区的视图，按 ID 删除时不需要遍历所有分区
+     */
+    public EmbeddingStore<TextSegment> forKnowledge(String knowledgeId) {
+        return new PartitionedEmbeddingStore(partition, () -> List.of(partition.apply(knowledgeId)),
+                defaultPartition, ready, knowledgeId);
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return defaultPartition.get().add(embedding);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        defaultPartition.get().add(id, embedding);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return defaultPartition.get().addAll(embeddings);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = generateIds(1).get(0);
+        addAll(List.of(id), List.of(embedding), List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> segments) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, segments);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        if (!ready) {
+            defaultPartition.get().addAll(ids, embeddings, segments);
+        }
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        List<Integer> unassigned = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            String knowledgeId = segments.get(i).metadata().getString(KNOWLEDGE);
+            if (knowledgeId == null) {
+                unassigned.add(i);
+            } else {
+                groups.computeIfAbsent(knowledgeId, k -> new ArrayList<>()).add(i);
+            }
+        }
+        groups.forEach((knowledgeId, indexes) -> addAll(partition.apply(knowledgeId), indexes, ids, embeddings, segments));
+        if (ready && !unassigned.isEmpty()) {
+            addAll(defaultPartition.get(), unassigned, ids, embeddings, segments);
+        }
+    }
+
+    private static void addAll(EmbeddingStore<TextSegment> store, List<Integer> indexes,
+                               List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        store.addAll(indexes.stream().map(ids::get).toList(),
+                indexes.stream().map(embeddings::get).toList(),
+                indexes.stream().map(segments::get).toList());
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        // 分区视图迁移完成后只需删除知识库分区中的数据
+        if (!ready || knowledgeId == null) {
+            defaultPartition.get().removeAll(ids);
+        }
+        partitions.get().forEach(store -> store.removeAll(ids));
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        Collection<String> knowledgeIds = knowledgeIds(filter);
+        if (!ready || knowledgeIds.isEmpty()) {
+            defaultPartition.get().removeAll(filter);
+        }
+        if (knowledgeIds.isEmpty()) {
+            partitions.get().forEach(store -> store.removeAll(filter));
+            return;
+        }
+        knowledgeIds.forEach(id -> partition.apply(id).removeAll(metadataKey(KNOWLEDGE).isEqualTo(id)));
+    }
+
+    @Override
+    public void removeAll() {
+        if (knowledgeId != null) {
+            removeAll(metadataKey(KNOWLEDGE).isEqualTo(knowledgeId));
+            return;
+        }
+        defaultPartition.get().removeAll();
+        partitions.get().forEach(EmbeddingStore::removeAll);
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        if (!ready) {
+            return defaultPartition.get().search(request);
+        }
+        Collection<String> knowledgeIds = knowledgeIds(request.filter());
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+        if (knowledgeIds.isEmpty()) {
+            matches.addAll(defaultPartition.get().search(request).matches());
+            partitions.get().forEach(store -> matches.addAll(store.search(request).matches()));
+        } else {
+            knowledgeIds.forEach(id -> matches.addAll(partition.apply(id).search(EmbeddingSearchRequest.builder()
+                    .queryEmbedding(request.queryEmbedding())
+                    .maxResults(request.maxResults())
+                    .minScore(request.minScore())
+                    .filter(metadataKey(KNOWLEDGE).isEqualTo(id))
+                    .build()).matches()));
+        }
+        return new EmbeddingSearchResult<>(matches.stream()
+                .sorted(Comparator.comparingDouble(EmbeddingMatch<TextSegment>::score).reversed())
+                .limit(request.maxResults())
+                .toList());
+    }
+
+    /**
+     * 从过滤条件中解析知识库 ID，仅支持 knowledgeId 的 isEqualTo / isIn 条件
+     */
+    private static Collection<String> knowledgeIds(Filter filter) {
+        if (filter instanceof IsEqualTo isEqualTo && KNOWLEDGE.equals(isEqualTo.key())) {
+            return List.of(String.valueOf(isEqualTo.comparisonValue()));
+        }
+        if (filter instanceof IsIn isIn && KNOWLEDGE.equals(isIn.key())) {
+            return isIn.comparisonValues().stream().map(String::valueOf).distinct().toList();
+        }
+        return List.of();
+    }
+}
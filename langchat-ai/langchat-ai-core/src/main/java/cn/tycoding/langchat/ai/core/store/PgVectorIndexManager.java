@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.ai.core.store;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
+import cn.tycoding.langchat.ai.core.consts.PgVectorIndexEnum;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import cn.tycoding.langchat.common.core.task.AnalysisThreadPool;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.tycoding.langchat.ai.core.consts.EmbedConst.KNOWLEDGE;
+
+/**
+ * PgVector 索引管理
+ * <p>
+ * 1. 根据向量库配置创建 HNSW 或 IVFFlat 索引，IVFFlat 的 lists 根据数据量自动计算
+ * 2. 定时检查数据量，IVFFlat 推荐 lists 增长到一定倍数后在后台并发重建索引（CREATE INDEX CONCURRENTLY）
+ * 3. 按知识库分区时，为每个知识库创建带 knowledgeId 条件的部分索引（Partial Index）
+ * <p>
+ * 索引构建均在 AnalysisThreadPool 中执行，多实例部署时通过 Redis 锁保证同一个索引只有一个实例在构建。
+ * <p>
+ * 索引构建信息（类型、参数、构建时的数据量和时间）以 JSON 保存在索引的 COMMENT 中
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PgVectorIndexManager {
+
+    /**
+     * 构建锁的有效期，需大于大表构建 HNSW 索引的耗时
+     */
+    private static final Duration LOCK_TIME = Duration.ofHours(6);
+
+    private final RagProps ragProps;
+    private final StringRedisTemplate redisTemplate;
+
+    private final String owner = IdUtil.fastSimpleUUID();
+
+    private final Map<String, AigcEmbedStore> storeMap = new ConcurrentHashMap<>();
+    private final Map<String, DataSource> dataSourceMap = new ConcurrentHashMap<>();
+    private final Set<String> building = ConcurrentHashMap.newKeySet();
+    private final Set<String> partitionIndexes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 注册 PgVector 向量库，开启自动管理时在后台检查索引
+     */
+    public void register(AigcEmbedStore store) {
+        storeMap.put(store.getId(), store);
+        if (ragProps.getPgvector().isAutoIndex()) {
+            submit(store);
+        }
+    }
+
+    /**
+     * 向量库配置变更后清除缓存
+     */
+    public void clear() {
+        storeMap.clear();
+        dataSourceMap.clear();
+        partitionIndexes.clear();
+    }
+
+    @Scheduled(initialDelayString = "${langchat.rag.pgvector.check-interval:PT10M}",
+            fixedDelayString = "${langchat.rag.pgvector.check-interval:PT10M}")
+    public void check() {
+        if (!ragProps.getPgvector().isAutoIndex()) {
+            return;
+        }
+        // 索引构建可能持续数小时，不能占用调度线程
+        storeMap.values().forEach(store -> submit(store));
+    }
+
+    /**
+     * 在后台重建索引
+     */
+    public void rebuild(AigcEmbedStore store) {
+        AnalysisThreadPool.execute(() -> rebuildIfNeeded(store, true));
+    }
+
+    private void submit(AigcEmbedStore store) {
+        try {
+            AnalysisThreadPool.execute(() -> rebuildIfNeeded(store, false));
+        } catch (Exception e) {
+            log.warn("向量索引检查任务提交失败，表：{}，{}", store.getTableName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 检查索引，索引不存在、类型变更或 IVFFlat 推荐 lists 增长超过阈值时重建
+     */
+    public void rebuildIfNeeded(AigcEmbedStore store, boolean force) {
+        if (!building.add(store.getId())) {
+            return;
+        }
+        String lock = CacheConst.PGVECTOR_INDEX_LOCK_PREFIX + indexName(store);
+        if (!tryLock(lock)) {
+            building.remove(store.getId());
+            log.debug("其他实例正在构建向量索引，表：{}", store.getTableName());
+            return;
+        }
+        try {
+            PgVectorIndexEnum type = PgVectorIndexEnum.of(store.getIndexType());
+            long rows = rows(store);
+            JSONObject current = comment(store, indexName(store));
+            String reason = null;
+            if (force) {
+                reason = "手动重建";
+            } else if (current == null) {
+                reason = "索引不存在";
+            } else if (!type.name().equals(current.getString("type"))) {
+                reason = "索引类型变更为 " + type;
+            } else if (type == PgVectorIndexEnum.IVFFLAT
+                    && lists(rows) >= current.getIntValue("lists") * ragProps.getPgvector().getGrowthFactor()) {
+                reason = "数据量增长至 " + rows;
+            }
+            if (reason != null) {
+                log.info("开始重建向量索引，表：{}，类型：{}，原因：{}", store.getTableName(), type, reason);
+                build(store, type, rows);
+            }
+        } catch (Exception e) {
+            log.error("向量索引检查失败，表：{}", store.getTableName(), e);
+        } finally {
+            unlock(lock);
+            building.remove(store.getId());
+        }
+    }
+
+    /**
+     * 索引健康信息
+     */
+    public Dict health(AigcEmbedStore store) {
+        String name = indexName(store);
+        Dict health = Dict.create()
+                .set("table", store.getTableName())
+                .set("index", name)
+                .set("type", PgVectorIndexEnum.of(store.getIndexType()).name())
+                .set("building", building.contains(store.getId())
+                        || Boolean.TRUE.equals(redisTemplate.hasKey(CacheConst.PGVECTOR_INDEX_LOCK_PREFIX + name)));
+        long rows = rows(store);
+        health.set("rows", rows).set("recommendedLists", lists(rows));
+
+        String sql = "SELECT i.indisvalid, pg_relation_size(i.indexrelid), obj_description(i.indexrelid, 'pg_class') " +
+                "FROM pg_index i WHERE i.indexrelid = to_regclass(?)";
+        try (Connection conn = dataSource(store).getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return health.set("exists", false);
+                }
+                health.set("exists", true).set("valid", rs.getBoolean(1)).set("size", rs.getLong(2));
+                String comment = rs.getString(3);
+                if (comment != null) {
+                    JSONObject info = JSON.parseObject(comment);
+                    health.set("indexType", info.getString("type"))
+                            .set("lists", info.getInteger("lists"))
+                            .set("m", info.getInteger("m"))
+                            .set("efConstruction", info.getInteger("efConstruction"))
+                            .set("rowsAtBuild", info.getLong("rows"))
+                            .set("lastBuildTime", info.getDate("buildTime"));
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("读取向量索引信息失败：" + store.getTableName(), e);
+        }
+        return health;
+    }
+
+    /**
+     * 确保知识库的部分索引已创建，同一进程内每个知识库只检查一次。
+     * 索引在后台创建，创建完成前检索会使用全表索引
+     */
+    public void ensurePartitionIndex(AigcEmbedStore store, String knowledgeId) {
+        String name = partitionIndexName(store, knowledgeId);
+        if (!partitionIndexes.add(name)) {
+            return;
+        }
+        try {
+            AnalysisThreadPool.execute(() -> {
+                try {
+                    createPartitionIndex(store, knowledgeId);
+                } catch (Exception e) {
+                    // 下次访问该知识库时重试
+                    partitionIndexes.remove(name);
+                    log.warn("知识库向量索引创建失败，表：{}，知识库：{}，{}", store.getTableName(), knowledgeId, e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            partitionIndexes.remove(name);
+        }
+    }
+
+    public void createPartitionIndex(AigcEmbedStore store, String knowledgeId) {
+        String name = partitionIndexName(store, knowledgeId);
+        String lock = CacheConst.PGVECTOR_INDEX_LOCK_PREFIX + name;
+        if (!tryLock(lock)) {
+            throw new IllegalStateException("其他实例正在创建知识库向量索引：" + name);
+        }
+        try {
+            // 与 langchain4j PgVectorFilterMapper 生成的过滤条件保持一致，否则无法命中部分索引
+            String predicate = String.format("(metadata->>'%s')::text = '%s'", KNOWLEDGE, escape(knowledgeId));
+            PgVectorIndexEnum type = PgVectorIndexEnum.of(store.getIndexType());
+            long rows = type == PgVectorIndexEnum.IVFFLAT ? count(store, predicate) : 0;
+            execute(store, String.format("CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s %s WHERE %s",
+                    name, store.getTableName(), using(type, rows), predicate));
+            partitionIndexes.add(name);
+            log.info("已创建知识库向量索引：{}，表：{}，知识库：{}", name, store.getTableName(), knowledgeId);
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    public void dropPartitionIndex(AigcEmbedStore store, String knowledgeId) {
+        String name = partitionIndexName(store, knowledgeId);
+        execute(store, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        partitionIndexes.remove(name);
+    }
+
+    private boolean tryLock(String lock) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lock, owner, LOCK_TIME));
+    }
+
+    private void unlock(String lock) {
+        if (owner.equals(redisTemplate.opsForValue().get(lock))) {
+            redisTemplate.delete(lock);
+        }
+    }
+
+    /**
+     * 并发构建新索引后替换旧索引，构建期间旧索引仍可正常使用。调用方需持有该索引的构建锁，
+     * 临时索引名称在各实例间相同，因此可以清理上次中断遗留的临时索引
+     */
+    private void build(AigcEmbedStore store, PgVectorIndexEnum type, long rows) {
+        String name = indexName(store);
+        String tmp = "lc_tmp_" + SecureUtil.md5(store.getTableName());
+        long start = System.currentTimeMillis();
+
+        // 清理上次中断遗留的无效索引
+        execute(store, "DROP INDEX CONCURRENTLY IF EXISTS " + tmp);
+        execute(store, String.format("CREATE INDEX CONCURRENTLY %s ON %s %s", tmp, store.getTableName(), using(type, rows)));
+        execute(store, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        // langchain4j useIndex(true) 创建的默认索引
+        execute(store, "DROP INDEX CONCURRENTLY IF EXISTS " + store.getTableName() + "_ivfflat_index");
+        execute(store, String.format("ALTER INDEX %s RENAME TO %s", tmp, name));
+
+        RagProps.PgVector props = ragProps.getPgvector();
+        JSONObject info = new JSONObject();
+        info.put("type", type.name());
+        info.put("rows", rows);
+        info.put("buildTime", new Date());
+        if (type == PgVectorIndexEnum.IVFFLAT) {
+            info.put("lists", lists(rows));
+        } else {
+            info.put("m", props.getHnswM());
+            info.put("efConstruction", props.getHnswEfConstruction());
+        }
+        execute(store, String.format("COMMENT ON INDEX %s IS '%s'", name, escape(info.toJSONString())));
+        log.info("向量索引重建完成，表：{}，索引：{}，耗时：{}ms", store.getTableName(), info, System.currentTimeMillis() - start);
+    }
+
+    private String using(PgVectorIndexEnum type, long rows) {
+        if (type == PgVectorIndexEnum.IVFFLAT) {
+            return String.format("USING ivfflat (embedding vector_cosine_ops) WITH (lists = %d)", lists(rows));
+        }
+        RagProps.PgVector props = ragProps.getPgvector();
+        return String.format("USING hnsw (embedding vector_cosine_ops) WITH (m = %d, ef_construction = %d)",
+                props.getHnswM(), props.getHnswEfConstruction());
+    }
+
+    /**
+     * pgvector 推荐的 IVFFlat lists：100 万行以内为 rows / 1000，超过后为 sqrt(rows)
+     */
+    static int lists(long rows) {
+        if (rows <= 1_000_000) {
+            return (int) Math.max(1, rows / 1000);
+        }
+        return (int) Math.sqrt(rows);
+    }
+
+    /**
+     * 表的估算行数，表未被 ANALYZE 过时使用 count(*)
+     */
+    private long rows(AigcEmbedStore store) {
+        String sql = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+        try (Connection conn = dataSource(store).getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, store.getTableName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getLong(1) >= 0) {
+                    return rs.getLong(1);
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("读取向量表行数失败：" + store.getTableName(), e);
+        }
+        return count(store, "true");
+    }
+
+    private long count(AigcEmbedStore store, String predicate) {
+        String sql = String.format("SELECT count(*) FROM %s WHERE %s", store.getTableName(), predicate);
+        try (Connection conn = dataSource(store).getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (Exception e) {
+            throw new IllegalStateException("统计向量表行数失败：" + store.getTableName(), e);
+        }
+    }
+
+    private JSONObject comment(AigcEmbedStore store, String index) {
+        String sql = "SELECT obj_description(to_regclass(?), 'pg_class'), to_regclass(?) IS NOT NULL";
+        try (Connection conn = dataSource(store).getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, index);
+            stmt.setString(2, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || !rs.getBoolean(2)) {
+                    return null;
+                }
+                String comment = rs.getString(1);
+                // 非本类创建的同名索引，视为需要重建
+                return comment == null ? new JSONObject() : JSON.parseObject(comment);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("读取向量索引信息失败：" + index, e);
+        }
+    }
+
+    private void execute(AigcEmbedStore store, String sql) {
+        // CONCURRENTLY 不能在事务中执行，这里使用自动提交的连接
+        try (Connection conn = dataSource(store).getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (Exception e) {
+            throw new IllegalStateException("PgVector 索引操作失败：" + sql, e);
+        }
+    }
+
+    private DataSource dataSource(AigcEmbedStore store) {
+        return dataSourceMap.computeIfAbsent(store.getId(), k -> {
+            PGSimpleDataSource dataSource = new PGSimpleDataSource();
+            dataSource.setServerNames(new String[]{store.getHost()});
+            dataSource.setPortNumbers(new int[]{store.getPort()});
+            dataSource.setDatabaseName(store.getDatabaseName());
+            dataSource.setUser(store.getUsername());
+            dataSource.setPassword(store.getPassword());
+            return dataSource;
+        });
+    }
+
+    private static String indexName(AigcEmbedStore store) {
+        String name = store.getTableName() + "_vector_index";
+        // PostgreSQL 标识符最长 63 个字符
+        return name.length() <= 63 ? name : "lc_vec_" + SecureUtil.md5(store.getTableName());
+    }
+
+    private static String partitionIndexName(AigcEmbedStore store, String knowledgeId) {
+        return "lc_kb_" + SecureUtil.md5(store.getTableName() + ":" + knowledgeId);
+    }
+
+    private static String escape(String value) {
+        return value.replace("'", "''");
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.auth.config;
+
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.auth.utils.SysLogUtil;
+import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.properties.SysLogProps;
+import cn.tycoding.langchat.upms.entity.SysLog;
+import cn.tycoding.langchat.upms.utils.AuthUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SimplePropertyPreFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ApiLog} 切面：按接口记录耗时分布和异常次数，并写入系统日志
+ * <p>
+ * 请求参数的序列化开销较大，成功的请求只按 langchat.log.api.sample-rate 采样记录，失败的请求总是记录
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Aspect
+@Component
+public class ApiLogAspect {
+
+    /**
+     * 不记录的敏感字段
+     */
+    private static final SimplePropertyPreFilter SENSITIVE = new SimplePropertyPreFilter();
+
+    static {
+        SENSITIVE.getExcludes().addAll(Arrays.asList("password", "apiKey", "secretKey", "accessKey"));
+    }
+
+    private final SysLogWriter sysLogWriter;
+    private final SysLogProps.Api props;
+    private final MeterRegistry registry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    public ApiLogAspect(SysLogWriter sysLogWriter, SysLogProps props, MeterRegistry registry) {
+        this.sysLogWriter = sysLogWriter;
+        this.props = props.getApi();
+        this.registry = registry;
+    }
+
+    @Around("@annotation(apiLog)")
+    public Object around(ProceedingJoinPoint point, ApiLog apiLog) throws Throwable {
+        long start = System.nanoTime();
+        Method method = ((MethodSignature) point.getSignature()).getMethod();
+        Meters meter = meters.computeIfAbsent(method, this::meters);
+        try {
+            Object result = point.proceed();
+            long time = System.nanoTime() - start;
+            meter.success.record(time, TimeUnit.NANOSECONDS);
+            boolean sampled = ThreadLocalRandom.current().nextDouble() < props.getSampleRate();
+            write(SysLogUtil.TYPE_OK, apiLog, meter.endpoint, point, time, sampled);
+            return result;
+        } catch (Throwable e) {
+            long time = System.nanoTime() - start;
+            meter.error.record(time, TimeUnit.NANOSECONDS);
+            Counter.builder("langchat.api.errors")
+                    .tag("endpoint", meter.endpoint)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+            write(SysLogUtil.TYPE_FAIL, apiLog, meter.endpoint, point, time, true);
+            throw e;
+        }
+    }
+
+    private void write(int type, ApiLog apiLog, String endpoint, ProceedingJoinPoint point, long time, boolean params) {
+        try {
+            SysLog sysLog = SysLogUtil.build(type, apiLog.value(), endpoint, TimeUnit.NANOSECONDS.toMillis(time),
+                    username(), params ? params(point.getArgs()) : null);
+            sysLogWriter.write(sysLog);
+        } catch (Exception e) {
+            // 日志记录失败不影响接口本身
+            log.warn("接口日志记录失败：{}，{}", endpoint, e.getMessage());
+        }
+    }
+
+    private String params(Object[] args) {
+        Object[] values = Arrays.stream(args)
+                .filter(arg -> !(arg instanceof ServletRequest || arg instanceof ServletResponse
+                        || arg instanceof MultipartFile || arg instanceof BindingResult
+                        || arg instanceof InputStream || arg instanceof OutputStream))
+                .toArray();
+        if (values.length == 0) {
+            return null;
+        }
+        return StrUtil.maxLength(JSON.toJSONString(values, SENSITIVE), props.getMaxParamsLength());
+    }
+
+    /**
+     * 标注 @ApiLog 的接口都需要登录，用户信息通常已在权限校验时读取过，同一请求内不会重复访问会话存储
+     */
+    private static String username() {
+        try {
+            return AuthUtil.getUsername();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Meters meters(Method method) {
+        String endpoint = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new Meters(endpoint, timer(endpoint, "success"), timer(endpoint, "error"));
+    }
+
+    private Timer timer(String endpoint, String outcome) {
+        return Timer.builder("langchat.api")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private record Meters(String endpoint, Timer success, Timer error) {
+    }
+}
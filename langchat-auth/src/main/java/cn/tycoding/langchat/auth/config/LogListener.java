@@ -18,15 +18,13 @@ package cn.tycoding.langchat.auth.config;
 
 import cn.tycoding.langchat.common.auth.event.LogEvent;
 import cn.tycoding.langchat.upms.entity.SysLog;
-import cn.tycoding.langchat.upms.service.SysLogService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
- * 监听自定义Log 事件
+ * 监听自定义Log 事件，交由 SysLogWriter 异步批量写入
  *
  * @author tycoding
  * @since 2024/1/5
@@ -35,13 +33,12 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class LogListener {
 
-    private final SysLogService sysLogService;
+    private final SysLogWriter sysLogWriter;
 
-    @Async
     @Order
     @EventListener(LogEvent.class)
     public void handler(LogEvent event) {
         SysLog sysLog = (SysLog) event.getSource();
-        sysLogService.add(sysLog);
+        sysLogWriter.write(sysLog);
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.auth.config;
+
+import cn.tycoding.langchat.common.core.properties.SysLogProps;
+import cn.tycoding.langchat.common.core.utils.RingBuffer;
+import cn.tycoding.langchat.upms.entity.SysLog;
+import cn.tycoding.langchat.upms.service.SysLogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 系统日志异步批量写入
+ * <p>
+ * 请求线程只把日志放入环形缓冲区，由单个后台线程批量写入数据库；缓冲区已满时按 langchat.log.overflow 处理，停机时写完缓冲区中的日志
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+public class SysLogWriter {
+
+    private static final long WARN_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final SysLogService sysLogService;
+    private final SysLogProps props;
+    private final RingBuffer<SysLog> buffer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final AtomicLong lastWarn = new AtomicLong(System.nanoTime() - WARN_INTERVAL);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public SysLogWriter(SysLogService sysLogService, SysLogProps props, MeterRegistry registry) {
+        this.sysLogService = sysLogService;
+        this.props = props;
+        this.buffer = new RingBuffer<>(props.getCapacity());
+        this.written = Counter.builder("langchat.syslog.written").register(registry);
+        this.dropped = Counter.builder("langchat.syslog.dropped").register(registry);
+        this.failed = Counter.builder("langchat.syslog.failed").register(registry);
+        Gauge.builder("langchat.syslog.queue", buffer, RingBuffer::size).register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "langchat-syslog-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        if (thread.isAlive()) {
+            log.warn("系统日志写入线程未能按时退出，缓冲区剩余 {} 条日志未写入", buffer.size());
+            return;
+        }
+        // 后台线程已退出，由当前线程写完剩余日志
+        List<SysLog> batch = new ArrayList<>(props.getBatchSize());
+        while (buffer.drain(batch, props.getBatchSize()) > 0) {
+            flush(batch);
+        }
+    }
+
+    public void write(SysLog sysLog) {
+        if (!running) {
+            // 启动前或停机后直接写入
+            sysLogService.add(sysLog);
+            return;
+        }
+        if (buffer.offer(sysLog)) {
+            if (buffer.size() >= props.getBatchSize()) {
+                LockSupport.unpark(thread);
+            }
+            return;
+        }
+        if (props.getOverflow() == SysLogProps.Overflow.CALLER_RUNS) {
+            sysLogService.add(sysLog);
+            return;
+        }
+        dropped.increment();
+        long now = System.nanoTime();
+        long last = lastWarn.get();
+        if (now - last >= WARN_INTERVAL && lastWarn.compareAndSet(last, now)) {
+            log.warn("系统日志缓冲区已满（容量 {}），已累计丢弃 {} 条日志", buffer.capacity(), (long) dropped.count());
+        }
+    }
+
+    private void run() {
+        List<SysLog> batch = new ArrayList<>(props.getBatchSize());
+        long interval = props.getFlushInterval().toNanos();
+        while (running) {
+            if (buffer.drain(batch, props.getBatchSize()) == 0) {
+                LockSupport.parkNanos(this, interval);
+                continue;
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<SysLog> batch) {
+        try {
+            sysLogService.addBatch(batch);
+            written.increment(batch.size());
+        } catch (Exception e) {
+            // 批量写入失败时逐条重试，避免一条异常数据导致整批丢失
+            log.warn("系统日志批量写入失败，改为逐条写入：{}", e.getMessage());
+            for (SysLog sysLog : batch) {
+                try {
+                    sysLogService.add(sysLog);
+                    written.increment();
+                } catch (Exception ex) {
+                    failed.increment();
+                    log.error("系统日志写入失败：{}", sysLog.getOperation(), ex);
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+}
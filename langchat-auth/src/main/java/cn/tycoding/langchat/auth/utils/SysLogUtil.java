@@ -56,11 +56,23 @@ public class SysLogUtil {
      * @param time      耗时
      * @return Log类
      */
-    @SneakyThrows
     public static SysLog build(Integer type, String operation, String method, Long time, String username) {
         HttpServletRequest request = ((ServletRequestAttributes)
                 Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
+        return build(request, type, operation, method, time, username, HttpUtil.toParams(request.getParameterMap()));
+    }
 
+    /**
+     * 构建日志Log类信息，请求参数由调用方提供（如按采样记录的接口参数）
+     */
+    public static SysLog build(Integer type, String operation, String method, Long time, String username, String params) {
+        HttpServletRequest request = ((ServletRequestAttributes)
+                Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
+        return build(request, type, operation, method, time, username, params);
+    }
+
+    @SneakyThrows
+    private static SysLog build(HttpServletRequest request, Integer type, String operation, String method, Long time, String username, String params) {
         return new SysLog()
                 .setType(type)
                 .setUsername(username)
@@ -69,7 +81,7 @@ public class SysLogUtil {
                 .setIp(JakartaServletUtil.getClientIP(request))
                 .setUrl(URLUtil.getPath(request.getRequestURI()))
                 .setMethod(method)
-                .setParams(HttpUtil.toParams(request.getParameterMap()))
+                .setParams(params)
                 .setUserAgent(request.getHeader("user-agent"))
                 .setTime(time);
     }
@@ -100,6 +100,11 @@ public class ChatReq {
      */
     private List<String> knowledgeIds = new ArrayList<>();
 
+    /**
+     * 是否对知识库检索结果进行重排序。
+     */
+    private Boolean rerank;
+
     /**
      * 文档ID，用于标识相关的文档。
      */
@@ -47,6 +47,16 @@ public class EmbeddingR {
      */
     private String knowledgeId;
 
+    /**
+     * 生成向量时使用的 Embedding 模型ID。
+     */
+    private String embedModelId;
+
+    /**
+     * 切片在文档中的序号。
+     */
+    private Integer index;
+
     /**
      * Embedding 操作后切片的文本内容。
      * 即原始文本经过处理和 Embedding 操作后，得到的文本片段。
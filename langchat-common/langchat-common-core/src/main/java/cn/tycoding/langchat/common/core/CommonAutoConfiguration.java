@@ -17,6 +17,8 @@
 package cn.tycoding.langchat.common.core;
 
 import cn.tycoding.langchat.common.core.properties.AuthProps;
+import cn.tycoding.langchat.common.core.properties.DataSourceProps;
+import cn.tycoding.langchat.common.core.properties.SysLogProps;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -27,6 +29,8 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @EnableConfigurationProperties({
         AuthProps.class,
+        DataSourceProps.class,
+        SysLogProps.class,
 })
 public class CommonAutoConfiguration {
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 只读查询注解
+ * 标注在 Bean 的方法或类上，方法内的查询路由到只读从库；未配置从库、从库不可用或复制延迟超限时仍走主库。
+ * 已在写事务中调用时沿用事务的主库连接，方法内开启的写事务也会切回主库。
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
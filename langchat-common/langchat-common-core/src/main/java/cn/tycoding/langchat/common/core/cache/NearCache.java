@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 本地缓存整张数据表，适用于应用、模型、知识库等数据量小、读多写少的配置数据
+ * <p>
+ * 缓存的快照记录加载时的版本号，收到更高版本号的失效通知后丢弃，下次访问时重新加载；
+ * 返回的对象都是副本，调用方可以直接修改
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+public class NearCache<T> {
+
+    @Getter
+    private final String name;
+    private final Supplier<List<T>> loader;
+    private final Function<T, String> key;
+    private final UnaryOperator<T> copier;
+    private final LongSupplier version;
+
+    /**
+     * 收到的最大版本号，加载期间收到失效通知时不缓存加载结果
+     */
+    private final AtomicLong seen = new AtomicLong(-1);
+    private volatile Snapshot<T> snapshot;
+
+    private record Snapshot<T>(long version, Map<String, T> data) {
+    }
+
+    NearCache(String name, Supplier<List<T>> loader, Function<T, String> key, UnaryOperator<T> copier,
+              LongSupplier version) {
+        this.name = name;
+        this.loader = loader;
+        this.key = key;
+        this.copier = copier;
+        this.version = version;
+    }
+
+    public T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        T data = data().get(id);
+        return data == null ? null : copier.apply(data);
+    }
+
+    public boolean contains(String id) {
+        return id != null && data().containsKey(id);
+    }
+
+    public List<T> list() {
+        return data().values().stream().map(copier).toList();
+    }
+
+    /**
+     * 当前快照的版本号，未加载时返回 null
+     */
+    Long getVersion() {
+        Snapshot<T> current = snapshot;
+        return current == null ? null : current.version();
+    }
+
+    /**
+     * 直接丢弃快照，用于无法获取新版本号时
+     */
+    void clear() {
+        snapshot = null;
+    }
+
+    void invalidate(long version) {
+        seen.accumulateAndGet(version, Math::max);
+        Snapshot<T> current = snapshot;
+        if (current != null && current.version() < version) {
+            snapshot = null;
+        }
+    }
+
+    private Map<String, T> data() {
+        Snapshot<T> current = snapshot;
+        if (current != null) {
+            return current.data();
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null) {
+                return current.data();
+            }
+            long v;
+            try {
+                v = version.getAsLong();
+            } catch (Exception e) {
+                // 无法获取版本号时不能保证各实例一致，直接查询数据库
+                log.warn("获取缓存 {} 版本号失败，本次不使用缓存：{}", name, e.getMessage());
+                return load();
+            }
+            Map<String, T> data = load();
+            if (seen.get() <= v) {
+                snapshot = new Snapshot<>(v, data);
+            }
+            return data;
+        }
+    }
+
+    private Map<String, T> load() {
+        Map<String, T> map = new LinkedHashMap<>();
+        for (T item : loader.get()) {
+            String id = key.apply(item);
+            if (id != null) {
+                map.putIfAbsent(id, item);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
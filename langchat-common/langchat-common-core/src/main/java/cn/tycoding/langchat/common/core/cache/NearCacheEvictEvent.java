@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.cache;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 其他实例修改了缓存的数据表，本地缓存已失效；依赖这些数据构建的对象（如模型客户端）可据此刷新
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Getter
+public class NearCacheEvictEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 5316427310823374520L;
+
+    private final String name;
+
+    public NearCacheEvictEvent(Object source, String name) {
+        super(source);
+        this.name = name;
+    }
+}
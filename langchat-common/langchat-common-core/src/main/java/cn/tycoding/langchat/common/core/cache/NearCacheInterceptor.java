@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+/**
+ * 拦截 INSERT / UPDATE / DELETE，写入缓存的数据表后使本地缓存失效，无需在每个写入处手动清除缓存
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class NearCacheInterceptor implements Interceptor {
+
+    private final NearCacheManager nearCacheManager;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String id = ((MappedStatement) invocation.getArgs()[0]).getId();
+        nearCacheManager.evictMapper(id.substring(0, id.lastIndexOf('.')));
+        return result;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.cache;
+
+import cn.hutool.core.util.IdUtil;
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 本地缓存管理
+ * <p>
+ * 每个缓存在 Redis 中有一个版本号，缓存的数据表写入并提交后版本号自增，并通过 Redis 频道通知各实例清除本地缓存；
+ * 定期比对版本号，防止因 Redis 断线错过通知而长期使用过期数据
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearCacheManager {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String owner = IdUtil.fastSimpleUUID();
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+    /**
+     * Mapper 类名 -> 缓存名称
+     */
+    private final Map<String, String> mappers = new ConcurrentHashMap<>();
+    private RedisMessageListenerContainer container;
+
+    /**
+     * 创建缓存，通过该 Mapper 执行的写入都会使缓存失效
+     *
+     * @param name   缓存名称，建议使用表名
+     * @param mapper 数据表对应的 Mapper
+     * @param loader 加载整张表的数据
+     * @param key    缓存的 Key
+     * @param copier 复制对象，调用方拿到的都是副本
+     */
+    public <T> NearCache<T> create(String name, Class<?> mapper, Supplier<List<T>> loader,
+                                   Function<T, String> key, UnaryOperator<T> copier) {
+        NearCache<T> cache = new NearCache<>(name, loader, key, copier, () -> version(name));
+        caches.put(name, cache);
+        mappers.put(mapper.getName(), name);
+        return cache;
+    }
+
+    @PostConstruct
+    public void init() {
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                // 格式：缓存名称:版本号:实例
+                String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 3);
+                NearCache<?> cache = caches.get(parts[0]);
+                if (cache != null) {
+                    cache.invalidate(Long.parseLong(parts[1]));
+                    if (!owner.equals(parts[2])) {
+                        eventPublisher.publishEvent(new NearCacheEvictEvent(this, cache.getName()));
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("处理缓存失效通知失败：{}", e.getMessage());
+            }
+        }, new ChannelTopic(CacheConst.NEAR_CACHE_CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (container != null) {
+            container.destroy();
+        }
+    }
+
+    /**
+     * 使缓存失效，在事务中时等事务提交后执行，同一事务内多次写入只通知一次
+     */
+    @SuppressWarnings("unchecked")
+    public void evict(String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(name);
+            return;
+        }
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> names = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, names);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(NearCacheManager.this);
+                    if (status == STATUS_COMMITTED) {
+                        names.forEach(NearCacheManager.this::publish);
+                    }
+                }
+            });
+            pending = names;
+        }
+        pending.add(name);
+    }
+
+    /**
+     * 通过 Mapper 写入数据后调用
+     */
+    void evictMapper(String mapper) {
+        String name = mappers.get(mapper);
+        if (name != null) {
+            evict(name);
+        }
+    }
+
+    private void publish(String name) {
+        NearCache<?> cache = caches.get(name);
+        try {
+            Long version = redisTemplate.opsForValue().increment(CacheConst.NEAR_CACHE_VERSION_PREFIX + name);
+            if (cache != null && version != null) {
+                cache.invalidate(version);
+            }
+            redisTemplate.convertAndSend(CacheConst.NEAR_CACHE_CHANNEL, name + ":" + version + ":" + owner);
+        } catch (Exception e) {
+            log.error("发布缓存 {} 失效通知失败，其他实例将在下次版本检查时刷新", name, e);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private long version(String name) {
+        String version = redisTemplate.opsForValue().get(CacheConst.NEAR_CACHE_VERSION_PREFIX + name);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    /**
+     * 比对各缓存的版本号，补偿错过的失效通知
+     */
+    @Scheduled(initialDelay = 30000, fixedDelay = 30000)
+    public void check() {
+        List<NearCache<?>> list = List.copyOf(caches.values());
+        if (list.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> versions = redisTemplate.opsForValue().multiGet(list.stream()
+                    .map(i -> CacheConst.NEAR_CACHE_VERSION_PREFIX + i.getName()).toList());
+            for (int i = 0; i < list.size(); i++) {
+                NearCache<?> cache = list.get(i);
+                Long current = cache.getVersion();
+                String latest = versions == null ? null : versions.get(i);
+                if (current != null && latest != null && current < Long.parseLong(latest)) {
+                    log.info("缓存 {} 版本已更新（{} -> {}），重新加载", cache.getName(), current, latest);
+                    cache.invalidate(Long.parseLong(latest));
+                    eventPublisher.publishEvent(new NearCacheEvictEvent(this, cache.getName()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("检查缓存版本失败：{}", e.getMessage());
+        }
+    }
+}
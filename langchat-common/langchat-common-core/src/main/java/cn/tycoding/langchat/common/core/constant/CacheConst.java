@@ -67,4 +67,58 @@ public interface CacheConst {
      */
     String CAPTCHA_PREFIX = REDIS_KEY_PREFIX + "auth:captcha:";
 
+    /**
+     * 知识库版本号前缀。
+     * 知识库切片每次新增、修改、删除后自增，用于使该知识库相关的检索缓存失效。
+     */
+    String KNOWLEDGE_VERSION_PREFIX = REDIS_KEY_PREFIX + "knowledge:version:";
+
+    /**
+     * 知识库检索结果缓存前缀。
+     * 缓存 Key 由知识库 ID、知识库版本号和规范化后的查询文本共同计算得到。
+     */
+    String RETRIEVAL_PREFIX = REDIS_KEY_PREFIX + "rag:retrieval:";
+
+    /**
+     * 文档向量化进度事件频道。
+     * 执行任务的实例将进度事件发布到该频道，各实例再推送给本机订阅的客户端。
+     */
+    String INGEST_EVENT_CHANNEL = REDIS_KEY_PREFIX + "ingest:events";
+
+    /**
+     * 对话消息归档任务锁。
+     * 多实例部署时同一时间只有一个实例执行分区维护和归档。
+     */
+    String MESSAGE_ARCHIVE_LOCK = REDIS_KEY_PREFIX + "message:archive:lock";
+
+    /**
+     * PgVector 索引构建锁前缀。
+     * 多实例部署时同一个索引同一时间只有一个实例构建，避免互相删除构建中的索引。
+     */
+    String PGVECTOR_INDEX_LOCK_PREFIX = REDIS_KEY_PREFIX + "pgvector:index:lock:";
+
+    /**
+     * 本地缓存版本号前缀。
+     * 缓存的数据表每次写入后自增，各实例据此判断本地缓存是否过期。
+     */
+    String NEAR_CACHE_VERSION_PREFIX = REDIS_KEY_PREFIX + "cache:version:";
+
+    /**
+     * 本地缓存失效通知频道。
+     * 数据表写入并提交后发布新的版本号，各实例收到后清除对应的本地缓存。
+     */
+    String NEAR_CACHE_CHANNEL = REDIS_KEY_PREFIX + "cache:evict";
+
+    /**
+     * 存活实例心跳（Sorted Set，成员为实例ID，分值为最后一次心跳时间）。
+     * 用于判断需要等待哪些实例确认配置变更。
+     */
+    String NODE_HEARTBEAT = REDIS_KEY_PREFIX + "node:heartbeat";
+
+    /**
+     * 向量库状态确认前缀（Hash，字段为实例ID，值为该实例已加载的分区状态）。
+     * 分区迁移切换状态后，等待所有存活实例确认再继续复制或删除数据。
+     */
+    String EMBED_STORE_STATE_PREFIX = REDIS_KEY_PREFIX + "embed:state:";
+
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.datasource;
+
+/**
+ * 当前线程的数据源路由：null 表示未指定（主库），true 表示只读查询，false 表示强制主库
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class DataSourceContextHolder {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    public static Boolean get() {
+        return READ_ONLY.get();
+    }
+
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(READ_ONLY.get());
+    }
+
+    public static void set(Boolean readOnly) {
+        if (readOnly == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(readOnly);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.datasource;
+
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 根据 {@link ReadOnly} 设置数据源路由，需要在事务切面之前执行，事务开启时获取的连接才能路由到从库
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadOnlyAspect {
+
+    @Around("@annotation(cn.tycoding.langchat.common.core.annotation.ReadOnly) "
+            + "|| @within(cn.tycoding.langchat.common.core.annotation.ReadOnly)")
+    public Object readOnly(ProceedingJoinPoint point) throws Throwable {
+        // 外层已指定路由时不再改变，写事务中调用只读方法仍使用事务的主库连接
+        if (DataSourceContextHolder.get() != null) {
+            return point.proceed();
+        }
+        return proceed(point, true);
+    }
+
+    @Around("@annotation(transactional)")
+    public Object transactional(ProceedingJoinPoint point, Transactional transactional) throws Throwable {
+        if (DataSourceContextHolder.isReadOnly() && !transactional.readOnly()) {
+            return proceed(point, false);
+        }
+        return point.proceed();
+    }
+
+    private Object proceed(ProceedingJoinPoint point, boolean readOnly) throws Throwable {
+        Boolean previous = DataSourceContextHolder.get();
+        DataSourceContextHolder.set(readOnly);
+        try {
+            return point.proceed();
+        } finally {
+            DataSourceContextHolder.set(previous);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 只读从库及其健康状态
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Getter
+public class Replica {
+
+    private final String name;
+    private final DruidDataSource dataSource;
+
+    /**
+     * 连接正常且复制延迟未超限
+     */
+    @Setter
+    private volatile boolean healthy;
+
+    /**
+     * 复制延迟（秒），未知时为 NaN
+     */
+    @Setter
+    private volatile double lag = Double.NaN;
+
+    public Replica(String name, DruidDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.datasource;
+
+import cn.tycoding.langchat.common.core.properties.DataSourceProps;
+import com.alibaba.druid.pool.DruidDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 从库健康检查：定期检查连接和复制延迟，并将各连接池状态注册为监控指标
+ * <p>
+ * 复制延迟取自 SHOW REPLICA STATUS（MySQL 8.0.22 之前为 SHOW SLAVE STATUS），需要 REPLICATION CLIENT 权限；
+ * 复制线程停止或无法获取延迟时视为不可用，查询回退到主库
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+public class ReplicaHealthChecker {
+
+    private static final int QUERY_TIMEOUT = 3;
+
+    private final RoutingDataSource dataSource;
+    private final DataSourceProps props;
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    public ReplicaHealthChecker(RoutingDataSource dataSource, DataSourceProps props, MeterRegistry registry) {
+        this.dataSource = dataSource;
+        this.props = props;
+
+        pool(registry, RoutingDataSource.PRIMARY, dataSource.getPrimary());
+        for (Replica replica : dataSource.getReplicas()) {
+            pool(registry, replica.getName(), replica.getDataSource());
+            Gauge.builder("langchat.datasource.replica.up", replica, i -> i.isHealthy() ? 1 : 0)
+                    .description("从库是否可用于只读查询")
+                    .tag("name", replica.getName())
+                    .register(registry);
+            Gauge.builder("langchat.datasource.replica.lag", replica, Replica::getLag)
+                    .description("从库复制延迟")
+                    .baseUnit("seconds")
+                    .tag("name", replica.getName())
+                    .register(registry);
+        }
+    }
+
+    private static void pool(MeterRegistry registry, String name, DruidDataSource ds) {
+        Gauge.builder("langchat.datasource.active", ds, DruidDataSource::getActiveCount)
+                .description("连接池中正在使用的连接数")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("langchat.datasource.idle", ds, DruidDataSource::getPoolingCount)
+                .description("连接池中空闲的连接数")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${langchat.datasource.check-interval:PT10S}")
+    public void check() {
+        double maxLag = props.getMaxLag().toMillis() / 1000.0;
+        for (Replica replica : dataSource.getReplicas()) {
+            boolean healthy;
+            double lag;
+            try {
+                lag = lag(replica.getDataSource());
+                healthy = !Double.isNaN(lag) && lag <= maxLag;
+            } catch (Exception e) {
+                lag = Double.NaN;
+                healthy = false;
+                // 连续失败时只记录一次
+                if (failed.add(replica.getName())) {
+                    log.warn("从库 {} 检查失败：{}", replica.getName(), e.getMessage());
+                }
+            }
+            if (healthy) {
+                failed.remove(replica.getName());
+            }
+            if (healthy != replica.isHealthy()) {
+                log.info("从库 {} {}，复制延迟：{}s", replica.getName(), healthy ? "已恢复" : "暂停使用", lag);
+            }
+            replica.setLag(lag);
+            replica.setHealthy(healthy);
+        }
+    }
+
+    /**
+     * 复制延迟（秒），复制线程停止时返回 NaN；不是复制从库（如云数据库只读地址）时返回 0
+     */
+    private double lag(DruidDataSource ds) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT);
+            try {
+                return lag(statement, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                return lag(statement, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+            }
+        }
+    }
+
+    private double lag(Statement statement, String sql, String column) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            if (!rs.next()) {
+                return 0;
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? Double.NaN : lag;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离数据源：标注 {@link cn.tycoding.langchat.common.core.annotation.ReadOnly} 的查询在健康的从库间轮询，
+ * 其余查询以及没有健康从库时使用主库
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    @Getter
+    private final DruidDataSource primary;
+    @Getter
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryCounter;
+    private final Counter replicaCounter;
+    private final Counter fallbackCounter;
+
+    public RoutingDataSource(DruidDataSource primary, List<Replica> replicas, MeterRegistry registry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(i -> targets.put(i.getName(), i.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        primaryCounter = route(registry, "primary");
+        replicaCounter = route(registry, "replica");
+        fallbackCounter = route(registry, "fallback");
+    }
+
+    private static Counter route(MeterRegistry registry, String target) {
+        return Counter.builder("langchat.datasource.route")
+                .description("获取数据库连接时的路由结果，fallback 表示只读查询因没有健康的从库回退到主库")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!DataSourceContextHolder.isReadOnly()) {
+            primaryCounter.increment();
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                replicaCounter.increment();
+                return replica.getName();
+            }
+        }
+        fallbackCounter.increment();
+        return PRIMARY;
+    }
+
+    public void close() {
+        replicas.forEach(i -> i.getDataSource().close());
+        primary.close();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.datasource;
+
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.common.core.properties.DataSourceProps;
+import com.alibaba.druid.pool.DruidDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置，配置了 langchat.datasource.replicas 时替换默认的 Druid 数据源
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "langchat.datasource", name = "replicas[0].url")
+public class RoutingDataSourceConfiguration {
+
+    private static final String DRUID_PREFIX = "spring.datasource.druid";
+
+    @Bean
+    @Primary
+    public RoutingDataSource dataSource(DataSourceProperties properties, DataSourceProps props,
+                                        Environment environment, MeterRegistry registry) {
+        DruidDataSource primary = druid(environment, properties, RoutingDataSource.PRIMARY,
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < props.getReplicas().size(); i++) {
+            DataSourceProps.Replica config = props.getReplicas().get(i);
+            String name = StrUtil.blankToDefault(config.getName(), "replica-" + i);
+            DruidDataSource ds = druid(environment, properties, name, config.getUrl(),
+                    StrUtil.blankToDefault(config.getUsername(), properties.determineUsername()),
+                    StrUtil.blankToDefault(config.getPassword(), properties.determinePassword()));
+            replicas.add(new Replica(name, ds));
+        }
+        log.info("已启用读写分离，从库：{}", replicas.stream().map(Replica::getName).toList());
+        return new RoutingDataSource(primary, replicas, registry);
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(RoutingDataSource dataSource, DataSourceProps props,
+                                                     MeterRegistry registry) {
+        return new ReplicaHealthChecker(dataSource, props, registry);
+    }
+
+    @Bean
+    public ReadOnlyAspect readOnlyAspect() {
+        return new ReadOnlyAspect();
+    }
+
+    /**
+     * 连接池参数与主库一致，绑定 spring.datasource.druid 后再设置各自的连接信息
+     */
+    private static DruidDataSource druid(Environment environment, DataSourceProperties properties, String name,
+                                         String url, String username, String password) {
+        DruidDataSource ds = new DruidDataSource();
+        Binder.get(environment).bind(DRUID_PREFIX, Bindable.ofInstance(ds));
+        ds.setName(name);
+        ds.setUrl(url);
+        ds.setUsername(username);
+        ds.setPassword(password);
+        ds.setDriverClassName(properties.determineDriverClassName());
+        return ds;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.common.core.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置，主库仍使用 spring.datasource 配置，连接池参数（spring.datasource.druid）主从共用
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@ConfigurationProperties("langchat.datasource")
+public class DataSourceProps {
+
+    /**
+     * 只读从库，未配置时不启用读写分离
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 允许的最大复制延迟，超过后该从库暂停接收查询
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * 从库健康检查间隔
+     */
+    private Duration checkInterval = Duration.ofSeconds(10);
+
+    @Data
+    public static class Replica {
+
+        /**
+         * 从库名称，用于日志和监控指标
+         */
+        private String name;
+
+        private String url;
+
+        /**
+         * 未配置时使用主库的用户名
+         */
+        private String username;
+
+        /**
+         * 未配置时使用主库的密码
+         */
+        private String password;
+    }
+}
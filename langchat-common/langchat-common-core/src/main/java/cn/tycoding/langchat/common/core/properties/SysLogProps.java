@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.common.core.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 系统日志异步写入配置
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@ConfigurationProperties("langchat.log")
+public class SysLogProps {
+
+    /**
+     * 日志缓冲区容量，向上取整为 2 的幂
+     */
+    private int capacity = 8192;
+
+    /**
+     * 单次批量写入的最大条数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 缓冲区未满一批时的最长等待时间
+     */
+    private Duration flushInterval = Duration.ofMillis(500);
+
+    /**
+     * 缓冲区已满时的处理策略
+     */
+    private Overflow overflow = Overflow.DISCARD;
+
+    /**
+     * {@code @ApiLog} 接口日志配置
+     */
+    private Api api = new Api();
+
+    @Data
+    public static class Api {
+
+        /**
+         * 成功请求记录请求参数的采样比例（0 ~ 1），失败的请求总是记录
+         */
+        private double sampleRate = 0.1;
+
+        /**
+         * 请求参数的最大记录长度，超出部分截断
+         */
+        private int maxParamsLength = 2000;
+    }
+
+    public enum Overflow {
+
+        /**
+         * 丢弃新日志并计数，请求线程不受影响
+         */
+        DISCARD,
+
+        /**
+         * 由请求线程直接写入数据库，不丢失日志但会拖慢请求
+         */
+        CALLER_RUNS,
+    }
+}
@@ -36,9 +36,13 @@ public class TaskManager {
      */
     public static void submitTask(String id, Callable<?> function) {
         Future<?> future = AnalysisThreadPool.getThreadPool().submit(function);
-        List<Future<?>> orDefault = TASK_MAP.getOrDefault(id, new ArrayList<>());
-        orDefault.add(future);
-        TASK_MAP.put(id, orDefault);
+        TASK_MAP.compute(id, (k, list) -> {
+            List<Future<?>> futures = list == null ? new ArrayList<>() : list;
+            // 清理已完成的任务，避免长期运行后堆积
+            futures.removeIf(Future::isDone);
+            futures.add(future);
+            return futures;
+        });
     }
 
     /**
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.common.core.utils;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 游标分页查询参数，按（create_time, id）倒序翻页，翻页耗时与页数无关
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+public class CursorQuery implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 上一页返回的游标，为空时从最新的数据开始
+     */
+    private String cursor;
+
+    /**
+     * 每页的记录数
+     */
+    private int limit = 20;
+
+    /**
+     * 是否统计总数，只在需要时（如第一页）统计
+     */
+    private boolean total;
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.common.core.utils;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 数据导出参数
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+public class ExportQuery implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 导出格式，jsonl 或 csv
+     */
+    private String format = ExportWriter.FORMAT_JSONL;
+
+    /**
+     * 是否使用 gzip 压缩
+     */
+    private boolean gzip;
+
+    /**
+     * 开始时间（包含），如 2026-10-01 或 2026-10-01 08:00:00
+     */
+    private String startTime;
+
+    /**
+     * 结束时间（不包含）
+     */
+    private String endTime;
+
+    public Date getStart() {
+        return StrUtil.isBlank(startTime) ? null : DateUtil.parse(startTime);
+    }
+
+    public Date getEnd() {
+        return StrUtil.isBlank(endTime) ? null : DateUtil.parse(endTime);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.common.core.utils;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.text.csv.CsvWriter;
+import cn.tycoding.langchat.common.core.constant.CommonConst;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.SneakyThrows;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 将查询结果逐行写入响应流（JSONL 或 CSV，可选 gzip），配合 MyBatis 流式查询使用，内存占用与导出行数无关
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class ExportWriter<T> implements Closeable {
+
+    public static final String FORMAT_JSONL = "jsonl";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private final CsvWriter csv;
+    private final String[] columns;
+    private long count;
+
+    private ExportWriter(Writer writer, boolean csv, String[] columns) {
+        this.writer = writer;
+        this.csv = csv ? new CsvWriter(writer) : null;
+        this.columns = columns;
+    }
+
+    /**
+     * 设置下载响应头并创建写入器，columns 为导出的字段名，同时作为 CSV 的表头
+     */
+    public static <T> ExportWriter<T> of(HttpServletResponse response, String name, ExportQuery query, String... columns) throws IOException {
+        String format = query.getFormat() == null ? FORMAT_JSONL : query.getFormat().toLowerCase();
+        if (!FORMAT_JSONL.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new ServiceException("不支持的导出格式：" + query.getFormat());
+        }
+        boolean csv = FORMAT_CSV.equals(format);
+        String filename = name + "-" + DateUtil.format(new Date(), "yyyyMMddHHmmss") + "." + format + (query.isGzip() ? ".gz" : "");
+
+        response.setContentType(query.isGzip() ? "application/gzip" : csv ? "text/csv;charset=" + CommonConst.UTF_8 : "application/x-ndjson;charset=" + CommonConst.UTF_8);
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + URLEncoder.encode(filename, StandardCharsets.UTF_8));
+        // 禁止反向代理缓冲整个响应
+        response.setHeader("X-Accel-Buffering", "no");
+
+        OutputStream out = response.getOutputStream();
+        if (query.isGzip()) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ExportWriter<T> exportWriter = new ExportWriter<>(writer, csv, columns);
+        if (csv) {
+            // BOM 使 Excel 按 UTF-8 打开
+            writer.write('\uFEFF');
+            exportWriter.csv.writeLine(columns);
+        }
+        return exportWriter;
+    }
+
+    @SneakyThrows
+    public void write(T row) {
+        if (csv != null) {
+            String[] values = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                Object value = BeanUtil.getProperty(row, columns[i]);
+                values[i] = value == null ? "" : value instanceof Date date ? DateUtil.formatDateTime(date) : String.valueOf(value);
+            }
+            csv.writeLine(values);
+        } else {
+            Map<String, Object> line = new LinkedHashMap<>();
+            for (String column : columns) {
+                line.put(column, BeanUtil.getProperty(row, column));
+            }
+            writer.write(JSON.toJSONString(line, SerializerFeature.WriteDateUseDateFormat));
+            writer.write('\n');
+        }
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.flush();
+        }
+        writer.close();
+    }
+}
@@ -16,16 +16,27 @@
 
 package cn.tycoding.langchat.common.core.utils;
 
+import cn.hutool.core.codec.Base64;
 import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * @author tycoding
  * @since 2024/1/2
  */
 public class MybatisUtil {
 
+    private static final int CURSOR_MAX_LIMIT = 200;
+
     /**
      * 分页查询：格式化响应数据结构
      *
@@ -42,4 +53,62 @@ public class MybatisUtil {
     public static <T> IPage<T> wrap(T t, QueryPage query) {
         return new Page<T>(query.getPage(), query.getLimit());
     }
+
+    /**
+     * 游标分页查询：按（时间, 主键）倒序，从游标位置之后开始查询，需要（筛选列..., create_time, id）联合索引
+     *
+     * @param wrapper 筛选条件，不要包含排序
+     */
+    public static <T> CursorPage<T> cursor(BaseMapper<T> mapper, LambdaQueryWrapper<T> wrapper,
+                                           SFunction<T, Date> timeColumn, SFunction<T, String> idColumn, CursorQuery query) {
+        int limit = cursorLimit(query);
+        Long total = query.isTotal() ? mapper.selectCount(wrapper) : null;
+
+        if (StrUtil.isNotBlank(query.getCursor())) {
+            String[] cursor = decodeCursor(query.getCursor());
+            Date time = new Date(Long.parseLong(cursor[0]));
+            String id = cursor[1];
+            wrapper.le(timeColumn, time)
+                    .and(w -> w.lt(timeColumn, time).or().lt(idColumn, id));
+        }
+        wrapper.orderByDesc(timeColumn).orderByDesc(idColumn).last("limit " + (limit + 1));
+
+        List<T> rows = mapper.selectList(wrapper);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        T last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        String next = hasMore ? encodeCursor(timeColumn.apply(last), idColumn.apply(last)) : null;
+        return new CursorPage<T>().setRows(rows).setCursor(next).setHasMore(hasMore).setTotal(total);
+    }
+
+    /**
+     * 游标分页的实际条数，限制在 1 ~ 200 之间
+     */
+    public static int cursorLimit(CursorQuery query) {
+        return Math.max(1, Math.min(query.getLimit(), CURSOR_MAX_LIMIT));
+    }
+
+    /**
+     * 生成游标，供需要拼接其他数据源的分页使用
+     */
+    public static String encodeCursor(Date time, String id) {
+        return Base64.encodeUrlSafe((time == null ? 0 : time.getTime()) + ":" + id);
+    }
+
+    /**
+     * 解析游标，返回 [毫秒时间戳, 主键]
+     */
+    public static String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = Base64.decodeStr(cursor).split(":", 2);
+            Long.parseLong(parts[0]);
+            if (parts.length == 2 && !parts[1].isEmpty()) {
+                return parts;
+            }
+        } catch (RuntimeException ignored) {
+        }
+        throw new ServiceException("无效的分页游标");
+    }
 }
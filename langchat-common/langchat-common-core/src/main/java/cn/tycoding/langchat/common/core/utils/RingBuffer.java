@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.common.core.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形队列，支持多个线程写入、单个线程读取
+ * <p>
+ * 写入线程通过 CAS 抢占槽位后再写入元素，读取线程按顺序消费，槽位为空说明写入尚未完成，留到下次读取
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final AtomicLong producer = new AtomicLong();
+    private final AtomicLong consumer = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 写入元素，队列已满时返回 false
+     */
+    public boolean offer(E e) {
+        while (true) {
+            long index = producer.get();
+            if (index - consumer.get() > mask) {
+                return false;
+            }
+            if (producer.compareAndSet(index, index + 1)) {
+                buffer.lazySet((int) index & mask, e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 读取最多 limit 个元素到 list 中，只能由单个线程调用
+     *
+     * @return 读取的元素个数
+     */
+    public int drain(List<E> list, int limit) {
+        long index = consumer.get();
+        int count = 0;
+        while (count < limit) {
+            int offset = (int) index & mask;
+            E e = buffer.get(offset);
+            if (e == null) {
+                break;
+            }
+            buffer.lazySet(offset, null);
+            list.add(e);
+            index++;
+            count++;
+        }
+        consumer.lazySet(index);
+        return count;
+    }
+
+    public int size() {
+        return (int) Math.max(producer.get() - consumer.get(), 0);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
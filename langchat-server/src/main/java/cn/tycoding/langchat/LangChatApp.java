@@ -20,6 +20,7 @@ import cn.tycoding.langchat.common.oss.config.EnableFileStorage;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @author tycoding
@@ -27,6 +28,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
  */
 @EnableFileStorage
 @EnableAsync
+@EnableScheduling
 @SpringBootApplication
 public class LangChatApp {
 
@@ -51,12 +51,13 @@ public class AppApiChatEndpoint {
 
     private final LangChatService langChatService;
     private final AppStore appStore;
+    private final AppChannelStore appChannelStore;
 
     @OpenapiAuth(AppConst.CHANNEL_API)
     @PostMapping(value = "/chat/completions")
     public SseEmitter completions(@RequestBody CompletionReq req) {
         StreamEmitter emitter = new StreamEmitter();
-        AigcAppApi appApi = AppChannelStore.getApiChannel();
+        AigcAppApi appApi = appChannelStore.getApiChannel();
 
         return handler(emitter, appApi.getAppId(), req.getMessages());
     }
@@ -26,7 +26,6 @@ import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
 import cn.tycoding.langchat.server.consts.AppConst;
-import cn.tycoding.langchat.server.store.AppChannelStore;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
@@ -42,7 +41,6 @@ import java.util.List;
 public class AigcAppApiController {
 
     private final AigcAppApiService appApiService;
-    private final AppChannelStore appChannelStore;
 
     @GetMapping("/create/{id}/{channel}")
     public R create(@PathVariable String id, @PathVariable String channel) {
@@ -52,7 +50,6 @@ public class AigcAppApiController {
                 .setApiKey(uuid)
                 .setChannel(channel)
                 .setCreateTime(new Date()));
-        appChannelStore.init();
         return R.ok();
     }
 
@@ -86,7 +83,6 @@ public class AigcAppApiController {
     public R add(@RequestBody AigcAppApi data) {
         data.setCreateTime(new Date());
         appApiService.save(data);
-        appChannelStore.init();
         return R.ok();
     }
 
@@ -94,7 +90,6 @@ public class AigcAppApiController {
     @ApiLog("修改API渠道")
     public R update(@RequestBody AigcAppApi data) {
         appApiService.updateById(data);
-        appChannelStore.init();
         return R.ok();
     }
 
@@ -102,7 +97,6 @@ public class AigcAppApiController {
     @ApiLog("删除API渠道")
     public R delete(@PathVariable String id) {
         appApiService.removeById(id);
-        appChannelStore.init();
         return R.ok();
     }
 }
\ No newline at end of file
@@ -29,7 +29,6 @@ import cn.tycoding.langchat.common.core.exception.ServiceException;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
-import cn.tycoding.langchat.server.store.AppStore;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
@@ -47,7 +46,6 @@ public class AigcAppController {
 
     private final AigcAppService aigcAppService;
     private final AigcAppApiService aigcAppApiService;
-    private final AppStore appStore;
     private final AigcKnowledgeService knowledgeService;
 
     @GetMapping("/channel/api/{appId}")
@@ -82,7 +80,6 @@ public class AigcAppController {
         data.setCreateTime(new Date());
         data.setSaveTime(new Date());
         aigcAppService.save(data);
-        appStore.init();
         return R.ok();
     }
 
@@ -110,7 +107,6 @@ public class AigcAppController {
 
         data.setSaveTime(new Date());
         aigcAppService.updateById(data);
-        appStore.init();
         return R.ok();
     }
 
@@ -119,7 +115,6 @@ public class AigcAppController {
     @SaCheckPermission("aigc:app:delete")
     public R delete(@PathVariable String id) {
         aigcAppService.removeById(id);
-        appStore.init();
         return R.ok();
     }
 }
\ No newline at end of file
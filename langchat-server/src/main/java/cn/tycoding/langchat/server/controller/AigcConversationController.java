@@ -19,17 +19,25 @@ package cn.tycoding.langchat.server.controller;
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.tycoding.langchat.ai.biz.entity.AigcConversation;
 import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.ai.biz.mapper.AigcConversationMapper;
 import cn.tycoding.langchat.ai.biz.service.AigcMessageService;
 import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
+import cn.tycoding.langchat.common.core.utils.ExportQuery;
+import cn.tycoding.langchat.common.core.utils.ExportWriter;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
 import cn.tycoding.langchat.common.core.utils.ServletUtil;
 import cn.tycoding.langchat.upms.utils.AuthUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -43,6 +51,7 @@ import java.util.List;
 public class AigcConversationController {
 
     private final AigcMessageService aigcMessageService;
+    private final AigcConversationMapper aigcConversationMapper;
 
     /**
      * conversation list, filter by user
@@ -60,6 +69,25 @@ public class AigcConversationController {
         return R.ok(MybatisUtil.getData(aigcMessageService.conversationPages(data, queryPage)));
     }
 
+    /**
+     * 流式导出会话，会话表不记录应用，按应用导出请使用消息导出
+     */
+    @ReadOnly
+    @GetMapping("/export")
+    @ApiLog("导出会话数据")
+    @SaCheckPermission("aigc:conversation:export")
+    public void export(AigcConversation data, ExportQuery query, HttpServletResponse response) throws IOException {
+        try (ExportWriter<AigcConversation> writer = ExportWriter.of(response, "conversations", query,
+                "id", "userId", "promptId", "title", "chatTotal", "tokenUsed", "endTime", "createTime")) {
+            aigcConversationMapper.stream(Wrappers.<AigcConversation>lambdaQuery()
+                    .eq(data.getUserId() != null, AigcConversation::getUserId, data.getUserId())
+                    .ge(query.getStart() != null, AigcConversation::getCreateTime, query.getStart())
+                    .lt(query.getEnd() != null, AigcConversation::getCreateTime, query.getEnd())
+                    .orderByAsc(AigcConversation::getCreateTime, AigcConversation::getId),
+                    context -> writer.write(context.getResultObject()));
+        }
+    }
+
     @PostMapping
     @ApiLog("添加会话窗口")
     @SaCheckPermission("aigc:conversation:add")
@@ -104,6 +132,14 @@ public class AigcConversationController {
         return R.ok(list);
     }
 
+    /**
+     * 从最新的消息开始向前翻页
+     */
+    @GetMapping("/messages/{conversationId}/cursor")
+    public R getMessages(@PathVariable String conversationId, CursorQuery query) {
+        return R.ok(aigcMessageService.getMessages(conversationId, null, query));
+    }
+
     /**
      * add message in conversation
      */
@@ -19,10 +19,13 @@ package cn.tycoding.langchat.server.controller;
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
 import cn.tycoding.langchat.ai.biz.mapper.AigcDocsMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
 import cn.tycoding.langchat.common.core.annotation.ApiLog;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
+import cn.tycoding.langchat.server.job.IngestJobWorker;
 import cn.tycoding.langchat.server.service.EmbeddingService;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -42,7 +45,9 @@ import java.util.List;
 public class AigcDocsController {
 
     private final AigcDocsMapper docsMapper;
+    private final AigcKnowledgeService knowledgeService;
     private final EmbeddingService embeddingService;
+    private final IngestJobWorker ingestJobWorker;
 
     @GetMapping("/list")
     public R<List<AigcDocs>> list(AigcDocs data) {
@@ -59,6 +64,17 @@ public class AigcDocsController {
         )));
     }
 
+    /**
+     * 游标分页，用于文档较多的知识库
+     */
+    @GetMapping("/cursor")
+    public R cursor(AigcDocs data, CursorQuery query) {
+        return R.ok(MybatisUtil.cursor(docsMapper, Wrappers.<AigcDocs>lambdaQuery()
+                .eq(data.getKnowledgeId() != null, AigcDocs::getKnowledgeId, data.getKnowledgeId())
+                .eq(data.getSliceStatus() != null, AigcDocs::getSliceStatus, data.getSliceStatus()),
+                AigcDocs::getCreateTime, AigcDocs::getId, query));
+    }
+
     @GetMapping("/{id}")
     public R<AigcDocs> findById(@PathVariable String id) {
         return R.ok(docsMapper.selectById(id));
@@ -68,7 +84,7 @@ public class AigcDocsController {
     @ApiLog("新增文档")
     @SaCheckPermission("aigc:docs:add")
     public R add(@RequestBody AigcDocs data) {
-        docsMapper.insert(data);
+        knowledgeService.addDocs(data);
         return R.ok();
     }
 
@@ -76,7 +92,7 @@ public class AigcDocsController {
     @ApiLog("修改文档")
     @SaCheckPermission("aigc:docs:update")
     public R update(@RequestBody AigcDocs data) {
-        docsMapper.updateById(data);
+        knowledgeService.updateDocs(data);
         return R.ok();
     }
 
@@ -85,11 +101,14 @@ public class AigcDocsController {
     @SaCheckPermission("aigc:docs:delete")
     @Transactional
     public R delete(@PathVariable String id) {
+        // 先取消向量化任务，避免删除后任务继续写入切片
+        ingestJobWorker.cancelOfDocs(id);
+
         // 删除切面数据
         embeddingService.clearDocSlices(id);
 
         // 删除文档
-        docsMapper.deleteById(id);
+        knowledgeService.removeDocs(id);
         return R.ok();
     }
 }
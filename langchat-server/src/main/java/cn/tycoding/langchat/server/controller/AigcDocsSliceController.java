@@ -19,16 +19,22 @@ package cn.tycoding.langchat.server.controller;
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocsSlice;
 import cn.tycoding.langchat.ai.biz.mapper.AigcDocsSliceMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
 import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
+import cn.tycoding.langchat.common.core.utils.ExportQuery;
+import cn.tycoding.langchat.common.core.utils.ExportWriter;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Date;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -41,10 +47,14 @@ import java.util.List;
 public class AigcDocsSliceController {
 
     private final AigcDocsSliceMapper docsSliceMapper;
+    private final AigcKnowledgeService knowledgeService;
 
     @GetMapping("/list")
     public R<List<AigcDocsSlice>> list(AigcDocsSlice data) {
-        return R.ok(docsSliceMapper.selectList(Wrappers.<AigcDocsSlice>lambdaQuery().orderByDesc(AigcDocsSlice::getCreateTime)));
+        return R.ok(docsSliceMapper.selectList(Wrappers.<AigcDocsSlice>lambdaQuery()
+                .eq(data.getKnowledgeId() != null, AigcDocsSlice::getKnowledgeId, data.getKnowledgeId())
+                .eq(data.getDocsId() != null, AigcDocsSlice::getDocsId, data.getDocsId())
+                .orderByDesc(AigcDocsSlice::getCreateTime)));
     }
 
     @GetMapping("/page")
@@ -57,6 +67,38 @@ public class AigcDocsSliceController {
         )));
     }
 
+    /**
+     * 游标分页，用于切片较多的文档和知识库
+     */
+    @GetMapping("/cursor")
+    public R cursor(AigcDocsSlice data, CursorQuery query) {
+        return R.ok(MybatisUtil.cursor(docsSliceMapper, Wrappers.<AigcDocsSlice>lambdaQuery()
+                .eq(data.getKnowledgeId() != null, AigcDocsSlice::getKnowledgeId, data.getKnowledgeId())
+                .eq(data.getDocsId() != null, AigcDocsSlice::getDocsId, data.getDocsId()),
+                AigcDocsSlice::getCreateTime, AigcDocsSlice::getId, query));
+    }
+
+    /**
+     * 流式导出切片，未指定知识库或文档时按主键顺序扫描，不做排序
+     */
+    @ReadOnly
+    @GetMapping("/export")
+    @ApiLog("导出切片数据")
+    @SaCheckPermission("aigc:docs:slice:export")
+    public void export(AigcDocsSlice data, ExportQuery query, HttpServletResponse response) throws IOException {
+        boolean ordered = data.getKnowledgeId() != null || data.getDocsId() != null;
+        try (ExportWriter<AigcDocsSlice> writer = ExportWriter.of(response, "slices", query,
+                "id", "knowledgeId", "docsId", "name", "content", "wordNum", "vectorId", "embedModelId", "createTime")) {
+            docsSliceMapper.stream(Wrappers.<AigcDocsSlice>lambdaQuery()
+                    .eq(data.getKnowledgeId() != null, AigcDocsSlice::getKnowledgeId, data.getKnowledgeId())
+                    .eq(data.getDocsId() != null, AigcDocsSlice::getDocsId, data.getDocsId())
+                    .ge(query.getStart() != null, AigcDocsSlice::getCreateTime, query.getStart())
+                    .lt(query.getEnd() != null, AigcDocsSlice::getCreateTime, query.getEnd())
+                    .orderByAsc(ordered, AigcDocsSlice::getCreateTime, AigcDocsSlice::getId),
+                    context -> writer.write(context.getResultObject()));
+        }
+    }
+
     @GetMapping("/{id}")
     public R<AigcDocsSlice> findById(@PathVariable String id) {
         return R.ok(docsSliceMapper.selectById(id));
@@ -66,8 +108,7 @@ public class AigcDocsSliceController {
     @ApiLog("新增切片数据")
     @SaCheckPermission("aigc:docs:slice:add")
     public R add(@RequestBody AigcDocsSlice data) {
-        data.setCreateTime(new Date());
-        docsSliceMapper.insert(data);
+        knowledgeService.addDocsSlice(data);
         return R.ok();
     }
 
@@ -75,7 +116,7 @@ public class AigcDocsSliceController {
     @ApiLog("修改切片数据")
     @SaCheckPermission("aigc:docs:slice:update")
     public R update(@RequestBody AigcDocsSlice data) {
-        docsSliceMapper.updateById(data);
+        knowledgeService.updateDocsSlice(data);
         return R.ok();
     }
 
@@ -83,7 +124,7 @@ public class AigcDocsSliceController {
     @ApiLog("删除切片数据")
     @SaCheckPermission("aigc:docs:slice:delete")
     public R delete(@PathVariable String id) {
-        docsSliceMapper.deleteById(id);
+        knowledgeService.removeDocsSlice(id);
         return R.ok();
     }
 }
@@ -22,8 +22,13 @@ import cn.hutool.core.util.StrUtil;
 import cn.tycoding.langchat.ai.biz.component.EmbeddingRefreshEvent;
 import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
 import cn.tycoding.langchat.ai.biz.service.AigcEmbedStoreService;
+import cn.tycoding.langchat.ai.core.consts.EmbedStoreEnum;
+import cn.tycoding.langchat.ai.core.provider.EmbeddingStoreFactory;
+import cn.tycoding.langchat.ai.core.store.PartitionMigration;
+import cn.tycoding.langchat.ai.core.store.PgVectorIndexManager;
 import cn.tycoding.langchat.common.core.annotation.ApiLog;
 import cn.tycoding.langchat.common.core.component.SpringContextHolder;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
@@ -45,6 +50,9 @@ public class AigcEmbedStoreController {
 
     private final AigcEmbedStoreService embedStoreService;
     private final SpringContextHolder contextHolder;
+    private final PartitionMigration partitionMigration;
+    private final PgVectorIndexManager pgVectorIndexManager;
+    private final EmbeddingStoreFactory embeddingStoreFactory;
 
     @GetMapping("/list")
     public R<List<AigcEmbedStore>> list(AigcEmbedStore data) {
@@ -75,6 +83,7 @@ public class AigcEmbedStoreController {
         if (StrUtil.isNotBlank(data.getPassword()) && data.getPassword().contains("*")) {
             data.setPassword(null);
         }
+        data.setPartitionMigrating(null);
         embedStoreService.save(data);
         SpringContextHolder.publishEvent(new EmbeddingRefreshEvent(data));
         return R.ok();
@@ -87,6 +96,9 @@ public class AigcEmbedStoreController {
         if (StrUtil.isNotBlank(data.getPassword()) && data.getPassword().contains("*")) {
             data.setPassword(null);
         }
+        // 已有数据的向量库只能通过分区迁移任务开启分区
+        data.setPartitioned(null);
+        data.setPartitionMigrating(null);
         embedStoreService.updateById(data);
         SpringContextHolder.publishEvent(new EmbeddingRefreshEvent(data));
         return R.ok();
@@ -104,6 +116,40 @@ public class AigcEmbedStoreController {
         return R.ok();
     }
 
+    @PostMapping("/migrate/{id}")
+    @ApiLog("向量库分区迁移")
+    @SaCheckPermission("aigc:embed-store:update")
+    public R migrate(@PathVariable String id) {
+        partitionMigration.migrate(id);
+        return R.ok();
+    }
+
+    @GetMapping("/migrate/{id}")
+    public R<Dict> migrateStatus(@PathVariable String id) {
+        return R.ok(partitionMigration.status(id));
+    }
+
+    @GetMapping("/index/{id}")
+    public R<Dict> indexHealth(@PathVariable String id) {
+        return R.ok(pgVectorIndexManager.health(pgStore(id)));
+    }
+
+    @PostMapping("/index/{id}")
+    @ApiLog("重建向量索引")
+    @SaCheckPermission("aigc:embed-store:update")
+    public R rebuildIndex(@PathVariable String id) {
+        pgVectorIndexManager.rebuild(pgStore(id));
+        return R.ok();
+    }
+
+    private AigcEmbedStore pgStore(String id) {
+        AigcEmbedStore store = embeddingStoreFactory.getEmbeddingStoreConfig(id);
+        if (store == null || !EmbedStoreEnum.PGVECTOR.name().equalsIgnoreCase(store.getProvider())) {
+            throw new ServiceException("仅支持管理已初始化的 PgVector 向量库索引");
+        }
+        return store;
+    }
+
     private void hide(AigcEmbedStore data) {
         if (data == null || StrUtil.isBlank(data.getPassword())) {
             return;
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.controller;
+
+import cn.dev33.satoken.annotation.SaCheckPermission;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcIngestJob;
+import cn.tycoding.langchat.ai.biz.service.AigcIngestJobService;
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
+import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.utils.MybatisUtil;
+import cn.tycoding.langchat.common.core.utils.QueryPage;
+import cn.tycoding.langchat.common.core.utils.R;
+import cn.tycoding.langchat.server.job.IngestEvent;
+import cn.tycoding.langchat.server.job.IngestEventHub;
+import cn.tycoding.langchat.server.job.IngestJobWorker;
+import cn.tycoding.langchat.server.job.IngestStageEnum;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 文档向量化任务
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/aigc/ingest-job")
+public class AigcIngestJobController {
+
+    private final AigcIngestJobService aigcIngestJobService;
+    private final IngestJobWorker ingestJobWorker;
+    private final IngestEventHub ingestEventHub;
+
+    @GetMapping("/page")
+    public R<Dict> page(AigcIngestJob data, QueryPage queryPage) {
+        IPage<AigcIngestJob> page = aigcIngestJobService.page(MybatisUtil.wrap(data, queryPage),
+                Wrappers.<AigcIngestJob>lambdaQuery()
+                        .eq(StrUtil.isNotBlank(data.getKnowledgeId()), AigcIngestJob::getKnowledgeId, data.getKnowledgeId())
+                        .eq(StrUtil.isNotBlank(data.getDocsId()), AigcIngestJob::getDocsId, data.getDocsId())
+                        .eq(StrUtil.isNotBlank(data.getStatus()), AigcIngestJob::getStatus, data.getStatus())
+                        .orderByDesc(AigcIngestJob::getCreateTime));
+        page.getRecords().forEach(this::fillProgress);
+        return R.ok(MybatisUtil.getData(page));
+    }
+
+    /**
+     * 订阅知识库下所有文档的向量化进度（SSE）
+     */
+    @GetMapping(value = "/events/{knowledgeId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String knowledgeId) {
+        return ingestEventHub.subscribe(knowledgeId);
+    }
+
+    @GetMapping("/{id}")
+    public R<AigcIngestJob> findById(@PathVariable String id) {
+        AigcIngestJob job = aigcIngestJobService.getById(id);
+        if (job != null) {
+            fillProgress(job);
+        }
+        return R.ok(job);
+    }
+
+    @PostMapping("/retry/{id}")
+    @ApiLog("重试向量化任务")
+    @SaCheckPermission("aigc:embedding:docs")
+    public R retry(@PathVariable String id) {
+        aigcIngestJobService.retry(id);
+        ingestEventHub.publish(IngestEvent.of(aigcIngestJobService.getById(id), IngestStageEnum.QUEUED));
+        return R.ok();
+    }
+
+    @PostMapping("/cancel/{id}")
+    @ApiLog("取消向量化任务")
+    @SaCheckPermission("aigc:embedding:docs")
+    public R cancel(@PathVariable String id) {
+        aigcIngestJobService.cancel(id);
+        ingestEventHub.publish(IngestEvent.of(aigcIngestJobService.getById(id), IngestStageEnum.CANCELED));
+        return R.ok();
+    }
+
+    /**
+     * 任务在当前实例执行时使用实时进度，否则使用最近一次续约时上报的进度
+     */
+    private void fillProgress(AigcIngestJob job) {
+        IngestProgress progress = ingestJobWorker.progress(job.getId());
+        if (progress != null) {
+            job.setParsedPages(progress.pages()).setEmbeddedSlices(progress.slices())
+                    .setCacheHits(progress.cacheHits()).setCacheMisses(progress.cacheMisses());
+        }
+    }
+}
@@ -18,17 +18,12 @@ package cn.tycoding.langchat.server.controller;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.hutool.core.util.StrUtil;
-import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
-import cn.tycoding.langchat.ai.biz.entity.AigcEmbedStore;
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.entity.AigcKnowledge;
-import cn.tycoding.langchat.ai.biz.entity.AigcModel;
-import cn.tycoding.langchat.ai.biz.mapper.AigcDocsMapper;
-import cn.tycoding.langchat.ai.biz.service.AigcEmbedStoreService;
 import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
-import cn.tycoding.langchat.ai.biz.service.AigcModelService;
-import cn.tycoding.langchat.ai.core.provider.EmbeddingProvider;
-import cn.tycoding.langchat.ai.core.provider.KnowledgeStoreFactory;
+import cn.tycoding.langchat.ai.core.ingest.splitter.SplitterRegistry;
 import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
@@ -39,8 +34,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * @author tycoding
@@ -52,40 +45,30 @@ import java.util.stream.Collectors;
 public class AigcKnowledgeController {
 
     private final AigcKnowledgeService kbService;
-    private final AigcDocsMapper docsMapper;
-    private final AigcEmbedStoreService embedStoreService;
-    private final AigcModelService modelService;
-    private final EmbeddingProvider embeddingProvider;
-    private final KnowledgeStoreFactory knowledgeStore;
+    private final AigcCache aigcCache;
+    private final SplitterRegistry splitterRegistry;
 
+    @ReadOnly
     @GetMapping("/list")
     public R<List<AigcKnowledge>> list(AigcKnowledge data) {
-        List<AigcKnowledge> list = kbService.list(Wrappers.<AigcKnowledge>lambdaQuery().orderByDesc(AigcKnowledge::getCreateTime));
+        List<AigcKnowledge> list = aigcCache.listKnowledge();
         build(list);
         return R.ok(list);
     }
 
     private void build(List<AigcKnowledge> records) {
-        Map<String, List<AigcEmbedStore>> embedStoreMap = embedStoreService.list().stream().collect(Collectors.groupingBy(AigcEmbedStore::getId));
-        Map<String, List<AigcModel>> embedModelMap = modelService.list().stream().collect(Collectors.groupingBy(AigcModel::getId));
-        Map<String, List<AigcDocs>> docsMap = docsMapper.selectList(Wrappers.lambdaQuery()).stream().collect(Collectors.groupingBy(AigcDocs::getKnowledgeId));
+        kbService.fillStats(records);
         records.forEach(item -> {
-            List<AigcDocs> docs = docsMap.get(item.getId());
-            if (docs != null) {
-                item.setDocsNum(docs.size());
-                item.setTotalSize(docs.stream().filter(d -> d.getSize() != null).mapToLong(AigcDocs::getSize).sum());
-            }
             if (item.getEmbedModelId() != null) {
-                List<AigcModel> list = embedModelMap.get(item.getEmbedModelId());
-                item.setEmbedModel(list == null ? null : list.get(0));
+                item.setEmbedModel(aigcCache.getModel(item.getEmbedModelId()));
             }
             if (item.getEmbedStoreId() != null) {
-                List<AigcEmbedStore> list = embedStoreMap.get(item.getEmbedStoreId());
-                item.setEmbedStore(list == null ? null : list.get(0));
+                item.setEmbedStore(aigcCache.getEmbedStore(item.getEmbedStoreId()));
             }
         });
     }
 
+    @ReadOnly
     @GetMapping("/page")
     public R list(AigcKnowledge data, QueryPage queryPage) {
         Page<AigcKnowledge> page = new Page<>(queryPage.getPage(), queryPage.getLimit());
@@ -101,12 +84,16 @@ public class AigcKnowledgeController {
 
     @GetMapping("/{id}")
     public R<AigcKnowledge> findById(@PathVariable String id) {
-        AigcKnowledge knowledge = kbService.getById(id);
+        AigcKnowledge knowledge = aigcCache.getKnowledge(id);
+        if (knowledge == null) {
+            return R.ok();
+        }
+        kbService.fillStats(List.of(knowledge));
         if (knowledge.getEmbedStoreId() != null) {
-            knowledge.setEmbedStore(embedStoreService.getById(knowledge.getEmbedStoreId()));
+            knowledge.setEmbedStore(aigcCache.getEmbedStore(knowledge.getEmbedStoreId()));
         }
         if (knowledge.getEmbedModelId() != null) {
-            knowledge.setEmbedModel(modelService.getById(knowledge.getEmbedModelId()));
+            knowledge.setEmbedModel(aigcCache.getModel(knowledge.getEmbedModelId()));
         }
         return R.ok(knowledge);
     }
@@ -115,9 +102,9 @@ public class AigcKnowledgeController {
     @ApiLog("新增知识库")
     @SaCheckPermission("aigc:knowledge:add")
     public R add(@RequestBody AigcKnowledge data) {
+        splitterRegistry.check(data.getSplitter(), data.getChunkSize(), data.getChunkOverlap());
         data.setCreateTime(String.valueOf(System.currentTimeMillis()));
         kbService.save(data);
-        knowledgeStore.init();
         return R.ok();
     }
 
@@ -125,8 +112,8 @@ public class AigcKnowledgeController {
     @ApiLog("更新知识库")
     @SaCheckPermission("aigc:knowledge:update")
     public R update(@RequestBody AigcKnowledge data) {
+        splitterRegistry.check(data.getSplitter(), data.getChunkSize(), data.getChunkOverlap());
         kbService.updateById(data);
-        knowledgeStore.init();
         return R.ok();
     }
 
@@ -135,7 +122,6 @@ public class AigcKnowledgeController {
     @SaCheckPermission("aigc:knowledge:delete")
     public R delete(@PathVariable String id) {
         kbService.removeKnowledge(id);
-        knowledgeStore.init();
         return R.ok();
     }
 }
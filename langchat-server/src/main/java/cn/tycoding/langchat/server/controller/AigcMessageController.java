@@ -19,17 +19,24 @@ package cn.tycoding.langchat.server.controller;
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.hutool.core.util.StrUtil;
 import cn.tycoding.langchat.ai.biz.entity.AigcMessage;
+import cn.tycoding.langchat.ai.biz.mapper.AigcMessageMapper;
 import cn.tycoding.langchat.ai.biz.service.AigcMessageService;
 import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
+import cn.tycoding.langchat.common.core.utils.ExportQuery;
+import cn.tycoding.langchat.common.core.utils.ExportWriter;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 /**
  * @author tycoding
  * @since 2024/1/19
@@ -40,6 +47,7 @@ import org.springframework.web.bind.annotation.*;
 public class AigcMessageController {
 
     private final AigcMessageService aigcMessageService;
+    private final AigcMessageMapper aigcMessageMapper;
 
     @GetMapping("/page")
     public R list(AigcMessage data, QueryPage queryPage) {
@@ -52,6 +60,29 @@ public class AigcMessageController {
         return R.ok(MybatisUtil.getData(iPage));
     }
 
+    /**
+     * 流式导出消息，归档到对象存储的冷数据不在导出范围内
+     */
+    @ReadOnly
+    @GetMapping("/export")
+    @ApiLog("导出对话数据")
+    @SaCheckPermission("aigc:message:export")
+    public void export(AigcMessage data, ExportQuery query, HttpServletResponse response) throws IOException {
+        try (ExportWriter<AigcMessage> writer = ExportWriter.of(response, "messages", query,
+                "id", "conversationId", "chatId", "appId", "userId", "username", "ip",
+                "role", "model", "message", "tokens", "promptTokens", "createTime")) {
+            aigcMessageMapper.stream(Wrappers.<AigcMessage>lambdaQuery()
+                    .eq(!StrUtil.isBlank(data.getAppId()), AigcMessage::getAppId, data.getAppId())
+                    .eq(!StrUtil.isBlank(data.getUserId()), AigcMessage::getUserId, data.getUserId())
+                    .eq(!StrUtil.isBlank(data.getConversationId()), AigcMessage::getConversationId, data.getConversationId())
+                    .eq(!StrUtil.isBlank(data.getRole()), AigcMessage::getRole, data.getRole())
+                    .ge(query.getStart() != null, AigcMessage::getCreateTime, query.getStart())
+                    .lt(query.getEnd() != null, AigcMessage::getCreateTime, query.getEnd())
+                    .orderByAsc(AigcMessage::getCreateTime, AigcMessage::getId),
+                    context -> writer.write(context.getResultObject()));
+        }
+    }
+
     @GetMapping("/{id}")
     public R getById(@PathVariable String id) {
         return R.ok(aigcMessageService.getById(id));
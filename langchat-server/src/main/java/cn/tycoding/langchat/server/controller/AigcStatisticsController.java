@@ -19,7 +19,9 @@ package cn.tycoding.langchat.server.controller;
 import cn.hutool.core.lang.Dict;
 import cn.tycoding.langchat.ai.biz.mapper.AigcAppMapper;
 import cn.tycoding.langchat.ai.biz.mapper.AigcKnowledgeMapper;
-import cn.tycoding.langchat.ai.biz.mapper.AigcMessageMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcUsageDailyMapper;
+import cn.tycoding.langchat.ai.biz.mapper.AigcUsageMonthlyMapper;
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
 import cn.tycoding.langchat.common.core.utils.R;
 import cn.tycoding.langchat.upms.mapper.SysUserMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
@@ -32,46 +34,48 @@ import org.springframework.web.bind.annotation.RestController;
  * @author tycoding
  * @since 2024/6/8
  */
+@ReadOnly
 @RequestMapping("/aigc/statistic")
 @RestController
 @AllArgsConstructor
 public class AigcStatisticsController {
 
-    private final AigcMessageMapper aigcMessageMapper;
+    private final AigcUsageDailyMapper aigcUsageDailyMapper;
+    private final AigcUsageMonthlyMapper aigcUsageMonthlyMapper;
     private final SysUserMapper userMapper;
     private final AigcKnowledgeMapper aigcKnowledgeMapper;
     private final AigcAppMapper aigcAppMapper;
 
     @GetMapping("/requestBy30")
     public R request30Chart() {
-        return R.ok(aigcMessageMapper.getReqChartBy30());
+        return R.ok(aigcUsageDailyMapper.getReqChartBy30());
     }
 
     @GetMapping("/tokenBy30")
     public R token30Chart() {
-        return R.ok(aigcMessageMapper.getTokenChartBy30());
+        return R.ok(aigcUsageDailyMapper.getTokenChartBy30());
     }
 
     @GetMapping("/token")
     public R tokenChart() {
-        return R.ok(aigcMessageMapper.getTokenChart());
+        return R.ok(aigcUsageMonthlyMapper.getTokenChart());
     }
 
     @GetMapping("/request")
     public R requestChart() {
-        return R.ok(aigcMessageMapper.getReqChart());
+        return R.ok(aigcUsageMonthlyMapper.getReqChart());
     }
 
     @GetMapping("/home")
     public R home() {
-        Dict reqData = aigcMessageMapper.getCount();
-        Dict totalData = aigcMessageMapper.getTotalSum();
+        Dict totalData = aigcUsageMonthlyMapper.getTotal();
+        Dict todayData = aigcUsageDailyMapper.getToday();
         Dict userData = userMapper.getCount();
         Long totalKnowledge = aigcKnowledgeMapper.selectCount(Wrappers.query());
         Long totalPrompt = aigcAppMapper.selectCount(Wrappers.query());
         Dict result = Dict.create();
-        result.putAll(reqData);
         result.putAll(totalData);
+        result.putAll(todayData);
         result.putAll(userData);
         result.set("totalKnowledge", totalKnowledge.intValue()).set("totalPrompt", totalPrompt.intValue());
         return R.ok(result);
@@ -33,6 +33,7 @@ import cn.tycoding.langchat.common.ai.properties.ChatProps;
 import cn.tycoding.langchat.common.ai.utils.PromptUtil;
 import cn.tycoding.langchat.common.ai.utils.StreamEmitter;
 import cn.tycoding.langchat.common.core.constant.RoleEnum;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
 import cn.tycoding.langchat.common.core.utils.R;
 import cn.tycoding.langchat.server.service.ChatService;
 import cn.tycoding.langchat.upms.utils.AuthUtil;
@@ -116,6 +117,14 @@ public class ChatEndpoint {
         return R.ok(list);
     }
 
+    /**
+     * 加载更早的历史消息，cursor 为上一次返回的游标
+     */
+    @GetMapping("/chat/messages/{conversationId}/history")
+    public R history(@PathVariable String conversationId, CursorQuery query) {
+        return R.ok(messageService.getMessages(conversationId, String.valueOf(AuthUtil.getUserId()), query));
+    }
+
     @DeleteMapping("/chat/messages/clean/{conversationId}")
     @SaCheckPermission("chat:messages:clean")
     public R cleanMessage(@PathVariable String conversationId) {
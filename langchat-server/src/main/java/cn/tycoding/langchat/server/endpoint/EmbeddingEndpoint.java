@@ -18,6 +18,7 @@ package cn.tycoding.langchat.server.endpoint;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocsSlice;
 import cn.tycoding.langchat.ai.biz.entity.AigcOss;
@@ -25,12 +26,14 @@ import cn.tycoding.langchat.ai.biz.mapper.AigcDocsMapper;
 import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
 import cn.tycoding.langchat.ai.biz.service.AigcOssService;
 import cn.tycoding.langchat.ai.core.consts.EmbedConst;
+import cn.tycoding.langchat.ai.core.provider.EmbeddingProvider;
 import cn.tycoding.langchat.ai.core.service.LangEmbeddingService;
 import cn.tycoding.langchat.common.ai.dto.ChatReq;
 import cn.tycoding.langchat.common.ai.dto.EmbeddingR;
 import cn.tycoding.langchat.common.core.exception.ServiceException;
-import cn.tycoding.langchat.common.core.task.TaskManager;
 import cn.tycoding.langchat.common.core.utils.R;
+import cn.tycoding.langchat.server.job.IngestJobWorker;
+import cn.tycoding.langchat.server.service.DocsImportService;
 import cn.tycoding.langchat.server.service.EmbeddingService;
 import cn.tycoding.langchat.upms.utils.AuthUtil;
 import lombok.AllArgsConstructor;
@@ -38,7 +41,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.concurrent.Executors;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * @author tycoding
@@ -55,6 +59,9 @@ public class EmbeddingEndpoint {
     private final AigcDocsMapper aigcDocsMapper;
     private final AigcOssService aigcOssService;
     private final EmbeddingService embeddingService;
+    private final EmbeddingProvider embeddingProvider;
+    private final IngestJobWorker ingestJobWorker;
+    private final DocsImportService docsImportService;
 
     @PostMapping("/text")
     @SaCheckPermission("aigc:embedding:text")
@@ -78,6 +85,7 @@ public class EmbeddingEndpoint {
                     .setKnowledgeId(data.getKnowledgeId())
                     .setDocsId(data.getId())
                     .setVectorId(embeddingR.getVectorId())
+                    .setEmbedModelId(embeddingR.getEmbedModelId())
                     .setName(data.getName())
                     .setContent(embeddingR.getText())
             );
@@ -88,6 +96,7 @@ public class EmbeddingEndpoint {
 
             // del data
             aigcKnowledgeService.removeSlicesOfDoc(data.getId());
+            aigcKnowledgeService.failDocs(data.getId(), e.getMessage());
         }
         return R.ok();
     }
@@ -105,28 +114,55 @@ public class EmbeddingEndpoint {
                 .setType(EmbedConst.ORIGIN_TYPE_UPLOAD)
                 .setKnowledgeId(knowledgeId);
         aigcKnowledgeService.addDocs(data);
-        TaskManager.submitTask(userId, Executors.callable(() -> {
-            embeddingService.embedDocsSlice(data, oss.getUrl());
-        }));
-        return R.ok();
+        return R.ok(ingestJobWorker.submit(data));
+    }
+
+    /**
+     * 导入压缩包（zip、tar、tar.gz 等）中的全部文件
+     */
+    @PostMapping("/archive/{knowledgeId}")
+    @SaCheckPermission("aigc:embedding:docs")
+    public R archive(MultipartFile file, @PathVariable String knowledgeId) {
+        return R.ok(docsImportService.importArchive(knowledgeId, file, String.valueOf(AuthUtil.getUserId())));
+    }
+
+    /**
+     * 导入服务器目录中的全部文件，path 为相对导入根目录的路径
+     */
+    @PostMapping("/dir/{knowledgeId}")
+    @SaCheckPermission("aigc:embedding:docs")
+    public R dir(@RequestParam String path, @PathVariable String knowledgeId) {
+        return R.ok(docsImportService.importDirectory(knowledgeId, path, String.valueOf(AuthUtil.getUserId())));
+    }
+
+    /**
+     * 查询压缩包或目录导入任务的进度
+     */
+    @GetMapping("/import/{id}")
+    @SaCheckPermission("aigc:embedding:docs")
+    public R importStatus(@PathVariable String id) {
+        return R.ok(docsImportService.status(id));
     }
 
     @GetMapping("/re-embed/{docsId}")
     public R reEmbed(@PathVariable String docsId) {
-        String userId = String.valueOf(AuthUtil.getUserId());
         AigcDocs docs = aigcDocsMapper.selectById(docsId);
         if (docs == null) {
             throw new ServiceException("没有查询到文档数据");
         }
         if (EmbedConst.ORIGIN_TYPE_INPUT.equals(docs.getType())) {
-            text(docs);
+            List<AigcDocsSlice> slices = aigcKnowledgeService.listSlicesOfDoc(docsId);
+            String modelId = embeddingProvider.getEmbeddingModelId(docs.getKnowledgeId());
+            boolean unchanged = slices.size() == 1
+                    && Objects.equals(slices.get(0).getContentHash(), SecureUtil.sha256(StrUtil.nullToEmpty(docs.getContent())))
+                    && Objects.equals(slices.get(0).getEmbedModelId(), modelId);
+            if (!unchanged) {
+                embeddingService.clearDocSlices(docsId);
+                text(docs);
+            }
         }
         if (EmbedConst.ORIGIN_TYPE_UPLOAD.equals(docs.getType())) {
-            // clear before re-embed
-            embeddingService.clearDocSlices(docsId);
-            TaskManager.submitTask(userId, Executors.callable(() -> {
-                embeddingService.embedDocsSlice(docs, docs.getUrl());
-            }));
+            return R.ok(ingestJobWorker.submit(docs));
         }
         return R.ok();
     }
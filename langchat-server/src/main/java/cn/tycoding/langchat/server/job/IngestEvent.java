@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.job;
+
+import cn.tycoding.langchat.ai.biz.entity.AigcIngestJob;
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * 文档向量化进度事件
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Data
+@Accessors(chain = true)
+public class IngestEvent implements Serializable {
+    private static final long serialVersionUID = 6384016927745318842L;
+
+    private String jobId;
+    private String knowledgeId;
+    private String docsId;
+    private String docsName;
+
+    /**
+     * 事件阶段，见 IngestStageEnum
+     */
+    private String stage;
+
+    /**
+     * 第几次执行
+     */
+    private Integer attempts;
+
+    /**
+     * 已解析页数
+     */
+    private Integer parsedPages;
+
+    /**
+     * 已向量化并写入的切片数量
+     */
+    private Integer embeddedSlices;
+
+    /**
+     * 需要向量化的切片数量，文档解析完成前会持续增加
+     */
+    private Integer totalSlices;
+
+    /**
+     * 内容未变化而复用的切片数量
+     */
+    private Integer skippedSlices;
+
+    /**
+     * Embedding 缓存命中的切片数量
+     */
+    private Integer cacheHits;
+
+    /**
+     * Embedding 缓存未命中、请求模型的切片数量
+     */
+    private Integer cacheMisses;
+
+    /**
+     * 失败原因等说明
+     */
+    private String message;
+
+    private Long time;
+
+    public static IngestEvent of(AigcIngestJob job, IngestStageEnum stage) {
+        return new IngestEvent()
+                .setJobId(job.getId())
+                .setKnowledgeId(job.getKnowledgeId())
+                .setDocsId(job.getDocsId())
+                .setDocsName(job.getDocsName())
+                .setStage(stage.name())
+                .setAttempts(job.getAttempts())
+                .setParsedPages(job.getParsedPages())
+                .setEmbeddedSlices(job.getEmbeddedSlices())
+                .setCacheHits(job.getCacheHits())
+                .setCacheMisses(job.getCacheMisses())
+                .setTime(System.currentTimeMillis());
+    }
+
+    public IngestEvent progress(IngestProgress progress) {
+        return setParsedPages(progress.pages())
+                .setEmbeddedSlices(progress.slices())
+                .setTotalSlices(progress.segments())
+                .setSkippedSlices(progress.skipped())
+                .setCacheHits(progress.cacheHits())
+                .setCacheMisses(progress.cacheMisses());
+    }
+}
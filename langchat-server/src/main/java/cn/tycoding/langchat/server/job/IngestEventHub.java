@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.job;
+
+import cn.tycoding.langchat.ai.biz.component.IngestJobStatusEnum;
+import cn.tycoding.langchat.ai.biz.entity.AigcIngestJob;
+import cn.tycoding.langchat.ai.biz.service.AigcIngestJobService;
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 文档向量化进度事件推送
+ * <p>
+ * 任务可能在任意实例上执行，事件先发布到 Redis 频道，各实例收到后推送给本机按知识库订阅的 SSE 连接；
+ * 订阅时先推送该知识库当前待执行和执行中的任务，客户端无需再轮询文档列表
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestEventHub {
+
+    private static final long TIMEOUT = 30 * 60 * 1000L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final AigcIngestJobService aigcIngestJobService;
+
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private RedisMessageListenerContainer container;
+
+    @PostConstruct
+    public void init() {
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                dispatch(JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8), IngestEvent.class));
+            } catch (Exception e) {
+                log.warn("处理文档向量化进度事件失败：{}", e.getMessage());
+            }
+        }, new ChannelTopic(CacheConst.INGEST_EVENT_CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        container.destroy();
+        emitters.values().forEach(set -> set.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * 订阅知识库下所有文档的向量化进度
+     */
+    public SseEmitter subscribe(String knowledgeId) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT);
+        Set<SseEmitter> set = emitters.computeIfAbsent(knowledgeId, k -> new CopyOnWriteArraySet<>());
+        set.add(emitter);
+        Runnable remove = () -> set.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        aigcIngestJobService.list(Wrappers.<AigcIngestJob>lambdaQuery()
+                        .eq(AigcIngestJob::getKnowledgeId, knowledgeId)
+                        .in(AigcIngestJob::getStatus, IngestJobStatusEnum.PENDING.name(), IngestJobStatusEnum.RUNNING.name()))
+                .forEach(job -> send(emitter, IngestEvent.of(job,
+                        IngestJobStatusEnum.RUNNING.name().equals(job.getStatus()) ? IngestStageEnum.EMBEDDED : IngestStageEnum.QUEUED)));
+        return emitter;
+    }
+
+    public void publish(IngestEvent event) {
+        try {
+            redisTemplate.convertAndSend(CacheConst.INGEST_EVENT_CHANNEL, JSON.toJSONString(event));
+        } catch (Exception e) {
+            log.warn("发布文档向量化进度事件失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期发送注释行，避免连接被代理因空闲断开
+     */
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        emitters.forEach((knowledgeId, set) -> set.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                set.remove(emitter);
+            }
+        }));
+    }
+
+    private void dispatch(IngestEvent event) {
+        Set<SseEmitter> set = emitters.get(event.getKnowledgeId());
+        if (set == null) {
+            return;
+        }
+        set.forEach(emitter -> {
+            if (!send(emitter, event)) {
+                set.remove(emitter);
+            }
+        });
+    }
+
+    private boolean send(SseEmitter emitter, IngestEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(event.getStage()).data(event));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.job;
+
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RuntimeUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
+import cn.tycoding.langchat.ai.biz.entity.AigcIngestJob;
+import cn.tycoding.langchat.ai.biz.mapper.AigcDocsMapper;
+import cn.tycoding.langchat.ai.biz.service.AigcIngestJobService;
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.server.service.EmbeddingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文档向量化任务执行器
+ * <p>
+ * 任务持久化在 aigc_ingest_job 表中，每个实例按配置的并发数领取任务并持有租约，执行期间定期续约并上报进度。
+ * 实例宕机或重启后租约过期，任务由其他实例（或重启后的实例）重新领取；重新执行时序号和内容摘要未变化的切片直接复用，
+ * 其余切片的向量从 Embedding 缓存读取，不会重复调用 Embedding 模型。拉取和续约在独立的调度线程中执行，不受 Spring 共享调度线程上其他定时任务的阻塞，
+ * 避免续约延迟导致租约过期被其他实例重复领取。执行过程中的各阶段和进度通过 IngestEventHub 推送给订阅的客户端
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestJobWorker {
+
+    private final AigcIngestJobService aigcIngestJobService;
+    private final AigcDocsMapper aigcDocsMapper;
+    private final EmbeddingService embeddingService;
+    private final RagProps ragProps;
+    private final IngestEventHub ingestEventHub;
+
+    private final String owner = NetUtil.getLocalHostName() + ":" + RuntimeUtil.getPid() + ":" + IdUtil.fastSimpleUUID().substring(0, 8);
+    private final Map<String, Running> running = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean stopping;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(ragProps.getIngest().getWorkers(), r -> {
+            Thread thread = new Thread(r, "langchat-ingest-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "langchat-ingest-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = ragProps.getIngest().getPollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        stopping = true;
+        List<String> ids = List.copyOf(running.keySet());
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        // 停止前释放租约，任务无需等待租约过期即可被其他实例领取
+        ids.forEach(id -> aigcIngestJobService.release(id, owner));
+    }
+
+    /**
+     * 提交文档向量化任务
+     */
+    public AigcIngestJob submit(AigcDocs docs) {
+        AigcIngestJob job = aigcIngestJobService.submit(docs, ragProps.getIngest().getMaxAttempts());
+        ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.QUEUED));
+        return job;
+    }
+
+    /**
+     * 批量提交新建文档的向量化任务，提交后立即按空闲的并发数领取执行
+     */
+    public List<AigcIngestJob> submitAll(List<AigcDocs> docs) {
+        List<AigcIngestJob> jobs = aigcIngestJobService.submitBatch(docs, ragProps.getIngest().getMaxAttempts());
+        jobs.forEach(job -> ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.QUEUED)));
+        fill();
+        return jobs;
+    }
+
+    /**
+     * 取消文档的向量化任务，任务在当前实例执行时立即中断，在其他实例执行时由其续约时发现并停止
+     */
+    public void cancelOfDocs(String docsId) {
+        aigcIngestJobService.cancelOfDocs(docsId).forEach(job -> {
+            Running current = running.remove(job.getId());
+            if (current != null) {
+                current.task().cancel(true);
+            }
+            ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.CANCELED).setMessage("文档已删除"));
+        });
+    }
+
+    /**
+     * 当前实例正在执行的任务进度，任务不在当前实例执行时返回空
+     */
+    public IngestProgress progress(String jobId) {
+        Running job = running.get(jobId);
+        return job == null ? null : job.progress();
+    }
+
+    private void poll() {
+        if (stopping) {
+            return;
+        }
+        try {
+            renew();
+        } catch (Exception e) {
+            log.error("向量化任务续约失败", e);
+        }
+        fill();
+    }
+
+    /**
+     * 按空闲的并发数领取任务；任务执行结束后立即补充，批量导入时不必等待下一次拉取
+     */
+    private synchronized void fill() {
+        if (stopping) {
+            return;
+        }
+        try {
+            RagProps.Ingest props = ragProps.getIngest();
+            List<AigcIngestJob> jobs = aigcIngestJobService.claim(owner, props.getLeaseTime(), props.getWorkers() - running.size());
+            for (AigcIngestJob job : jobs) {
+                IngestProgress progress = new IngestProgress().onChange(throttle(job));
+                FutureTask<Void> task = new FutureTask<>(() -> execute(job, progress), null);
+                running.put(job.getId(), new Running(progress, task));
+                executor.execute(task);
+            }
+        } catch (Exception e) {
+            log.error("拉取文档向量化任务失败", e);
+        }
+    }
+
+    private void renew() {
+        running.forEach((id, job) -> {
+            IngestProgress progress = job.progress();
+            if (!aigcIngestJobService.renew(id, owner, ragProps.getIngest().getLeaseTime(), progress.pages(), progress.slices(),
+                    progress.cacheHits(), progress.cacheMisses())) {
+                log.warn("向量化任务 {} 已取消或租约已被其他实例接管，停止执行", id);
+                job.task().cancel(true);
+                running.remove(id);
+            }
+        });
+    }
+
+    private void execute(AigcIngestJob job, IngestProgress progress) {
+        try {
+            AigcDocs docs = aigcDocsMapper.selectById(job.getDocsId());
+            if (docs == null) {
+                log.warn("向量化任务 {} 的文档已删除，取消任务", job.getId());
+                aigcIngestJobService.cancel(job.getId());
+                ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.CANCELED).setMessage("文档已删除"));
+                return;
+            }
+            log.info("开始执行向量化任务 {}，文档：{}，第 {} 次执行", job.getId(), docs.getName(), job.getAttempts());
+            ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.PARSING));
+            embeddingService.reEmbedDocsSlice(docs, docs.getUrl(), progress);
+            aigcIngestJobService.succeed(job.getId(), owner, progress.pages(), progress.slices(), progress.cacheHits(), progress.cacheMisses());
+            ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.STORED).progress(progress));
+        } catch (Throwable e) {
+            if (stopping) {
+                return;
+            }
+            // 任务已被取消或租约已被接管时，状态条件不满足，不会更新任务
+            String message = String.valueOf(e.getMessage());
+            boolean retry = aigcIngestJobService.fail(job, owner, message, ragProps.getIngest().getRetryBackoff());
+            ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.FAILED).progress(progress).setMessage(message));
+            if (retry) {
+                ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.QUEUED).setMessage("等待重试"));
+            }
+        } finally {
+            running.remove(job.getId());
+            fill();
+        }
+    }
+
+    /**
+     * 向量化进度事件每个任务最多 500ms 推送一次
+     */
+    private Runnable throttle(AigcIngestJob job) {
+        AtomicLong last = new AtomicLong();
+        return () -> {
+            long now = System.currentTimeMillis();
+            long prev = last.get();
+            if (now - prev >= 500 && last.compareAndSet(prev, now)) {
+                Running running = this.running.get(job.getId());
+                if (running != null) {
+                    ingestEventHub.publish(IngestEvent.of(job, IngestStageEnum.EMBEDDED).progress(running.progress()));
+                }
+            }
+        };
+    }
+
+    private record Running(IngestProgress progress, FutureTask<Void> task) {
+    }
+}
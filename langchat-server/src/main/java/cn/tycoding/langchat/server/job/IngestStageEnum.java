@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.job;
+
+import lombok.Getter;
+
+/**
+ * 文档向量化进度事件阶段
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Getter
+public enum IngestStageEnum {
+
+    /**
+     * 已排队（新提交或失败后等待重试）
+     */
+    QUEUED,
+    /**
+     * 开始解析文档
+     */
+    PARSING,
+    /**
+     * 向量化进行中
+     */
+    EMBEDDED,
+    /**
+     * 全部切片已写入向量库
+     */
+    STORED,
+    FAILED,
+    CANCELED;
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat.server.job;
+
+import cn.hutool.core.util.IdUtil;
+import cn.tycoding.langchat.ai.biz.service.AigcMessageArchiveService;
+import cn.tycoding.langchat.ai.core.properties.MessageProps;
+import cn.tycoding.langchat.common.core.constant.CacheConst;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对话消息分区维护与冷数据归档
+ * <p>
+ * 定期创建后续月份的分区，并将超过保留期的月份按时间顺序逐月归档，同时重写有会话被删除的归档文件；
+ * 导出和删除耗时较长，在独立线程中执行，不占用共享的调度线程；多实例部署时通过 Redis 锁保证同一时间只有一个实例执行
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageArchiveJob {
+
+    private static final Duration LOCK_TIME = Duration.ofHours(2);
+    private static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+
+    private final MessageProps messageProps;
+    private final AigcMessageArchiveService aigcMessageArchiveService;
+    private final StringRedisTemplate redisTemplate;
+
+    private final String owner = IdUtil.fastSimpleUUID();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "langchat-message-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, INITIAL_DELAY.toMillis(),
+                messageProps.getArchive().getInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void run() {
+        MessageProps.Archive props = messageProps.getArchive();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(CacheConst.MESSAGE_ARCHIVE_LOCK, owner, LOCK_TIME))) {
+            return;
+        }
+        try {
+            if (props.isEnabled()) {
+                aigcMessageArchiveService.createPartitions(props.getAheadMonths());
+                // 必须按时间顺序归档，上一个月份失败时不再继续，保证删除分区前更早的数据都已归档
+                List<String> months = aigcMessageArchiveService.getExpiredMonths(props.getRetainMonths());
+                for (String month : months) {
+                    aigcMessageArchiveService.archive(month, props.getPath());
+                }
+            }
+            // 关闭归档后已有的归档文件仍需移除被删除会话的内容
+            aigcMessageArchiveService.compact();
+        } catch (Exception e) {
+            log.error("对话消息分区维护或归档失败", e);
+        } finally {
+            if (owner.equals(redisTemplate.opsForValue().get(CacheConst.MESSAGE_ARCHIVE_LOCK))) {
+                redisTemplate.delete(CacheConst.MESSAGE_ARCHIVE_LOCK);
+            }
+        }
+    }
+}
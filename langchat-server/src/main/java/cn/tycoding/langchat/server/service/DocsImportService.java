@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.service;
+
+import cn.hutool.core.lang.Dict;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 文档批量导入：压缩包或服务器目录中的文件批量上传、创建文档并提交向量化任务
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public interface DocsImportService {
+
+    /**
+     * 导入 ZIP 或 TAR（支持 gzip、bzip2、xz 压缩）压缩包中的文件，压缩包保存后在后台流式读取条目
+     *
+     * @return 导入任务的ID和状态
+     */
+    Dict importArchive(String knowledgeId, MultipartFile file, String userId);
+
+    /**
+     * 在后台导入服务器目录（及其子目录）中的文件，目录必须位于配置的导入根目录下
+     *
+     * @return 导入任务的ID和状态
+     */
+    Dict importDirectory(String knowledgeId, String path, String userId);
+
+    /**
+     * 查询导入任务的状态（RUNNING、SUCCESS、FAILED）、已导入的文档数、跳过的文件数和失败原因
+     */
+    Dict status(String id);
+}
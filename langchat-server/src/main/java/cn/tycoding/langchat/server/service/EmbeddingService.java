@@ -17,6 +17,7 @@
 package cn.tycoding.langchat.server.service;
 
 import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
 
 import java.util.List;
 import java.util.Map;
@@ -29,7 +30,10 @@ public interface EmbeddingService {
 
     void clearDocSlices(String docsId);
 
-    void embedDocsSlice(AigcDocs data, String url);
+    /**
+     * 增量重新向量化：内容未变化的切片保留，只向量化新增或变化的切片，并删除已不存在的切片
+     */
+    void reEmbedDocsSlice(AigcDocs data, String url, IngestProgress progress);
 
     List<Map<String, Object>> search(AigcDocs data);
 }
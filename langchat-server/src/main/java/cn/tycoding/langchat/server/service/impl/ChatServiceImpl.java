@@ -63,6 +63,7 @@ public class ChatServiceImpl implements ChatService {
                 req.setModelId(app.getModelId());
                 req.setPromptText(app.getPrompt());
                 req.setKnowledgeIds(app.getKnowledgeIds());
+                req.setRerank(app.getRerank());
             }
         }
 
@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat.server.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.core.io.file.FileNameUtil;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
+import cn.tycoding.langchat.ai.biz.entity.AigcOss;
+import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
+import cn.tycoding.langchat.ai.biz.service.AigcOssService;
+import cn.tycoding.langchat.ai.core.consts.EmbedConst;
+import cn.tycoding.langchat.ai.core.properties.RagProps;
+import cn.tycoding.langchat.common.core.exception.ServiceException;
+import cn.tycoding.langchat.server.job.IngestJobWorker;
+import cn.tycoding.langchat.server.service.DocsImportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 导入任务在后台线程中执行，请求只保存压缩包（或校验目录）后立即返回任务ID，通过 {@link #status(String)} 查询进度。
+ * 压缩包条目按顺序流式暂存到临时文件后并发上传到存储平台，所有导入任务已暂存、等待上传的文件总大小受 import-buffer 限制；
+ * 每累计一批文件统一批量保存 OSS 记录和文档、批量提交向量化任务，先导入的文件无需等待整个压缩包处理完即开始向量化。
+ * 文档解析由 IngestJobWorker 按 workers 并发执行，所有文档共用同一个 EmbeddingExecutor（按模型限流、批量请求、共享向量缓存）
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocsImportServiceImpl implements DocsImportService {
+
+    /**
+     * 每批保存的文件数量
+     */
+    private static final int FLUSH_SIZE = 200;
+
+    /**
+     * 同时执行的导入任务数量和排队上限
+     */
+    private static final int TASK_THREADS = 2;
+    private static final int TASK_QUEUE = 16;
+
+    /**
+     * 导入任务结束后状态的保留时间
+     */
+    private static final long TASK_TTL = Duration.ofHours(1).toMillis();
+
+    /**
+     * aigc_oss.original_filename 的长度
+     */
+    private static final int FILENAME_LENGTH = 50;
+
+    private final AigcOssService aigcOssService;
+    private final AigcKnowledgeService aigcKnowledgeService;
+    private final IngestJobWorker ingestJobWorker;
+    private final RagProps ragProps;
+
+    private final TimedCache<String, Importer> tasks = CacheUtil.newTimedCache(TASK_TTL);
+    private ExecutorService executor;
+    private ExecutorService taskExecutor;
+    /**
+     * 暂存文件大小的配额，单位 KB
+     */
+    private Semaphore buffer;
+    private int bufferSize;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(ragProps.getIngest().getImportConcurrency(), factory("langchat-docs-import-"));
+        taskExecutor = new ThreadPoolExecutor(TASK_THREADS, TASK_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(TASK_QUEUE), factory("langchat-docs-import-task-"));
+        bufferSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, ragProps.getIngest().getImportBuffer().toKilobytes()));
+        buffer = new Semaphore(bufferSize);
+        tasks.schedulePrune(TASK_TTL);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        tasks.cancelPruneSchedule();
+        taskExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Dict importArchive(String knowledgeId, MultipartFile file, String userId) {
+        // 请求结束后 MultipartFile 的临时文件会被删除，先转存到导入任务自己的临时文件
+        Path archive;
+        try {
+            archive = Files.createTempFile("langchat-import-", ".archive");
+        } catch (IOException e) {
+            throw new ServiceException("保存压缩包失败：" + e.getMessage());
+        }
+        try {
+            file.transferTo(archive);
+            return start(new Importer(knowledgeId, userId), importer -> readArchive(importer, archive), archive);
+        } catch (IOException e) {
+            deleteQuietly(archive);
+            throw new ServiceException("保存压缩包失败：" + e.getMessage());
+        } catch (RuntimeException e) {
+            deleteQuietly(archive);
+            throw e;
+        }
+    }
+
+    @Override
+    public Dict importDirectory(String knowledgeId, String path, String userId) {
+        String root = ragProps.getIngest().getImportRoot();
+        if (StrUtil.isBlank(root)) {
+            throw new ServiceException("未配置目录导入根目录（langchat.rag.ingest.import-root），不允许按目录导入");
+        }
+        Path dir;
+        try {
+            Path base = Path.of(root).toRealPath();
+            dir = base.resolve(StrUtil.nullToEmpty(path)).toRealPath();
+            if (!dir.startsWith(base) || !Files.isDirectory(dir)) {
+                throw new ServiceException("导入目录不存在或不在允许的根目录下");
+            }
+        } catch (IOException e) {
+            throw new ServiceException("读取导入目录失败：" + e.getMessage());
+        }
+        return start(new Importer(knowledgeId, userId), importer -> readDirectory(importer, dir), null);
+    }
+
+    @Override
+    public Dict status(String id) {
+        Importer importer = tasks.get(id, false);
+        if (importer == null) {
+            throw new ServiceException("导入任务不存在或已过期");
+        }
+        return importer.toDict();
+    }
+
+    /**
+     * 提交导入任务，导入任务过多时拒绝
+     *
+     * @param temp 任务结束后删除的临时文件，可为空
+     */
+    private Dict start(Importer importer, Source source, Path temp) {
+        tasks.put(importer.id, importer);
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    importer.run(source);
+                } finally {
+                    deleteQuietly(temp);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            tasks.remove(importer.id);
+            throw new ServiceException("当前导入任务过多，请稍后再试");
+        }
+        return importer.toDict();
+    }
+
+    private void readArchive(Importer importer, Path file) throws IOException, ArchiveException {
+        long maxSize = ragProps.getIngest().getMaxEntrySize().toBytes();
+        try (InputStream in = Files.newInputStream(file);
+             ArchiveInputStream<?> archive = openArchive(in)) {
+            ArchiveEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                String name = StrUtil.removePrefix(entry.getName(), "./");
+                if (entry.isDirectory() || isHidden(name)) {
+                    continue;
+                }
+                Path spooled = archive.canReadEntryData(entry) && entry.getSize() <= maxSize
+                        ? spool(archive, maxSize) : null;
+                if (spooled == null) {
+                    importer.skip(name);
+                    continue;
+                }
+                importer.add(name, spooled.toFile(), Files.size(spooled), spooled);
+            }
+        }
+    }
+
+    private void readDirectory(Importer importer, Path dir) throws IOException {
+        long maxSize = ragProps.getIngest().getMaxEntrySize().toBytes();
+        try (Stream<Path> files = Files.walk(dir)) {
+            Iterator<Path> it = files.filter(p -> Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS)).iterator();
+            while (it.hasNext()) {
+                Path file = it.next();
+                String name = dir.relativize(file).toString().replace(File.separatorChar, '/');
+                long size = Files.size(file);
+                if (isHidden(name) || size == 0 || size > maxSize) {
+                    importer.skip(name);
+                    continue;
+                }
+                importer.add(name, file.toFile(), size, null);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 自动识别压缩格式（gzip、bzip2、xz 等）和归档格式（zip、tar 等）
+     */
+    private ArchiveInputStream<?> openArchive(InputStream in) throws ArchiveException {
+        InputStream stream = new BufferedInputStream(in);
+        try {
+            stream = new BufferedInputStream(new CompressorStreamFactory().createCompressorInputStream(stream));
+        } catch (CompressorException e) {
+            // 未压缩的归档文件（zip、tar）
+        }
+        return new ArchiveStreamFactory().createArchiveInputStream(stream);
+    }
+
+    /**
+     * 将当前条目暂存到临时文件，内容为空或超过大小上限时返回 null（条目头中未记录大小时只能边读边判断）
+     */
+    private Path spool(InputStream in, long maxSize) throws IOException {
+        Path temp = Files.createTempFile("langchat-import-", ".entry");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                total += n;
+                if (total > maxSize) {
+                    deleteQuietly(temp);
+                    return null;
+                }
+                out.write(buffer, 0, n);
+            }
+            if (total == 0) {
+                deleteQuietly(temp);
+                return null;
+            }
+            return temp;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    private boolean isHidden(String name) {
+        for (String part : StrUtil.split(name, '/')) {
+            if (!".".equals(part) && (part.startsWith(".") || "__MACOSX".equals(part))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 文件名超过 original_filename 的长度时截断主文件名，保留扩展名
+     */
+    private static String fitFilename(String filename) {
+        if (filename.length() <= FILENAME_LENGTH) {
+            return filename;
+        }
+        String ext = FileNameUtil.extName(filename);
+        if (StrUtil.isEmpty(ext) || ext.length() > FILENAME_LENGTH / 2) {
+            return StrUtil.sub(filename, 0, FILENAME_LENGTH);
+        }
+        return StrUtil.sub(FileNameUtil.mainName(filename), 0, FILENAME_LENGTH - ext.length() - 1) + "." + ext;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除导入临时文件失败：{}", path, e);
+        }
+    }
+
+    private static ThreadFactory factory(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        void read(Importer importer) throws Exception;
+    }
+
+    /**
+     * 一次导入的上传和批量保存过程，上传并发数受线程池限制，暂存待上传的文件总大小受 buffer 配额限制
+     */
+    private class Importer {
+
+        private final String id = IdUtil.fastSimpleUUID();
+        private final String knowledgeId;
+        private final String userId;
+        private final List<Upload> pending = new ArrayList<>();
+        private volatile String status = "RUNNING";
+        private volatile String message;
+        private volatile int docs;
+        private volatile int skipped;
+
+        Importer(String knowledgeId, String userId) {
+            this.knowledgeId = knowledgeId;
+            this.userId = userId;
+        }
+
+        void run(Source source) {
+            try {
+                source.read(this);
+                flush();
+                status = "SUCCESS";
+                log.info("批量导入完成，KnowledgeId={}，导入文档 {} 个，跳过文件 {} 个", knowledgeId, docs, skipped);
+            } catch (Throwable e) {
+                abort();
+                message = e instanceof ArchiveException ? "压缩包解析失败：" + e.getMessage() : String.valueOf(e.getMessage());
+                status = "FAILED";
+                log.error("批量导入失败，KnowledgeId={}，已导入文档 {} 个", knowledgeId, docs, e);
+            }
+        }
+
+        /**
+         * @param temp 暂存的临时文件，上传结束后删除并释放配额；直接读取服务器目录时为空
+         */
+        void add(String name, File source, long size, Path temp) {
+            int permits = temp == null ? 0 : (int) Math.min(bufferSize, Math.max(1, (size + 1023) / 1024));
+            Runnable release = once(() -> {
+                buffer.release(permits);
+                deleteQuietly(temp);
+            });
+            try {
+                buffer.acquire(permits);
+            } catch (InterruptedException e) {
+                deleteQuietly(temp);
+                Thread.currentThread().interrupt();
+                throw new ServiceException("文档导入已中断");
+            }
+            try {
+                pending.add(new Upload(executor.submit(() -> {
+                    try {
+                        AigcOss oss = aigcOssService.store(source, fitFilename(StrUtil.subAfter(name, '/', true)), userId);
+                        AigcDocs data = new AigcDocs()
+                                .setName(StrUtil.maxLength(name, 250))
+                                .setSliceStatus(false)
+                                .setUrl(oss.getUrl())
+                                .setSize(size)
+                                .setType(EmbedConst.ORIGIN_TYPE_UPLOAD)
+                                .setKnowledgeId(knowledgeId);
+                        return new Stored(oss, data);
+                    } finally {
+                        release.run();
+                    }
+                }), release));
+            } catch (RejectedExecutionException e) {
+                release.run();
+                throw new ServiceException("文档导入已停止");
+            }
+            if (pending.size() >= FLUSH_SIZE) {
+                flush();
+            }
+        }
+
+        void skip(String name) {
+            skipped++;
+            log.warn("批量导入跳过文件：{}", name);
+        }
+
+        /**
+         * 取消未开始的上传，等待进行中的上传结束后删除已上传但未保存记录的文件
+         */
+        void abort() {
+            List<AigcOss> uploaded = new ArrayList<>();
+            for (Upload upload : pending) {
+                if (upload.future().cancel(false)) {
+                    upload.release().run();
+                    continue;
+                }
+                try {
+                    uploaded.add(upload.future().get().oss());
+                } catch (ExecutionException | CancellationException e) {
+                    // 上传失败，没有需要清理的文件
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            pending.clear();
+            aigcOssService.discard(uploaded);
+        }
+
+        Dict toDict() {
+            return Dict.create()
+                    .set("id", id)
+                    .set("status", status)
+                    .set("docs", docs)
+                    .set("skipped", skipped)
+                    .set("message", message);
+        }
+
+        private void flush() {
+            List<AigcOss> files = new ArrayList<>(pending.size());
+            List<AigcDocs> batch = new ArrayList<>(pending.size());
+            for (Upload upload : pending) {
+                try {
+                    Stored stored = upload.future().get();
+                    files.add(stored.oss());
+                    batch.add(stored.docs());
+                } catch (ExecutionException e) {
+                    skipped++;
+                    log.error("批量导入上传文件失败", e.getCause());
+                } catch (InterruptedException e) {
+                    abort();
+                    Thread.currentThread().interrupt();
+                    throw new ServiceException("文档导入已中断");
+                }
+            }
+            pending.clear();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                aigcOssService.saveBatch(files);
+                aigcKnowledgeService.addDocsBatch(batch);
+            } catch (RuntimeException e) {
+                // 记录保存失败时已上传的文件无法再被引用，从存储平台和 OSS 记录中删除
+                aigcOssService.discard(files);
+                throw e;
+            }
+            ingestJobWorker.submitAll(batch);
+            docs += batch.size();
+        }
+    }
+
+    private static Runnable once(Runnable runnable) {
+        AtomicBoolean done = new AtomicBoolean();
+        return () -> {
+            if (done.compareAndSet(false, true)) {
+                runnable.run();
+            }
+        };
+    }
+
+    private record Upload(Future<Stored> future, Runnable release) {
+    }
+
+    private record Stored(AigcOss oss, AigcDocs docs) {
+    }
+}
@@ -17,18 +17,22 @@
 package cn.tycoding.langchat.server.service.impl;
 
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
 import cn.tycoding.langchat.common.ai.dto.ChatReq;
 import cn.tycoding.langchat.common.ai.dto.EmbeddingR;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocs;
 import cn.tycoding.langchat.ai.biz.entity.AigcDocsSlice;
 import cn.tycoding.langchat.ai.biz.mapper.AigcDocsMapper;
 import cn.tycoding.langchat.ai.biz.service.AigcKnowledgeService;
+import cn.tycoding.langchat.ai.core.ingest.IngestProgress;
 import cn.tycoding.langchat.ai.core.provider.EmbeddingProvider;
+import cn.tycoding.langchat.ai.core.provider.RetrievalCacheProvider;
 import cn.tycoding.langchat.ai.core.service.LangEmbeddingService;
 import cn.tycoding.langchat.server.service.EmbeddingService;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
@@ -38,9 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static cn.tycoding.langchat.ai.core.consts.EmbedConst.KNOWLEDGE;
 import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
@@ -54,10 +56,13 @@ import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metad
 @AllArgsConstructor
 public class EmbeddingServiceImpl implements EmbeddingService {
 
+    private static final int SEARCH_MAX_RESULTS = 3;
+
     private final EmbeddingProvider embeddingProvider;
     private final LangEmbeddingService langEmbeddingService;
     private final AigcKnowledgeService aigcKnowledgeService;
     private final AigcDocsMapper aigcDocsMapper;
+    private final RetrievalCacheProvider retrievalCacheProvider;
 
     @Override
     @Transactional
@@ -78,23 +83,80 @@ public class EmbeddingServiceImpl implements EmbeddingService {
     }
 
     @Override
-    public void embedDocsSlice(AigcDocs data, String url) {
-        List<EmbeddingR> list = langEmbeddingService.embeddingDocs(
-                new ChatReq()
-                        .setDocsName(data.getName())
-                        .setKnowledgeId(data.getKnowledgeId())
-                        .setUrl(url));
-        list.forEach(i -> {
-            aigcKnowledgeService.addDocsSlice(new AigcDocsSlice()
-                    .setKnowledgeId(data.getKnowledgeId())
-                    .setDocsId(data.getId())
-                    .setVectorId(i.getVectorId())
-                    .setName(data.getName())
-                    .setContent(i.getText())
-            );
-        });
+    public void reEmbedDocsSlice(AigcDocs data, String url, IngestProgress progress) {
+        String modelId = embeddingProvider.getEmbeddingModelId(data.getKnowledgeId());
+        List<AigcDocsSlice> slices = aigcKnowledgeService.listSlicesOfDoc(data.getId());
+
+        // 同一 Embedding 模型生成、序号和内容摘要都一致的切片可以复用；序号变化的切片向量元数据中的 index 已过期，
+        // 检索时会错误拼接相邻切片，需要重新写入，向量本身从 Embedding 缓存读取
+        Map<Integer, AigcDocsSlice> reusable = new HashMap<>();
+        slices.stream()
+                .filter(i -> i.getContentHash() != null && i.getSliceIndex() != null && Objects.equals(modelId, i.getEmbedModelId()))
+                .forEach(i -> reusable.putIfAbsent(i.getSliceIndex(), i));
+        Set<String> kept = new HashSet<>();
+        List<AigcDocsSlice> added = new ArrayList<>();
+
+        int count;
+        try {
+            count = langEmbeddingService.embeddingDocs(toReq(data, url),
+                    segment -> {
+                        AigcDocsSlice slice = reusable.remove(Integer.valueOf(segment.metadata().getString("index")));
+                        if (slice == null || !slice.getContentHash().equals(SecureUtil.sha256(segment.text()))) {
+                            return false;
+                        }
+                        kept.add(slice.getId());
+                        return true;
+                    },
+                    list -> {
+                        List<AigcDocsSlice> batch = list.stream().map(i -> toSlice(data, i)).toList();
+                        aigcKnowledgeService.addDocsSlices(batch);
+                        added.addAll(batch);
+                    }, progress);
+        } catch (Exception e) {
+            // 回滚本次新增的切片，保留旧切片，避免新旧切片同时被检索到；任务重试时向量从 Embedding 缓存读取
+            log.warn("文档增量向量化失败，DocsId={}，回滚新增切片：{}", data.getId(), added.size());
+            try {
+                removeSlices(data.getKnowledgeId(), added);
+            } catch (Exception ex) {
+                log.error("回滚新增切片失败，DocsId={}", data.getId(), ex);
+            }
+            aigcKnowledgeService.failDocs(data.getId(), e.getMessage());
+            throw e;
+        }
+
+        List<AigcDocsSlice> removed = slices.stream().filter(i -> !kept.contains(i.getId())).toList();
+        removeSlices(data.getKnowledgeId(), removed);
+        log.info("文档增量向量化完成，DocsId={}，保留切片：{}，新增切片：{}，删除切片：{}",
+                data.getId(), kept.size(), count, removed.size());
+
+        aigcKnowledgeService.updateDocs(new AigcDocs().setId(data.getId()).setSliceStatus(true).setSliceNum(kept.size() + count));
+    }
+
+    private void removeSlices(String knowledgeId, List<AigcDocsSlice> slices) {
+        if (slices.isEmpty()) {
+            return;
+        }
+        embeddingProvider.getEmbeddingStore(knowledgeId).removeAll(slices.stream().map(AigcDocsSlice::getVectorId).toList());
+        aigcKnowledgeService.removeDocsSlices(knowledgeId, slices.stream().map(AigcDocsSlice::getId).toList());
+    }
+
+    private static ChatReq toReq(AigcDocs data, String url) {
+        return new ChatReq()
+                .setDocsName(data.getName())
+                .setDocsId(data.getId())
+                .setKnowledgeId(data.getKnowledgeId())
+                .setUrl(url);
+    }
 
-        aigcKnowledgeService.updateDocs(new AigcDocs().setId(data.getId()).setSliceStatus(true).setSliceNum(list.size()));
+    private static AigcDocsSlice toSlice(AigcDocs data, EmbeddingR embeddingR) {
+        return new AigcDocsSlice()
+                .setKnowledgeId(data.getKnowledgeId())
+                .setDocsId(data.getId())
+                .setVectorId(embeddingR.getVectorId())
+                .setEmbedModelId(embeddingR.getEmbedModelId())
+                .setSliceIndex(embeddingR.getIndex())
+                .setName(data.getName())
+                .setContent(embeddingR.getText());
     }
 
     @Override
@@ -103,18 +165,23 @@ public class EmbeddingServiceImpl implements EmbeddingService {
             return List.of();
         }
 
-        EmbeddingModel embeddingModel = embeddingProvider.getEmbeddingModel(data.getKnowledgeId());
-        EmbeddingStore<TextSegment> embeddingStore = embeddingProvider.getEmbeddingStore(data.getKnowledgeId());
-        Embedding queryEmbedding = embeddingModel.embed(data.getContent()).content();
-        Filter filter = metadataKey(KNOWLEDGE).isEqualTo(data.getKnowledgeId());
-        EmbeddingSearchResult<TextSegment> list = embeddingStore.search(EmbeddingSearchRequest
-                .builder()
-                .queryEmbedding(queryEmbedding)
-                .filter(filter)
-                .build());
+        List<EmbeddingMatch<TextSegment>> matches = retrievalCacheProvider.search(List.of(data.getKnowledgeId()),
+                data.getContent(), SEARCH_MAX_RESULTS, () -> {
+                    EmbeddingModel embeddingModel = embeddingProvider.getEmbeddingModel(data.getKnowledgeId());
+                    EmbeddingStore<TextSegment> embeddingStore = embeddingProvider.getEmbeddingStore(data.getKnowledgeId());
+                    Embedding queryEmbedding = embeddingModel.embed(data.getContent()).content();
+                    Filter filter = metadataKey(KNOWLEDGE).isEqualTo(data.getKnowledgeId());
+                    EmbeddingSearchResult<TextSegment> list = embeddingStore.search(EmbeddingSearchRequest
+                            .builder()
+                            .queryEmbedding(queryEmbedding)
+                            .filter(filter)
+                            .maxResults(SEARCH_MAX_RESULTS)
+                            .build());
+                    return list.matches();
+                });
 
         List<Map<String, Object>> result = new ArrayList<>();
-        list.matches().forEach(i -> {
+        matches.forEach(i -> {
             TextSegment embedded = i.embedded();
             Map<String, Object> map = embedded.metadata().toMap();
             map.put("text", embedded.text());
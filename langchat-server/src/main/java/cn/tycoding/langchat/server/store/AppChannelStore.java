@@ -16,49 +16,31 @@
 
 package cn.tycoding.langchat.server.store;
 
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.entity.AigcAppApi;
-import cn.tycoding.langchat.ai.biz.service.AigcAppApiService;
 import cn.tycoding.langchat.common.core.utils.ServletUtil;
 import cn.tycoding.langchat.server.consts.AppConst;
-import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * @author tycoding
  * @since 2024/7/30
  */
-@Slf4j
 @Component
 @AllArgsConstructor
 public class AppChannelStore {
 
-    private static final Map<String, AigcAppApi> API_MAP = new HashMap<>();
-
-    private final AigcAppApiService appApiService;
+    private final AigcCache aigcCache;
 
-    public static AigcAppApi getApiChannel() {
+    public AigcAppApi getApiChannel() {
         String token = ServletUtil.getAuthorizationToken();
-        return API_MAP.get(token);
-    }
-
-    @PostConstruct
-    public void init() {
-        log.info("initialize app channel config list...");
-        List<AigcAppApi> apis = appApiService.list();
-        apis.forEach(api -> API_MAP.put(api.getApiKey(), api));
+        return aigcCache.getAppApi(token);
     }
 
     public void isExpired(String channel) {
-        String token = ServletUtil.getAuthorizationToken();
-
         if (AppConst.CHANNEL_API.equals(channel)) {
-            AigcAppApi data = API_MAP.get(token);
+            AigcAppApi data = getApiChannel();
             if (data == null) {
                 throw new RuntimeException("The ApiKey is empty");
             }
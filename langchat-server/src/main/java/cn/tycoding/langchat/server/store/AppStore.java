@@ -16,37 +16,22 @@
 
 package cn.tycoding.langchat.server.store;
 
+import cn.tycoding.langchat.ai.biz.component.AigcCache;
 import cn.tycoding.langchat.ai.biz.entity.AigcApp;
-import cn.tycoding.langchat.ai.biz.service.AigcAppService;
-import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * @author tycoding
  * @since 2024/8/8
  */
-@Slf4j
 @Component
 @AllArgsConstructor
 public class AppStore {
 
-    private static final Map<String, AigcApp> appMap = new HashMap<>();
-    private final AigcAppService aigcAppService;
-
-    @PostConstruct
-    public void init() {
-        log.info("initialize app config list...");
-        List<AigcApp> list = aigcAppService.list();
-        list.forEach(i -> appMap.put(i.getId(), i));
-    }
+    private final AigcCache aigcCache;
 
     public AigcApp get(String appId) {
-        return appMap.get(appId);
+        return aigcCache.getApp(appId);
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat;
+
+import cn.tycoding.langchat.ApiLogAspectTest.Endpoint;
+import cn.tycoding.langchat.ApiLogAspectTest.Form;
+import cn.tycoding.langchat.auth.config.ApiLogAspect;
+import cn.tycoding.langchat.upms.service.SysLogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import static cn.tycoding.langchat.ApiLogAspectTest.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * {@link ApiLogAspect} 在不同采样比例下每次调用的额外耗时基准，耗时较长，默认不执行，通过 -Dapilog.benchmark=true 启用。
+ * 可通过 -Dapilog.benchmark.rounds 调整调用次数
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "apilog.benchmark", matches = "true")
+public class ApiLogAspectBenchmarkTest {
+
+    private static final int ROUNDS = Integer.getInteger("apilog.benchmark.rounds", 200_000);
+
+    @BeforeEach
+    public void setUp() {
+        bindRequest();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void benchmark() {
+        Form form = form();
+        Endpoint target = new Endpoint();
+        double[] rates = {0, 0.1, 1};
+        MeterRegistry[] registries = new MeterRegistry[rates.length];
+        Endpoint[] endpoints = new Endpoint[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            // 只做桩不记录调用，避免 Mockito 保存每次调用的参数
+            registries[i] = new SimpleMeterRegistry();
+            endpoints[i] = proxy(mock(SysLogService.class, withSettings().stubOnly()), registries[i], rates[i]);
+        }
+        // 先统一预热，避免先测量的配置承担 JIT 编译的耗时
+        run(() -> target.save(form));
+        for (Endpoint endpoint : endpoints) {
+            run(() -> endpoint.save(form));
+        }
+
+        long base = run(() -> target.save(form));
+        log.info("ApiLogAspect 基准：直接调用 {}ns/次", base);
+        for (int i = 0; i < rates.length; i++) {
+            Endpoint endpoint = endpoints[i];
+            long cost = run(() -> endpoint.save(form));
+            log.info("ApiLogAspect 基准：采样比例 {}，{}ns/次，切面额外耗时 {}ns/次", rates[i], cost, cost - base);
+
+            long count = registries[i].get("langchat.api")
+                    .tag("endpoint", "Endpoint.save").tag("outcome", "success").timer().count();
+            assertEquals(2L * ROUNDS, count);
+        }
+    }
+
+    /**
+     * 执行 ROUNDS 次，返回平均每次的耗时
+     */
+    private static long run(Runnable call) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            call.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
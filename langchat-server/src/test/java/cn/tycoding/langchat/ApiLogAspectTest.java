@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tycoding.langchat;
+
+import cn.tycoding.langchat.auth.config.ApiLogAspect;
+import cn.tycoding.langchat.auth.config.SysLogWriter;
+import cn.tycoding.langchat.auth.utils.SysLogUtil;
+import cn.tycoding.langchat.common.core.annotation.ApiLog;
+import cn.tycoding.langchat.common.core.properties.SysLogProps;
+import cn.tycoding.langchat.upms.dto.UserInfo;
+import cn.tycoding.langchat.upms.entity.SysLog;
+import cn.tycoding.langchat.upms.service.SysLogService;
+import cn.tycoding.langchat.upms.utils.AuthUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link ApiLogAspect} 的日志内容和指标
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class ApiLogAspectTest {
+
+    @BeforeEach
+    public void setUp() {
+        bindRequest();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    static void bindRequest() {
+        // 与权限校验后一致：当前用户已缓存在请求属性中，切面不会访问会话存储
+        UserInfo user = new UserInfo();
+        user.setUsername("admin");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/aigc/endpoint");
+        request.setAttribute(AuthUtil.class.getName() + ".USER_INFO", user);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @Test
+    public void recordsSampledParamsWithoutSensitiveFields() {
+        SysLogService service = mock(SysLogService.class);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Endpoint endpoint = proxy(service, registry, 1);
+
+        assertEquals("ok", endpoint.save(form()));
+
+        SysLog sysLog = captureLog(service);
+        assertEquals(SysLogUtil.TYPE_OK, sysLog.getType());
+        assertEquals("保存", sysLog.getOperation());
+        assertEquals("Endpoint.save", sysLog.getMethod());
+        assertEquals("admin", sysLog.getUsername());
+        assertEquals("/aigc/endpoint", sysLog.getUrl());
+        assertTrue(sysLog.getParams().contains("langchat"));
+        assertFalse(sysLog.getParams().contains("secret"));
+        assertEquals(1, registry.get("langchat.api")
+                .tag("endpoint", "Endpoint.save").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void skipsParamsWhenNotSampled() {
+        SysLogService service = mock(SysLogService.class);
+        Endpoint endpoint = proxy(service, new SimpleMeterRegistry(), 0);
+
+        endpoint.save(form());
+
+        SysLog sysLog = captureLog(service);
+        assertEquals(SysLogUtil.TYPE_OK, sysLog.getType());
+        assertNull(sysLog.getParams());
+    }
+
+    @Test
+    public void alwaysRecordsFailures() {
+        SysLogService service = mock(SysLogService.class);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Endpoint endpoint = proxy(service, registry, 0);
+
+        assertThrows(IllegalStateException.class, () -> endpoint.fail(form()));
+
+        SysLog sysLog = captureLog(service);
+        assertEquals(SysLogUtil.TYPE_FAIL, sysLog.getType());
+        assertTrue(sysLog.getParams().contains("langchat"));
+        assertEquals(1, registry.get("langchat.api")
+                .tag("endpoint", "Endpoint.fail").tag("outcome", "error").timer().count());
+        assertEquals(1, registry.get("langchat.api.errors")
+                .tag("endpoint", "Endpoint.fail").tag("exception", "IllegalStateException").counter().count());
+    }
+
+    /**
+     * 通过 Spring AOP 代理织入切面；写入器未启动，日志直接交给 SysLogService
+     */
+    static Endpoint proxy(SysLogService service, MeterRegistry registry, double sampleRate) {
+        SysLogProps props = new SysLogProps();
+        props.getApi().setSampleRate(sampleRate);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Endpoint());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ApiLogAspect(new SysLogWriter(service, props, registry), props, registry));
+        return factory.getProxy();
+    }
+
+    private static SysLog captureLog(SysLogService service) {
+        ArgumentCaptor<SysLog> captor = ArgumentCaptor.forClass(SysLog.class);
+        verify(service).add(captor.capture());
+        return captor.getValue();
+    }
+
+    static Form form() {
+        Form form = new Form();
+        form.setName("langchat");
+        form.setPassword("secret");
+        return form;
+    }
+
+    public static class Endpoint {
+
+        @ApiLog("保存")
+        public String save(Form form) {
+            return "ok";
+        }
+
+        @ApiLog("失败")
+        public String fail(Form form) {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    @Data
+    public static class Form {
+        private String name;
+        private String password;
+    }
+}
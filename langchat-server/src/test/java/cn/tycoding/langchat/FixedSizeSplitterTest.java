@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat;
+
+import cn.tycoding.langchat.ai.core.ingest.splitter.FixedSizeSplitter;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class FixedSizeSplitterTest {
+
+    @Test
+    public void splitsWithOverlap() {
+        String text = "abcdefghijklmnopqrstuvwxyz";
+        List<String> segments = new FixedSizeSplitter(10, 3).split(Document.from(text))
+                .stream().map(TextSegment::text).toList();
+        assertEquals(List.of("abcdefghij", "hijklmnopq", "opqrstuvwx", "vwxyz"), segments);
+    }
+
+    @Test
+    public void coversWholeText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String text = sb.toString();
+        List<TextSegment> segments = new FixedSizeSplitter(64, 16).split(Document.from(text));
+        StringBuilder joined = new StringBuilder(segments.get(0).text());
+        for (int i = 1; i < segments.size(); i++) {
+            String prev = segments.get(i - 1).text();
+            String next = segments.get(i).text();
+            assertTrue(next.length() <= 64);
+            assertEquals(prev.substring(prev.length() - 16), next.substring(0, 16));
+            joined.append(next.substring(16));
+        }
+        assertEquals(text, joined.toString());
+    }
+
+    @Test
+    public void overlapIsBoundedBySize() {
+        List<TextSegment> segments = new FixedSizeSplitter(4, 10).split(Document.from("abcdefgh"));
+        assertEquals(List.of("abcd", "bcde", "cdef", "defg", "efgh"), segments.stream().map(TextSegment::text).toList());
+    }
+
+    @Test
+    public void doesNotSplitSurrogatePairs() {
+        String text = "😀".repeat(20);
+        List<TextSegment> segments = new FixedSizeSplitter(5, 2).split(Document.from(text));
+        segments.forEach(i -> {
+            assertFalse(Character.isLowSurrogate(i.text().charAt(0)));
+            assertFalse(Character.isHighSurrogate(i.text().charAt(i.text().length() - 1)));
+        });
+    }
+}
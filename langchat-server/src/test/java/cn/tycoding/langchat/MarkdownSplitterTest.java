@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat;
+
+import cn.tycoding.langchat.ai.core.ingest.splitter.MarkdownSplitter;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class MarkdownSplitterTest {
+
+    private static final String TEXT = """
+            前言内容。
+            # 安装
+            安装说明。
+            ## Docker 部署
+            拉取镜像。启动容器。
+            ```bash
+            # 这不是标题
+            docker run langchat
+            ```
+            ## 源码部署
+            编译项目。
+            """;
+
+    @Test
+    public void prefixesHeadingPath() {
+        List<TextSegment> segments = new MarkdownSplitter(200, 0).split(Document.from(TEXT));
+        assertEquals(4, segments.size());
+        assertEquals("前言内容。", segments.get(0).text());
+        assertNull(segments.get(0).metadata().getString(MarkdownSplitter.HEADING));
+        assertEquals("安装\n安装说明。", segments.get(1).text());
+        assertEquals("安装 > Docker 部署", segments.get(2).metadata().getString(MarkdownSplitter.HEADING));
+        assertTrue(segments.get(2).text().startsWith("安装 > Docker 部署\n拉取镜像。"));
+        assertEquals("安装 > 源码部署\n编译项目。", segments.get(3).text());
+    }
+
+    @Test
+    public void ignoresHashInCodeFence() {
+        List<TextSegment> segments = new MarkdownSplitter(200, 0).split(Document.from(TEXT));
+        assertTrue(segments.get(2).text().contains("# 这不是标题"));
+        segments.forEach(i -> assertNotEquals("这不是标题", i.metadata().getString(MarkdownSplitter.HEADING)));
+    }
+
+    @Test
+    public void countsHeadingTowardsMaxSize() {
+        String text = "# 很长的一级标题\n## 很长的二级标题\n" + "正文句子。".repeat(40);
+        List<TextSegment> segments = new MarkdownSplitter(40, 5).split(Document.from(text));
+        assertTrue(segments.size() > 1);
+        segments.forEach(i -> {
+            assertTrue(i.text().length() <= 40, i.text());
+            assertTrue(i.text().startsWith("很长的一级标题 > 很长的二级标题\n"));
+        });
+    }
+
+    @Test
+    public void truncatesLongHeadingPath() {
+        String text = "# " + "标".repeat(60) + "\n## 安装\n" + "正文句子。".repeat(20);
+        List<TextSegment> segments = new MarkdownSplitter(40, 0).split(Document.from(text));
+        assertFalse(segments.isEmpty());
+        segments.forEach(i -> {
+            assertTrue(i.text().length() <= 40, i.text());
+            // 保留最深的标题
+            assertTrue(i.text().substring(0, i.text().indexOf('\n')).endsWith(" > 安装"));
+            assertEquals("标".repeat(60) + " > 安装", i.metadata().getString(MarkdownSplitter.HEADING));
+        });
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat;
+
+import cn.tycoding.langchat.ai.core.ingest.splitter.SentenceSplitter;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author tycoding
+ * @since 2026/10/19
+ */
+public class SentenceSplitterTest {
+
+    private static final String TEXT = "第一句话。第二句话！第三句话？This is the fourth sentence. 第五句话；第六句话…\n第七行\n第八句话。";
+
+    @Test
+    public void segmentsFitMaxSize() {
+        List<TextSegment> segments = new SentenceSplitter(12, 0, null).split(Document.from(TEXT));
+        assertFalse(segments.isEmpty());
+        segments.forEach(i -> assertTrue(i.text().length() <= 12, i.text()));
+        for (int i = 0; i < segments.size(); i++) {
+            assertEquals(String.valueOf(i), segments.get(i).metadata().getString("index"));
+        }
+    }
+
+    @Test
+    public void splitsOnSentenceBoundaries() {
+        List<TextSegment> segments = new SentenceSplitter(10, 0, null).split(Document.from("甲乙丙丁。戊己庚辛。壬癸子丑。"));
+        assertEquals(List.of("甲乙丙丁。戊己庚辛。", "壬癸子丑。"), segments.stream().map(TextSegment::text).toList());
+    }
+
+    @Test
+    public void adjacentSegmentsOverlap() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append("句子").append(i).append("。");
+        }
+        List<TextSegment> segments = new SentenceSplitter(30, 10, null).split(Document.from(sb.toString()));
+        assertTrue(segments.size() > 1);
+        for (int i = 1; i < segments.size(); i++) {
+            String prev = segments.get(i - 1).text();
+            String next = segments.get(i).text();
+            // 下一个切片以上一个切片末尾的若干句子开头
+            String head = next.substring(0, next.indexOf('。') + 1);
+            int shared = prev.lastIndexOf(head);
+            assertTrue(shared > 0, prev + " / " + next);
+            String overlap = prev.substring(shared);
+            assertTrue(next.startsWith(overlap), prev + " / " + next);
+            assertTrue(overlap.length() <= 10);
+            assertTrue(next.length() > overlap.length(), "切片不能只有重叠内容");
+        }
+    }
+
+    @Test
+    public void keepsEverySentence() {
+        List<TextSegment> segments = new SentenceSplitter(20, 5, null).split(Document.from(TEXT));
+        String joined = String.join("", segments.stream().map(TextSegment::text).toList());
+        for (String sentence : List.of("第一句话。", "This is the fourth sentence.", "第七行", "第八句话。")) {
+            assertTrue(joined.contains(sentence), sentence);
+        }
+    }
+
+    @Test
+    public void forceSplitsLongSentence() {
+        String text = "长".repeat(95) + "。";
+        List<TextSegment> segments = new SentenceSplitter(20, 0, null).split(Document.from(text));
+        assertEquals(5, segments.size());
+        segments.forEach(i -> assertTrue(i.text().length() <= 20));
+        assertEquals(text, String.join("", segments.stream().map(TextSegment::text).toList()));
+    }
+
+    @Test
+    public void doesNotSplitSurrogatePairs() {
+        String text = "😀".repeat(30);
+        List<TextSegment> segments = new SentenceSplitter(7, 0, null).split(Document.from(text));
+        segments.forEach(i -> {
+            assertFalse(Character.isLowSurrogate(i.text().charAt(0)));
+            assertFalse(Character.isHighSurrogate(i.text().charAt(i.text().length() - 1)));
+        });
+        assertEquals(text, String.join("", segments.stream().map(TextSegment::text).toList()));
+    }
+}
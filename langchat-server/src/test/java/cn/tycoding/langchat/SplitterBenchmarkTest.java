@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024 LangChat. TyCoding All Rights Reserved.
+ *
+ * Licensed under the GNU Affero General Public License, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.gnu.org/licenses/agpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.tycoding.langchat;
+
+import cn.tycoding.langchat.ai.core.ingest.splitter.SplitterRegistry;
+import cn.tycoding.langchat.ai.core.ingest.splitter.SplitterTypeEnum;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 各切分策略的吞吐量和切片数量基准，耗时较长，默认不执行，通过 -Dsplitter.benchmark=true 启用。
+ * 默认使用约 2MB 的中英文混合文本，可通过 -Dsplitter.benchmark.size（字符数）和 -Dsplitter.benchmark.rounds 调整
+ *
+ * @author tycoding
+ * @since 2026/10/19
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "splitter.benchmark", matches = "true")
+public class SplitterBenchmarkTest {
+
+    private static final int SIZE = Integer.getInteger("splitter.benchmark.size", 2_000_000);
+    private static final int ROUNDS = Integer.getInteger("splitter.benchmark.rounds", 3);
+
+    @Test
+    public void benchmark() {
+        Document document = Document.from(corpus(SIZE));
+        SplitterRegistry registry = new SplitterRegistry();
+        for (SplitterTypeEnum type : SplitterTypeEnum.values()) {
+            DocumentSplitter splitter = registry.getSplitter(type.name(), null, null);
+            // 预热
+            List<TextSegment> segments = splitter.split(document);
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                segments = splitter.split(document);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9 / ROUNDS;
+            int max = segments.stream().mapToInt(i -> i.text().length()).max().orElse(0);
+            double avg = segments.stream().mapToInt(i -> i.text().length()).average().orElse(0);
+            log.info("{}: {} 字符，切片 {} 个，平均 {} 字符，最大 {} 字符，耗时 {}ms，吞吐 {} 万字符/秒",
+                    type, SIZE, segments.size(), Math.round(avg), max, Math.round(seconds * 1000),
+                    Math.round(SIZE / seconds / 10000));
+
+            assertFalse(segments.isEmpty());
+            if (type != SplitterTypeEnum.TOKEN) {
+                assertTrue(max <= type.getDefaultSize(), type + " 切片超过切片大小：" + max);
+            }
+        }
+    }
+
+    /**
+     * 中英文句子、标题、代码块混合的随机文本，固定随机种子保证每次结果一致
+     */
+    private static String corpus(int size) {
+        String[] zh = {"知识库中的文档会被切分成多个切片。", "每个切片分别向量化后写入向量数据库！",
+                "检索时按问题的向量查找最相近的切片？", "切片过大会稀释语义，过小会丢失上下文；", "因此需要按句子边界组合切片…"};
+        String[] en = {"Documents are split into segments. ", "Each segment is embedded separately! ",
+                "Retrieval finds the nearest segments? ", "Overlap keeps context across boundaries. "};
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(size + 256);
+        int section = 0;
+        while (sb.length() < size) {
+            int r = random.nextInt(100);
+            if (r < 2) {
+                sb.append("\n# 第 ").append(++section).append(" 章\n");
+            } else if (r < 6) {
+                sb.append("\n## 小节 ").append(section).append('.').append(random.nextInt(10)).append('\n');
+            } else if (r < 7) {
+                sb.append("```java\n# not a heading\nSystem.out.println(\"langchat\");\n```\n");
+            } else if (r < 12) {
+                sb.append('\n');
+            } else if (r < 55) {
+                sb.append(zh[random.nextInt(zh.length)]);
+            } else {
+                sb.append(en[random.nextInt(en.length)]);
+            }
+        }
+        return sb.substring(0, size);
+    }
+}
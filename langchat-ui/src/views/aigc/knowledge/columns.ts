@@ -57,6 +57,43 @@ export const formSchemas: FormSchema[] = [
     slot: 'embedModelSlot',
     rules: [{ required: true, message: '请选择关联向量模型', trigger: ['blur'] }],
   },
+  {
+    field: 'splitter',
+    label: '切分策略',
+    component: 'NSelect',
+    defaultValue: 'RECURSIVE',
+    labelMessage: '修改后仅对之后上传或重新向量化的文档生效',
+    componentProps: {
+      placeholder: '请选择文档切分策略',
+      options: [
+        { label: '递归切分（字符）', value: 'RECURSIVE' },
+        { label: '按 Token 切分', value: 'TOKEN' },
+        { label: '按句子切分', value: 'SENTENCE' },
+        { label: 'Markdown 标题切分', value: 'MARKDOWN' },
+        { label: '固定长度切分', value: 'FIXED' },
+      ],
+    },
+  },
+  {
+    field: 'chunkSize',
+    label: '切片大小',
+    component: 'NInputNumber',
+    labelMessage: '按 Token 切分时为 Token 数，其他策略为字符数，不填写时使用策略的默认值',
+    componentProps: {
+      placeholder: '默认值',
+      min: 1,
+      max: 8192,
+    },
+  },
+  {
+    field: 'chunkOverlap',
+    label: '切片重叠',
+    component: 'NInputNumber',
+    componentProps: {
+      placeholder: '默认值',
+      min: 0,
+    },
+  },
   {
     field: 'des',
     component: 'NInput',
@@ -62,10 +62,11 @@ export const columns: BasicColumn[] = [
         NTag,
         {
           size: 'small',
-          type: row.sliceStatus == true ? 'success' : 'info',
+          type: row.sliceStatus == true ? 'success' : row.sliceError ? 'error' : 'info',
+          title: row.sliceStatus == true ? undefined : row.sliceError,
         },
         {
-          default: () => (row.sliceStatus == true ? '已训练' : '未训练'),
+          default: () => (row.sliceStatus == true ? '已训练' : row.sliceError ? '训练失败' : '未训练'),
         }
       );
     },
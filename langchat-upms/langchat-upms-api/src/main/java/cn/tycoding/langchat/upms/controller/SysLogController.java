@@ -18,6 +18,8 @@ package cn.tycoding.langchat.upms.controller;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.hutool.core.lang.Dict;
+import cn.tycoding.langchat.common.core.utils.CursorPage;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.common.core.utils.R;
@@ -44,6 +46,11 @@ public class SysLogController {
         return R.ok(MybatisUtil.getData(sysLogService.list(sysLog, queryPage)));
     }
 
+    @GetMapping("/cursor")
+    public R<CursorPage<SysLog>> cursor(SysLog sysLog, CursorQuery query) {
+        return R.ok(sysLogService.cursor(sysLog, query));
+    }
+
     @GetMapping("/{id}")
     public R<SysLog> findById(@PathVariable String id) {
         return R.ok(sysLogService.getById(id));
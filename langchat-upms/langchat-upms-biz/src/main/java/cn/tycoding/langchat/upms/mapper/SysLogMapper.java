@@ -18,7 +18,11 @@ package cn.tycoding.langchat.upms.mapper;
 
 import cn.tycoding.langchat.upms.entity.SysLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 系统日志表(Log)表数据库访问层
@@ -29,4 +33,17 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface SysLogMapper extends BaseMapper<SysLog> {
 
+    /**
+     * 多行 INSERT 批量写入，主键需提前生成
+     */
+    @Insert("""
+        <script>
+        INSERT INTO sys_log (id, type, username, operation, url, time, method, params, ip, user_agent, create_time)
+        VALUES
+        <foreach collection="list" item="i" separator=",">
+            (#{i.id}, #{i.type}, #{i.username}, #{i.operation}, #{i.url}, #{i.time}, #{i.method}, #{i.params}, #{i.ip}, #{i.userAgent}, #{i.createTime})
+        </foreach>
+        </script>
+    """)
+    int insertBatch(@Param("list") List<SysLog> list);
 }
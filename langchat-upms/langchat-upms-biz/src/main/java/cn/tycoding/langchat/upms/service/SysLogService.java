@@ -16,11 +16,15 @@
 
 package cn.tycoding.langchat.upms.service;
 
+import cn.tycoding.langchat.common.core.utils.CursorPage;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.upms.entity.SysLog;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
  * 系统日志表(Log)表服务接口
  *
@@ -34,10 +38,21 @@ public interface SysLogService extends IService<SysLog> {
      */
     IPage<SysLog> list(SysLog sysLog, QueryPage queryPage);
 
+    /**
+     * 游标分页、条件查询
+     */
+    CursorPage<SysLog> cursor(SysLog sysLog, CursorQuery query);
+
     /**
      * 新增
      */
     void add(SysLog sysLog);
+
+    /**
+     * 批量新增，用于日志的异步写入
+     */
+    void addBatch(List<SysLog> list);
+
     /**
      * 删除
      */
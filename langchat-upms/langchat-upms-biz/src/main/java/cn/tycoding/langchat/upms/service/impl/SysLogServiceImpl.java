@@ -16,12 +16,16 @@
 
 package cn.tycoding.langchat.upms.service.impl;
 
+import cn.tycoding.langchat.common.core.annotation.ReadOnly;
+import cn.tycoding.langchat.common.core.utils.CursorPage;
+import cn.tycoding.langchat.common.core.utils.CursorQuery;
 import cn.tycoding.langchat.common.core.utils.MybatisUtil;
 import cn.tycoding.langchat.common.core.utils.QueryPage;
 import cn.tycoding.langchat.upms.entity.SysLog;
 import cn.tycoding.langchat.upms.mapper.SysLogMapper;
 import cn.tycoding.langchat.upms.service.SysLogService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +33,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * 系统日志表(Log)表服务实现类
  *
@@ -40,6 +46,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class SysLogServiceImpl extends ServiceImpl<SysLogMapper, SysLog> implements SysLogService {
 
     @Override
+    @ReadOnly
     public IPage<SysLog> list(SysLog sysLog, QueryPage queryPage) {
         return baseMapper.selectPage(MybatisUtil.wrap(sysLog, queryPage),
                 Wrappers.<SysLog>lambdaQuery()
@@ -49,12 +56,32 @@ public class SysLogServiceImpl extends ServiceImpl<SysLogMapper, SysLog> impleme
         );
     }
 
+    @Override
+    @ReadOnly
+    public CursorPage<SysLog> cursor(SysLog sysLog, CursorQuery query) {
+        return MybatisUtil.cursor(baseMapper,
+                Wrappers.<SysLog>lambdaQuery()
+                        .eq(sysLog.getType() != null, SysLog::getType, sysLog.getType())
+                        .like(StringUtils.isNotEmpty(sysLog.getOperation()), SysLog::getOperation, sysLog.getOperation()),
+                SysLog::getCreateTime, SysLog::getId, query);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void add(SysLog sysLog) {
         baseMapper.insert(sysLog);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void addBatch(List<SysLog> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        list.forEach(i -> i.setId(IdWorker.get32UUID()));
+        baseMapper.insertBatch(list);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void delete(String id) {
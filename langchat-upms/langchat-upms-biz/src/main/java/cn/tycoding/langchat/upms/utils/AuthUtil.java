@@ -24,6 +24,7 @@ import cn.tycoding.langchat.upms.dto.UserInfo;
 import cn.tycoding.langchat.upms.entity.SysRole;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
@@ -48,6 +49,8 @@ public class AuthUtil {
     public static final String DEMO_ROLE = "demo_env";
     public static final String DEFAULT_ROLE = "default_env";
 
+    private static final String USER_INFO_ATTRIBUTE = AuthUtil.class.getName() + ".USER_INFO";
+
     /**
      * 获取Request对象
      */
@@ -73,11 +76,19 @@ public class AuthUtil {
     }
 
     /**
-     * 获取用户数据
+     * 获取用户数据，同一请求内只从会话存储读取一次
      */
     public static UserInfo getUserInfo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(USER_INFO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof UserInfo userInfo) {
+            return userInfo;
+        }
         try {
-            return (UserInfo) StpUtil.getSession().get(CacheConst.AUTH_USER_INFO_KEY);
+            UserInfo userInfo = (UserInfo) StpUtil.getSession().get(CacheConst.AUTH_USER_INFO_KEY);
+            if (attributes != null && userInfo != null) {
+                attributes.setAttribute(USER_INFO_ATTRIBUTE, userInfo, RequestAttributes.SCOPE_REQUEST);
+            }
+            return userInfo;
         } catch (Exception e) {
             e.printStackTrace();
             throw new AuthException(403, "登录已失效，请重新登陆");